@@ -0,0 +1,115 @@
+package com.syos.benchmark;
+
+import com.syos.application.services.DiscountService;
+import com.syos.application.services.PromotionIndex;
+import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionEntity;
+import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionType;
+import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DiscountService per-line computation against an in-memory promotion repository,
+ * through the PromotionIndex and through direct repository lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscountServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int promotions;
+
+    private DiscountService indexed;
+    private DiscountService direct;
+    private final BigDecimal unitPrice = new BigDecimal("249.50");
+    private long cursor;
+
+    @Setup
+    public void setup() {
+        StubPromotionRepository repo = new StubPromotionRepository(promotions);
+        indexed = new DiscountService(new PromotionIndex(repo));
+        direct = new DiscountService(repo);
+        indexed.calculateBatchDiscount(1L, 1L, unitPrice, 1); // build the index outside the measurement
+    }
+
+    @Benchmark
+    public BigDecimal indexedLookup() {
+        long id = next();
+        return indexed.calculateBatchDiscount(id, id, unitPrice, 3);
+    }
+
+    @Benchmark
+    public BigDecimal directLookup() {
+        long id = next();
+        return direct.calculateBatchDiscount(id, id, unitPrice, 3);
+    }
+
+    @Benchmark
+    public BigDecimal noPromotion() {
+        return indexed.calculateBatchDiscount(-1L, -1L, unitPrice, 3);
+    }
+
+    // Every other item has a promotion on its batch; half percentage, half fixed amount
+    private long next() {
+        cursor = cursor + 1 == promotions * 2L ? 0 : cursor + 1;
+        return cursor + 1;
+    }
+
+    /**
+     * Promotion repository served from memory; no EntityManagerFactory is touched.
+     */
+    static final class StubPromotionRepository extends JpaPromotionRepository {
+        private final List<BatchPromotionLink> links = new ArrayList<>();
+        private final Map<Long, PromotionEntity> byBatch = new HashMap<>();
+
+        StubPromotionRepository(int count) {
+            super(null);
+            LocalDateTime start = LocalDateTime.now().minusDays(1);
+            for (long i = 1; i <= count * 2L; i += 2) {
+                PromotionEntity p = new PromotionEntity();
+                p.setPromoCode("P" + i);
+                p.setPromoName("Promotion " + i);
+                p.setPromotionType(i % 4 == 1 ? PromotionType.PERCENTAGE : PromotionType.FIXED_AMOUNT);
+                p.setDiscountValue(i % 4 == 1 ? BigDecimal.TEN : new BigDecimal("5.00"));
+                p.setStartDate(start);
+                p.setEndDate(start.plusDays(30));
+                p.setActive(true);
+                p.setBatchSpecific(true);
+                links.add(new BatchPromotionLink(i, i, p));
+                byBatch.put(i, p);
+            }
+        }
+
+        @Override
+        public Optional<PromotionEntity> findActiveBatchPromotionForItemAndBatch(Long itemId, Long batchId, LocalDateTime at) {
+            return Optional.ofNullable(byBatch.get(batchId));
+        }
+
+        @Override
+        public List<BatchPromotionLink> findBatchPromotionLinksEndingAfter(LocalDateTime from) {
+            return links;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.syos.benchmark;
+
+import com.syos.adapter.out.persistence.memory.InMemoryItemMasterFileRepository;
+import com.syos.adapter.out.persistence.memory.InMemoryShelfStockRepository;
+import com.syos.adapter.out.persistence.memory.InMemoryWarehouseStockRepository;
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.entities.ShelfStock;
+import com.syos.domain.entities.WarehouseStock;
+import com.syos.domain.valueobjects.BrandId;
+import com.syos.domain.valueobjects.CategoryId;
+import com.syos.domain.valueobjects.ItemCode;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.PackSize;
+import com.syos.domain.valueobjects.Quantity;
+import com.syos.domain.valueobjects.ReorderPoint;
+import com.syos.domain.valueobjects.SupplierId;
+import com.syos.domain.valueobjects.UserID;
+import com.syos.shared.enums.UnitOfMeasure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query methods of the in-memory repositories at 1k / 100k / 1M rows.
+ * Rows are spread over rows/10 items (ten stock rows per item) so per-item lookups return a realistic handful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class InMemoryRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private InMemoryItemMasterFileRepository itemRepo;
+    private InMemoryShelfStockRepository shelfRepo;
+    private InMemoryWarehouseStockRepository warehouseRepo;
+    private int items;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        items = Math.max(1, rows / 10);
+        itemRepo = new InMemoryItemMasterFileRepository();
+        shelfRepo = new InMemoryShelfStockRepository();
+        warehouseRepo = new InMemoryWarehouseStockRepository();
+        LocalDateTime now = LocalDateTime.now();
+        UserID user = UserID.of(1L);
+
+        for (int i = 0; i < rows; i++) {
+            itemRepo.save(new ItemMasterFile.Builder()
+                    .itemCode(ItemCode.of(code(i)))
+                    .itemName("Product " + i)
+                    .description("")
+                    .brandId(BrandId.of(1L + i % 50))
+                    .categoryId(CategoryId.of(1L + i % 20))
+                    .supplierId(SupplierId.of(1L))
+                    .unitOfMeasure(UnitOfMeasure.EACH)
+                    .packSize(PackSize.of(1))
+                    .costPrice(Money.of(100))
+                    .sellingPrice(Money.of(120))
+                    .reorderPoint(ReorderPoint.of(50))
+                    .createdBy(user)
+                    .build());
+
+            long itemId = 1L + i % items;
+            shelfRepo.save(new ShelfStock.Builder()
+                    .itemCode(ItemCode.of(code(i % items)))
+                    .itemId(itemId)
+                    .batchId((long) i)
+                    .shelfCode("S" + i % 40)
+                    .quantityOnShelf(Quantity.of(BigDecimal.TEN))
+                    .placedOnShelfDate(now.minusDays(i % 30))
+                    .expiryDate(now.plusDays(30 + i % 90))
+                    .placedBy(user)
+                    .unitPrice(Money.of(120))
+                    .lastUpdatedBy(user)
+                    .build());
+            warehouseRepo.save(new WarehouseStock.Builder()
+                    .itemCode(ItemCode.of(code(i % items)))
+                    .itemId(itemId)
+                    .batchId((long) i)
+                    .quantityReceived(Quantity.of(BigDecimal.TEN))
+                    .quantityAvailable(Quantity.of(BigDecimal.TEN))
+                    .receivedDate(now.minusDays(i % 30))
+                    .expiryDate(now.plusDays(30 + i % 90))
+                    .receivedBy(user)
+                    .location("Main Warehouse")
+                    .lastUpdated(now)
+                    .lastUpdatedBy(user)
+                    .build());
+        }
+    }
+
+    private static String code(int i) {
+        return "ITM" + i;
+    }
+
+    private int nextItem() {
+        cursor = cursor + 1 == items ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Optional<ItemMasterFile> itemFindByCode() {
+        return itemRepo.findByItemCode(ItemCode.of(code(nextItem())));
+    }
+
+    @Benchmark
+    public List<ItemMasterFile> itemSearchByName() {
+        return itemRepo.searchByName("product 99");
+    }
+
+    @Benchmark
+    public List<ItemMasterFile> itemFindAllActive() {
+        return itemRepo.findAllActive();
+    }
+
+    @Benchmark
+    public List<ShelfStock> shelfFindAvailableByItemCode() {
+        return shelfRepo.findAvailableByItemCode(ItemCode.of(code(nextItem())));
+    }
+
+    @Benchmark
+    public List<ShelfStock> shelfFindAvailableByItemCodes() {
+        int i = nextItem();
+        return shelfRepo.findAvailableByItemCodes(List.of(
+                ItemCode.of(code(i)), ItemCode.of(code((i + 1) % items)), ItemCode.of(code((i + 2) % items))));
+    }
+
+    @Benchmark
+    public BigDecimal shelfCurrentStock() {
+        return shelfRepo.getCurrentStock(1L + nextItem());
+    }
+
+    @Benchmark
+    public List<WarehouseStock> warehouseFindAvailableByItemCode() {
+        return warehouseRepo.findAvailableByItemCode(ItemCode.of(code(nextItem())));
+    }
+}
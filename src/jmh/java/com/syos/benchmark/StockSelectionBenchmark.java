@@ -0,0 +1,68 @@
+package com.syos.benchmark;
+
+import com.syos.application.strategies.stock.BatchAllocation;
+import com.syos.application.strategies.stock.BatchInfo;
+import com.syos.application.strategies.stock.FIFOWithExpiryStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIFOWithExpiryStrategy over shuffled batches; small takes touch one batch, large takes walk most of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockSelectionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int batches;
+
+    private final FIFOWithExpiryStrategy strategy = new FIFOWithExpiryStrategy();
+    private List<BatchInfo> stock;
+    private BigDecimal small;
+    private BigDecimal large;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.of(2025, 1, 1);
+        stock = new ArrayList<>(batches);
+        for (int i = 0; i < batches; i++) {
+            LocalDate received = today.minusDays(random.nextInt(365));
+            // A fifth of the batches never expire
+            LocalDate expiry = random.nextInt(5) == 0 ? null : received.plusDays(7 + random.nextInt(180));
+            stock.add(BatchInfo.of(i + 1L, BigDecimal.valueOf(1 + random.nextInt(50)), received, expiry));
+        }
+        small = BigDecimal.ONE;
+        large = BigDecimal.valueOf(batches * 20L);
+    }
+
+    @Benchmark
+    public List<BatchAllocation> allocateSmall() {
+        return strategy.selectBatchesForDispatch(stock, small);
+    }
+
+    @Benchmark
+    public List<BatchAllocation> allocateLarge() {
+        return strategy.selectBatchesForDispatch(stock, large);
+    }
+}
@@ -0,0 +1,84 @@
+package com.syos.benchmark;
+
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.Quantity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money and Quantity arithmetic as used on every bill line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValueObjectBenchmark {
+
+    private Money price;
+    private Money discount;
+    private BigDecimal factor;
+    private Quantity onShelf;
+    private Quantity requested;
+
+    @Setup
+    public void setup() {
+        price = Money.of(new BigDecimal("249.50"));
+        discount = Money.of(new BigDecimal("12.25"));
+        factor = new BigDecimal("3.5");
+        onShelf = Quantity.of(new BigDecimal("120.000"));
+        requested = Quantity.of(new BigDecimal("7.5"));
+    }
+
+    @Benchmark
+    public Money moneyLineTotal() {
+        return price.multiply(factor).subtract(discount);
+    }
+
+    @Benchmark
+    public Money moneyAdd() {
+        return price.add(discount);
+    }
+
+    @Benchmark
+    public Money moneyDivide() {
+        return price.divide(3);
+    }
+
+    @Benchmark
+    public int moneyCompare() {
+        return price.compareTo(discount);
+    }
+
+    @Benchmark
+    public Money moneyOfDouble() {
+        return Money.of(249.5);
+    }
+
+    @Benchmark
+    public Quantity quantityMinPlus() {
+        return onShelf.min(requested).plus(requested);
+    }
+
+    @Benchmark
+    public boolean quantityCompare() {
+        return onShelf.isGreaterThan(requested);
+    }
+
+    @Benchmark
+    public Quantity quantityOf() {
+        return Quantity.of(factor);
+    }
+}
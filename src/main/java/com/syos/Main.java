@@ -71,6 +71,11 @@ public class Main {
     private static WarehouseStockRepository warehouseStockRepository = null;
     private static ShelfStockRepository shelfStockRepository = null;
     private static WebInventoryRepository webInventoryRepository = null;
+    private static com.syos.application.ports.out.CartRepository cartRepository = null;
+    private static com.syos.application.ports.out.WebOrderRepository webOrderRepository = null;
+    private static com.syos.application.services.WebStockReservationService webReservations = null;
+    private static com.syos.application.services.OutboxRelay outboxRelay = null;
+    private static com.syos.infrastructure.config.ThreadBoundEntityManager threadBoundEm = null;
 
     public static void main(String[] args) {
         // Set logging configuration explicitly (corrected path)
@@ -133,11 +138,13 @@ public class Main {
                 logger.info("Initializing PostgreSQL database connection...");
                 try {
                     emf = DatabaseConfig.getEntityManagerFactory();
-                    EntityManager em = emf.createEntityManager();
+                    // Brand/category/supplier repositories hold one EntityManager; give each terminal thread its own
+                    threadBoundEm = new com.syos.infrastructure.config.ThreadBoundEntityManager(emf);
+                    EntityManager em = threadBoundEm.entityManager();
                     
                     // Initialize all repositories
                     userRepository = new JpaUserRepository(emf); // JpaUserRepository manages its own EMs
-                    itemRepository = new JpaItemMasterFileRepository(em);
+                    itemRepository = new JpaItemMasterFileRepository(emf);
                     brandRepository = new JpaBrandRepository(em);
                     categoryRepository = new JpaCategoryRepository(em);
                     supplierRepository = new JpaSupplierRepository(em);
@@ -146,6 +153,8 @@ public class Main {
                     warehouseStockRepository = new com.syos.infrastructure.persistence.repositories.JpaWarehouseStockRepository(emf);
                     shelfStockRepository = new com.syos.infrastructure.persistence.repositories.JpaShelfStockRepository(emf);
                     webInventoryRepository = createInMemoryWebInventoryRepository(); // Placeholder for now
+                    cartRepository = new com.syos.infrastructure.persistence.repositories.JpaCartRepository(emf).start();
+                    webOrderRepository = new com.syos.infrastructure.persistence.repositories.JpaWebOrderRepository(emf);
                     
                     // Initialize default users and reference data in database
                     DatabaseInitializer initializer = new DatabaseInitializer(userRepository);
@@ -175,6 +184,21 @@ public class Main {
                 throw new IllegalStateException("User repository not initialized");
             }
             
+            // Category tree held in memory for browsing; saves through categoryRepository rebuild it
+            com.syos.application.services.CategoryHierarchy categoryHierarchy =
+                new com.syos.application.services.CategoryHierarchy(categoryRepository);
+            categoryRepository = new com.syos.application.services.HierarchyTrackingCategoryRepository(categoryRepository, categoryHierarchy);
+
+            // Item codes held in memory for POS/cart completion, plus the product search and facet indexes;
+            // saves through itemRepository keep all three current
+            com.syos.application.services.ItemCodeTrie itemCodes = new com.syos.application.services.ItemCodeTrie(itemRepository);
+            com.syos.application.services.ProductSearchIndex productSearch =
+                new com.syos.application.services.ProductSearchIndex(itemRepository, brandRepository, categoryRepository);
+            com.syos.application.services.ProductFacetIndex productFacets =
+                new com.syos.application.services.ProductFacetIndex(itemRepository, brandRepository, categoryRepository, categoryHierarchy);
+            itemRepository = new com.syos.application.services.SearchIndexedItemRepository(itemRepository, itemCodes, productSearch, productFacets);
+            itemCodes.warmUp();
+
             // Initialize session manager
             SessionManager sessionManager = SessionManager.getInstance();
             
@@ -182,6 +206,52 @@ public class Main {
             LoginUseCase loginUseCase = new LoginUseCase(userRepository);
             RegisterCustomerUseCase registerUseCase = new RegisterCustomerUseCase(userRepository);
             
+            // Per-channel batch selection (stock.selection.* in application.properties)
+            com.syos.config.ConfigurationManager settings = new com.syos.config.ConfigurationManager();
+            sessionManager.configure(
+                java.time.Duration.ofMinutes(settings.getLongProperty("session.idle.minutes", 30)),
+                java.time.Duration.ofHours(settings.getLongProperty("session.absolute.hours", 12)),
+                settings.getIntProperty("session.max.per.user", SessionManager.DEFAULT_MAX_SESSIONS_PER_USER));
+            com.syos.application.services.StockAllocationService stockAllocation =
+                com.syos.application.services.StockAllocationService.fromSettings(settings::getProperty);
+
+            // Subscribers (alerts, audit) run off the publishing thread so they never slow a sale
+            if (settings.getBooleanProperty("events.async.enabled", true)) {
+                eventBus.startAsync(
+                    settings.getIntProperty("events.partitions", 8),
+                    settings.getIntProperty("events.queue.capacity", 1024),
+                    com.syos.application.services.EventBus.OverflowPolicy.valueOf(
+                        settings.getProperty("events.overflow", "DROP_OLDEST").trim().toUpperCase()));
+            }
+
+            // Stock events are written to event_outbox with the stock change; this relays them to the subscribers
+            if (userRepository instanceof JpaUserRepository) {
+                outboxRelay = new com.syos.application.services.OutboxRelay(
+                    new com.syos.infrastructure.persistence.repositories.JpaEventOutboxRepository(emf),
+                    eventBus,
+                    settings.getIntProperty("events.outbox.batch.size", com.syos.application.services.OutboxRelay.DEFAULT_BATCH_SIZE),
+                    java.time.Duration.ofMillis(settings.getLongProperty("events.outbox.poll.millis", 500)),
+                    java.time.Duration.ofSeconds(settings.getLongProperty("events.outbox.delivery.timeout.seconds", 10)))
+                    .start();
+            }
+
+            // Web stock on hand per item, held in memory so browsing never reads stock row by row
+            com.syos.application.services.WebAvailabilityIndex webAvailability =
+                new com.syos.application.services.WebAvailabilityIndex(webInventoryRepository);
+
+            // Web stock holds taken on add-to-cart, kept in memory like web inventory itself
+            webReservations = new com.syos.application.services.WebStockReservationService(
+                webInventoryRepository,
+                java.time.Duration.ofMinutes(settings.getLongProperty("web.reservation.hold.minutes", 15)),
+                java.time.Duration.ofSeconds(settings.getLongProperty("web.reservation.sweep.seconds", 30)),
+                java.time.Clock.systemUTC(),
+                webAvailability).start();
+
+            // Transfers, edits and sales all save through this, keeping availability and hold counters current
+            webInventoryRepository = new com.syos.application.services.AvailabilityTrackingWebInventoryRepository(
+                webInventoryRepository, webAvailability, webReservations);
+            webAvailability.warmUp();
+
             // Initialize complete product management use case
             CompleteProductManagementUseCase productManagementUseCase = new CompleteProductManagementUseCase(
                 itemRepository,
@@ -191,11 +261,14 @@ public class Main {
                 batchRepository,
                 warehouseStockRepository,
                 shelfStockRepository,
-                webInventoryRepository
+                webInventoryRepository,
+                stockAllocation
             );
             
-            // Initialize menu system with product management
-            MenuNavigator navigator = new MenuNavigator(console);
+            // Customer product search, category browsing and filtering (and the web availability shown with each result)
+            com.syos.application.usecases.browsing.BrowseProductsUseCase browseProductsUseCase =
+                new com.syos.application.usecases.browsing.BrowseProductsUseCase(
+                    itemRepository, categoryRepository, brandRepository, productSearch, categoryHierarchy, productFacets, webReservations);
 
             // Add Product command dependencies
             com.syos.application.usecases.inventory.AddProductUseCase addProductUseCase =
@@ -205,15 +278,21 @@ public class Main {
             // Reporting repositories (read-only)
             com.syos.application.ports.out.TransactionReportRepository transactionReportRepository = new com.syos.infrastructure.persistence.repositories.JpaTransactionReportRepository(emf);
             com.syos.application.ports.out.BillReportRepository billReportRepository = new com.syos.infrastructure.persistence.repositories.JpaBillReportRepository(emf);
+            // Stock reports read through a database cursor; in-memory mode aggregates the pools instead
+            com.syos.application.ports.out.StockReportRepository stockReportRepository = userRepository instanceof JpaUserRepository
+                ? new com.syos.infrastructure.persistence.repositories.JpaStockReportRepository(emf, settings.getIntProperty("report.fetch.size", 500))
+                : null;
 
             // Initialize promotions and discount service
             com.syos.infrastructure.persistence.repositories.JpaPromotionRepository promoRepo = new com.syos.infrastructure.persistence.repositories.JpaPromotionRepository(emf);
-            com.syos.application.services.DiscountService discountService = new com.syos.application.services.DiscountService(promoRepo);
+            com.syos.application.services.DiscountService discountService = new com.syos.application.services.DiscountService(
+                new com.syos.application.services.PromotionIndex(promoRepo));
             com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository = new com.syos.infrastructure.persistence.repositories.JpaPOSRepository(emf);
 
-            MenuFactory menuFactory = new MenuFactory(
-                console,
-                navigator,
+            // Repositories, caches and services above are shared; each terminal gets its own console and menus
+            java.util.function.BiFunction<ConsoleIO, MenuNavigator, MenuFactory> menusFor = (terminalConsole, terminalNavigator) -> new MenuFactory(
+                terminalConsole,
+                terminalNavigator,
                 loginUseCase,
                 registerUseCase,
                 userRepository,
@@ -232,9 +311,27 @@ public class Main {
                 billReportRepository,
                 discountService,
                 posRepository,
-                promoRepo
+                promoRepo,
+                stockAllocation,
+                cartRepository,
+                webReservations,
+                stockReportRepository,
+                itemCodes,
+                webOrderRepository,
+                browseProductsUseCase,
+                webAvailability
             );
-            
+
+            if (isServerMode(args, settings)) {
+                runTerminalServer(args, settings, menusFor, console);
+                logger.info("SYOS terminal server stopped");
+                return;
+            }
+
+            // Initialize menu system with product management
+            MenuNavigator navigator = new MenuNavigator(console);
+            MenuFactory menuFactory = menusFor.apply(console, navigator);
+
             // Display welcome banner
             displayWelcomeBanner(console);
             
@@ -260,6 +357,27 @@ public class Main {
             e.printStackTrace();
             System.exit(1);
         } finally {
+            // Stop relaying first; undelivered outbox rows are picked up on the next start
+            if (outboxRelay != null) {
+                outboxRelay.close();
+            }
+            // Let queued events finish before their subscribers lose the database
+            com.syos.application.services.EventBus.getInstance().stopAsync(java.time.Duration.ofSeconds(5));
+            // Write pending cart edits and hold totals before the connection pool goes away
+            if (webReservations != null && emf != null && emf.isOpen()) {
+                try {
+                    webReservations.close();
+                } catch (RuntimeException e) {
+                    logger.warn("Could not write web reservation totals", e);
+                }
+            }
+            if (cartRepository instanceof AutoCloseable closeable && emf != null && emf.isOpen()) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not write pending cart edits", e);
+                }
+            }
             // Clean up database connection
             if (emf != null && emf.isOpen()) {
                 DatabaseConfig.closeEntityManagerFactory();
@@ -268,6 +386,40 @@ public class Main {
         }
     }
 
+    private static boolean isServerMode(String[] args, com.syos.config.ConfigurationManager settings) {
+        for (String arg : args) {
+            if (arg.equals("--server") || arg.startsWith("--server=")) return true;
+        }
+        return settings.getBooleanProperty("server.enabled", false);
+    }
+
+    /**
+     * Serve many terminals from this JVM (server.* settings; "--server=ADDRESS" overrides server.address).
+     */
+    private static void runTerminalServer(String[] args, com.syos.config.ConfigurationManager settings,
+                                          java.util.function.BiFunction<ConsoleIO, MenuNavigator, MenuFactory> menusFor,
+                                          ConsoleIO console) throws IOException {
+        String addressSpec = settings.getProperty("server.address", "tcp://127.0.0.1:7070");
+        for (String arg : args) {
+            if (arg.startsWith("--server=")) addressSpec = arg.substring("--server=".length());
+        }
+        int maxTerminals = settings.getIntProperty("server.max.terminals", 32);
+
+        com.syos.adapter.in.cli.server.TerminalServer server = new com.syos.adapter.in.cli.server.TerminalServer(
+            com.syos.adapter.in.cli.server.TerminalServer.parseAddress(addressSpec), maxTerminals, terminal -> {
+                try {
+                    displayWelcomeBanner(terminal.getConsole());
+                    terminal.getNavigator().start(menusFor.apply(terminal.getConsole(), terminal.getNavigator()).createMainMenu());
+                } finally {
+                    if (threadBoundEm != null) threadBoundEm.release();
+                }
+            });
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "terminal-server-shutdown"));
+        server.bind();
+        console.printSuccess("Serving terminals on " + server.getLocalAddress() + " (max " + maxTerminals + ")");
+        server.serve();
+    }
+
     private static void initializeInMemoryRepositories() {
         logger.info("Initializing in-memory repositories...");
         
@@ -281,6 +433,8 @@ public class Main {
         warehouseStockRepository = new com.syos.adapter.out.persistence.memory.InMemoryWarehouseStockRepository();
         shelfStockRepository = new com.syos.adapter.out.persistence.memory.InMemoryShelfStockRepository();
         webInventoryRepository = new com.syos.adapter.out.persistence.memory.InMemoryWebInventoryRepository();
+        cartRepository = new com.syos.adapter.out.persistence.memory.InMemoryCartRepository();
+        webOrderRepository = new com.syos.adapter.out.persistence.memory.InMemoryWebOrderRepository();
         
         logger.info("In-memory repositories initialized successfully");
     }
@@ -3,35 +3,60 @@ package com.syos.adapter.in.cli.commands;
 import com.syos.adapter.in.cli.io.ConsoleIO;
 import com.syos.application.ports.out.ItemMasterFileRepository;
 import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.application.services.ProductFacetIndex;
+import com.syos.application.services.WebAvailabilityIndex;
+import com.syos.application.services.WebStockReservationService;
+import com.syos.application.usecases.browsing.BrowseProductsUseCase;
 import com.syos.domain.entities.ItemMasterFile;
 import com.syos.domain.entities.WebInventory;
 
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Command for browsing products from WEB_INVENTORY pool
- * Minimal read-only view listing available web items.
+ * Minimal read-only view listing available web items, followed by product search, category
+ * browsing and filtering when a BrowseProductsUseCase is supplied.
  */
 public class BrowseProductsCommand implements Command {
     private final ConsoleIO console;
     private final ItemMasterFileRepository itemRepository;
     private final WebInventoryRepository webInventoryRepository;
+    private final WebStockReservationService reservations;
+    private final BrowseProductsUseCase browseProducts;
+    private final WebAvailabilityIndex availability;
 
     // Backward-compatible constructor (placeholder mode)
     public BrowseProductsCommand(ConsoleIO console) {
         this.console = console;
         this.itemRepository = null;
         this.webInventoryRepository = null;
+        this.reservations = null;
+        this.browseProducts = null;
+        this.availability = null;
     }
 
+    /**
+     * @param reservations live availability (stock less other carts' holds) shown as Qty; null shows stock on hand
+     * @param browseProducts product search, category browsing and filtering offered after the listing;
+     *                       null shows the listing only
+     * @param availability in-memory web stock per item the listing is read from; null reads web inventory
+     *                     on every listing
+     */
     public BrowseProductsCommand(ConsoleIO console,
                                  ItemMasterFileRepository itemRepository,
-                                 WebInventoryRepository webInventoryRepository) {
+                                 WebInventoryRepository webInventoryRepository,
+                                 WebStockReservationService reservations,
+                                 BrowseProductsUseCase browseProducts,
+                                 WebAvailabilityIndex availability) {
         this.console = console;
         this.itemRepository = itemRepository;
         this.webInventoryRepository = webInventoryRepository;
+        this.reservations = reservations;
+        this.browseProducts = browseProducts;
+        this.availability = availability;
     }
 
     @Override
@@ -47,35 +72,55 @@ public class BrowseProductsCommand implements Command {
         }
 
         try {
-            List<WebInventory> items = webInventoryRepository.findAvailableItems();
-            if (items == null || items.isEmpty()) {
+            // Aggregate by item code to avoid duplicate lines per batch
+            java.util.Map<String, java.math.BigDecimal> qtyByCode = new java.util.LinkedHashMap<>();
+            java.util.Map<String, java.math.BigDecimal> priceByCode = new java.util.LinkedHashMap<>();
+            java.util.Map<String, Long> anyItemIdByCode = new java.util.LinkedHashMap<>();
+            if (availability != null) {
+                // Already aggregated per item and current, so listing reads no stock rows
+                for (WebAvailabilityIndex.Listing l : availability.listings()) {
+                    qtyByCode.merge(l.itemCode(), l.onHand(), java.math.BigDecimal::add);
+                    priceByCode.putIfAbsent(l.itemCode(), l.webPrice());
+                    anyItemIdByCode.putIfAbsent(l.itemCode(), l.itemId());
+                }
+            } else {
+                for (WebInventory w : webInventoryRepository.findAvailableItems()) {
+                    String code = w.getItemCode().getValue();
+                    qtyByCode.merge(code, w.getQuantityAvailable().toBigDecimal(), java.math.BigDecimal::add);
+                    // preserve first seen price for display
+                    priceByCode.putIfAbsent(code, w.getWebPrice().toBigDecimal());
+                    anyItemIdByCode.putIfAbsent(code, w.getItemId());
+                }
+            }
+            if (qtyByCode.isEmpty()) {
                 console.println("\nNo products are currently available in the web inventory.");
                 console.println("\nPress Enter to continue...");
                 console.readLine();
                 return;
             }
 
-            // Aggregate by item code to avoid duplicate lines per batch
-            java.util.Map<String, java.math.BigDecimal> qtyByCode = new java.util.LinkedHashMap<>();
-            java.util.Map<String, java.math.BigDecimal> priceByCode = new java.util.LinkedHashMap<>();
-            java.util.Map<String, Long> anyItemIdByCode = new java.util.LinkedHashMap<>();
-            for (WebInventory w : items) {
-                String code = w.getItemCode().getValue();
-                qtyByCode.merge(code, w.getQuantityAvailable().toBigDecimal(), java.math.BigDecimal::add);
-                // preserve first seen price for display
-                priceByCode.putIfAbsent(code, w.getWebPrice().toBigDecimal());
-                anyItemIdByCode.putIfAbsent(code, w.getItemId());
+            // Live availability: items fully held by other carts are not offered
+            if (reservations != null) {
+                qtyByCode.replaceAll((code, qty) -> {
+                    Long itemId = anyItemIdByCode.get(code);
+                    return itemId == null ? qty : reservations.available(itemId);
+                });
+                qtyByCode.values().removeIf(qty -> qty.signum() <= 0);
+                if (qtyByCode.isEmpty()) {
+                    console.println("\nAll available products are currently held in customers' carts.");
+                    console.println("\nPress Enter to continue...");
+                    console.readLine();
+                    return;
+                }
             }
 
-            // Sort codes by item name (lookup), fallback to code
+            // Look each name up once, then sort by it
+            java.util.Map<String, String> nameByCode = new java.util.HashMap<>();
+            for (String code : qtyByCode.keySet()) {
+                nameByCode.put(code, lookupItemName(anyItemIdByCode.get(code)).orElse("<Unknown Item>"));
+            }
             java.util.List<String> codes = new java.util.ArrayList<>(qtyByCode.keySet());
-            codes.sort(Comparator.comparing(code -> {
-                Long itemId = anyItemIdByCode.get(code);
-                if (itemId != null) {
-                    try { return itemRepository.findById(itemId).map(ItemMasterFile::getItemName).orElse(code); } catch (Exception e) { return code; }
-                }
-                return code;
-            }));
+            codes.sort(Comparator.comparing(nameByCode::get));
 
             console.println("\nAvailable Online Products:");
             console.println(String.format("%-6s %-20s %-12s %-10s %-8s", "No.", "Item Name", "Item Code", "Price(LKR)", "Qty"));
@@ -83,16 +128,9 @@ public class BrowseProductsCommand implements Command {
 
             int index = 1;
             for (String code : codes) {
-                Long itemId = anyItemIdByCode.get(code);
-                String name;
-                try {
-                    name = itemRepository.findById(itemId).map(ItemMasterFile::getItemName).orElse("<Unknown Item>");
-                } catch (Exception ex) {
-                    name = "<Unknown Item>";
-                }
                 String price = priceByCode.get(code).toPlainString();
                 String qty = qtyByCode.get(code).toPlainString();
-                console.println(String.format("%-6d %-20s %-12s %-10s %-8s", index++, truncate(name, 20), code, price, qty));
+                console.println(String.format("%-6d %-20s %-12s %-10s %-8s", index++, truncate(nameByCode.get(code), 20), code, price, qty));
             }
 
             console.println("\nNote: This list shows WEB_INVENTORY only. POS uses shelf stock.");
@@ -100,13 +138,162 @@ public class BrowseProductsCommand implements Command {
             console.printError("Failed to load products: " + e.getMessage());
         }
 
+        if (browseProducts != null) {
+            browseMore();
+            return;
+        }
         console.println("\nPress Enter to continue...");
         console.readLine();
     }
 
-    private Optional<String> lookupItemName(WebInventory w) {
+    private void browseMore() {
+        while (true) {
+            console.println("\n1. Search products");
+            console.println("2. Browse by category");
+            console.println("3. Filter products");
+            console.println("B. Back");
+            String choice = console.readLine("Enter your choice: ");
+            if (choice == null) return;
+            switch (choice.trim().toUpperCase()) {
+                case "1" -> searchProducts();
+                case "2" -> browseByCategory();
+                case "3" -> filterProducts();
+                case "B", "" -> { return; }
+                default -> console.printError("Invalid choice.");
+            }
+        }
+    }
+
+    // Served from the in-memory search index: code, name, brand, category and description, typos tolerated
+    private void searchProducts() {
+        String term = console.readLine("Search (code, name, brand or category): ");
+        if (term == null || term.isBlank()) return;
+        BrowseProductsUseCase.BrowseProductsResponse response = browseProducts.searchProducts(term.trim());
+        if (!response.isSuccess()) {
+            console.printError(response.getMessage());
+            return;
+        }
+        printProducts(response.getProducts(), "No products match '" + term.trim() + "'.");
+    }
+
+    // Walks down the category tree; a category lists the products of all its subcategories too
+    private void browseByCategory() {
+        BrowseProductsUseCase.CategoryNavigationResponse level = browseProducts.getCategories();
+        if (level.getCategories().isEmpty()) {
+            console.println("No categories to browse.");
+            return;
+        }
+        console.println("\nCategories:");
+        while (true) {
+            for (BrowseProductsUseCase.CategoryDisplayDto c : level.getCategories()) {
+                console.println(String.format("  [%d] %s", c.getId(), c.getCategoryName()));
+            }
+            Long categoryId = readOptionalNumber("Category # (blank to go back): ");
+            if (categoryId == null) return;
+            BrowseProductsUseCase.BrowseProductsResponse response = browseProducts.getProductsByCategory(categoryId);
+            if (!response.isSuccess()) {
+                console.printError(response.getMessage());
+                continue;
+            }
+            printProducts(response.getProducts(), "No products in this category.");
+            BrowseProductsUseCase.CategoryNavigationResponse children = browseProducts.getSubCategories(categoryId);
+            if (children.getCategories().isEmpty()) return;
+            level = children;
+            console.println("\nSubcategories:");
+        }
+    }
+
+    // Served from the in-memory facet bitsets; each facet shows how many products its values would leave
+    private void filterProducts() {
+        BrowseProductsUseCase.FacetedBrowseResponse all = browseProducts.browseByFacets(ProductFacetIndex.Filter.NONE);
+        if (!all.isSuccess()) {
+            console.printError(all.getMessage());
+            return;
+        }
+        printFacetCounts(all);
+
+        // Blank answers leave a facet unfiltered
+        Long categoryId = readOptionalNumber("Category # (blank for any): ");
+        Long brandId = readOptionalNumber("Brand # (blank for any): ");
+        Long band = readOptionalNumber("Price band # (blank for any): ");
+        Boolean featured = readOptionalYesNo("Featured only? (y/blank): ");
+        Boolean perishable = readOptionalYesNo("Perishable? (y/n/blank): ");
+
+        ProductFacetIndex.Filter filter = new ProductFacetIndex.Filter(
+                categoryId == null ? null : Set.of(categoryId),
+                brandId == null ? null : Set.of(brandId),
+                perishable,
+                Boolean.TRUE.equals(featured) ? Boolean.TRUE : null,
+                band == null ? null : Set.of(band.intValue() - 1));
+        BrowseProductsUseCase.FacetedBrowseResponse response = browseProducts.browseByFacets(filter);
+        if (!response.isSuccess()) {
+            console.printError(response.getMessage());
+            return;
+        }
+        console.println("\n" + response.getTotal() + " product(s) match.");
+        printProducts(response.getProducts(), "No products match these filters.");
+    }
+
+    private void printFacetCounts(BrowseProductsUseCase.FacetedBrowseResponse response) {
+        console.println("\nRefine " + response.getTotal() + " product(s):");
+        printFacet("Categories", response.getCategoryCounts(), 0);
+        printFacet("Brands", response.getBrandCounts(), 0);
+        printFacet("Price bands", response.getPriceBandCounts(), 1);
+        console.println("Featured: " + response.getFeaturedCount() + "   Perishable: " + response.getPerishableCount());
+    }
+
+    // Price bands are numbered from 1 on screen; categories and brands by id
+    private void printFacet(String title, List<ProductFacetIndex.FacetCount> counts, int numberOffset) {
+        if (counts.isEmpty()) return;
+        console.println(title + ":");
+        for (ProductFacetIndex.FacetCount c : counts) {
+            if (c.count() == 0) continue;
+            console.println(String.format("  [%d] %-30s %6d", c.value() + numberOffset, truncate(c.label(), 30), c.count()));
+        }
+    }
+
+    private Long readOptionalNumber(String prompt) {
+        while (true) {
+            String input = console.readLine(prompt);
+            if (input == null || input.isBlank()) return null;
+            try {
+                return Long.parseLong(input.trim());
+            } catch (NumberFormatException e) {
+                console.printError("Please enter a valid number.");
+            }
+        }
+    }
+
+    private Boolean readOptionalYesNo(String prompt) {
+        while (true) {
+            String input = console.readLine(prompt);
+            if (input == null || input.isBlank()) return null;
+            String answer = input.trim().toLowerCase();
+            if (answer.equals("y") || answer.equals("yes")) return true;
+            if (answer.equals("n") || answer.equals("no")) return false;
+            console.printError("Please enter 'y', 'n' or leave blank.");
+        }
+    }
+
+    private void printProducts(List<BrowseProductsUseCase.ProductDisplayDto> products, String emptyMessage) {
+        if (products.isEmpty()) {
+            console.println(emptyMessage);
+            return;
+        }
+        console.println(String.format("%-6s %-20s %-12s %-14s %-8s", "No.", "Item Name", "Item Code", "Price", "Online"));
+        console.println("-".repeat(64));
+        int index = 1;
+        for (BrowseProductsUseCase.ProductDisplayDto p : products) {
+            String online = p.getWebAvailable() == null ? "-" : p.getWebAvailable().toPlainString();
+            console.println(String.format("%-6d %-20s %-12s %-14s %-8s", index++, truncate(p.getItemName(), 20),
+                    p.getItemCode(), p.getPrice(), online));
+        }
+    }
+
+    private Optional<String> lookupItemName(Long itemId) {
+        if (itemId == null) return Optional.empty();
         try {
-            return itemRepository.findById(w.getItemId()).map(ItemMasterFile::getItemName);
+            return itemRepository.findById(itemId).map(ItemMasterFile::getItemName);
         } catch (Exception ex) {
             return Optional.empty();
         }
@@ -0,0 +1,67 @@
+package com.syos.adapter.in.cli.commands;
+
+import com.syos.adapter.in.cli.io.ConsoleIO;
+import com.syos.application.services.ItemCodeTrie;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns a typed item code into a known one using the in-memory {@link ItemCodeTrie}, so a typo is caught
+ * at the prompt instead of after a lookup.
+ * - A known code is taken as is; a prefix matching a single code is completed to it
+ * - Several codes starting with the input, or near matches for an unknown code, are offered as a numbered pick
+ * Without a trie the trimmed input is passed through and the caller's lookup decides.
+ */
+final class ItemCodePrompt {
+    private final ConsoleIO console;
+    private final ItemCodeTrie codes;
+
+    ItemCodePrompt(ConsoleIO console, ItemCodeTrie codes) {
+        this.console = console;
+        this.codes = codes;
+    }
+
+    /**
+     * @return the item code to use, or null when nothing matched or no pick was made
+     */
+    String resolve(String typed) {
+        if (typed == null || typed.isBlank()) return null;
+        String trimmed = typed.trim();
+        if (codes == null) return trimmed;
+
+        String code = trimmed.toUpperCase(Locale.ROOT);
+        if (codes.contains(code)) return code;
+
+        List<String> completions = codes.complete(code, ItemCodeTrie.DEFAULT_LIMIT + 1);
+        if (completions.size() == 1) {
+            console.printInfo("Completed to " + completions.get(0));
+            return completions.get(0);
+        }
+        if (!completions.isEmpty()) return pick("Codes starting with " + code + ":", completions);
+
+        List<String> near = codes.suggest(code, ItemCodeTrie.DEFAULT_LIMIT);
+        if (near.isEmpty()) {
+            console.printError("Unknown item code: " + trimmed);
+            return null;
+        }
+        return pick("Unknown item code: " + trimmed + ". Did you mean:", near);
+    }
+
+    private String pick(String title, List<String> options) {
+        int shown = Math.min(options.size(), ItemCodeTrie.DEFAULT_LIMIT);
+        console.printWarning(title);
+        for (int i = 0; i < shown; i++) {
+            console.println(String.format("  %d) %s", i + 1, options.get(i)));
+        }
+        if (options.size() > shown) console.println("  ... more; type more of the code to narrow it down");
+        String answer = console.readLine("Pick 1-" + shown + " (blank to re-enter): ");
+        try {
+            int n = answer == null ? 0 : Integer.parseInt(answer.trim());
+            if (n >= 1 && n <= shown) return options.get(n - 1);
+        } catch (NumberFormatException ignored) {
+            // not a number: fall through and let the caller prompt again
+        }
+        return null;
+    }
+}
@@ -2,6 +2,7 @@ package com.syos.adapter.in.cli.commands;
 
 import com.syos.adapter.in.cli.io.ConsoleIO;
 import com.syos.adapter.in.cli.session.SessionManager;
+import com.syos.application.services.DiscountService;
 import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository;
 import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionType;
 
@@ -18,11 +19,18 @@ public class ManagePromotionsCommand implements Command {
     private final ConsoleIO console;
     private final SessionManager sessionManager;
     private final JpaPromotionRepository promoRepo;
+    private final DiscountService discountService;
 
     public ManagePromotionsCommand(ConsoleIO console, SessionManager sessionManager, JpaPromotionRepository promoRepo) {
+        this(console, sessionManager, promoRepo, null);
+    }
+
+    public ManagePromotionsCommand(ConsoleIO console, SessionManager sessionManager, JpaPromotionRepository promoRepo,
+                                   DiscountService discountService) {
         this.console = console;
         this.sessionManager = sessionManager;
         this.promoRepo = promoRepo;
+        this.discountService = discountService;
     }
 
     @Override
@@ -56,6 +64,8 @@ public class ManagePromotionsCommand implements Command {
             LocalDateTime start = (startStr == null || startStr.isBlank()) ? LocalDateTime.now() : LocalDateTime.parse(startStr.trim());
             LocalDateTime end = (endStr == null || endStr.isBlank()) ? LocalDateTime.now().plusDays(30) : LocalDateTime.parse(endStr.trim());
             promoRepo.createBasicBatchPromotion(code.trim(), name.trim(), type, value, start, end, itemId, batchIds);
+            // Rebuild the till-side promotion index so the new promotion applies immediately
+            if (discountService != null) discountService.promotionsChanged();
             console.printSuccess("Promotion created and linked to batches.");
         } catch (Exception ex) {
             console.printError("Failed to create promotion: " + ex.getMessage());
@@ -2,6 +2,7 @@ package com.syos.adapter.in.cli.commands;
 
 import com.syos.adapter.in.cli.io.ConsoleIO;
 import com.syos.adapter.in.cli.session.SessionManager;
+import com.syos.application.ports.out.WebOrderRepository;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -12,10 +13,12 @@ import java.util.List;
 public class OrderHistoryCommand implements Command {
     private final ConsoleIO console;
     private final SessionManager sessionManager;
+    private final WebOrderRepository orderRepository;
 
-    public OrderHistoryCommand(ConsoleIO console, SessionManager sessionManager) {
+    public OrderHistoryCommand(ConsoleIO console, SessionManager sessionManager, WebOrderRepository orderRepository) {
         this.console = console;
         this.sessionManager = sessionManager;
+        this.orderRepository = orderRepository;
     }
 
     @Override
@@ -25,7 +28,7 @@ public class OrderHistoryCommand implements Command {
             return;
         }
         long userId = sessionManager.getCurrentUserId();
-        List<ViewCartCommand.WebOrder> orders = ViewCartCommand.getOrdersForUser(userId);
+        List<WebOrderRepository.WebOrder> orders = orderRepository.findByUser(userId);
         console.println("\n\u2554\u2550\u2550 ORDER HISTORY \u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550");
         if (orders.isEmpty()) {
             console.println("You have no previous web orders.");
@@ -34,11 +37,11 @@ public class OrderHistoryCommand implements Command {
             return;
         }
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        for (ViewCartCommand.WebOrder o : orders) {
-            console.println("\nOrder #" + o.orderNo + "  Date: " + fmt.format(o.dateTime) + "  Total: LKR " + String.format("%.2f", o.total));
-            for (ViewCartCommand.OrderLine l : o.lines) {
-                console.println("  - " + l.name + " x " + String.format("%.2f", l.qty) + " @ LKR " + String.format("%.2f", l.unit) +
-                        " = LKR " + String.format("%.2f", l.lineTotal));
+        for (WebOrderRepository.WebOrder o : orders) {
+            console.println("\nOrder #" + o.orderNo() + "  Date: " + fmt.format(o.placedAt()) + "  Total: LKR " + String.format("%.2f", o.total()));
+            for (WebOrderRepository.OrderLine l : o.lines()) {
+                console.println("  - " + l.itemName() + " x " + String.format("%.2f", l.quantity()) + " @ LKR " + String.format("%.2f", l.unitPrice()) +
+                        " = LKR " + String.format("%.2f", l.lineTotal()));
             }
         }
         console.println("\nPress Enter to continue...");
@@ -4,11 +4,11 @@ import com.syos.adapter.in.cli.io.ConsoleIO;
 import com.syos.adapter.in.cli.session.SessionManager;
 import com.syos.application.ports.out.ItemMasterFileRepository;
 import com.syos.application.ports.out.ShelfStockRepository;
+import com.syos.application.services.POSCheckoutService;
 import com.syos.domain.entities.ItemMasterFile;
-import com.syos.domain.entities.ShelfStock;
+import com.syos.domain.exceptions.InsufficientStockException;
 import com.syos.domain.valueobjects.ItemCode;
 import com.syos.domain.valueobjects.Money;
-import com.syos.domain.valueobjects.Quantity;
 import com.syos.domain.valueobjects.UserID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,9 +19,9 @@ import java.util.*;
 /**
  * Minimal POS command that sells from SHELF_STOCK using FIFO with expiry override.
  * - Employee-operated cash-only
- * - Item code + quantity entry
+ * - Item code + quantity entry; codes are checked, completed and corrected in memory (ItemCodePrompt)
  * - Running total and change calculation
- * - Reduces shelf stock upon completion
+ * - Allocates the whole cart once and commits stock, items and bill atomically (POSCheckoutService)
  * - Prints a simple bill summary (console)
  */
 public class POSCommand implements Command {
@@ -33,6 +33,8 @@ public class POSCommand implements Command {
     private final ItemMasterFileRepository itemRepo;
     private final com.syos.application.services.DiscountService discountService;
     private final com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository;
+    private final POSCheckoutService checkoutService;
+    private final ItemCodePrompt codePrompt;
 
     private boolean personalPurchaseMode = false;
 
@@ -42,12 +44,36 @@ public class POSCommand implements Command {
                       ItemMasterFileRepository itemRepo,
                       com.syos.application.services.DiscountService discountService,
                       com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository) {
+        this(console, sessionManager, shelfRepo, itemRepo, discountService, posRepository,
+                com.syos.application.services.StockAllocationService.defaults());
+    }
+
+    public POSCommand(ConsoleIO console,
+                      SessionManager sessionManager,
+                      ShelfStockRepository shelfRepo,
+                      ItemMasterFileRepository itemRepo,
+                      com.syos.application.services.DiscountService discountService,
+                      com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository,
+                      com.syos.application.services.StockAllocationService stockAllocation) {
+        this(console, sessionManager, shelfRepo, itemRepo, discountService, posRepository, stockAllocation, null);
+    }
+
+    public POSCommand(ConsoleIO console,
+                      SessionManager sessionManager,
+                      ShelfStockRepository shelfRepo,
+                      ItemMasterFileRepository itemRepo,
+                      com.syos.application.services.DiscountService discountService,
+                      com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository,
+                      com.syos.application.services.StockAllocationService stockAllocation,
+                      com.syos.application.services.ItemCodeTrie itemCodes) {
         this.console = console;
         this.sessionManager = sessionManager;
         this.shelfRepo = shelfRepo;
         this.itemRepo = itemRepo;
         this.discountService = discountService;
         this.posRepository = posRepository;
+        this.checkoutService = new POSCheckoutService(shelfRepo, discountService, posRepository, stockAllocation);
+        this.codePrompt = new ItemCodePrompt(console, itemCodes);
     }
 
     private static class CartLine {
@@ -73,13 +99,16 @@ public class POSCommand implements Command {
         List<CartLine> cart = new ArrayList<>();
 
         while (true) {
-            String code = console.readLine("Item Code (blank to checkout, 'P' to toggle mode): ");
-            if (code != null && code.trim().equalsIgnoreCase("P")) {
+            String typed = console.readLine("Item Code (blank to checkout, 'P' to toggle mode): ");
+            if (typed != null && typed.trim().equalsIgnoreCase("P")) {
                 personalPurchaseMode = !personalPurchaseMode;
                 console.printInfo("POS mode changed to: " + (personalPurchaseMode ? "PERSONAL PURCHASE" : "WORK"));
                 continue;
             }
-            if (code == null || code.trim().isEmpty()) break;
+            if (typed == null || typed.trim().isEmpty()) break;
+            // Resolve the code before asking for a quantity so a mistyped scan is fixed straight away
+            String code = codePrompt.resolve(typed);
+            if (code == null) continue;
             String qtyStr = console.readLine("Quantity: ");
             double qty;
             try {
@@ -100,13 +129,9 @@ public class POSCommand implements Command {
             }
             ItemMasterFile item = itemOpt.get();
 
-            // Check shelf availability with FIFO / expiry override
-            java.math.BigDecimal availableBD = shelfRepo.findAvailableByItemCode(ItemCode.of(code.trim()))
-                    .stream()
-                    .sorted(this::fifoWithExpiryComparator)
-                    .map(ss -> ss.getQuantityOnShelf().getValue())
-                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            double available = availableBD.doubleValue();
+            // Check shelf availability (including quantity of this item already in the cart)
+            double inCart = cart.stream().filter(l -> l.itemCode.equals(code.trim())).mapToDouble(l -> l.qty).sum();
+            double available = checkoutService.availableOnShelf(ItemCode.of(code.trim())).doubleValue() - inCart;
 
             if (available < qty) {
                 console.printError("Insufficient SHELF_STOCK. Available: " + available);
@@ -136,28 +161,19 @@ public class POSCommand implements Command {
         Money grandTotal = cart.stream().map(CartLine::total).reduce(Money.zero(), Money::add);
         console.println(String.format("\nGross Total: LKR %.2f", grandTotal.getAmount().doubleValue()));
 
-        // Calculate discounts per batch
-        java.math.BigDecimal discountTotalBD = java.math.BigDecimal.ZERO;
-        if (!personalPurchaseMode) {
-            for (CartLine line : cart) {
-                java.math.BigDecimal remaining = java.math.BigDecimal.valueOf(line.qty);
-                List<ShelfStock> stocks = new ArrayList<>(shelfRepo.findAvailableByItemCode(ItemCode.of(line.itemCode)));
-                stocks.sort(this::fifoWithExpiryComparator);
-                for (ShelfStock ss : stocks) {
-                    if (remaining.compareTo(java.math.BigDecimal.ZERO) <= 0) break;
-                    java.math.BigDecimal availableHere = ss.getQuantityOnShelf().getValue();
-                    java.math.BigDecimal take = remaining.min(availableHere);
-                    java.math.BigDecimal d = discountService.calculateBatchDiscount(
-                            line.itemId,
-                            ss.getBatchId(),
-                            ss.getUnitPrice().getAmount(),
-                            take.doubleValue()
-                    );
-                    discountTotalBD = discountTotalBD.add(d);
-                    remaining = remaining.subtract(take);
-                }
-            }
+        // Allocate all lines against shelf batches once (single stock lookup) and price per-batch discounts
+        List<POSCheckoutService.CartItem> cartItems = new ArrayList<>();
+        for (CartLine line : cart) {
+            cartItems.add(new POSCheckoutService.CartItem(ItemCode.of(line.itemCode), line.itemId, line.qty));
         }
+        POSCheckoutService.CheckoutPlan plan;
+        try {
+            plan = checkoutService.allocate(cartItems, !personalPurchaseMode);
+        } catch (InsufficientStockException ex) {
+            console.printError(ex.getMessage() + ". POS cancelled.");
+            return;
+        }
+        java.math.BigDecimal discountTotalBD = plan.discountTotal();
         double discountTotal = discountTotalBD.doubleValue();
         double netTotal = grandTotal.getAmount().doubleValue() - discountTotal;
         if (netTotal < 0) netTotal = 0;
@@ -198,48 +214,6 @@ public class POSCommand implements Command {
         }
         double change = cash - netTotal;
 
-        // Build per-batch persistence lines (and then reduce stock)
-        java.util.List<com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PosLine> lines = new java.util.ArrayList<>();
-        java.math.BigDecimal txDiscountTotalBD = java.math.BigDecimal.ZERO;
-
-        // Reduce shelf stock using FIFO with expiry override
-        UserID userId = UserID.of(sessionManager.getCurrentUserId());
-        for (CartLine line : cart) {
-            java.math.BigDecimal remaining = java.math.BigDecimal.valueOf(line.qty);
-            List<ShelfStock> stocks = new ArrayList<>(shelfRepo.findAvailableByItemCode(ItemCode.of(line.itemCode)));
-            stocks.sort(this::fifoWithExpiryComparator);
-
-            for (ShelfStock ss : stocks) {
-                if (remaining.compareTo(java.math.BigDecimal.ZERO) <= 0) break;
-                java.math.BigDecimal availableHere = ss.getQuantityOnShelf().getValue();
-                java.math.BigDecimal take = remaining.min(availableHere);
-
-                // Compute per-batch discount for this allocation
-                java.math.BigDecimal lineDiscount = personalPurchaseMode ? java.math.BigDecimal.ZERO :
-                        discountService.calculateBatchDiscount(
-                                line.itemId,
-                                ss.getBatchId(),
-                                ss.getUnitPrice().getAmount(),
-                                take.doubleValue()
-                        );
-                txDiscountTotalBD = txDiscountTotalBD.add(lineDiscount);
-
-                // Add line for persistence
-                lines.add(new com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PosLine(
-                        line.itemId,
-                        ss.getBatchId(),
-                        take.doubleValue(),
-                        ss.getUnitPrice().getAmount(),
-                        lineDiscount
-                ));
-
-                // Reduce shelf stock and persist
-                ShelfStock afterSale = ss.sellStock(Quantity.of(take), userId);
-                shelfRepo.save(afterSale);
-                remaining = remaining.subtract(take);
-            }
-        }
-
         // Create and persist transaction
         com.syos.infrastructure.persistence.entities.TransactionEntity tx = new com.syos.infrastructure.persistence.entities.TransactionEntity();
         tx.setUserId(sessionManager.getCurrentUserId());
@@ -255,13 +229,23 @@ public class POSCommand implements Command {
         // Set cashier for POS to satisfy DB check constraint
         tx.setCashierId(sessionManager.getCurrentUserId());
         
-        com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PersistResult pr = posRepository.savePOSCheckout(tx, lines);
+        // Stock decrements, items and bill are committed together
+        com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PersistResult pr;
+        try {
+            POSCheckoutService.Receipt receipt = checkoutService.commit(tx, plan);
+            pr = receipt.persisted();
+            plan = receipt.plan();
+        } catch (InsufficientStockException ex) {
+            logger.warn("POS checkout rolled back: {}", ex.getMessage());
+            console.printError(ex.getMessage() + ". Sale not recorded.");
+            return;
+        }
 
         // Print console bill with assigned bill number
         console.println("\n===== BILL (POS) =====");
         console.println("Bill No: " + pr.billNumber());
         console.println("Date/Time: " + LocalDateTime.now());
-        for (com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PosLine pl : lines) {
+        for (com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PosLine pl : plan.lines()) {
             // We don't have item names here; show item id and qty
             console.println(String.format("Item #%d  x %.2f  @ LKR %.2f  Disc: LKR %.2f",
                     pl.itemId(), pl.quantity(), pl.unitPrice().doubleValue(), pl.discount() == null ? 0.0 : pl.discount().doubleValue()));
@@ -277,20 +261,4 @@ public class POSCommand implements Command {
         console.println("\nPress Enter to continue...");
         console.readLine();
     }
-
-    // Comparator: FIFO by placedOnShelfDate, but if expiry A is sooner than B, prioritize sooner expiry
-    private int fifoWithExpiryComparator(ShelfStock a, ShelfStock b) {
-        LocalDateTime ea = a.getExpiryDate();
-        LocalDateTime eb = b.getExpiryDate();
-        if (ea != null && eb != null && !ea.equals(eb)) {
-            return ea.isBefore(eb) ? -1 : 1; // earlier expiry first
-        }
-        // fallback FIFO by placed date
-        LocalDateTime pa = a.getPlacedOnShelfDate();
-        LocalDateTime pb = b.getPlacedOnShelfDate();
-        if (pa == null && pb == null) return 0;
-        if (pa == null) return 1;
-        if (pb == null) return -1;
-        return pa.isBefore(pb) ? -1 : (pa.isAfter(pb) ? 1 : 0);
-    }
 }
@@ -1,23 +1,27 @@
 package com.syos.adapter.in.cli.commands;
 
 import com.syos.adapter.in.cli.io.ConsoleIO;
+import com.syos.adapter.in.cli.io.ConsolePager;
 import com.syos.adapter.in.cli.session.SessionManager;
 import com.syos.application.ports.out.BatchRepository;
 import com.syos.application.ports.out.ItemMasterFileRepository;
 import com.syos.application.ports.out.ShelfStockRepository;
+import com.syos.application.ports.out.StockReportRepository;
+import com.syos.application.ports.out.StockReportRepository.BatchStockRow;
+import com.syos.application.ports.out.StockReportRepository.ItemStockLevel;
 import com.syos.application.ports.out.WarehouseStockRepository;
 import com.syos.application.ports.out.WebInventoryRepository;
 import com.syos.domain.entities.ItemMasterFile;
 import com.syos.domain.entities.WarehouseStock;
 import com.syos.domain.entities.ShelfStock;
 import com.syos.domain.entities.WebInventory;
-import com.syos.domain.entities.Batch;
 import com.syos.domain.valueobjects.ItemCode;
 
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Reports and Insights menu for Admin and Employee.
@@ -35,6 +39,8 @@ public class ReportsAndInsightsCommand implements Command {
     private final BatchRepository batchRepo;
     private final com.syos.application.ports.out.TransactionReportRepository txReportRepo;
     private final com.syos.application.ports.out.BillReportRepository billReportRepo;
+    private final StockReportRepository stockReportRepo;
+    private final ConsolePager pager;
 
     public ReportsAndInsightsCommand(
             ConsoleIO console,
@@ -46,6 +52,25 @@ public class ReportsAndInsightsCommand implements Command {
             BatchRepository batchRepo,
             com.syos.application.ports.out.TransactionReportRepository txReportRepo,
             com.syos.application.ports.out.BillReportRepository billReportRepo
+    ) {
+        this(console, sessionManager, itemRepo, warehouseRepo, shelfRepo, webRepo, batchRepo, txReportRepo, billReportRepo, null);
+    }
+
+    /**
+     * @param stockReportRepo streamed stock levels for the reorder/reshelving/web reports;
+     *                        null aggregates the in-memory pools instead
+     */
+    public ReportsAndInsightsCommand(
+            ConsoleIO console,
+            SessionManager sessionManager,
+            ItemMasterFileRepository itemRepo,
+            WarehouseStockRepository warehouseRepo,
+            ShelfStockRepository shelfRepo,
+            WebInventoryRepository webRepo,
+            BatchRepository batchRepo,
+            com.syos.application.ports.out.TransactionReportRepository txReportRepo,
+            com.syos.application.ports.out.BillReportRepository billReportRepo,
+            StockReportRepository stockReportRepo
     ) {
         this.console = console;
         this.sessionManager = sessionManager;
@@ -56,6 +81,8 @@ public class ReportsAndInsightsCommand implements Command {
         this.batchRepo = batchRepo;
         this.txReportRepo = txReportRepo;
         this.billReportRepo = billReportRepo;
+        this.stockReportRepo = stockReportRepo;
+        this.pager = new ConsolePager(console);
     }
 
     @Override
@@ -153,21 +180,12 @@ public class ReportsAndInsightsCommand implements Command {
             java.time.LocalDate endDate = java.time.LocalDate.now();
             java.time.LocalDate startDate = endDate.minusDays(days - 1);
 
-            // Sum quantity sold over the window (by day using existing daily aggregates)
+            // Quantity sold per item over the window, one read of the daily sales rollup (highest first)
             long totalQtySold = 0L;
-            java.util.Map<String, Long> qtyByItem = new java.util.HashMap<>();
-            if (txReportRepo != null) {
-                java.time.LocalDate d = startDate;
-                while (!d.isAfter(endDate)) {
-                    java.util.List<Object[]> rows = txReportRepo.findDailyItemAggregates(d);
-                    for (Object[] r : rows) {
-                        String code = (String) r[0];
-                        long qty = ((Number) r[2]).longValue();
-                        totalQtySold += qty;
-                        qtyByItem.merge(code, qty, Long::sum);
-                    }
-                    d = d.plusDays(1);
-                }
+            java.util.List<Object[]> itemRows = (txReportRepo != null)
+                    ? txReportRepo.findItemSalesBetween(startDate, endDate, null) : java.util.Collections.emptyList();
+            for (Object[] r : itemRows) {
+                totalQtySold += ((Number) r[2]).longValue();
             }
 
             // Use current inventory snapshot as denominator (approximation)
@@ -182,17 +200,13 @@ public class ReportsAndInsightsCommand implements Command {
             console.println(String.format("Turnover Ratio (Qty Sold / Current Qty): %s", turnover.toPlainString()));
 
             // Top 10 fastest-moving items by quantity sold
-            if (!qtyByItem.isEmpty()) {
+            if (!itemRows.isEmpty()) {
                 console.println("\nTop Moving Items (by quantity sold)");
                 console.println(String.format("%-14s %-28s %-8s", "Item Code", "Item Name", "Qty"));
-                qtyByItem.entrySet().stream()
-                        .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                itemRows.stream()
                         .limit(10)
-                        .forEach(e -> {
-                            String code = e.getKey();
-                            String name = lookupName(new com.syos.domain.valueobjects.ItemCode(code));
-                            console.println(String.format("%-14s %-28s %-8d", code, truncate(name, 28), e.getValue()));
-                        });
+                        .forEach(r -> console.println(String.format("%-14s %-28s %-8d",
+                                (String) r[0], truncate((String) r[1], 28), ((Number) r[2]).longValue())));
             } else {
                 console.println("No sales found in the selected window.");
             }
@@ -214,13 +228,11 @@ public class ReportsAndInsightsCommand implements Command {
             java.time.LocalDateTime start = sd.atStartOfDay();
             java.time.LocalDateTime end = ed.atStartOfDay();
 
+            // One GROUP BY hour over the range instead of loading every bill
             int[] counts = new int[24];
-            if (billReportRepo != null) {
-                java.util.List<Object[]> rows = billReportRepo.listBillsBetween(start, end);
-                for (Object[] r : rows) {
-                    java.time.LocalDateTime when = (java.time.LocalDateTime) r[1];
-                    int hour = when.getHour();
-                    counts[hour]++;
+            if (txReportRepo != null) {
+                for (Object[] r : txReportRepo.findHourlyHistogram(start, end)) {
+                    counts[((Number) r[0]).intValue()] = ((Number) r[1]).intValue();
                 }
             }
             int total = java.util.Arrays.stream(counts).sum();
@@ -259,20 +271,28 @@ public class ReportsAndInsightsCommand implements Command {
             if (rows.isEmpty()) {
                 console.println("No transactions found for the selected range.");
             } else {
+                // Units sold per channel come from the daily sales rollup
+                java.util.Map<String, Long> unitsByChannel = new java.util.HashMap<>();
+                for (Object[] r : txReportRepo.findChannelSalesBetween(startDate, endDate.minusDays(1))) {
+                    unitsByChannel.put((String) r[0], ((Number) r[1]).longValue());
+                }
                 console.println(String.format("Range: %s to %s", startDate, endDate.minusDays(1)));
-                console.println(String.format("%-8s %-10s %-14s %-14s", "Channel", "Count", "Total(LKR)", "Avg Order"));
+                console.println(String.format("%-8s %-10s %-10s %-14s %-14s", "Channel", "Count", "Units", "Total(LKR)", "Avg Order"));
                 long totalCount = 0;
+                long totalUnits = 0;
                 java.math.BigDecimal grandTotal = java.math.BigDecimal.ZERO;
                 for (Object[] r : rows) {
                     String channel = (String) r[0];
                     long count = ((Number) r[1]).longValue();
+                    long units = unitsByChannel.getOrDefault(channel, 0L);
                     java.math.BigDecimal sum = (java.math.BigDecimal) r[2];
                     java.math.BigDecimal avg = (java.math.BigDecimal) r[3];
                     totalCount += count;
+                    totalUnits += units;
                     grandTotal = grandTotal.add(sum);
-                    console.println(String.format("%-8s %-10d %-14s %-14s", channel, count, sum.toPlainString(), avg.toPlainString()));
+                    console.println(String.format("%-8s %-10d %-10d %-14s %-14s", channel, count, units, sum.toPlainString(), avg.toPlainString()));
                 }
-                console.println(String.format("%-8s %-10d %-14s", "TOTAL", totalCount, grandTotal.toPlainString()));
+                console.println(String.format("%-8s %-10d %-10d %-14s", "TOTAL", totalCount, totalUnits, grandTotal.toPlainString()));
             }
         } catch (Exception ex) {
             console.printError("Failed to build channel performance insight: " + ex.getMessage());
@@ -287,32 +307,18 @@ public class ReportsAndInsightsCommand implements Command {
             int days = 7; try { if (!daysStr.isBlank()) days = Math.max(1, Integer.parseInt(daysStr.trim())); } catch (Exception ignored) {}
             java.time.LocalDate endDate = java.time.LocalDate.now();
             java.time.LocalDate startDate = endDate.minusDays(days - 1);
-            java.util.Map<String, Long> qtyByItem = new java.util.HashMap<>();
-            if (txReportRepo != null) {
-                java.time.LocalDate d = startDate;
-                while (!d.isAfter(endDate)) {
-                    java.util.List<Object[]> rows = txReportRepo.findDailyItemAggregates(d);
-                    for (Object[] r : rows) {
-                        String code = (String) r[0];
-                        long qty = ((Number) r[2]).longValue();
-                        qtyByItem.merge(code, qty, Long::sum);
-                    }
-                    d = d.plusDays(1);
-                }
-            }
-            if (qtyByItem.isEmpty()) {
+            // Whole window from the daily sales rollup, already ranked by quantity
+            java.util.List<Object[]> itemRows = (txReportRepo != null)
+                    ? txReportRepo.findItemSalesBetween(startDate, endDate, null) : java.util.Collections.emptyList();
+            if (itemRows.isEmpty()) {
                 console.println("No sales found in the selected window.");
             } else {
                 console.println(String.format("Window: %s to %s", startDate, endDate));
                 console.println(String.format("%-14s %-28s %-8s", "Item Code", "Item Name", "Qty"));
-                qtyByItem.entrySet().stream()
-                        .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                itemRows.stream()
                         .limit(15)
-                        .forEach(e -> {
-                            String code = e.getKey();
-                            String name = lookupName(new com.syos.domain.valueobjects.ItemCode(code));
-                            console.println(String.format("%-14s %-28s %-8d", code, truncate(name, 28), e.getValue()));
-                        });
+                        .forEach(r -> console.println(String.format("%-14s %-28s %-8d",
+                                (String) r[0], truncate((String) r[1], 28), ((Number) r[2]).longValue())));
             }
         } catch (Exception ex) {
             console.printError("Failed to build product performance insight: " + ex.getMessage());
@@ -332,38 +338,23 @@ public class ReportsAndInsightsCommand implements Command {
             java.time.LocalDate expBefore = parseDate(expBeforeStr);
             java.time.LocalDate expAfter = parseDate(expAfterStr);
 
-            List<Batch> batches = batchRepo != null ? batchRepo.findAll() : Collections.emptyList();
-            if (batches.isEmpty()) {
-                console.println("No batch data available. Showing aggregated stock by location instead.\n");
-                showInventoryLocationReport();
-                return;
-            }
-            console.println(String.format("%-14s %-28s %-12s %-12s %-10s %-10s", "Item Code", "Item Name", "MFG", "EXP", "Recv", "Avail"));
-            for (Batch b : batches) {
-                Long itemId = b.getItemId();
-                String code = "";
-                String name = "<Unknown>";
-                if (itemId != null) {
-                    try {
-                        var opt = itemRepo.findById(itemId);
-                        if (opt.isPresent()) {
-                            var imf = opt.get();
-                            code = imf.getItemCode().getValue();
-                            name = imf.getItemName();
-                        }
-                    } catch (Exception ignored) { }
+            try (Stream<BatchStockRow> rows = streamBatchStock(term, expBefore, expAfter)) {
+                Stream<String> lines = rows.map(r -> String.format("%-14s %-28s %-12s %-12s %-10s %-10s %-10s %-10s %-10s",
+                        r.itemCode(), truncate(r.itemName(), 28),
+                        r.manufactureDate() != null ? r.manufactureDate().format(dtf) : "-",
+                        r.expiryDate() != null ? r.expiryDate().format(dtf) : "-",
+                        r.quantityReceived().toPlainString(), r.quantityAvailable().toPlainString(),
+                        r.warehouseQty().toPlainString(), r.shelfQty().toPlainString(), r.webQty().toPlainString()));
+                int printed = pager.print(String.format("%-14s %-28s %-12s %-12s %-10s %-10s %-10s %-10s %-10s",
+                        "Item Code", "Item Name", "MFG", "EXP", "Recv", "Avail", "Warehouse", "Shelf", "Web"), lines);
+                if (printed == 0) {
+                    if (term.isBlank() && expBefore == null && expAfter == null) {
+                        console.println("No batch data available. Showing aggregated stock by location instead.\n");
+                        showInventoryLocationReport();
+                        return;
+                    }
+                    console.println("No batches match the given filters.");
                 }
-                if (code.isBlank()) code = "#" + (itemId != null ? itemId : 0);
-                // Apply filters
-                if (!containsIgnoreCase(code, term) && !containsIgnoreCase(name, term)) continue;
-                if (expBefore != null && b.getExpiryDate() != null && !b.getExpiryDate().toLocalDate().isBefore(expBefore)) continue;
-                if (expAfter != null && b.getExpiryDate() != null && !b.getExpiryDate().toLocalDate().isAfter(expAfter)) continue;
-
-                String mfg = b.getManufactureDate() != null ? b.getManufactureDate().format(dtf) : "-";
-                String exp = b.getExpiryDate() != null ? b.getExpiryDate().format(dtf) : "-";
-                String recv = safeBD(b.getQuantityReceived());
-                String avail = safeBD(b.getQuantityAvailable());
-                console.println(String.format("%-14s %-28s %-12s %-12s %-10s %-10s", code, truncate(name,28), mfg, exp, recv, avail));
             }
         } catch (Exception ex) {
             console.printError("Failed to build stock report: " + ex.getMessage());
@@ -394,21 +385,21 @@ public class ReportsAndInsightsCommand implements Command {
             String thrStr = readOptional("Threshold [default=50]: ");
             java.math.BigDecimal threshold = parseThreshold(thrStr, new java.math.BigDecimal("50"));
             String term = readOptional("Item code/name contains (optional): ");
-            // Aggregate quantities across locations per item code
-            Map<ItemCode, BigDecimal> byCode = aggregateTotalsByItemCode();
-            List<ItemMasterFile> allActive = itemRepo.findAllActive();
-            boolean any = false;
-            console.println(String.format("%-14s %-28s %-10s", "Item Code", "Item Name", "Total Qty"));
-            for (ItemMasterFile item : allActive) {
-                ItemCode code = item.getItemCode();
-                if (!containsIgnoreCase(code.getValue(), term) && !containsIgnoreCase(item.getItemName(), term)) continue;
-                BigDecimal total = byCode.getOrDefault(code, BigDecimal.ZERO);
-                if (total.compareTo(threshold) < 0) {
-                    any = true;
-                    console.println(String.format("%-14s %-28s %-10s", code.getValue(), truncate(item.getItemName(), 28), total.toPlainString()));
+            // Total across locations per item: warehouse + shelf from the stock levels, web from its pool
+            Map<String, BigDecimal> webTotals = webTotalsByCode();
+            try (Stream<ItemStockLevel> levels = streamStockLevels(term, true)) {
+                Stream<String> lines = levels
+                        .map(l -> {
+                            BigDecimal total = l.warehouseQty().add(l.shelfQty()).add(webTotals.getOrDefault(l.itemCode(), BigDecimal.ZERO));
+                            return total.compareTo(threshold) < 0
+                                    ? String.format("%-14s %-28s %-10s", l.itemCode(), truncate(l.itemName(), 28), total.toPlainString())
+                                    : null;
+                        })
+                        .filter(Objects::nonNull);
+                if (pager.print(String.format("%-14s %-28s %-10s", "Item Code", "Item Name", "Total Qty"), lines) == 0) {
+                    console.println("No items below threshold or no stock data available.");
                 }
             }
-            if (!any) console.println("No items below threshold or no stock data available.");
         } catch (Exception ex) {
             console.printError("Failed to build reorder report: " + ex.getMessage());
         }
@@ -421,24 +412,14 @@ public class ReportsAndInsightsCommand implements Command {
             String thrStr = readOptional("Shelf threshold [default=50]: ");
             java.math.BigDecimal threshold = parseThreshold(thrStr, new java.math.BigDecimal("50"));
             String term = readOptional("Item code/name contains (optional): ");
-            Map<ItemCode, BigDecimal> shelfTotals = aggregateByItemCodeShelf();
-            Map<ItemCode, BigDecimal> warehouseTotals = aggregateByItemCodeWarehouse();
-            boolean any = false;
-            console.println(String.format("%-14s %-28s %-12s %-12s", "Item Code", "Item Name", "ShelfQty", "WarehouseQty"));
-            Set<ItemCode> codes = new HashSet<>();
-            codes.addAll(shelfTotals.keySet());
-            codes.addAll(warehouseTotals.keySet());
-            for (ItemCode code : codes) {
-                BigDecimal s = shelfTotals.getOrDefault(code, BigDecimal.ZERO);
-                BigDecimal w = warehouseTotals.getOrDefault(code, BigDecimal.ZERO);
-                String name = lookupName(code);
-                if (!containsIgnoreCase(code.getValue(), term) && !containsIgnoreCase(name, term)) continue;
-                if (s.compareTo(threshold) < 0 && w.compareTo(BigDecimal.ZERO) > 0) {
-                    any = true;
-                    console.println(String.format("%-14s %-28s %-12s %-12s", code.getValue(), truncate(name,28), s.toPlainString(), w.toPlainString()));
+            try (Stream<ItemStockLevel> levels = streamStockLevels(term, false)) {
+                Stream<String> lines = levels
+                        .filter(l -> l.shelfQty().compareTo(threshold) < 0 && l.warehouseQty().compareTo(BigDecimal.ZERO) > 0)
+                        .map(l -> String.format("%-14s %-28s %-12s %-12s", l.itemCode(), truncate(l.itemName(),28), l.shelfQty().toPlainString(), l.warehouseQty().toPlainString()));
+                if (pager.print(String.format("%-14s %-28s %-12s %-12s", "Item Code", "Item Name", "ShelfQty", "WarehouseQty"), lines) == 0) {
+                    console.println("No shelf replenishment needed based on current thresholds.");
                 }
             }
-            if (!any) console.println("No shelf replenishment needed based on current thresholds.");
         } catch (Exception ex) {
             console.printError("Failed to build reshelving report: " + ex.getMessage());
         }
@@ -451,24 +432,17 @@ public class ReportsAndInsightsCommand implements Command {
             String thrStr = readOptional("Web inventory threshold [default=50]: ");
             java.math.BigDecimal threshold = parseThreshold(thrStr, new java.math.BigDecimal("50"));
             String term = readOptional("Item code/name contains (optional): ");
-            Map<ItemCode, BigDecimal> webTotals = aggregateByItemCodeWeb();
-            Map<ItemCode, BigDecimal> warehouseTotals = aggregateByItemCodeWarehouse();
-            boolean any = false;
-            console.println(String.format("%-14s %-28s %-12s %-12s", "Item Code", "Item Name", "WebQty", "WarehouseQty"));
-            Set<ItemCode> codes = new HashSet<>();
-            codes.addAll(webTotals.keySet());
-            codes.addAll(warehouseTotals.keySet());
-            for (ItemCode code : codes) {
-                BigDecimal wv = webTotals.getOrDefault(code, BigDecimal.ZERO);
-                BigDecimal wh = warehouseTotals.getOrDefault(code, BigDecimal.ZERO);
-                String name = lookupName(code);
-                if (!containsIgnoreCase(code.getValue(), term) && !containsIgnoreCase(name, term)) continue;
-                if (wv.compareTo(threshold) < 0 && wh.compareTo(BigDecimal.ZERO) > 0) {
-                    any = true;
-                    console.println(String.format("%-14s %-28s %-12s %-12s", code.getValue(), truncate(name,28), wv.toPlainString(), wh.toPlainString()));
+            Map<String, BigDecimal> webTotals = webTotalsByCode();
+            try (Stream<ItemStockLevel> levels = streamStockLevels(term, false)) {
+                Stream<String> lines = levels
+                        .filter(l -> l.warehouseQty().compareTo(BigDecimal.ZERO) > 0
+                                && webTotals.getOrDefault(l.itemCode(), BigDecimal.ZERO).compareTo(threshold) < 0)
+                        .map(l -> String.format("%-14s %-28s %-12s %-12s", l.itemCode(), truncate(l.itemName(),28),
+                                webTotals.getOrDefault(l.itemCode(), BigDecimal.ZERO).toPlainString(), l.warehouseQty().toPlainString()));
+                if (pager.print(String.format("%-14s %-28s %-12s %-12s", "Item Code", "Item Name", "WebQty", "WarehouseQty"), lines) == 0) {
+                    console.println("No web allocation needed based on current thresholds.");
                 }
             }
-            if (!any) console.println("No web allocation needed based on current thresholds.");
         } catch (Exception ex) {
             console.printError("Failed to build web allocation report: " + ex.getMessage());
         }
@@ -496,7 +470,7 @@ public class ReportsAndInsightsCommand implements Command {
             String itemFilter = readOptional("Item code/name contains (optional): ");
             console.println("\nItems Sold");
             if (txReportRepo != null) {
-                java.util.List<Object[]> rows = txReportRepo.findDailyItemAggregates(date);
+                java.util.List<Object[]> rows = txReportRepo.findItemAggregates(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), null);
                 if (rows == null || rows.isEmpty()) {
                     console.println("No items for the specified date.");
                 } else {
@@ -698,12 +672,97 @@ public class ReportsAndInsightsCommand implements Command {
         }
     }
 
-    private Map<ItemCode, BigDecimal> aggregateTotalsByItemCode() {
-        Map<ItemCode, BigDecimal> totals = new HashMap<>();
-        mergeMap(totals, aggregateByItemCodeWarehouse());
-        mergeMap(totals, aggregateByItemCodeShelf());
-        mergeMap(totals, aggregateByItemCodeWeb());
-        return totals;
+    /**
+     * Warehouse and shelf quantity per item, filtered by code/name. Streamed from the database when a
+     * StockReportRepository is wired; otherwise built from the in-memory pools. Close the stream when done.
+     */
+    private Stream<ItemStockLevel> streamStockLevels(String term, boolean activeOnly) {
+        if (stockReportRepo != null) {
+            return stockReportRepo.streamItemStockLevels(term, activeOnly);
+        }
+        Map<ItemCode, BigDecimal> warehouseTotals = aggregateByItemCodeWarehouse();
+        Map<ItemCode, BigDecimal> shelfTotals = aggregateByItemCodeShelf();
+        Map<ItemCode, String> names = new TreeMap<>(Comparator.comparing(ItemCode::getValue));
+        if (activeOnly) {
+            for (ItemMasterFile item : itemRepo.findAllActive()) names.put(item.getItemCode(), item.getItemName());
+        } else {
+            for (ItemCode code : warehouseTotals.keySet()) names.put(code, lookupName(code));
+            for (ItemCode code : shelfTotals.keySet()) names.computeIfAbsent(code, this::lookupName);
+        }
+        return names.entrySet().stream()
+                .filter(e -> containsIgnoreCase(e.getKey().getValue(), term) || containsIgnoreCase(e.getValue(), term))
+                .map(e -> new ItemStockLevel(e.getKey().getValue(), e.getValue(),
+                        warehouseTotals.getOrDefault(e.getKey(), BigDecimal.ZERO),
+                        shelfTotals.getOrDefault(e.getKey(), BigDecimal.ZERO)));
+    }
+
+    /**
+     * Batch rows with item code/name and per-pool quantities. Streamed from one database query when a
+     * StockReportRepository is wired; otherwise joined here from the in-memory repositories, looking each item up once.
+     * The web column always comes from the WebInventoryRepository, which is in memory in both modes.
+     */
+    private Stream<BatchStockRow> streamBatchStock(String term, java.time.LocalDate expBefore, java.time.LocalDate expAfter) {
+        if (stockReportRepo != null) {
+            Map<Long, BigDecimal> webByBatch = webQtyByBatch();
+            return stockReportRepo.streamBatchStock(term, expBefore, expAfter)
+                    .map(r -> r.withWebQty(webByBatch.getOrDefault(r.batchId(), BigDecimal.ZERO)));
+        }
+        if (batchRepo == null) return Stream.empty();
+        Map<Long, BigDecimal> warehouseByBatch = new HashMap<>();
+        Map<Long, BigDecimal> shelfByBatch = new HashMap<>();
+        Map<Long, BigDecimal> webByBatch = webQtyByBatch();
+        try {
+            if (warehouseRepo instanceof com.syos.adapter.out.persistence.memory.InMemoryWarehouseStockRepository mem) {
+                for (WarehouseStock ws : mem.findAll()) {
+                    if (ws.getBatchId() != null) warehouseByBatch.merge(ws.getBatchId(), ws.getQuantityAvailable().toBigDecimal(), BigDecimal::add);
+                }
+            }
+            for (ShelfStock ss : shelfRepo.findAll()) {
+                if (ss.getBatchId() != null) shelfByBatch.merge(ss.getBatchId(), ss.getQuantityOnShelf().toBigDecimal(), BigDecimal::add);
+            }
+        } catch (Exception ignored) { }
+        Map<Long, Optional<ItemMasterFile>> items = new HashMap<>();
+        return batchRepo.streamAll()
+                .filter(b -> expBefore == null || b.getExpiryDate() == null || b.getExpiryDate().toLocalDate().isBefore(expBefore))
+                .filter(b -> expAfter == null || b.getExpiryDate() == null || b.getExpiryDate().toLocalDate().isAfter(expAfter))
+                .map(b -> {
+                    Optional<ItemMasterFile> item = b.getItemId() == null ? Optional.empty()
+                            : items.computeIfAbsent(b.getItemId(), this::findItem);
+                    String code = item.map(i -> i.getItemCode().getValue()).orElse("#" + (b.getItemId() != null ? b.getItemId() : 0));
+                    String name = item.map(ItemMasterFile::getItemName).orElse("<Unknown>");
+                    return new BatchStockRow(b.getId(), code, name, b.getManufactureDate(),
+                            b.getExpiryDate() != null ? b.getExpiryDate().toLocalDate() : null,
+                            quantityOf(b.getQuantityReceived()), quantityOf(b.getQuantityAvailable()),
+                            warehouseByBatch.getOrDefault(b.getId(), BigDecimal.ZERO),
+                            shelfByBatch.getOrDefault(b.getId(), BigDecimal.ZERO),
+                            webByBatch.getOrDefault(b.getId(), BigDecimal.ZERO));
+                })
+                .filter(r -> containsIgnoreCase(r.itemCode(), term) || containsIgnoreCase(r.itemName(), term));
+    }
+
+    private Map<Long, BigDecimal> webQtyByBatch() {
+        Map<Long, BigDecimal> webByBatch = new HashMap<>();
+        if (webRepo == null) return webByBatch;
+        try {
+            for (WebInventory wi : webRepo.findAll()) {
+                if (wi.getBatchId() != null) webByBatch.merge(wi.getBatchId(), wi.getQuantityAvailable().toBigDecimal(), BigDecimal::add);
+            }
+        } catch (Exception ignored) { }
+        return webByBatch;
+    }
+
+    private Optional<ItemMasterFile> findItem(Long itemId) {
+        try {
+            return itemRepo.findById(itemId);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    private Map<String, BigDecimal> webTotalsByCode() {
+        Map<String, BigDecimal> map = new HashMap<>();
+        aggregateByItemCodeWeb().forEach((code, qty) -> map.put(code.getValue(), qty));
+        return map;
     }
 
     private Map<ItemCode, BigDecimal> aggregateByItemCodeWarehouse() {
@@ -754,19 +813,13 @@ public class ReportsAndInsightsCommand implements Command {
         return map;
     }
 
-    private void mergeMap(Map<ItemCode, BigDecimal> base, Map<ItemCode, BigDecimal> add) {
-        for (var e : add.entrySet()) {
-            base.merge(e.getKey(), e.getValue(), BigDecimal::add);
-        }
-    }
-
     private String truncate(String s, int max) {
         if (s == null) return "";
         return s.length() <= max ? s : s.substring(0, max - 1) + "…";
     }
 
-    private String safeBD(com.syos.domain.valueobjects.Quantity q) {
-        return q != null ? q.toBigDecimal().toPlainString() : "0";
+    private BigDecimal quantityOf(com.syos.domain.valueobjects.Quantity q) {
+        return q != null ? q.toBigDecimal() : BigDecimal.ZERO;
     }
 
     // ====== Input helpers for filters ======
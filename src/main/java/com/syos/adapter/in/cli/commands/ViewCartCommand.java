@@ -2,20 +2,30 @@ package com.syos.adapter.in.cli.commands;
 
 import com.syos.adapter.in.cli.io.ConsoleIO;
 import com.syos.adapter.in.cli.session.SessionManager;
+import com.syos.adapter.out.persistence.memory.InMemoryCartRepository;
+import com.syos.adapter.out.persistence.memory.InMemoryWebOrderRepository;
+import com.syos.application.ports.out.CartRepository;
 import com.syos.application.ports.out.ItemMasterFileRepository;
 import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.application.ports.out.WebOrderRepository;
+import com.syos.application.services.ItemCodeTrie;
+import com.syos.application.services.StockAllocationService;
+import com.syos.application.services.WebStockReservationService;
 import com.syos.domain.entities.ItemMasterFile;
 import com.syos.domain.entities.WebInventory;
 import com.syos.domain.valueobjects.ItemCode;
 import com.syos.domain.valueobjects.Quantity;
 import com.syos.domain.valueobjects.UserID;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
- * Simple in-memory shopping cart and checkout for WEB channel.
- * - Per-user cart stored statically in this command (session-scoped).
+ * Shopping cart and checkout for WEB channel.
+ * - Per-user cart kept in a CartRepository (persisted carts/cart_items when running on the database).
+ * - Item codes typed at the prompts are completed and corrected in memory (ItemCodePrompt).
+ * - Adding to cart holds WEB stock for a limited time (WebStockReservationService); viewing the cart extends holds.
  * - Stock deducted from WEB_INVENTORY on successful card payment.
  * - Payment rule: any 16-digit number except 0767600730204128 succeeds.
  */
@@ -24,31 +34,41 @@ public class ViewCartCommand implements Command {
     private final SessionManager sessionManager;
     private final ItemMasterFileRepository itemRepo;
     private final WebInventoryRepository webRepo;
+    private final StockAllocationService allocator;
+    private final CartRepository carts;
+    private final WebStockReservationService reservations;
+    private final WebOrderRepository orders;
+    private final ItemCodePrompt codePrompt;
 
-    // userId -> (itemCode -> qty)
-    private static final Map<Long, Map<String, Double>> CARTS = new HashMap<>();
-
-    // very light web order history log
-    public static class WebOrder {
-        public final long orderNo;
-        public final long userId;
-        public final LocalDateTime dateTime;
-        public final List<OrderLine> lines;
-        public final double total;
-        public WebOrder(long orderNo, long userId, LocalDateTime dateTime, List<OrderLine> lines, double total) {
-            this.orderNo = orderNo; this.userId = userId; this.dateTime = dateTime; this.lines = lines; this.total = total;
-        }
-    }
-    public static class OrderLine { public final String name; public final double qty; public final double unit; public final double lineTotal; public OrderLine(String n,double q,double u){name=n;qty=q;unit=u;lineTotal=q*u;} }
-    private static long WEB_ORDER_SEQ = 1;
-    private static final List<WebOrder> ORDERS = new ArrayList<>();
+    // Shared by callers that do not supply a CartRepository
+    private static final CartRepository DEFAULT_CARTS = new InMemoryCartRepository();
+
+    // Shared by callers that do not supply a WebOrderRepository
+    private static final WebOrderRepository DEFAULT_ORDERS = new InMemoryWebOrderRepository();
 
     public ViewCartCommand(ConsoleIO console, SessionManager sessionManager,
                            ItemMasterFileRepository itemRepo, WebInventoryRepository webRepo) {
+        this(console, sessionManager, itemRepo, webRepo, StockAllocationService.defaults(), DEFAULT_CARTS,
+                webRepo == null ? null : new WebStockReservationService(webRepo), null, DEFAULT_ORDERS);
+    }
+
+    /**
+     * @param itemCodes completes and corrects typed item codes; null accepts codes as typed
+     */
+    public ViewCartCommand(ConsoleIO console, SessionManager sessionManager,
+                           ItemMasterFileRepository itemRepo, WebInventoryRepository webRepo,
+                           StockAllocationService allocator, CartRepository carts,
+                           WebStockReservationService reservations, ItemCodeTrie itemCodes,
+                           WebOrderRepository orders) {
         this.console = console;
         this.sessionManager = sessionManager;
         this.itemRepo = itemRepo;
         this.webRepo = webRepo;
+        this.allocator = allocator;
+        this.carts = carts;
+        this.reservations = reservations;
+        this.orders = orders;
+        this.codePrompt = new ItemCodePrompt(console, itemCodes);
     }
 
     @Override
@@ -57,10 +77,16 @@ public class ViewCartCommand implements Command {
             console.printError("Customer login required to view cart.");
             return;
         }
+        // Every cart edit and the checkout go through the holds; without web stock there is nothing to sell
+        if (webRepo == null || reservations == null) {
+            console.printError("Online shopping is not available on this terminal.");
+            return;
+        }
         long userId = sessionManager.getCurrentUserId();
-        Map<String, Double> cart = CARTS.computeIfAbsent(userId, k -> new LinkedHashMap<>());
 
         while (true) {
+            reservations.touch(userId);
+            Map<String, Double> cart = loadCart(userId);
             console.println("\n\u2554\u2550\u2550 SHOPPING CART \u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550\u2550");
             if (cart.isEmpty()) {
                 console.println("Your cart is empty.");
@@ -70,9 +96,9 @@ public class ViewCartCommand implements Command {
             console.println("\nOptions: 1) Add  2) Update  3) Remove  4) Checkout  5) Back");
             String choice = console.readLine("Choose: ");
             switch (choice) {
-                case "1" -> addToCart(cart);
-                case "2" -> updateCart(cart);
-                case "3" -> removeFromCart(cart);
+                case "1" -> addToCart(cart, userId);
+                case "2" -> updateCart(cart, userId);
+                case "3" -> removeFromCart(cart, userId);
                 case "4" -> { if (checkout(cart, userId)) return; }
                 case "5" -> { return; }
                 default -> console.printError("Invalid choice");
@@ -80,6 +106,18 @@ public class ViewCartCommand implements Command {
         }
     }
 
+    // itemCode -> qty view of the stored cart (lines are stored by item id)
+    private Map<String, Double> loadCart(long userId) {
+        Map<String, Double> cart = new LinkedHashMap<>();
+        carts.findActiveCart(userId).forEach((itemId, qty) ->
+                itemRepo.findById(itemId).ifPresent(item -> cart.put(item.getItemCode().getValue(), qty.doubleValue())));
+        return cart;
+    }
+
+    private Long itemIdFor(String code) {
+        return itemRepo.findByItemCode(ItemCode.of(code)).map(ItemMasterFile::getId).orElse(null);
+    }
+
     private void printCart(Map<String, Double> cart) {
         console.println(String.format("%-14s %-24s %-8s %-10s", "Item Code", "Name", "Qty", "Price"));
         double total = 0.0;
@@ -95,57 +133,79 @@ public class ViewCartCommand implements Command {
         console.println(String.format("\nTotal: LKR %.2f", total));
     }
 
-    private void addToCart(Map<String, Double> cart) {
-        String code = console.readLine("Item Code to add: ");
+    private void addToCart(Map<String, Double> cart, long userId) {
+        String code = codePrompt.resolve(console.readLine("Item Code to add: "));
+        if (code == null) return;
         String qtyStr = console.readLine("Quantity: ");
         try {
             double qty = Double.parseDouble(qtyStr);
             if (qty <= 0) { console.printError("Quantity must be positive."); return; }
-            // basic availability check in WEB_INVENTORY
-            double available = webRepo.findByItemCode(ItemCode.of(code)).stream()
-                    .filter(WebInventory::isAvailableForPurchase)
-                    .map(w -> w.getQuantityAvailable().toBigDecimal())
-                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                    .doubleValue();
+            Long itemId = itemIdFor(code.trim());
+            if (itemId == null) { console.printError("Item not found: " + code); return; }
+            // hold WEB stock for this cart; fails if other carts already hold it
             double existing = cart.getOrDefault(code.trim(), 0.0);
-            if (available < existing + qty) {
-                console.printError("Insufficient WEB stock. Available: " + available);
+            if (!reservations.reserve(userId, itemId, java.math.BigDecimal.valueOf(existing + qty))) {
+                console.printError("Insufficient WEB stock. Available: " + reservations.availableTo(userId, itemId).doubleValue());
                 return;
             }
-            cart.put(code.trim(), existing + qty);
+            carts.setQuantity(userId, itemId, java.math.BigDecimal.valueOf(existing + qty));
             console.printSuccess("Added to cart.");
         } catch (NumberFormatException ex) {
             console.printError("Invalid quantity");
         }
     }
 
-    private void updateCart(Map<String, Double> cart) {
-        String code = console.readLine("Item Code to update: ");
+    private void updateCart(Map<String, Double> cart, long userId) {
+        String code = codePrompt.resolve(console.readLine("Item Code to update: "));
+        if (code == null) return;
         if (!cart.containsKey(code)) { console.printError("Item not in cart"); return; }
+        Long itemId = itemIdFor(code);
         String qtyStr = console.readLine("New Quantity (0 to remove): ");
         try {
             double qty = Double.parseDouble(qtyStr);
-            if (qty <= 0) { cart.remove(code); console.printWarning("Removed from cart."); return; }
-            double available = webRepo.findByItemCode(ItemCode.of(code)).stream()
-                    .filter(WebInventory::isAvailableForPurchase)
-                    .map(w -> w.getQuantityAvailable().toBigDecimal())
-                    .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                    .doubleValue();
-            if (available < qty) { console.printError("Insufficient WEB stock. Available: " + available); return; }
-            cart.put(code, qty);
+            if (qty <= 0) {
+                reservations.release(userId, itemId);
+                carts.removeItem(userId, itemId);
+                console.printWarning("Removed from cart.");
+                return;
+            }
+            if (!reservations.reserve(userId, itemId, java.math.BigDecimal.valueOf(qty))) {
+                console.printError("Insufficient WEB stock. Available: " + reservations.availableTo(userId, itemId).doubleValue());
+                return;
+            }
+            carts.setQuantity(userId, itemId, java.math.BigDecimal.valueOf(qty));
             console.printSuccess("Updated.");
         } catch (NumberFormatException ex) {
             console.printError("Invalid quantity");
         }
     }
 
-    private void removeFromCart(Map<String, Double> cart) {
-        String code = console.readLine("Item Code to remove: ");
-        if (cart.remove(code) != null) console.printSuccess("Removed."); else console.printWarning("Item not found in cart.");
+    private void removeFromCart(Map<String, Double> cart, long userId) {
+        String code = codePrompt.resolve(console.readLine("Item Code to remove: "));
+        if (code == null) return;
+        if (cart.containsKey(code)) {
+            Long itemId = itemIdFor(code);
+            reservations.release(userId, itemId);
+            carts.removeItem(userId, itemId);
+            console.printSuccess("Removed.");
+        } else {
+            console.printWarning("Item not found in cart.");
+        }
     }
 
     private boolean checkout(Map<String, Double> cart, long userId) {
         if (cart.isEmpty()) { console.printWarning("Cart is empty."); return false; }
+        // Holds lapse after inactivity: take them again before charging the card
+        Map<String, Long> itemIds = new LinkedHashMap<>();
+        for (var e : cart.entrySet()) {
+            Long itemId = itemIdFor(e.getKey());
+            itemIds.put(e.getKey(), itemId);
+            if (!reservations.reserve(userId, itemId, java.math.BigDecimal.valueOf(e.getValue()))) {
+                console.printError("Insufficient WEB stock for " + e.getKey() + ". Available: "
+                        + reservations.availableTo(userId, itemId).doubleValue());
+                return false;
+            }
+        }
         // compute total
         double total = cart.entrySet().stream().mapToDouble(e ->
                 itemRepo.findByItemCode(ItemCode.of(e.getKey()))
@@ -157,39 +217,50 @@ public class ViewCartCommand implements Command {
         if (card == null || !card.matches("\\d{16}")) { console.printError("Invalid card number"); return false; }
         if ("0767600730204128".equals(card)) { console.printError("Payment declined."); return false; }
 
-        // Deduct from WEB_INVENTORY using FIFO with expiry override
-        UserID uid = UserID.of(userId);
+        // Plan the WEB_INVENTORY deduction with the WEB channel's stock selection strategy, one allocation per item;
+        // nothing is written yet, so a shortfall here leaves stock, holds and orders untouched
+        StockAllocationService.Checkout<String, WebInventory> allocation = allocator.beginCheckout(
+                StockAllocationService.Channel.WEB,
+                wi -> new StockAllocationService.StockView(wi.getQuantityAvailable().toBigDecimal(), wi.getAddedToWebDate(), wi.getExpiryDate()));
+        Map<String, List<StockAllocationService.Allocation<WebInventory>>> plan = new LinkedHashMap<>();
         for (var e : cart.entrySet()) {
-            String code = e.getKey();
-            double qty = e.getValue();
-            java.math.BigDecimal remaining = java.math.BigDecimal.valueOf(qty);
-            List<WebInventory> stocks = new ArrayList<>(webRepo.findByItemCode(ItemCode.of(code)));
+            List<WebInventory> stocks = new ArrayList<>(webRepo.findByItemCode(ItemCode.of(e.getKey())));
             stocks.removeIf(s -> !s.isAvailableForPurchase());
-            stocks.sort(this::fifoWithExpiryComparator);
-            for (WebInventory wi : stocks) {
-                if (remaining.compareTo(java.math.BigDecimal.ZERO) <= 0) break;
-                java.math.BigDecimal availableHere = wi.getQuantityAvailable().toBigDecimal();
-                java.math.BigDecimal take = remaining.min(availableHere);
-                WebInventory after = wi.sellStock(Quantity.of(take), uid);
-                webRepo.save(after);
-                remaining = remaining.subtract(take);
-            }
+            allocation.stock(e.getKey(), stocks);
+            plan.put(e.getKey(), allocation.allocate(e.getKey(), java.math.BigDecimal.valueOf(e.getValue())));
+        }
+
+        // Record the order first: if that fails the customer still holds their stock and can retry
+        List<WebOrderRepository.OrderLine> lines = new ArrayList<>();
+        BigDecimal orderTotal = BigDecimal.ZERO;
+        for (var e : cart.entrySet()) {
+            ItemMasterFile item = itemRepo.findByItemCode(ItemCode.of(e.getKey())).orElse(null);
+            if (item == null) continue;
+            var line = new WebOrderRepository.OrderLine(item.getId(), item.getItemName(),
+                    BigDecimal.valueOf(e.getValue()), item.getSellingPrice().toBigDecimal());
+            lines.add(line);
+            orderTotal = orderTotal.add(line.lineTotal());
+        }
+        long orderNo;
+        try {
+            orderNo = orders.save(userId, LocalDateTime.now(), lines, orderTotal);
+        } catch (RuntimeException ex) {
+            console.printError("Could not record the order; nothing was charged. Please try again.");
+            return false;
         }
 
-        // Log order
-        List<OrderLine> lines = new ArrayList<>();
-        cart.forEach((code, qty) -> {
-            ItemMasterFile item = itemRepo.findByItemCode(ItemCode.of(code)).orElse(null);
-            if (item != null) {
-                double unit = item.getSellingPrice().toBigDecimal().doubleValue();
-                lines.add(new OrderLine(item.getItemName(), qty, unit));
+        // Then take the sold stock from the holds
+        UserID uid = UserID.of(userId);
+        for (var e : plan.entrySet()) {
+            for (var a : e.getValue()) {
+                webRepo.save(a.source().sellStock(Quantity.of(a.quantity()), uid));
             }
-        });
-        long orderNo = WEB_ORDER_SEQ++;
-        ORDERS.add(new WebOrder(orderNo, userId, LocalDateTime.now(), lines, total));
+            reservations.commit(userId, itemIds.get(e.getKey()));
+        }
 
-        // Clear cart
-        cart.clear();
+        // Close the cart now rather than at the next write-behind flush
+        carts.clear(userId);
+        carts.flush();
 
         console.printSuccess("Payment successful. Order No: " + orderNo);
         console.println("Channel: WEB");
@@ -197,26 +268,4 @@ public class ViewCartCommand implements Command {
         console.readLine();
         return true;
     }
-
-    // expiry first, then addedToWebDate FIFO
-    private int fifoWithExpiryComparator(WebInventory a, WebInventory b) {
-        var ea = a.getExpiryDate();
-        var eb = b.getExpiryDate();
-        if (ea != null && eb != null && !ea.equals(eb)) {
-            return ea.isBefore(eb) ? -1 : 1;
-        }
-        var pa = a.getAddedToWebDate();
-        var pb = b.getAddedToWebDate();
-        if (pa == null && pb == null) return 0;
-        if (pa == null) return 1;
-        if (pb == null) return -1;
-        return pa.isBefore(pb) ? -1 : (pa.isAfter(pb) ? 1 : 0);
-    }
-
-    // Exposed for OrderHistoryCommand
-    public static List<WebOrder> getOrdersForUser(long userId) {
-        List<WebOrder> list = new ArrayList<>();
-        for (WebOrder o : ORDERS) if (o.userId == userId) list.add(o);
-        return list;
-    }
 }
@@ -167,24 +167,30 @@ public class ProductController {
         consoleIO.println();
         
         // Display header
-        consoleIO.printf("%-15s %-30s %-15s %-10s %-8s%n", 
-            "Code", "Name", "Price (LKR)", "Unit", "Featured");
-        consoleIO.println("-".repeat(80));
+        consoleIO.printf("%-15s %-30s %-15s %-10s %-8s %-10s%n", 
+            "Code", "Name", "Price (LKR)", "Unit", "Featured", "Online");
+        consoleIO.println("-".repeat(91));
         
         // Display products
         for (BrowseProductsUseCase.ProductDisplayDto product : response.getProducts()) {
-            consoleIO.printf("%-15s %-30s %-15s %-10s %-8s%n",
+            consoleIO.printf("%-15s %-30s %-15s %-10s %-8s %-10s%n",
                 product.getItemCode(),
                 truncate(product.getItemName(), 30),
                 product.getPrice(),
                 product.getUnitOfMeasure(),
-                product.isFeatured() ? "Yes" : "No"
+                product.isFeatured() ? "Yes" : "No",
+                onlineStatus(product.getWebAvailable())
             );
         }
         
         consoleIO.println();
     }
 
+    private String onlineStatus(BigDecimal available) {
+        if (available == null) return "-";
+        return available.signum() > 0 ? available.stripTrailingZeros().toPlainString() : "Sold out";
+    }
+
     // Helper methods for input validation
     private UnitOfMeasure selectUnitOfMeasure() {
         consoleIO.println("\nAvailable Units of Measure:");
@@ -0,0 +1,48 @@
+package com.syos.adapter.in.cli.io;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Prints report lines a page at a time, pausing for the user between pages.
+ * Lines are pulled from the stream only as pages are shown, so a cursor-backed
+ * stream is never fully held in memory and stops being read when the user quits.
+ */
+public class ConsolePager {
+    public static final int DEFAULT_PAGE_SIZE = 25;
+
+    private final ConsoleIO console;
+    private final int pageSize;
+
+    public ConsolePager(ConsoleIO console) {
+        this(console, DEFAULT_PAGE_SIZE);
+    }
+
+    public ConsolePager(ConsoleIO console, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.console = Objects.requireNonNull(console);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Print {@code header} followed by {@code lines}; the header is repeated on each page.
+     * @return number of lines printed; 0 means the stream was empty and nothing (not even the header) was shown
+     */
+    public int print(String header, Stream<String> lines) {
+        Iterator<String> it = lines.iterator();
+        int printed = 0;
+        while (it.hasNext()) {
+            if (printed > 0 && printed % pageSize == 0) {
+                String answer = console.readLine("-- " + printed + " rows shown. [Enter] next page, [Q] stop: ");
+                if (answer == null || answer.trim().equalsIgnoreCase("q")) break;
+            }
+            if (printed % pageSize == 0 && header != null) console.println(header);
+            console.println(it.next());
+            printed++;
+        }
+        return printed;
+    }
+}
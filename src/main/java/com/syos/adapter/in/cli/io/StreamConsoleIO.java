@@ -0,0 +1,106 @@
+package com.syos.adapter.in.cli.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Console I/O over a pair of streams, e.g. one terminal connected to the server.
+ * Output is flushed before every read so prompts reach the terminal.
+ * When the other end goes away, reads throw NoSuchElementException (as Scanner does on EOF).
+ * Passwords are read as plain lines: a remote terminal controls its own echo.
+ */
+public class StreamConsoleIO implements ConsoleIO {
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    public StreamConsoleIO(InputStream in, OutputStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = new PrintStream(out, false, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void print(String message) {
+        out.print(message);
+    }
+
+    @Override
+    public void println(String message) {
+        out.println(message);
+    }
+
+    @Override
+    public void println() {
+        out.println();
+    }
+
+    @Override
+    public String readLine() {
+        out.flush();
+        String line;
+        try {
+            line = in.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Terminal read failed", e);
+        }
+        if (line == null) throw new NoSuchElementException("Terminal disconnected");
+        return line;
+    }
+
+    @Override
+    public String readLine(String prompt) {
+        if (prompt != null && !prompt.isEmpty()) {
+            out.print(prompt);
+        }
+        return readLine();
+    }
+
+    @Override
+    public String readPassword() {
+        return readLine();
+    }
+
+    @Override
+    public void printf(String format, Object... args) {
+        out.printf(format, args);
+    }
+
+    @Override
+    public void clear() {
+        out.print("\033[H\033[2J");
+        out.flush();
+    }
+
+    @Override
+    public void printError(String message) {
+        out.println("ERROR: " + message);
+    }
+
+    @Override
+    public void printSuccess(String message) {
+        out.println("SUCCESS: " + message);
+    }
+
+    @Override
+    public void printWarning(String message) {
+        out.println("⚠️ WARNING: " + message);
+    }
+
+    @Override
+    public void printInfo(String message) {
+        out.println("ℹ️ INFO: " + message);
+    }
+
+    /**
+     * Push buffered output to the terminal.
+     */
+    public void flush() {
+        out.flush();
+    }
+}
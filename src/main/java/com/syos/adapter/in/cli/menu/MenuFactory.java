@@ -44,6 +44,14 @@ public class MenuFactory {
     private final DiscountService discountService;
     private final com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository;
     private final com.syos.infrastructure.persistence.repositories.JpaPromotionRepository promotionRepository;
+    private final com.syos.application.services.StockAllocationService stockAllocation;
+    private final com.syos.application.ports.out.CartRepository cartRepository;
+    private final com.syos.application.services.WebStockReservationService webReservations;
+    private final com.syos.application.ports.out.StockReportRepository stockReportRepository;
+    private final com.syos.application.services.ItemCodeTrie itemCodes;
+    private final com.syos.application.ports.out.WebOrderRepository webOrders;
+    private final com.syos.application.usecases.browsing.BrowseProductsUseCase browseProductsUseCase;
+    private final com.syos.application.services.WebAvailabilityIndex webAvailability;
     // Reporting repositories (read-only projections)
     private final com.syos.application.ports.out.TransactionReportRepository transactionReportRepository;
     private final com.syos.application.ports.out.BillReportRepository billReportRepository;
@@ -73,9 +81,21 @@ public class MenuFactory {
         this.discountService = null;
         this.posRepository = null;
         this.promotionRepository = null;
+        this.stockAllocation = com.syos.application.services.StockAllocationService.defaults();
+        this.cartRepository = new com.syos.adapter.out.persistence.memory.InMemoryCartRepository();
+        this.webReservations = null;
+        this.stockReportRepository = null;
+        this.itemCodes = null;
+        this.webOrders = new com.syos.adapter.out.persistence.memory.InMemoryWebOrderRepository();
+        this.browseProductsUseCase = null;
+        this.webAvailability = null;
     }
 
-    // Overloaded constructor to enable Add Product command and other features
+    /**
+     * Full constructor used by the running application. Null stockAllocation, cartRepository or webOrders fall
+     * back to the defaults (default stock selection, in-memory carts and order history); the other optional
+     * dependencies may be null where the feature they serve is not offered.
+     */
     public MenuFactory(ConsoleIO console, MenuNavigator navigator,
                        LoginUseCase loginUseCase, RegisterCustomerUseCase registerUseCase,
                        UserRepository userRepository,
@@ -94,7 +114,15 @@ public class MenuFactory {
                        com.syos.application.ports.out.BillReportRepository billReportRepository,
                        DiscountService discountService,
                        com.syos.infrastructure.persistence.repositories.JpaPOSRepository posRepository,
-                       com.syos.infrastructure.persistence.repositories.JpaPromotionRepository promotionRepository) {
+                       com.syos.infrastructure.persistence.repositories.JpaPromotionRepository promotionRepository,
+                       com.syos.application.services.StockAllocationService stockAllocation,
+                       com.syos.application.ports.out.CartRepository cartRepository,
+                       com.syos.application.services.WebStockReservationService webReservations,
+                       com.syos.application.ports.out.StockReportRepository stockReportRepository,
+                       com.syos.application.services.ItemCodeTrie itemCodes,
+                       com.syos.application.ports.out.WebOrderRepository webOrders,
+                       com.syos.application.usecases.browsing.BrowseProductsUseCase browseProductsUseCase,
+                       com.syos.application.services.WebAvailabilityIndex webAvailability) {
         this.console = console;
         this.navigator = navigator;
         this.loginUseCase = loginUseCase;
@@ -116,6 +144,17 @@ public class MenuFactory {
         this.discountService = discountService;
         this.posRepository = posRepository;
         this.promotionRepository = promotionRepository;
+        this.stockAllocation = stockAllocation != null ? stockAllocation
+                : com.syos.application.services.StockAllocationService.defaults();
+        this.cartRepository = cartRepository != null ? cartRepository
+                : new com.syos.adapter.out.persistence.memory.InMemoryCartRepository();
+        this.webReservations = webReservations;
+        this.stockReportRepository = stockReportRepository;
+        this.itemCodes = itemCodes;
+        this.webOrders = webOrders != null ? webOrders
+                : new com.syos.adapter.out.persistence.memory.InMemoryWebOrderRepository();
+        this.browseProductsUseCase = browseProductsUseCase;
+        this.webAvailability = webAvailability;
     }
 
     /**
@@ -125,7 +164,7 @@ public class MenuFactory {
         return new Menu.Builder()
             .title("SYNEX OUTLET STORE - Main Menu")
             .addItem(new MenuItem("1", "Browse Products", 
-                new BrowseProductsCommand(console, itemRepository, webInventoryRepository)))
+                new BrowseProductsCommand(console, itemRepository, webInventoryRepository, webReservations, browseProductsUseCase, webAvailability)))
             .addItem(new MenuItem("2", "Login", 
                 new LoginCommand(console, loginUseCase, navigator, this)))
             .addItem(new MenuItem("3", "Register", 
@@ -159,11 +198,11 @@ public class MenuFactory {
         return new Menu.Builder()
             .title("CUSTOMER NAVIGATION MENU")
             .addItem(new MenuItem("1", "Browse Products", 
-                new BrowseProductsCommand(console, itemRepository, webInventoryRepository)))
+                new BrowseProductsCommand(console, itemRepository, webInventoryRepository, webReservations, browseProductsUseCase, webAvailability)))
             .addItem(new MenuItem("2", "View Cart", 
-                new ViewCartCommand(console, sessionManager, itemRepository, webInventoryRepository)))
+                new ViewCartCommand(console, sessionManager, itemRepository, webInventoryRepository, stockAllocation, cartRepository, webReservations, itemCodes, webOrders)))
             .addItem(new MenuItem("3", "Order History", 
-                new OrderHistoryCommand(console, sessionManager)))
+                new OrderHistoryCommand(console, sessionManager, webOrders)))
             .addItem(new MenuItem("4", "Logout", 
                 new LogoutCommand(console, navigator, this)))
             .prompt("Enter your choice: ")
@@ -178,7 +217,7 @@ public class MenuFactory {
             .title("EMPLOYEE DASHBOARD")
             .addItem(new MenuItem("1", "Point of Sale (POS)", 
                 (sessionManager != null && shelfStockRepository != null && itemRepository != null)
-                    ? new POSCommand(console, sessionManager, shelfStockRepository, itemRepository, discountService, posRepository)
+                    ? new POSCommand(console, sessionManager, shelfStockRepository, itemRepository, discountService, posRepository, stockAllocation, itemCodes)
                     : createPlaceholderCommand("Point of Sale")))
             .addItem(new MenuItem("2", "Add Product",
                 (addProductUseCase != null && brandRepository != null && categoryRepository != null && supplierRepository != null && sessionManager != null && productManagementUseCase != null)
@@ -190,11 +229,11 @@ public class MenuFactory {
                     : createPlaceholderCommand("Warehouse Stock Management")))
             .addItem(new MenuItem("4", "Discounts & Promotions",
                 (sessionManager != null && promotionRepository != null)
-                    ? new ManagePromotionsCommand(console, sessionManager, promotionRepository)
+                    ? new ManagePromotionsCommand(console, sessionManager, promotionRepository, discountService)
                     : createPlaceholderCommand("Discounts & Promotions")))
             .addItem(new MenuItem("5", "Reports & Insights",
                 (sessionManager != null && itemRepository != null && warehouseStockRepository != null && shelfStockRepository != null && webInventoryRepository != null)
-                    ? new ReportsAndInsightsCommand(console, sessionManager, itemRepository, warehouseStockRepository, shelfStockRepository, webInventoryRepository, batchRepository, transactionReportRepository, billReportRepository)
+                    ? new ReportsAndInsightsCommand(console, sessionManager, itemRepository, warehouseStockRepository, shelfStockRepository, webInventoryRepository, batchRepository, transactionReportRepository, billReportRepository, stockReportRepository)
                     : createPlaceholderCommand("Reports & Insights")))
             .addItem(new MenuItem("L", "Logout",
                 new LogoutCommand(console, navigator, this)))
@@ -210,7 +249,7 @@ public class MenuFactory {
             .title("ADMINISTRATOR DASHBOARD")
             .addItem(new MenuItem("1", "Point of Sale (POS)", 
                 (sessionManager != null && shelfStockRepository != null && itemRepository != null)
-                    ? new POSCommand(console, sessionManager, shelfStockRepository, itemRepository, discountService, posRepository)
+                    ? new POSCommand(console, sessionManager, shelfStockRepository, itemRepository, discountService, posRepository, stockAllocation, itemCodes)
                     : createPlaceholderCommand("Point of Sale")))
             .addItem(new MenuItem("2", "Add Product",
                 (addProductUseCase != null && brandRepository != null && categoryRepository != null && supplierRepository != null && sessionManager != null && productManagementUseCase != null)
@@ -222,7 +261,7 @@ public class MenuFactory {
                     : createPlaceholderCommand("Warehouse Stock Management")))
             .addItem(new MenuItem("4", "Discounts & Promotions",
                 (sessionManager != null && promotionRepository != null)
-                    ? new ManagePromotionsCommand(console, sessionManager, promotionRepository)
+                    ? new ManagePromotionsCommand(console, sessionManager, promotionRepository, discountService)
                     : createPlaceholderCommand("Discounts & Promotions")))
             .addItem(new MenuItem("5", "User Management",
                 (sessionManager != null && userRepository != null)
@@ -234,7 +273,7 @@ public class MenuFactory {
                     : createPlaceholderCommand("Item Catalog Management")))
             .addItem(new MenuItem("7", "Reports & Insights",
                 (sessionManager != null && itemRepository != null && warehouseStockRepository != null && shelfStockRepository != null && webInventoryRepository != null)
-                    ? new ReportsAndInsightsCommand(console, sessionManager, itemRepository, warehouseStockRepository, shelfStockRepository, webInventoryRepository, batchRepository, transactionReportRepository, billReportRepository)
+                    ? new ReportsAndInsightsCommand(console, sessionManager, itemRepository, warehouseStockRepository, shelfStockRepository, webInventoryRepository, batchRepository, transactionReportRepository, billReportRepository, stockReportRepository)
                     : createPlaceholderCommand("Reports & Insights")))
             .addItem(new MenuItem("L", "Logout", 
                 new LogoutCommand(console, navigator, this)))
@@ -61,6 +61,10 @@ public class MenuNavigator {
                 if (!choice.isEmpty()) {
                     processChoice(currentMenu, choice);
                 }
+            } catch (java.util.NoSuchElementException | java.io.UncheckedIOException e) {
+                // input closed (EOF on stdin, terminal disconnected): nobody left to serve
+                logger.info("Console input closed; leaving menu: {}", e.getMessage());
+                running = false;
             } catch (Exception e) {
                 logger.error("Error in menu navigation", e);
                 console.printError("An error occurred: " + e.getMessage());
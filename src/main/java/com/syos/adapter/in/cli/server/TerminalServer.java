@@ -0,0 +1,191 @@
+package com.syos.adapter.in.cli.server;
+
+import com.syos.adapter.in.cli.io.StreamConsoleIO;
+import com.syos.adapter.in.cli.session.SessionManager;
+import com.syos.adapter.in.cli.state.StateContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless server mode: many terminals (POS lanes, customer kiosks) connect over a local TCP or Unix
+ * domain socket and share one JVM, one connection pool and the same repositories and caches.
+ * - Each connection gets its own StreamConsoleIO and StateContext and runs on its own virtual thread
+ * - A terminal's login session is bound to that thread and ends when the terminal disconnects
+ * - At most maxTerminals are served at once; further connections are told so and closed
+ */
+public class TerminalServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TerminalServer.class);
+
+    /**
+     * Runs one terminal until it logs off or disconnects.
+     */
+    @FunctionalInterface
+    public interface TerminalHandler {
+        void serve(StateContext terminal) throws Exception;
+    }
+
+    private final SocketAddress address;
+    private final int maxTerminals;
+    private final TerminalHandler handler;
+    private final Semaphore slots;
+    private final ExecutorService terminals = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, SocketChannel> connections = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile ServerSocketChannel server;
+
+    public TerminalServer(SocketAddress address, int maxTerminals, TerminalHandler handler) {
+        if (maxTerminals <= 0) throw new IllegalArgumentException("maxTerminals must be positive");
+        this.address = Objects.requireNonNull(address);
+        this.maxTerminals = maxTerminals;
+        this.handler = Objects.requireNonNull(handler);
+        this.slots = new Semaphore(maxTerminals);
+    }
+
+    /**
+     * Parse "tcp://host:port", "host:port", ":port" or "unix:/path/to/socket".
+     */
+    public static SocketAddress parseAddress(String spec) {
+        String s = spec.trim();
+        if (s.startsWith("unix:")) return UnixDomainSocketAddress.of(s.substring("unix:".length()));
+        if (s.startsWith("tcp://")) s = s.substring("tcp://".length());
+        int colon = s.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("Expected host:port or unix:/path, got: " + spec);
+        String host = colon == 0 ? "127.0.0.1" : s.substring(0, colon);
+        return new InetSocketAddress(host, Integer.parseInt(s.substring(colon + 1)));
+    }
+
+    /**
+     * Bind the listening socket. Call serve() to start accepting.
+     */
+    public synchronized void bind() throws IOException {
+        if (server != null) return;
+        ServerSocketChannel channel;
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath()); // left over from a previous run
+            channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            channel = ServerSocketChannel.open();
+        }
+        channel.bind(address);
+        server = channel;
+        logger.info("Terminal server listening on {} (max {} terminals)", channel.getLocalAddress(), maxTerminals);
+    }
+
+    /**
+     * Accept terminals until close(); blocks the calling thread.
+     */
+    public void serve() throws IOException {
+        bind();
+        while (server.isOpen()) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (ClosedChannelException e) {
+                break;
+            }
+            if (!slots.tryAcquire()) {
+                reject(connection);
+                continue;
+            }
+            String terminalId = "terminal-" + sequence.incrementAndGet();
+            connections.put(terminalId, connection);
+            terminals.submit(() -> run(terminalId, connection));
+        }
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return server != null ? server.getLocalAddress() : address;
+    }
+
+    public int activeTerminals() {
+        return connections.size();
+    }
+
+    /**
+     * Stop accepting, disconnect every terminal and wait briefly for them to wind down.
+     */
+    @Override
+    public void close() {
+        ServerSocketChannel channel = server;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close terminal server socket", e);
+            }
+        }
+        connections.values().forEach(TerminalServer::closeQuietly);
+        terminals.shutdown();
+        try {
+            if (!terminals.awaitTermination(5, TimeUnit.SECONDS)) terminals.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (address instanceof UnixDomainSocketAddress unix) {
+            try {
+                Files.deleteIfExists(unix.getPath());
+            } catch (IOException e) {
+                logger.warn("Could not remove socket file {}", unix.getPath(), e);
+            }
+        }
+    }
+
+    private void run(String terminalId, SocketChannel connection) {
+        Thread.currentThread().setName(terminalId);
+        logger.info("Terminal connected: {}", terminalId);
+        StreamConsoleIO console = new StreamConsoleIO(
+                Channels.newInputStream(connection), Channels.newOutputStream(connection));
+        try {
+            handler.serve(new StateContext(terminalId, console));
+            console.flush();
+        } catch (NoSuchElementException | UncheckedIOException e) {
+            logger.debug("Terminal {} went away: {}", terminalId, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Terminal {} failed", terminalId, e);
+        } finally {
+            SessionManager.getInstance().clearSession(); // the terminal's login ends with its connection
+            closeQuietly(connection);
+            slots.release();
+            connections.remove(terminalId); // last, so activeTerminals() == 0 means every slot is free
+            logger.info("Terminal disconnected: {}", terminalId);
+        }
+    }
+
+    private void reject(SocketChannel connection) {
+        logger.warn("Terminal limit ({}) reached; connection refused", maxTerminals);
+        StreamConsoleIO console = new StreamConsoleIO(
+                Channels.newInputStream(connection), Channels.newOutputStream(connection));
+        console.printError("All " + maxTerminals + " terminal slots are in use. Please try again later.");
+        console.flush();
+        closeQuietly(connection);
+    }
+
+    private static void closeQuietly(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException ignored) {
+            // already gone
+        }
+    }
+}
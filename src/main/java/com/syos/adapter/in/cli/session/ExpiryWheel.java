@@ -0,0 +1,64 @@
+package com.syos.adapter.in.cli.session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel for session expiry.
+ * - schedule() is O(1): a key goes into the slot of its deadline tick, with later rounds sharing the slot
+ * - advance() visits only the slots passed since the last call and returns the keys that fell due
+ * Keys are not removed on logout or activity; the caller re-checks each due key and reschedules it if
+ * its deadline has moved.
+ */
+class ExpiryWheel {
+    private final long tickMillis;
+    private final List<List<Scheduled>> slots;
+    private final int mask;
+    private long currentTick;
+
+    /**
+     * @param slotCount rounded up to a power of two
+     */
+    ExpiryWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) slots.add(new ArrayList<>());
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(String key, long deadlineMillis) {
+        // round up so a key is never reported before its deadline
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        slots.get((int) (tick & mask)).add(new Scheduled(key, tick));
+    }
+
+    synchronized List<String> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<String> due = new ArrayList<>();
+        long steps = Math.min(target - currentTick, slots.size());
+        for (long i = 1; i <= steps; i++) {
+            Iterator<Scheduled> it = slots.get((int) ((currentTick + i) & mask)).iterator();
+            while (it.hasNext()) {
+                Scheduled s = it.next();
+                if (s.tick <= target) {
+                    due.add(s.key);
+                    it.remove();
+                }
+            }
+        }
+        if (target > currentTick) currentTick = target;
+        return due;
+    }
+
+    synchronized int size() {
+        int n = 0;
+        for (List<Scheduled> slot : slots) n += slot.size();
+        return n;
+    }
+
+    private record Scheduled(String key, long tick) {}
+}
@@ -4,16 +4,73 @@ import com.syos.shared.enums.UserRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Singleton Session Manager to handle user sessions
+ * - Any number of sessions, keyed by an opaque token
+ * - A session ends after idleTimeout without activity or absoluteTimeout after login, whichever comes first
+ * - At most maxSessionsPerUser per username; logging in again past the cap ends that user's oldest session
+ * - Expired sessions are reclaimed by a timer-wheel sweeper; lookups check expiry themselves
+ * The "current" session is the one bound to the calling thread: each terminal runs on its own thread
+ * (TerminalServer), createSession() binds that terminal's login, and isAdmin(), getCurrentUserId() etc.
+ * answer for it.
  */
 public class SessionManager {
     private static final Logger logger = LoggerFactory.getLogger(SessionManager.class);
+
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    public static final Duration DEFAULT_ABSOLUTE_TIMEOUT = Duration.ofHours(12);
+    public static final int DEFAULT_MAX_SESSIONS_PER_USER = 3;
+    private static final long TICK_MILLIS = 1_000L;
+    private static final int WHEEL_SLOTS = 512;
+
     private static SessionManager instance;
-    private UserSession currentSession;
+
+    private final Clock clock;
+    private final ExpiryWheel wheel;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    // username -> tokens, oldest first; each deque is only touched inside compute() for its key
+    private final Map<String, ArrayDeque<String>> tokensByUser = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> boundToken = new ThreadLocal<>();
+    private final ScheduledExecutorService sweeper;
+
+    private volatile long idleMillis = DEFAULT_IDLE_TIMEOUT.toMillis();
+    private volatile long absoluteMillis = DEFAULT_ABSOLUTE_TIMEOUT.toMillis();
+    private volatile int maxSessionsPerUser = DEFAULT_MAX_SESSIONS_PER_USER;
 
     private SessionManager() {
-        // Private constructor for singleton
+        this(Clock.systemUTC(), true);
+    }
+
+    /**
+     * @param startSweeper false to expire sessions only through sweep() and lookups
+     */
+    SessionManager(Clock clock, boolean startSweeper) {
+        this.clock = clock;
+        this.wheel = new ExpiryWheel(TICK_MILLIS, WHEEL_SLOTS, clock.millis());
+        if (startSweeper) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "session-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweepQuietly, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
     }
 
     public static synchronized SessionManager getInstance() {
@@ -23,22 +80,73 @@ public class SessionManager {
         return instance;
     }
 
+    /**
+     * Change timeouts and the per-user cap; applies to existing sessions too.
+     */
+    public void configure(Duration idleTimeout, Duration absoluteTimeout, int maxSessionsPerUser) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero() || absoluteTimeout.isNegative() || absoluteTimeout.isZero()) {
+            throw new IllegalArgumentException("Session timeouts must be positive");
+        }
+        if (maxSessionsPerUser <= 0) throw new IllegalArgumentException("maxSessionsPerUser must be positive");
+        this.idleMillis = idleTimeout.toMillis();
+        this.absoluteMillis = absoluteTimeout.toMillis();
+        this.maxSessionsPerUser = maxSessionsPerUser;
+    }
+
+    /**
+     * Start a session and make it the current one for this thread, ending the one it replaces.
+     */
     public void createSession(UserSession session) {
-        this.currentSession = session;
-        logger.info("Session created for user: {} with role: {}", 
+        String previous = boundToken.get();
+        if (previous != null) invalidate(previous);
+        boundToken.set(open(session));
+        logger.info("Session created for user: {} with role: {}",
             session.getUsername(), session.getRole());
     }
 
+    // Register a session and return its token; binding it to a thread is the caller's job
+    private String open(UserSession session) {
+        String token = newToken();
+        long now = clock.millis();
+        Entry entry = new Entry(token, session, now);
+        sessions.put(token, entry);
+        List<String> evicted = new ArrayList<>();
+        tokensByUser.compute(session.getUsername(), (user, tokens) -> {
+            if (tokens == null) tokens = new ArrayDeque<>();
+            tokens.addLast(token);
+            while (tokens.size() > maxSessionsPerUser) evicted.add(tokens.pollFirst());
+            return tokens;
+        });
+        for (String old : evicted) {
+            if (sessions.remove(old) != null) {
+                logger.info("Session limit reached for user: {}; oldest session ended", session.getUsername());
+            }
+        }
+        wheel.schedule(token, entry.deadline(idleMillis, absoluteMillis));
+        return token;
+    }
+
     public UserSession getCurrentSession() {
-        return currentSession;
+        String token = boundToken.get();
+        if (token == null) return null;
+        Entry entry = sessions.get(token);
+        if (entry == null) return null;
+        long now = clock.millis();
+        if (entry.deadline(idleMillis, absoluteMillis) <= now) {
+            expire(entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.session;
     }
 
     public boolean isLoggedIn() {
-        return currentSession != null;
+        return getCurrentSession() != null;
     }
 
     public boolean hasRole(UserRole role) {
-        return isLoggedIn() && currentSession.getRole() == role;
+        UserSession session = getCurrentSession();
+        return session != null && session.getRole() == role;
     }
 
     public boolean isCustomer() {
@@ -55,17 +163,110 @@ public class SessionManager {
 
     // Convenience methods used by controllers
     public UserRole getCurrentUserRole() {
-        return isLoggedIn() ? currentSession.getRole() : null;
+        UserSession session = getCurrentSession();
+        return session != null ? session.getRole() : null;
     }
 
     public Long getCurrentUserId() {
-        return isLoggedIn() ? currentSession.getUserId() : null;
+        UserSession session = getCurrentSession();
+        return session != null ? session.getUserId() : null;
     }
 
+    /**
+     * End the session bound to this thread (logout).
+     */
     public void clearSession() {
-        if (currentSession != null) {
-            logger.info("Session cleared for user: {}", currentSession.getUsername());
-            currentSession = null;
+        String token = boundToken.get();
+        if (token == null) return;
+        boundToken.remove();
+        Entry entry = sessions.get(token);
+        if (entry != null && remove(entry)) {
+            logger.info("Session cleared for user: {}", entry.session.getUsername());
+        }
+    }
+
+    private void invalidate(String token) {
+        Entry entry = sessions.get(token);
+        if (entry != null) remove(entry);
+    }
+
+    public int activeSessionCount() {
+        return sessions.size();
+    }
+
+    public int sessionCountFor(String username) {
+        int[] count = new int[1];
+        tokensByUser.computeIfPresent(username, (user, t) -> {
+            count[0] = t.size();
+            return t;
+        });
+        return count[0];
+    }
+
+    /**
+     * Expire sessions whose deadline has passed; sessions still in use are put back on the wheel.
+     * @return number of sessions expired
+     */
+    public int sweep() {
+        long now = clock.millis();
+        int expired = 0;
+        for (String token : wheel.advance(now)) {
+            Entry entry = sessions.get(token);
+            if (entry == null) continue; // logged out or evicted since it was scheduled
+            long deadline = entry.deadline(idleMillis, absoluteMillis);
+            if (deadline <= now) {
+                if (expire(entry)) expired++;
+            } else {
+                wheel.schedule(token, deadline);
+            }
+        }
+        return expired;
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            logger.warn("Session sweep failed; will retry", ex);
+        }
+    }
+
+    private boolean expire(Entry entry) {
+        boolean removed = remove(entry);
+        if (removed) logger.info("Session expired for user: {}", entry.session.getUsername());
+        return removed;
+    }
+
+    private boolean remove(Entry entry) {
+        if (!sessions.remove(entry.token, entry)) return false;
+        tokensByUser.computeIfPresent(entry.session.getUsername(), (user, tokens) -> {
+            tokens.remove(entry.token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+        return true;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class Entry {
+        final String token;
+        final UserSession session;
+        final long createdAt;
+        volatile long lastAccess;
+
+        Entry(String token, UserSession session, long createdAt) {
+            this.token = token;
+            this.session = session;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+
+        long deadline(long idleMillis, long absoluteMillis) {
+            return Math.min(lastAccess + idleMillis, createdAt + absoluteMillis);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,4 +1,33 @@
 package com.syos.adapter.in.cli.state;
 
+import com.syos.adapter.in.cli.io.ConsoleIO;
+import com.syos.adapter.in.cli.menu.MenuNavigator;
+
+/**
+ * Per-terminal state: the terminal's console and its menu navigation.
+ * The standalone console has one; in server mode every connection gets its own, served on its own
+ * thread, so the session that thread logs in (SessionManager) belongs to that terminal alone.
+ */
 public class StateContext {
+    private final String terminalId;
+    private final ConsoleIO console;
+    private final MenuNavigator navigator;
+
+    public StateContext(String terminalId, ConsoleIO console) {
+        this.terminalId = terminalId;
+        this.console = console;
+        this.navigator = new MenuNavigator(console);
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public ConsoleIO getConsole() {
+        return console;
+    }
+
+    public MenuNavigator getNavigator() {
+        return navigator;
+    }
 }
@@ -0,0 +1,55 @@
+package com.syos.adapter.out.persistence.memory;
+
+import com.syos.application.ports.out.CartRepository;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory CartRepository; writes are immediate so flush() has nothing to do.
+ */
+public class InMemoryCartRepository implements CartRepository {
+    private final Map<Long, Map<Long, BigDecimal>> carts = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<Long, BigDecimal> findActiveCart(long userId) {
+        Map<Long, BigDecimal> cart = carts.get(userId);
+        if (cart == null) return new LinkedHashMap<>();
+        synchronized (cart) {
+            return new LinkedHashMap<>(cart);
+        }
+    }
+
+    @Override
+    public void setQuantity(long userId, long itemId, BigDecimal quantity) {
+        if (quantity == null || quantity.signum() <= 0) {
+            removeItem(userId, itemId);
+            return;
+        }
+        Map<Long, BigDecimal> cart = carts.computeIfAbsent(userId, k -> new LinkedHashMap<>());
+        synchronized (cart) {
+            cart.put(itemId, quantity);
+        }
+    }
+
+    @Override
+    public void removeItem(long userId, long itemId) {
+        Map<Long, BigDecimal> cart = carts.get(userId);
+        if (cart == null) return;
+        synchronized (cart) {
+            cart.remove(itemId);
+        }
+    }
+
+    @Override
+    public void clear(long userId) {
+        carts.remove(userId);
+    }
+
+    @Override
+    public void flush() {
+        // nothing deferred
+    }
+}
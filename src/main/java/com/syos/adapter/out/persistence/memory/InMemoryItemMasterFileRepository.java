@@ -67,6 +67,14 @@ public class InMemoryItemMasterFileRepository implements ItemMasterFileRepositor
             .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemMasterFile> findByCategories(Collection<CategoryId> categoryIds) {
+        Set<CategoryId> wanted = new HashSet<>(categoryIds);
+        return itemsById.values().stream()
+            .filter(item -> item.isActive() && wanted.contains(item.getCategoryId()))
+            .collect(Collectors.toList());
+    }
+
     @Override
     public List<ItemMasterFile> findByBrand(BrandId brandId) {
         return itemsById.values().stream()
@@ -3,6 +3,7 @@ package com.syos.adapter.out.persistence.memory;
 import com.syos.application.ports.out.ShelfStockRepository;
 import com.syos.domain.entities.ShelfStock;
 import com.syos.domain.valueobjects.ItemCode;
+import com.syos.domain.valueobjects.Quantity;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -63,6 +64,15 @@ public class InMemoryShelfStockRepository implements ShelfStockRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ShelfStock> findAvailableByItemCodes(Collection<ItemCode> itemCodes) {
+        Set<ItemCode> codes = new HashSet<>(itemCodes);
+        return store.values().stream()
+                .filter(ss -> codes.contains(ss.getItemCode()))
+                .filter(ShelfStock::isAvailableForSale)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<ShelfStock> findDisplayedItems() {
         return store.values().stream()
@@ -103,6 +113,19 @@ public class InMemoryShelfStockRepository implements ShelfStockRepository {
         return new ArrayList<>(store.values());
     }
 
+    @Override
+    public synchronized boolean decrementShelfStock(Long itemId, Long batchId, String shelfCode, BigDecimal quantity) {
+        for (ShelfStock ss : store.values()) {
+            if (Objects.equals(ss.getItemId(), itemId) && Objects.equals(ss.getBatchId(), batchId)
+                    && Objects.equals(ss.getShelfCode(), shelfCode)) {
+                if (ss.getQuantityOnShelf().toBigDecimal().compareTo(quantity) < 0) return false;
+                store.put(ss.getId(), ss.sellStock(Quantity.of(quantity), ss.getLastUpdatedBy()));
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void delete(Long id) {
         store.remove(id);
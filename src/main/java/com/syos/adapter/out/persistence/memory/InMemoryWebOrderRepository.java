@@ -0,0 +1,40 @@
+package com.syos.adapter.out.persistence.memory;
+
+import com.syos.application.ports.out.WebOrderRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory WebOrderRepository; safe for concurrent terminals. Order numbers come from one shared sequence.
+ * Only the newest HISTORY_LIMIT orders per user are kept, so memory stays bounded; nothing survives a restart.
+ */
+public class InMemoryWebOrderRepository implements WebOrderRepository {
+    private final AtomicLong seq = new AtomicLong(1);
+    private final Map<Long, List<WebOrder>> ordersByUser = new ConcurrentHashMap<>();
+
+    @Override
+    public long save(long userId, LocalDateTime placedAt, List<OrderLine> lines, BigDecimal total) {
+        List<WebOrder> orders = ordersByUser.computeIfAbsent(userId, k -> new ArrayList<>());
+        synchronized (orders) { // numbered under the lock so a user's list stays in order
+            long orderNo = seq.getAndIncrement();
+            orders.add(new WebOrder(orderNo, userId, placedAt, List.copyOf(lines), total));
+            if (orders.size() > HISTORY_LIMIT) orders.remove(0);
+            return orderNo;
+        }
+    }
+
+    @Override
+    public List<WebOrder> findByUser(long userId) {
+        List<WebOrder> orders = ordersByUser.get(userId);
+        if (orders == null) return List.of();
+        synchronized (orders) {
+            return List.copyOf(orders);
+        }
+    }
+}
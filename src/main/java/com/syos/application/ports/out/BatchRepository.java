@@ -5,6 +5,7 @@ import com.syos.domain.valueobjects.ItemCode;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Batch entities
@@ -19,6 +20,14 @@ public interface BatchRepository {
     List<Batch> findExpiringBatches(int daysAhead);
     List<Batch> findExpiredBatches();
     List<Batch> findAll();
+
+    /**
+     * All batches, newest first, read as the stream is consumed. Close the stream when done.
+     */
+    default Stream<Batch> streamAll() {
+        return findAll().stream();
+    }
+
     void delete(Long id);
     boolean existsById(Long id);
 }
@@ -0,0 +1,32 @@
+package com.syos.application.ports.out;
+
+import java.util.List;
+
+/**
+ * Source of bill serial numbers.
+ * Numbers are reserved in blocks so callers can hand them out from memory without a database round trip per bill.
+ */
+public interface BillNumberRepository {
+    /**
+     * Reserve the next block of bill numbers. Blocks never overlap, across threads or JVMs.
+     */
+    BillNumberBlock reserveBlock();
+
+    /**
+     * Missing bill numbers within [fromInclusive, toInclusive], as contiguous ranges.
+     * Gaps come from unused block tails (restarts) and rolled-back checkouts.
+     */
+    List<BillNumberGap> findGaps(long fromInclusive, long toInclusive);
+
+    record BillNumberBlock(long first, int size) {
+        public BillNumberBlock {
+            if (first < 1) throw new IllegalArgumentException("first must be >= 1");
+            if (size < 1) throw new IllegalArgumentException("size must be >= 1");
+        }
+        public long last() { return first + size - 1; }
+    }
+
+    record BillNumberGap(long firstMissing, long lastMissing) {
+        public long count() { return lastMissing - firstMissing + 1; }
+    }
+}
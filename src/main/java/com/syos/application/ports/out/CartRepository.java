@@ -0,0 +1,34 @@
+package com.syos.application.ports.out;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Repository interface for customers' active web carts (one active cart per user).
+ * Lines are keyed by item id; implementations may defer writes, so flush() before relying on
+ * another process seeing an edit.
+ */
+public interface CartRepository {
+    /**
+     * Lines of the user's active cart in the order items were first added; empty if there is no cart.
+     * The returned map is a copy.
+     */
+    Map<Long, BigDecimal> findActiveCart(long userId);
+
+    /**
+     * Set an item's quantity, adding the line if needed; a quantity of zero or less removes it.
+     */
+    void setQuantity(long userId, long itemId, BigDecimal quantity);
+
+    void removeItem(long userId, long itemId);
+
+    /**
+     * Close the user's active cart (checked out or abandoned); the next edit starts a new one.
+     */
+    void clear(long userId);
+
+    /**
+     * Write any deferred edits through to the store.
+     */
+    void flush();
+}
@@ -0,0 +1,25 @@
+package com.syos.application.ports.out;
+
+import com.syos.domain.events.DomainEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Repository interface for the domain event outbox (event_outbox).
+ * Events are written by the stock repositories in the same transaction as the change they describe;
+ * the relay reads them back from here.
+ */
+public interface EventOutboxRepository {
+    /**
+     * Hand up to {@code limit} waiting events, oldest first, to {@code delivery} and remove them once it returns.
+     * The rows stay locked during the call and are skipped by other relays; if delivery throws they are kept.
+     * @return number of events delivered
+     */
+    int deliverBatch(int limit, Consumer<List<DomainEvent>> delivery);
+
+    /**
+     * Number of events waiting for delivery.
+     */
+    long countPending();
+}
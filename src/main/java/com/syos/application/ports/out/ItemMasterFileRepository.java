@@ -5,8 +5,10 @@ import com.syos.domain.valueobjects.ItemCode;
 import com.syos.domain.valueobjects.CategoryId;
 import com.syos.domain.valueobjects.BrandId;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repository interface for ItemMasterFile domain entity.
@@ -48,6 +50,15 @@ public interface ItemMasterFileRepository {
      */
     List<ItemMasterFile> findByCategory(CategoryId categoryId);
 
+    /**
+     * Find items in any of the given categories (e.g. a category and all its descendants) in one call
+     */
+    default List<ItemMasterFile> findByCategories(Collection<CategoryId> categoryIds) {
+        return categoryIds.stream()
+            .flatMap(id -> findByCategory(id).stream())
+            .collect(Collectors.toList());
+    }
+
     /**
      * Find items by brand
      */
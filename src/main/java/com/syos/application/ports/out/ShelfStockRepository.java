@@ -3,6 +3,8 @@ package com.syos.application.ports.out;
 import com.syos.domain.entities.ShelfStock;
 import com.syos.domain.valueobjects.ItemCode;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +19,20 @@ public interface ShelfStockRepository {
     List<ShelfStock> findByShelfCode(String shelfCode);
     List<ShelfStock> findByItemIdAndShelfCode(Long itemId, String shelfCode);
     List<ShelfStock> findAvailableByItemCode(ItemCode itemCode);
+    /** Available shelf batches for several items in one lookup (POS checkout). */
+    List<ShelfStock> findAvailableByItemCodes(Collection<ItemCode> itemCodes);
     List<ShelfStock> findDisplayedItems();
     List<ShelfStock> findExpiredItems();
     List<ShelfStock> findExpiringSoonItems();
     List<ShelfStock> findLowStockItems();
     List<ShelfStock> findOverstockedItems();
     List<ShelfStock> findAll();
+    /**
+     * Atomically remove {@code quantity} from one shelf batch and from the batch's available quantity.
+     * Guarded: nothing changes unless the shelf row still holds at least {@code quantity}.
+     * @return true if decremented; false on a short allocation (caller should re-allocate against the next batch)
+     */
+    boolean decrementShelfStock(Long itemId, Long batchId, String shelfCode, BigDecimal quantity);
     void delete(Long id);
     boolean existsById(Long id);
 }
@@ -0,0 +1,41 @@
+package com.syos.application.ports.out;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Read-only stock reporting queries returned as cursor-backed streams.
+ * Rows are fetched as the caller consumes them, so report size is not bounded by heap;
+ * callers must close the stream (try-with-resources).
+ */
+public interface StockReportRepository {
+    /**
+     * Warehouse (available) and shelf stock per item, every item listed once, ordered by item name.
+     * @param term   item code/name contains (case-insensitive); blank for all
+     * @param activeOnly skip discontinued/inactive items
+     */
+    Stream<ItemStockLevel> streamItemStockLevels(String term, boolean activeOnly);
+
+    /**
+     * One row per batch with its item and its warehouse and shelf quantities, newest batch first.
+     * webQty is zero: web inventory is not held in the database yet, so callers fill it in by batchId
+     * from the WebInventoryRepository (see {@link BatchStockRow#withWebQty}).
+     * Batches without an expiry date pass both expiry filters.
+     * @param term          item code/name contains (case-insensitive); blank for all
+     * @param expiryBefore  only batches expiring before this date; null for no bound
+     * @param expiryAfter   only batches expiring after this date; null for no bound
+     */
+    Stream<BatchStockRow> streamBatchStock(String term, LocalDate expiryBefore, LocalDate expiryAfter);
+
+    record ItemStockLevel(String itemCode, String itemName, BigDecimal warehouseQty, BigDecimal shelfQty) {}
+
+    record BatchStockRow(Long batchId, String itemCode, String itemName, LocalDate manufactureDate, LocalDate expiryDate,
+                         BigDecimal quantityReceived, BigDecimal quantityAvailable,
+                         BigDecimal warehouseQty, BigDecimal shelfQty, BigDecimal webQty) {
+        public BatchStockRow withWebQty(BigDecimal webQty) {
+            return new BatchStockRow(batchId, itemCode, itemName, manufactureDate, expiryDate,
+                    quantityReceived, quantityAvailable, warehouseQty, shelfQty, webQty);
+        }
+    }
+}
@@ -27,4 +27,36 @@ public interface TransactionReportRepository {
      * Rows: [String channel, Long txCount, java.math.BigDecimal totalAmount, java.math.BigDecimal avgOrderValue]
      */
     List<Object[]> findChannelSummary(LocalDateTime startInclusive, LocalDateTime endExclusive);
+
+    /**
+     * Item aggregates between start (inclusive) and end (exclusive), one GROUP BY over the window.
+     * Rows: [String itemCode, String itemName, Long quantity, java.math.BigDecimal revenue], highest quantity first
+     * @param channel POS or WEB; null for all channels
+     */
+    List<Object[]> findItemAggregates(LocalDateTime startInclusive, LocalDateTime endExclusive, String channel);
+
+    /**
+     * The {@code limit} best-selling items by quantity between start (inclusive) and end (exclusive).
+     * Rows: as {@link #findItemAggregates}
+     */
+    List<Object[]> findTopItems(LocalDateTime startInclusive, LocalDateTime endExclusive, int limit);
+
+    /**
+     * Completed transactions per hour of day between start (inclusive) and end (exclusive); hours without sales are omitted.
+     * Rows: [Integer hour (0-23), Long txCount, java.math.BigDecimal totalAmount], by hour
+     */
+    List<Object[]> findHourlyHistogram(LocalDateTime startInclusive, LocalDateTime endExclusive);
+
+    /**
+     * Item sales over whole days, read from the daily sales rollup (no scan of sale lines).
+     * Rows: [String itemCode, String itemName, Long quantity, java.math.BigDecimal revenue], highest quantity first
+     * @param channel POS or WEB; null for all channels
+     */
+    List<Object[]> findItemSalesBetween(LocalDate startInclusive, LocalDate endInclusive, String channel);
+
+    /**
+     * Units and revenue per channel over whole days, read from the daily sales rollup.
+     * Rows: [String channel, Long quantity, java.math.BigDecimal revenue]
+     */
+    List<Object[]> findChannelSalesBetween(LocalDate startInclusive, LocalDate endInclusive);
 }
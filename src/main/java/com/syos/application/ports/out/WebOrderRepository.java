@@ -0,0 +1,34 @@
+package com.syos.application.ports.out;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for completed web orders (customer order history).
+ * Implementations are shared by every terminal, so save() and findByUser() must be safe to call concurrently.
+ */
+public interface WebOrderRepository {
+
+    /** Most orders findByUser returns (the newest ones). */
+    int HISTORY_LIMIT = 50;
+
+    record OrderLine(long itemId, String itemName, BigDecimal quantity, BigDecimal unitPrice) {
+        public BigDecimal lineTotal() {
+            return unitPrice.multiply(quantity);
+        }
+    }
+
+    record WebOrder(long orderNo, long userId, LocalDateTime placedAt, List<OrderLine> lines, BigDecimal total) {}
+
+    /**
+     * Record a paid order.
+     * @return the order number assigned to it
+     */
+    long save(long userId, LocalDateTime placedAt, List<OrderLine> lines, BigDecimal total);
+
+    /**
+     * The user's most recent orders (at most HISTORY_LIMIT), oldest first.
+     */
+    List<WebOrder> findByUser(long userId);
+}
@@ -0,0 +1,56 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.domain.entities.WebInventory;
+import com.syos.domain.valueobjects.ItemCode;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * WebInventoryRepository decorator that refreshes the item's {@link WebAvailabilityIndex} entry, and the
+ * on-hand of its reservation counter, after every successful save or delete.
+ */
+public class AvailabilityTrackingWebInventoryRepository implements WebInventoryRepository {
+    private final WebInventoryRepository delegate;
+    private final WebAvailabilityIndex availability;
+    private final WebStockReservationService reservations; // null: no holds to refresh
+
+    public AvailabilityTrackingWebInventoryRepository(WebInventoryRepository delegate, WebAvailabilityIndex availability,
+                                                      WebStockReservationService reservations) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.availability = Objects.requireNonNull(availability);
+        this.reservations = reservations;
+    }
+
+    @Override
+    public void save(WebInventory webInventory) {
+        delegate.save(webInventory);
+        changed(webInventory.getItemId());
+    }
+
+    @Override
+    public void delete(Long id) {
+        Long itemId = delegate.findById(id).map(WebInventory::getItemId).orElse(null);
+        delegate.delete(id);
+        changed(itemId);
+    }
+
+    private void changed(Long itemId) {
+        if (itemId == null) return;
+        availability.refresh(itemId);
+        if (reservations != null) reservations.stockChanged(itemId);
+    }
+
+    @Override public Optional<WebInventory> findById(Long id) { return delegate.findById(id); }
+    @Override public List<WebInventory> findByItemCode(ItemCode itemCode) { return delegate.findByItemCode(itemCode); }
+    @Override public List<WebInventory> findByItemId(Long itemId) { return delegate.findByItemId(itemId); }
+    @Override public List<WebInventory> findAvailableItems() { return delegate.findAvailableItems(); }
+    @Override public List<WebInventory> findPublishedItems() { return delegate.findPublishedItems(); }
+    @Override public List<WebInventory> findFeaturedItems() { return delegate.findFeaturedItems(); }
+    @Override public List<WebInventory> findExpiredItems() { return delegate.findExpiredItems(); }
+    @Override public List<WebInventory> findLowStockItems() { return delegate.findLowStockItems(); }
+    @Override public List<WebInventory> findAll() { return delegate.findAll(); }
+    @Override public boolean existsById(Long id) { return delegate.existsById(id); }
+}
@@ -0,0 +1,72 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BillNumberRepository;
+import com.syos.application.ports.out.BillNumberRepository.BillNumberBlock;
+import com.syos.application.ports.out.BillNumberRepository.BillNumberGap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out sequential bill numbers from a block reserved in the database.
+ * - Fast path is a single atomic increment (no lock, no database access)
+ * - When the block runs out, one thread reserves the next block; others retry against it
+ * - Every reserved block is written to the audit log so unused tails can be reconciled with findGaps
+ */
+public class BillNumberAllocator {
+    private static final Logger logger = LoggerFactory.getLogger(BillNumberAllocator.class);
+    private static final Logger auditLogger = LoggerFactory.getLogger("audit");
+
+    private final BillNumberRepository repository;
+    private volatile Block current = Block.EMPTY;
+
+    public BillNumberAllocator(BillNumberRepository repository) {
+        this.repository = Objects.requireNonNull(repository);
+    }
+
+    /**
+     * Next bill number. Unique across all threads in this JVM and across JVMs sharing the database.
+     */
+    public long next() {
+        while (true) {
+            Block block = current;
+            long n = block.next.getAndIncrement();
+            if (n <= block.last) return n;
+            refill(block);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        if (current != exhausted) return; // another thread already moved on to a fresh block
+        BillNumberBlock reserved = repository.reserveBlock();
+        current = new Block(reserved.first(), reserved.last());
+        auditLogger.info("Reserved bill numbers {}-{}", reserved.first(), reserved.last());
+    }
+
+    /**
+     * Report missing bill numbers in a range and record them in the audit log.
+     */
+    public List<BillNumberGap> auditGaps(long fromInclusive, long toInclusive) {
+        List<BillNumberGap> gaps = repository.findGaps(fromInclusive, toInclusive);
+        for (BillNumberGap gap : gaps) {
+            auditLogger.info("Bill number gap {}-{} ({} numbers)", gap.firstMissing(), gap.lastMissing(), gap.count());
+        }
+        logger.debug("Bill number audit {}-{} found {} gaps", fromInclusive, toInclusive, gaps.size());
+        return gaps;
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(1, 0);
+
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
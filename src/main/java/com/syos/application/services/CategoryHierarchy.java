@@ -0,0 +1,172 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.domain.entities.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * In-memory view of the active category tree, read from the repository in one call.
+ * - Categories are numbered in depth-first (Euler tour) order and each records where its subtree ends,
+ *   so a subtree is a contiguous range and "is X under Y" is two comparisons
+ * - Roots and children keep the repository order (display order, then name)
+ * - Built on first use; invalidate() (see {@link HierarchyTrackingCategoryRepository}) drops it so the
+ *   next read rebuilds after a category is saved or deleted
+ */
+public class CategoryHierarchy {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryHierarchy.class);
+
+    private final CategoryRepository categories;
+    private volatile Tree tree;
+
+    public CategoryHierarchy(CategoryRepository categories) {
+        this.categories = Objects.requireNonNull(categories);
+    }
+
+    public List<Category> roots() {
+        return tree().roots;
+    }
+
+    /** Active children of {@code parentId}, or an empty list. */
+    public List<Category> children(Long parentId) {
+        return tree().children.getOrDefault(parentId, List.of());
+    }
+
+    public Optional<Category> find(Long categoryId) {
+        Tree t = tree();
+        Integer at = t.ordinals.get(categoryId);
+        return at == null ? Optional.empty() : Optional.of(t.order[at]);
+    }
+
+    /**
+     * True when {@code categoryId} is {@code ancestorId} itself or anywhere below it.
+     */
+    public boolean isDescendantOrSelf(Long categoryId, Long ancestorId) {
+        Tree t = tree();
+        Integer at = t.ordinals.get(categoryId);
+        Integer from = t.ordinals.get(ancestorId);
+        return at != null && from != null && at >= from && at <= t.subtreeEnd[from];
+    }
+
+    /**
+     * Ids of {@code categoryId} and all its descendants, parents before children; empty when unknown.
+     */
+    public List<Long> subtreeIds(Long categoryId) {
+        Tree t = tree();
+        Integer from = t.ordinals.get(categoryId);
+        if (from == null) return List.of();
+        List<Long> ids = new ArrayList<>(t.subtreeEnd[from] - from + 1);
+        for (int i = from; i <= t.subtreeEnd[from]; i++) ids.add(t.order[i].getId());
+        return ids;
+    }
+
+    /**
+     * Drop the tree; the next read rebuilds it from the repository.
+     */
+    public void invalidate() {
+        tree = null;
+    }
+
+    private Tree tree() {
+        Tree t = tree;
+        if (t != null) return t;
+        synchronized (this) {
+            if (tree == null) tree = build(categories.findAllActive());
+            return tree;
+        }
+    }
+
+    private static Tree build(List<Category> active) {
+        long start = System.nanoTime();
+        Map<Long, Category> byId = new HashMap<>();
+        for (Category c : active) {
+            if (c.getId() != null) byId.put(c.getId(), c);
+        }
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        // Children of an inactive or missing parent are not roots, but still get their own subtree below
+        List<Category> orphans = new ArrayList<>();
+        for (Category c : active) {
+            if (c.getId() == null) continue;
+            Long parent = c.getParentCategoryId();
+            if (parent == null) roots.add(c);
+            else {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(c);
+                if (!byId.containsKey(parent)) orphans.add(c);
+            }
+        }
+
+        Map<Long, Integer> ordinals = new HashMap<>(byId.size() * 2);
+        Category[] order = new Category[byId.size()];
+        int[] subtreeEnd = new int[byId.size()];
+        Walk walk = new Walk(children, ordinals, order, subtreeEnd);
+        for (Category root : roots) walk.visit(root);
+        for (Category orphan : orphans) walk.visit(orphan);
+        // Whatever is left sits on a parent cycle; number it anyway so lookups still work
+        for (Category c : active) {
+            if (c.getId() != null) walk.visit(c);
+        }
+
+        Map<Long, List<Category>> frozen = new HashMap<>(children.size() * 2);
+        children.forEach((parent, list) -> frozen.put(parent, List.copyOf(list)));
+        logger.debug("Category hierarchy built: {} categories in {} ms", order.length, (System.nanoTime() - start) / 1_000_000);
+        return new Tree(List.copyOf(roots), frozen, ordinals, order, subtreeEnd);
+    }
+
+    // Iterative pre-order walk; a category already numbered is skipped, which also breaks parent cycles
+    private static final class Walk {
+        private final Map<Long, List<Category>> children;
+        private final Map<Long, Integer> ordinals;
+        private final Category[] order;
+        private final int[] subtreeEnd;
+        // Ordinals on the current path and how many of each one's children have been taken
+        private final int[] path;
+        private final int[] taken;
+        private int next;
+
+        Walk(Map<Long, List<Category>> children, Map<Long, Integer> ordinals, Category[] order, int[] subtreeEnd) {
+            this.children = children;
+            this.ordinals = ordinals;
+            this.order = order;
+            this.subtreeEnd = subtreeEnd;
+            this.path = new int[order.length];
+            this.taken = new int[order.length];
+        }
+
+        void visit(Category top) {
+            if (ordinals.containsKey(top.getId())) return;
+            int depth = 0;
+            path[0] = number(top);
+            taken[0] = 0;
+            while (depth >= 0) {
+                List<Category> kids = children.getOrDefault(order[path[depth]].getId(), List.of());
+                if (taken[depth] < kids.size()) {
+                    Category child = kids.get(taken[depth]++);
+                    if (ordinals.containsKey(child.getId())) continue;
+                    depth++;
+                    path[depth] = number(child);
+                    taken[depth] = 0;
+                } else {
+                    subtreeEnd[path[depth]] = next - 1;
+                    depth--;
+                }
+            }
+        }
+
+        private int number(Category c) {
+            ordinals.put(c.getId(), next);
+            order[next] = c;
+            return next++;
+        }
+    }
+
+    private record Tree(List<Category> roots, Map<Long, List<Category>> children, Map<Long, Integer> ordinals,
+                        Category[] order, int[] subtreeEnd) {}
+}
@@ -11,12 +11,27 @@ import java.util.Optional;
 
 /**
  * Batch-aware discount calculator using Promotion + promotion_batches (Option A).
+ * With a PromotionIndex, lookups are memory reads; without one, each lookup queries the repository.
  */
 public class DiscountService {
     private final JpaPromotionRepository promoRepo;
+    private final PromotionIndex promotionIndex;
 
     public DiscountService(JpaPromotionRepository promoRepo) {
         this.promoRepo = promoRepo;
+        this.promotionIndex = null;
+    }
+
+    public DiscountService(PromotionIndex promotionIndex) {
+        this.promoRepo = null;
+        this.promotionIndex = promotionIndex;
+    }
+
+    /**
+     * Notify that promotions were created or changed so the next lookup sees them.
+     */
+    public void promotionsChanged() {
+        if (promotionIndex != null) promotionIndex.invalidate();
     }
 
     /**
@@ -28,7 +43,10 @@ public class DiscountService {
      * @return discount amount (>=0)
      */
     public BigDecimal calculateBatchDiscount(Long itemId, Long batchId, BigDecimal unitPrice, double quantity) {
-        Optional<PromotionEntity> promoOpt = promoRepo.findActiveBatchPromotionForItemAndBatch(itemId, batchId, LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        Optional<PromotionEntity> promoOpt = promotionIndex != null
+                ? promotionIndex.find(itemId, batchId, now)
+                : promoRepo.findActiveBatchPromotionForItemAndBatch(itemId, batchId, now);
         if (promoOpt.isEmpty()) return BigDecimal.ZERO;
         PromotionEntity p = promoOpt.get();
         BigDecimal qty = BigDecimal.valueOf(quantity);
@@ -1,32 +1,73 @@
 package com.syos.application.services;
 
 import com.syos.domain.events.DomainEvent;
+import com.syos.domain.events.ItemEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Event Bus implementation using Observer Pattern (Pattern #12)
  * Provides centralized event publishing and subscription management
- * 
+ *
  * Design Patterns:
  * - Observer Pattern: Core event notification mechanism
  * - Singleton Pattern: Ensures single event bus instance
- * 
+ *
+ * Dispatch modes:
+ * - Synchronous (default): publish() runs every subscriber on the caller's thread
+ * - Asynchronous (startAsync): publish() only enqueues. Events go to one of N bounded partition queues,
+ *   chosen by item id for ItemEvents so each item's events are handled in publish order; each partition
+ *   is drained by its own virtual thread. A full queue is handled by the configured OverflowPolicy.
+ * deliver() goes the same way as publish() but returns an acknowledgement and is never dropped, for callers
+ * that must know every subscriber has handled the event (OutboxRelay).
+ * In both modes subscribers are called in priority order (higher getPriority() first).
+ *
  * Clean Architecture: Application Layer
  */
 public class EventBus {
     private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
-    
+
+    private static final Comparator<EventSubscriber> BY_PRIORITY =
+        Comparator.comparingInt(EventSubscriber::getPriority).reversed();
+
+    /**
+     * What publish() does when the event's partition queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for room; the publisher is slowed down to the subscribers' pace. */
+        BLOCK,
+        /** Discard the new event. */
+        DROP_NEWEST,
+        /** Discard the oldest queued event of that partition to make room. */
+        DROP_OLDEST,
+        /** Handle the event on the publisher's thread (bypasses the queue, so its order is not kept). */
+        CALLER_RUNS
+    }
+
     private static volatile EventBus instance;
     private final List<EventSubscriber> subscribers;
-    
-    private EventBus() {
+    private volatile Partition[] partitions; // null in synchronous mode
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    EventBus() {
         this.subscribers = new CopyOnWriteArrayList<>(); // Thread-safe list
     }
-    
+
     /**
      * Get singleton instance of EventBus
      * Double-checked locking for thread safety
@@ -41,20 +82,21 @@ public class EventBus {
         }
         return instance;
     }
-    
+
     /**
      * Subscribe to events
      * @param subscriber Event subscriber
      */
-    public void subscribe(EventSubscriber subscriber) {
+    public synchronized void subscribe(EventSubscriber subscriber) {
         if (subscriber == null) {
             throw new IllegalArgumentException("Subscriber cannot be null");
         }
-        
+
         subscribers.add(subscriber);
+        subscribers.sort(BY_PRIORITY); // stable: equal priorities keep registration order
         logger.debug("Subscriber {} registered for events", subscriber.getClass().getSimpleName());
     }
-    
+
     /**
      * Unsubscribe from events
      * @param subscriber Event subscriber to remove
@@ -67,7 +109,64 @@ public class EventBus {
             }
         }
     }
-    
+
+    /**
+     * Switch to asynchronous dispatch.
+     * @param partitionCount number of queues (and dispatch threads); events of one item always share one
+     * @param queueCapacity  events each partition may hold before the overflow policy applies
+     */
+    public synchronized void startAsync(int partitionCount, int queueCapacity, OverflowPolicy policy) {
+        if (partitionCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Partition count and queue capacity must be positive");
+        }
+        if (partitions != null) {
+            throw new IllegalStateException("Event bus is already asynchronous");
+        }
+        Partition[] created = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            created[i] = new Partition(i, queueCapacity);
+        }
+        this.overflowPolicy = policy;
+        this.partitions = created;
+        logger.info("Event bus dispatching asynchronously: {} partitions x {} events, overflow {}",
+                   partitionCount, queueCapacity, policy);
+    }
+
+    /**
+     * Return to synchronous dispatch, first giving queued events up to {@code timeout} to be handled.
+     * @return true if every queued event was handled
+     */
+    public boolean stopAsync(Duration timeout) {
+        Partition[] current;
+        synchronized (this) {
+            current = partitions;
+            if (current == null) return true;
+            partitions = null; // new events are handled synchronously from here on
+        }
+        boolean drained = awaitEmpty(current, timeout);
+        for (Partition p : current) p.worker.interrupt();
+        for (Partition p : current) {
+            // Events left behind are not handled; anyone waiting on one is told so
+            for (Queued q; (q = p.queue.poll()) != null; ) {
+                if (q.ack() != null) q.ack().completeExceptionally(new IllegalStateException("Event bus stopped"));
+            }
+        }
+        if (!drained) logger.warn("Event bus stopped with {} events still queued", pending(current));
+        return drained;
+    }
+
+    public boolean isAsync() {
+        return partitions != null;
+    }
+
+    /**
+     * Wait until every queued event has been handled (or the timeout passes).
+     */
+    public boolean awaitIdle(Duration timeout) {
+        Partition[] current = partitions;
+        return current == null || awaitEmpty(current, timeout);
+    }
+
     /**
      * Publish event to all subscribers
      * @param event Domain event to publish
@@ -77,42 +176,247 @@ public class EventBus {
             logger.warn("Attempted to publish null event");
             return;
         }
-        
+        published.incrementAndGet();
+        Partition[] current = partitions;
+        if (current == null) {
+            dispatch(event);
+            return;
+        }
+        enqueue(current[partitionOf(event, current.length)], event);
+    }
+
+    /**
+     * Publish an event whose handling the caller waits for. In asynchronous mode it is queued on its partition
+     * like publish(), keeping its order with the item's other events, but waits for room whatever the overflow
+     * policy; in synchronous mode the subscribers run on the caller's thread.
+     * @return completes once every subscriber has handled the event; completes exceptionally with an
+     *         IllegalStateException if a subscriber failed (the others still received it) or the bus stopped first
+     */
+    public CompletableFuture<Void> deliver(DomainEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        published.incrementAndGet();
+        Partition[] current = partitions;
+        if (current == null) {
+            CompletableFuture<Void> ack = new CompletableFuture<>();
+            acknowledge(event, ack, dispatch(event));
+            return ack;
+        }
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        Partition p = current[partitionOf(event, current.length)];
+        p.inFlight.incrementAndGet();
+        try {
+            p.queue.put(new Queued(event, ack));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            p.inFlight.decrementAndGet();
+            ack.completeExceptionally(new IllegalStateException("Interrupted before queueing " + event.getClass().getSimpleName(), e));
+            return ack;
+        }
+        p.highWater.accumulateAndGet(p.queue.size(), Math::max);
+        return ack;
+    }
+
+    /**
+     * Counters and per-partition queue depths.
+     */
+    public Metrics getMetrics() {
+        Partition[] current = partitions;
+        int[] depths = new int[current == null ? 0 : current.length];
+        int[] highWater = new int[depths.length];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = current[i].queue.size();
+            highWater[i] = current[i].highWater.get();
+        }
+        return new Metrics(published.get(), dropped.get(), failures.get(), depths, highWater);
+    }
+
+    /**
+     * Get current number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Clear all subscribers (mainly for testing)
+     */
+    public void clearSubscribers() {
+        int count = subscribers.size();
+        subscribers.clear();
+        logger.debug("Cleared {} subscribers", count);
+    }
+
+    private void enqueue(Partition p, DomainEvent event) {
+        Queued queued = new Queued(event, null);
+        p.inFlight.incrementAndGet();
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    p.queue.put(queued);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(p, event);
+                    return;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!p.queue.offer(queued)) {
+                    drop(p, event);
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!p.queue.offer(queued)) {
+                    Queued oldest = p.queue.poll();
+                    if (oldest == null) continue;
+                    drop(p, oldest.event());
+                    // The sender of an acknowledged event learns it was not handled and can send it again
+                    if (oldest.ack() != null) {
+                        oldest.ack().completeExceptionally(new IllegalStateException("Dropped from full event queue"));
+                    }
+                }
+            }
+            case CALLER_RUNS -> {
+                if (!p.queue.offer(queued)) {
+                    try {
+                        dispatch(event);
+                    } finally {
+                        p.inFlight.decrementAndGet();
+                    }
+                    return;
+                }
+            }
+        }
+        p.highWater.accumulateAndGet(p.queue.size(), Math::max);
+    }
+
+    private void drop(Partition p, DomainEvent event) {
+        p.inFlight.decrementAndGet();
+        long total = dropped.incrementAndGet();
+        // log the first drop and then every 1000th, not every one
+        if (total == 1 || total % 1000 == 0) {
+            logger.warn("Event queue {} full; dropped {} (total dropped {})",
+                       p.index, event.getClass().getSimpleName(), total);
+        }
+    }
+
+    private int partitionOf(DomainEvent event, int count) {
+        if (event instanceof ItemEvent itemEvent) {
+            return Math.floorMod(Long.hashCode(itemEvent.getItemId()), count);
+        }
+        return Math.floorMod(roundRobin.getAndIncrement(), count); // no ordering to keep
+    }
+
+    /**
+     * @return the first subscriber failure, or null if every subscriber handled the event
+     */
+    private Exception dispatch(DomainEvent event) {
         logger.debug("Publishing event: {}", event.getClass().getSimpleName());
-        
+
+        Exception firstFailure = null;
         for (EventSubscriber subscriber : subscribers) {
             try {
                 if (subscriber.canHandle(event)) {
                     subscriber.handle(event);
                 }
             } catch (Exception e) {
-                logger.error("Error handling event {} by subscriber {}", 
-                           event.getClass().getSimpleName(), 
+                failures.incrementAndGet();
+                logger.error("Error handling event {} by subscriber {}",
+                           event.getClass().getSimpleName(),
                            subscriber.getClass().getSimpleName(), e);
+                if (firstFailure == null) firstFailure = e;
                 // Continue with other subscribers even if one fails
             }
         }
-        
-        logger.debug("Event {} published to {} subscribers", 
+
+        logger.debug("Event {} published to {} subscribers",
                    event.getClass().getSimpleName(), subscribers.size());
+        return firstFailure;
+    }
+
+    private static void acknowledge(DomainEvent event, CompletableFuture<Void> ack, Exception failure) {
+        if (failure == null) {
+            ack.complete(null);
+        } else {
+            ack.completeExceptionally(new IllegalStateException(
+                "Subscriber failed to handle " + event.getClass().getSimpleName(), failure));
+        }
+    }
+
+    private static boolean awaitEmpty(Partition[] current, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending(current) > 0) {
+            if (System.nanoTime() >= deadline) return false;
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
     }
-    
+
+    private static long pending(Partition[] current) {
+        long n = 0;
+        for (Partition p : current) n += p.inFlight.get();
+        return n;
+    }
+
     /**
-     * Get current number of subscribers
+     * One bounded queue and the virtual thread that drains it.
      */
-    public int getSubscriberCount() {
-        return subscribers.size();
+    private final class Partition {
+        final int index;
+        final BlockingQueue<Queued> queue;
+        final AtomicInteger inFlight = new AtomicInteger(); // queued or being handled
+        final AtomicInteger highWater = new AtomicInteger();
+        final Thread worker;
+
+        Partition(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = Thread.ofVirtual().name("event-partition-" + index).start(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Queued queued;
+                try {
+                    queued = queue.take();
+                } catch (InterruptedException e) {
+                    return; // stopAsync
+                }
+                try {
+                    Exception failure = dispatch(queued.event());
+                    if (queued.ack() != null) acknowledge(queued.event(), queued.ack(), failure);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
     }
-    
+
     /**
-     * Clear all subscribers (mainly for testing)
+     * A queued event; ack is null for publish(), which nobody waits on.
      */
-    public void clearSubscribers() {
-        int count = subscribers.size();
-        subscribers.clear();
-        logger.debug("Cleared {} subscribers", count);
+    private record Queued(DomainEvent event, CompletableFuture<Void> ack) {}
+
+    /**
+     * Snapshot of bus activity. Queue depths are empty in synchronous mode.
+     * @param highWaterMarks deepest each partition queue has been since startAsync
+     */
+    public record Metrics(long published, long dropped, long subscriberFailures,
+                          int[] queueDepths, int[] highWaterMarks) {
+        public int totalQueued() {
+            int n = 0;
+            for (int d : queueDepths) n += d;
+            return n;
+        }
     }
-    
+
     /**
      * Interface for event subscribers
      */
@@ -123,13 +427,13 @@ public class EventBus {
          * @return true if subscriber can handle the event
          */
         boolean canHandle(DomainEvent event);
-        
+
         /**
          * Handle the domain event
          * @param event Domain event to handle
          */
         void handle(DomainEvent event);
-        
+
         /**
          * Get subscriber priority (higher numbers = higher priority)
          * @return priority level
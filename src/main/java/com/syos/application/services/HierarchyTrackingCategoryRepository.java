@@ -0,0 +1,47 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.domain.entities.Category;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * CategoryRepository decorator that invalidates a {@link CategoryHierarchy} after every successful
+ * save or delete, so browsing sees the new tree on its next read.
+ */
+public class HierarchyTrackingCategoryRepository implements CategoryRepository {
+    private final CategoryRepository delegate;
+    private final CategoryHierarchy hierarchy;
+
+    public HierarchyTrackingCategoryRepository(CategoryRepository delegate, CategoryHierarchy hierarchy) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hierarchy = Objects.requireNonNull(hierarchy);
+    }
+
+    @Override
+    public Category save(Category category) {
+        Category saved = delegate.save(category);
+        hierarchy.invalidate();
+        return saved;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        hierarchy.invalidate();
+    }
+
+    @Override public Optional<Category> findById(Long id) { return delegate.findById(id); }
+    @Override public Optional<Category> findByCategoryCode(String categoryCode) { return delegate.findByCategoryCode(categoryCode); }
+    @Override public boolean existsById(Long id) { return delegate.existsById(id); }
+    @Override public boolean existsByCategoryCode(String categoryCode) { return delegate.existsByCategoryCode(categoryCode); }
+    @Override public List<Category> findAllActive() { return delegate.findAllActive(); }
+    @Override public List<Category> findRootCategories() { return delegate.findRootCategories(); }
+    @Override public List<Category> findByParentCategoryId(Long parentId) { return delegate.findByParentCategoryId(parentId); }
+    @Override public List<Category> findAll() { return delegate.findAll(); }
+    @Override public boolean isActive(Long id) { return delegate.isActive(id); }
+    @Override public List<Category> getCategoryHierarchy() { return delegate.getCategoryHierarchy(); }
+    @Override public long countActiveCategories() { return delegate.countActiveCategories(); }
+}
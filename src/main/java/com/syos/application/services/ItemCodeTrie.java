@@ -0,0 +1,392 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.ItemMasterFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie over the codes of all active items, for checking and completing codes at the till
+ * without a database round trip.
+ * - Edges carry whole runs of characters, so codes sharing a prefix ("BEV-00...") share their nodes
+ * - complete() lists codes starting with what was typed, in code order
+ * - suggest() finds codes within one edit (two for longer codes) of a mistyped one, counting a swap of
+ *   neighbouring characters as one edit; branches already too far off are not descended
+ * - Built from the active items on first use (or warmUp()); upsert()/remove() keep it current afterwards
+ */
+public class ItemCodeTrie implements ItemIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ItemCodeTrie.class);
+
+    public static final int DEFAULT_LIMIT = 8;
+
+    // Codes at least this long may be two edits away from a suggestion
+    private static final int TWO_EDIT_LENGTH = 6;
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ItemMasterFileRepository items;
+
+    // Guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("", false);
+    private final Map<Long, String> codes = new HashMap<>();
+    private volatile boolean built;
+
+    public ItemCodeTrie(ItemMasterFileRepository items) {
+        this.items = Objects.requireNonNull(items);
+    }
+
+    /** Build now rather than on the first lookup (e.g. at startup, before the first sale). */
+    public void warmUp() {
+        ensureBuilt();
+    }
+
+    public boolean contains(String code) {
+        String key = normalize(code);
+        if (key == null) return false;
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null || !key.startsWith(child.label, i)) return false;
+                node = child;
+                i += child.label.length();
+            }
+            return node.terminal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active codes starting with {@code prefix}, in code order.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key == null || limit <= 0) return List.of();
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            StringBuilder path = new StringBuilder(key.length() + 8);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) return List.of();
+                int common = commonPrefix(child.label, key, i);
+                // The prefix may end part-way along an edge; everything below it still matches
+                if (i + common < key.length() && common < child.label.length()) return List.of();
+                path.append(child.label);
+                node = child;
+                i += common;
+            }
+            List<String> out = new ArrayList<>(Math.min(limit, 16));
+            collect(node, path, out, limit);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Active codes close to {@code code}, nearest first: those one edit away, or two when there are none
+     * and the code is long enough.
+     */
+    public List<String> suggest(String code, int limit) {
+        String key = normalize(code);
+        if (key == null || limit <= 0) return List.of();
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            int maxEdits = key.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+            for (int edits = 1; edits <= maxEdits; edits++) {
+                List<Candidate> found = new ArrayList<>();
+                int[] first = new int[key.length() + 1];
+                for (int j = 0; j < first.length; j++) first[j] = j;
+                for (Node child : root.children) {
+                    fuzzy(child, key.toCharArray(), null, first, '\0', new StringBuilder(), edits, found);
+                }
+                if (!found.isEmpty()) {
+                    found.sort(Comparator.comparingInt(Candidate::edits).thenComparing(Candidate::code));
+                    List<String> out = new ArrayList<>(Math.min(limit, found.size()));
+                    for (int i = 0; i < found.size() && i < limit; i++) out.add(found.get(i).code());
+                    return out;
+                }
+            }
+            return List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Track a saved item's code; an inactive item, or one whose code changed, drops its old code.
+     */
+    @Override
+    public void upsert(ItemMasterFile item) {
+        if (item == null || item.getId() == null || item.getItemCode() == null || !built) return; // not built yet: the build will read it
+        lock.writeLock().lock();
+        try {
+            String previous = codes.remove(item.getId());
+            if (previous != null) delete(previous);
+            if (item.isActive()) {
+                String code = normalize(item.getItemCode().getValue());
+                codes.put(item.getId(), code);
+                insert(code);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        if (itemId == null || !built) return;
+        lock.writeLock().lock();
+        try {
+            String previous = codes.remove(itemId);
+            if (previous != null) delete(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop everything; the next lookup rebuilds from the repository (e.g. after bulk imports).
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            root.children = NO_CHILDREN;
+            root.terminal = false;
+            codes.clear();
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return codes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of nodes below the root; shared prefixes keep this well under the total code length
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return count(root) - 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+            long start = System.nanoTime();
+            for (ItemMasterFile item : items.findAllActive()) {
+                if (item.getId() == null || item.getItemCode() == null) continue;
+                String code = normalize(item.getItemCode().getValue());
+                codes.put(item.getId(), code);
+                insert(code);
+            }
+            built = true;
+            logger.debug("Item code trie built: {} codes, {} nodes in {} ms",
+                    codes.size(), count(root) - 1, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void insert(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int idx = node.indexOf(key.charAt(i));
+            if (idx < 0) {
+                node.insertChild(-idx - 1, new Node(key.substring(i), true));
+                return;
+            }
+            Node child = node.children[idx];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the new code leaves it
+                Node split = new Node(child.label.substring(0, common), false);
+                child.label = child.label.substring(common);
+                split.children = new Node[] {child};
+                node.children[idx] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        node.terminal = true;
+    }
+
+    // Caller holds the write lock. Unmarks the code and re-compresses the edges around it
+    private void delete(String key) {
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) return;
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+        if (parent == null || !node.terminal) return;
+        node.terminal = false;
+        if (node.children.length == 0) {
+            parent.removeChild(node);
+            if (parent != root && !parent.terminal && parent.children.length == 1) parent.absorbOnlyChild();
+        } else if (node.children.length == 1) {
+            node.absorbOnlyChild();
+        }
+    }
+
+    // Pre-order walk: children are kept sorted, so codes come out in order
+    private static void collect(Node node, StringBuilder path, List<String> out, int limit) {
+        if (node.terminal) out.add(path.toString());
+        for (Node child : node.children) {
+            if (out.size() >= limit) return;
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, out, limit);
+            path.setLength(length);
+        }
+    }
+
+    /*
+     * One edit-distance row per character along the path (optimal string alignment). A row's minimum never
+     * falls further down, so a branch is abandoned as soon as every entry exceeds maxEdits.
+     */
+    private static void fuzzy(Node node, char[] target, int[] rowBefore, int[] row, char previous,
+                              StringBuilder path, int maxEdits, List<Candidate> out) {
+        int length = path.length();
+        int n = target.length;
+        for (int k = 0; k < node.label.length(); k++) {
+            char c = node.label.charAt(k);
+            int[] next = new int[n + 1];
+            next[0] = row[0] + 1;
+            int min = next[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = target[j - 1] == c ? 0 : 1;
+                int d = Math.min(Math.min(row[j] + 1, next[j - 1] + 1), row[j - 1] + cost);
+                if (rowBefore != null && j > 1 && c == target[j - 2] && previous == target[j - 1]) {
+                    d = Math.min(d, rowBefore[j - 2] + 1);
+                }
+                next[j] = d;
+                if (d < min) min = d;
+            }
+            if (min > maxEdits) {
+                path.setLength(length);
+                return;
+            }
+            path.append(c);
+            rowBefore = row;
+            row = next;
+            previous = c;
+        }
+        if (node.terminal && row[n] <= maxEdits) out.add(new Candidate(path.toString(), row[n]));
+        for (Node child : node.children) {
+            fuzzy(child, target, rowBefore, row, previous, path, maxEdits, out);
+        }
+        path.setLength(length);
+    }
+
+    private static int count(Node node) {
+        int total = 1;
+        for (Node child : node.children) total += count(child);
+        return total;
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) i++;
+        return i;
+    }
+
+    static String normalize(String code) {
+        if (code == null) return null;
+        String key = code.trim().toUpperCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    private record Candidate(String code, int edits) {}
+
+    // Children are ordered by the first character of their label, which is unique among siblings
+    private static final class Node {
+        String label;
+        boolean terminal;
+        Node[] children = NO_CHILDREN;
+
+        Node(String label, boolean terminal) {
+            this.label = label;
+            this.terminal = terminal;
+        }
+
+        Node child(char first) {
+            int idx = indexOf(first);
+            return idx < 0 ? null : children[idx];
+        }
+
+        // Binary search; returns -(insertion point) - 1 when absent, as Arrays.binarySearch does
+        int indexOf(char first) {
+            int lo = 0;
+            int hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) lo = mid + 1;
+                else if (c > first) hi = mid - 1;
+                else return mid;
+            }
+            return -lo - 1;
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            grown[at] = child;
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int at = indexOf(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        // A pass-through node (not a code, one child) is merged into its child to keep edges compressed
+        void absorbOnlyChild() {
+            Node only = children[0];
+            label = label + only.label;
+            terminal = only.terminal;
+            children = only.children;
+        }
+    }
+}
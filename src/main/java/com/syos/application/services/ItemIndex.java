@@ -0,0 +1,14 @@
+package com.syos.application.services;
+
+import com.syos.domain.entities.ItemMasterFile;
+
+/**
+ * In-memory view over the item master that {@link SearchIndexedItemRepository} keeps in step with writes.
+ */
+public interface ItemIndex {
+
+    /** A saved item; replaces any previous entry for the same id. */
+    void upsert(ItemMasterFile item);
+
+    void remove(Long itemId);
+}
@@ -0,0 +1,150 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.EventOutboxRepository;
+import com.syos.domain.events.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves domain events from the transactional outbox to the EventBus.
+ * - The sale/stock path only inserts an outbox row in its own transaction; nothing is dispatched there
+ * - A background thread (started by start()) drains the outbox in batches and hands them to the EventBus
+ *   with EventBus.deliver;
+ *   in asynchronous mode they go through the partition queues, so each item's events keep their order
+ * - A batch is removed only after every subscriber has acknowledged every event in it; a crash, a failing
+ *   subscriber or a batch not handled within the delivery timeout rolls the batch back for re-delivery,
+ *   not loss (at-least-once)
+ */
+public class OutboxRelay implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(500);
+    public static final Duration DEFAULT_DELIVERY_TIMEOUT = Duration.ofSeconds(10);
+
+    private final EventOutboxRepository outbox;
+    private final EventBus eventBus;
+    private final int batchSize;
+    private final Duration deliveryTimeout;
+    private final Duration pollInterval;
+    private ScheduledExecutorService poller; // guarded by this; null until start()
+
+    public OutboxRelay(EventOutboxRepository outbox, EventBus eventBus) {
+        this(outbox, eventBus, DEFAULT_BATCH_SIZE, Duration.ZERO, DEFAULT_DELIVERY_TIMEOUT);
+    }
+
+    /**
+     * @param pollInterval    delay between drains of the outbox once started; zero disables the poller
+     *                        (relayPending() only)
+     * @param deliveryTimeout how long a batch may take to be handled before it is rolled back; also how long
+     *                        close() waits for a batch that is being delivered
+     */
+    public OutboxRelay(EventOutboxRepository outbox, EventBus eventBus, int batchSize,
+                       Duration pollInterval, Duration deliveryTimeout) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.outbox = Objects.requireNonNull(outbox);
+        this.eventBus = Objects.requireNonNull(eventBus);
+        this.batchSize = batchSize;
+        this.deliveryTimeout = Objects.requireNonNull(deliveryTimeout);
+        this.pollInterval = Objects.requireNonNull(pollInterval);
+    }
+
+    /**
+     * Start the background poller; a no-op if it is disabled or already running.
+     * @return this relay
+     */
+    public synchronized OutboxRelay start() {
+        if (pollInterval.isZero() || pollInterval.isNegative() || poller != null) return this;
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = pollInterval.toMillis();
+        poller.scheduleWithFixedDelay(this::relayQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Deliver one batch of waiting events.
+     * @return number of events delivered
+     */
+    public int relayBatch() {
+        // Throwing from the callback (subscriber failure, timeout) rolls the batch back
+        return outbox.deliverBatch(batchSize, events -> {
+            List<CompletableFuture<Void>> acks = new ArrayList<>(events.size());
+            for (DomainEvent event : events) {
+                acks.add(eventBus.deliver(event));
+            }
+            awaitAcknowledged(acks);
+        });
+    }
+
+    /**
+     * Deliver batches until the outbox is empty.
+     * @return number of events delivered
+     */
+    public int relayPending() {
+        int total = 0;
+        int delivered;
+        do {
+            delivered = relayBatch();
+            total += delivered;
+        } while (delivered == batchSize);
+        return total;
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService poller;
+        synchronized (this) {
+            poller = this.poller;
+        }
+        if (poller == null) return;
+        poller.shutdown();
+        try {
+            if (!poller.awaitTermination(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                poller.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            poller.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitAcknowledged(List<CompletableFuture<Void>> acks) {
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                .get(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Outbox batch not handled within " + deliveryTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while delivering an outbox batch", e);
+        }
+    }
+
+    private void relayQuietly() {
+        try {
+            int delivered = relayPending();
+            if (delivered > 0) logger.debug("Relayed {} outbox events", delivered);
+        } catch (RuntimeException ex) {
+            logger.warn("Outbox relay failed; events stay queued for the next attempt", ex);
+        }
+    }
+}
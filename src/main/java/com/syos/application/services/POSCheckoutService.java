@@ -0,0 +1,214 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.ShelfStockRepository;
+import com.syos.domain.entities.ShelfStock;
+import com.syos.domain.exceptions.InsufficientStockException;
+import com.syos.domain.exceptions.ShortAllocationException;
+import com.syos.domain.valueobjects.ItemCode;
+import com.syos.infrastructure.persistence.entities.TransactionEntity;
+import com.syos.infrastructure.persistence.repositories.JpaPOSRepository;
+import com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PersistResult;
+import com.syos.infrastructure.persistence.repositories.JpaPOSRepository.PosLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * POS checkout engine.
+ * - Loads shelf batches for the whole cart in a single repository call
+ * - Allocates each item once per checkout with the SHELF channel strategy through one
+ *   StockAllocationService.Checkout kept for the whole sale, splits the result across the item's cart lines
+ *   in scan order and prices discounts per batch
+ * - Hands the allocation to JpaPOSRepository, which decrements stock and writes transaction, items and bill
+ *   in one database transaction
+ * - If another till sold an allocated batch first (short allocation), re-reads only the short items,
+ *   re-allocates them and retries, as long as the customer's discount total is unchanged
+ */
+public class POSCheckoutService {
+    private static final Logger logger = LoggerFactory.getLogger(POSCheckoutService.class);
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+
+    private final ShelfStockRepository shelfRepo;
+    private final DiscountService discountService;
+    private final JpaPOSRepository posRepository;
+    private final StockAllocationService allocator;
+
+    public POSCheckoutService(ShelfStockRepository shelfRepo,
+                              DiscountService discountService,
+                              JpaPOSRepository posRepository) {
+        this(shelfRepo, discountService, posRepository, StockAllocationService.defaults());
+    }
+
+    public POSCheckoutService(ShelfStockRepository shelfRepo,
+                              DiscountService discountService,
+                              JpaPOSRepository posRepository,
+                              StockAllocationService allocator) {
+        this.shelfRepo = Objects.requireNonNull(shelfRepo);
+        this.discountService = discountService;
+        this.posRepository = posRepository;
+        this.allocator = Objects.requireNonNull(allocator);
+    }
+
+    /**
+     * Total quantity currently on shelf for an item (used to validate a scan before it joins the cart).
+     */
+    public BigDecimal availableOnShelf(ItemCode itemCode) {
+        return shelfRepo.findAvailableByItemCode(itemCode).stream()
+                .map(ss -> ss.getQuantityOnShelf().getValue())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Allocate every cart line against shelf batches.
+     * @param cart cart lines in scan order; the same item may appear more than once
+     * @param applyDiscounts false for personal purchases (no discount lookups are made)
+     * @return per-batch lines ready for persistence plus the discount total
+     * @throws InsufficientStockException if the shelf cannot cover a line
+     */
+    public CheckoutPlan allocate(List<CartItem> cart, boolean applyDiscounts) {
+        Objects.requireNonNull(cart, "cart");
+
+        // One round trip for all items in the cart
+        StockAllocationService.Checkout<ItemCode, ShelfStock> checkout =
+                allocator.beginCheckout(StockAllocationService.Channel.SHELF, POSCheckoutService::view);
+        restock(checkout, cartCodes(cart));
+        return plan(cart, applyDiscounts, checkout);
+    }
+
+    // Replace the checkout's stock rows for these items with one fresh lookup
+    private void restock(StockAllocationService.Checkout<ItemCode, ShelfStock> checkout, Collection<ItemCode> codes) {
+        Map<ItemCode, List<ShelfStock>> stockByItem = new HashMap<>();
+        for (ItemCode code : codes) stockByItem.put(code, new ArrayList<>());
+        for (ShelfStock ss : shelfRepo.findAvailableByItemCodes(codes)) {
+            stockByItem.computeIfAbsent(ss.getItemCode(), k -> new ArrayList<>()).add(ss);
+        }
+        stockByItem.forEach(checkout::stock);
+    }
+
+    private CheckoutPlan plan(List<CartItem> cart, boolean applyDiscounts,
+                              StockAllocationService.Checkout<ItemCode, ShelfStock> checkout) {
+        Map<ItemCode, BigDecimal> totals = new LinkedHashMap<>();
+        for (CartItem ci : cart) totals.merge(ci.itemCode(), BigDecimal.valueOf(ci.quantity()), BigDecimal::add);
+
+        // Allocate each item's total once, so repeated scans of an item never double-allocate a batch
+        Map<ItemCode, ArrayDeque<Portion>> portions = new HashMap<>();
+        for (Map.Entry<ItemCode, BigDecimal> e : totals.entrySet()) {
+            ArrayDeque<Portion> queue = new ArrayDeque<>();
+            BigDecimal covered = BigDecimal.ZERO;
+            for (StockAllocationService.Allocation<ShelfStock> a : checkout.allocate(e.getKey(), e.getValue())) {
+                queue.add(new Portion(a.source(), a.quantity()));
+                covered = covered.add(a.quantity());
+            }
+            BigDecimal shortBy = e.getValue().subtract(covered);
+            if (shortBy.signum() > 0) {
+                throw new InsufficientStockException("Insufficient SHELF_STOCK for " + e.getKey().getValue()
+                        + ". Short by " + shortBy.stripTrailingZeros().toPlainString());
+            }
+            portions.put(e.getKey(), queue);
+        }
+
+        List<PosLine> lines = new ArrayList<>();
+        BigDecimal discountTotal = BigDecimal.ZERO;
+        for (CartItem ci : cart) {
+            BigDecimal remaining = BigDecimal.valueOf(ci.quantity());
+            ArrayDeque<Portion> queue = portions.get(ci.itemCode());
+            while (remaining.signum() > 0) {
+                Portion p = queue.peek();
+                BigDecimal take = remaining.min(p.left);
+                ShelfStock ss = p.stock;
+
+                BigDecimal discount = BigDecimal.ZERO;
+                if (applyDiscounts && discountService != null) {
+                    discount = discountService.calculateBatchDiscount(
+                            ci.itemId(), ss.getBatchId(), ss.getUnitPrice().getAmount(), take.doubleValue());
+                }
+                discountTotal = discountTotal.add(discount);
+
+                lines.add(new PosLine(ci.itemId(), ss.getBatchId(), take.doubleValue(),
+                        ss.getUnitPrice().getAmount(), discount, ss.getShelfCode()));
+                p.left = p.left.subtract(take);
+                if (p.left.signum() <= 0) queue.poll();
+                remaining = remaining.subtract(take);
+            }
+        }
+        return new CheckoutPlan(List.copyOf(cart), applyDiscounts, List.copyOf(lines), discountTotal, checkout);
+    }
+
+    /**
+     * Persist the sale atomically: stock decrements, transaction items and bill commit together or not at all.
+     * On a short allocation only the items whose batches came up short are re-read and re-allocated;
+     * the rest keep their allocations from the plan's checkout.
+     * @return the bill number and the plan that was actually committed (batches may differ from {@code plan})
+     * @throws InsufficientStockException if stock ran out, retries were exhausted, or re-allocation changed the discount
+     */
+    public Receipt commit(TransactionEntity tx, CheckoutPlan plan) {
+        CheckoutPlan attempt = plan;
+        for (int i = 1; ; i++) {
+            try {
+                return new Receipt(posRepository.savePOSCheckout(tx, attempt.lines()), attempt);
+            } catch (ShortAllocationException ex) {
+                if (i >= MAX_COMMIT_ATTEMPTS) throw ex;
+                logger.info("Short allocation on batches {} (attempt {}), re-allocating", ex.getShortBatchIds(), i);
+                Set<Long> shortBatches = new HashSet<>(ex.getShortBatchIds());
+                Set<Long> shortItems = new HashSet<>();
+                for (PosLine line : attempt.lines()) {
+                    if (shortBatches.contains(line.batchId())) shortItems.add(line.itemId());
+                }
+                Set<ItemCode> shortCodes = new LinkedHashSet<>();
+                for (CartItem ci : plan.cart()) {
+                    if (shortItems.contains(ci.itemId())) shortCodes.add(ci.itemCode());
+                }
+                restock(plan.checkout(), shortCodes.isEmpty() ? cartCodes(plan.cart()) : shortCodes);
+                CheckoutPlan retry = plan(plan.cart(), plan.discountsApplied(), plan.checkout());
+                if (retry.discountTotal().compareTo(plan.discountTotal()) != 0) {
+                    throw new InsufficientStockException("Discounted stock was sold at another till. Please re-scan the cart");
+                }
+                attempt = retry;
+            }
+        }
+    }
+
+    private static Set<ItemCode> cartCodes(List<CartItem> cart) {
+        Set<ItemCode> codes = new LinkedHashSet<>();
+        for (CartItem ci : cart) codes.add(ci.itemCode());
+        return codes;
+    }
+
+    private static StockAllocationService.StockView view(ShelfStock ss) {
+        return new StockAllocationService.StockView(
+                ss.getQuantityOnShelf().getValue(), ss.getPlacedOnShelfDate(), ss.getExpiryDate());
+    }
+
+    // Part of an item's allocation not yet assigned to a cart line
+    private static final class Portion {
+        final ShelfStock stock;
+        BigDecimal left;
+
+        Portion(ShelfStock stock, BigDecimal left) {
+            this.stock = stock;
+            this.left = left;
+        }
+    }
+
+    public record CartItem(ItemCode itemCode, long itemId, double quantity) {}
+
+    /**
+     * @param checkout the sale's allocation cache; commit() re-allocates through it on a short allocation
+     */
+    public record CheckoutPlan(List<CartItem> cart, boolean discountsApplied, List<PosLine> lines, BigDecimal discountTotal,
+                               StockAllocationService.Checkout<ItemCode, ShelfStock> checkout) {}
+
+    public record Receipt(PersistResult persisted, CheckoutPlan plan) {}
+}
@@ -0,0 +1,477 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BrandRepository;
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.Brand;
+import com.syos.domain.entities.Category;
+import com.syos.domain.entities.ItemMasterFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory faceted browsing over the active items: category, brand, perishable, featured and price band.
+ * - Items are addressed by a dense ordinal; every facet value keeps a bitset of the ordinals that carry it
+ * - A filter ORs the bitsets of the values picked within a facet and ANDs across facets
+ * - Counts for a facet apply every filter except that facet's own, so the other values it offers stay visible
+ * - With a {@link CategoryHierarchy}, a category filter takes in its subcategories and counts roll up to parents
+ * - Built from the active items on first use; upsert()/remove() keep it current afterwards
+ */
+public class ProductFacetIndex implements ItemIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    // Below one match in this many items, matches are ranked directly instead of walking the whole name order
+    private static final int SPARSE_RATIO = 32;
+
+    private static final Comparator<ItemMasterFile> BY_NAME = Comparator
+            .comparing(ItemMasterFile::getItemName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(ItemMasterFile::getId);
+
+    // Guards the parent walk when rolling counts up against a malformed (cyclic) category tree
+    private static final int MAX_CATEGORY_DEPTH = 64;
+
+    /** Under 100, 100-499.99, 500-999.99, 1000-4999.99, 5000 and over (LKR). */
+    public static final List<PriceBand> DEFAULT_PRICE_BANDS = PriceBand.split(
+            BigDecimal.valueOf(100), BigDecimal.valueOf(500), BigDecimal.valueOf(1000), BigDecimal.valueOf(5000));
+
+    private final ItemMasterFileRepository items;
+    private final BrandRepository brands;
+    private final CategoryRepository categories;
+    private final CategoryHierarchy hierarchy;
+    private final List<PriceBand> priceBands;
+
+    // Guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private ItemMasterFile[] docs = new ItemMasterFile[64];
+    private int ordinalLimit;
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Bits live = new Bits();
+    private final Map<Long, Bits> byCategory = new HashMap<>();
+    private final Map<Long, Bits> byBrand = new HashMap<>();
+    private final Bits perishable = new Bits();
+    private final Bits featured = new Bits();
+    private final Bits[] byPriceBand;
+    private final Map<Long, String> brandNames = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    // Items in name order, kept sorted as they are indexed
+    private final TreeMap<ItemMasterFile, Integer> byName = new TreeMap<>(BY_NAME);
+    private volatile boolean built;
+
+    /**
+     * @param brands     brand names for the counts; may be null
+     * @param categories category names for the counts; may be null
+     * @param hierarchy  category tree for subcategory filtering and rolled-up counts; may be null
+     */
+    public ProductFacetIndex(ItemMasterFileRepository items, BrandRepository brands, CategoryRepository categories,
+                             CategoryHierarchy hierarchy) {
+        this(items, brands, categories, hierarchy, DEFAULT_PRICE_BANDS);
+    }
+
+    public ProductFacetIndex(ItemMasterFileRepository items, BrandRepository brands, CategoryRepository categories,
+                             CategoryHierarchy hierarchy, List<PriceBand> priceBands) {
+        if (priceBands == null || priceBands.isEmpty()) {
+            throw new IllegalArgumentException("At least one price band is required");
+        }
+        this.items = Objects.requireNonNull(items);
+        this.brands = brands;
+        this.categories = categories;
+        this.hierarchy = hierarchy;
+        this.priceBands = List.copyOf(priceBands);
+        this.byPriceBand = new Bits[priceBands.size()];
+        for (int i = 0; i < byPriceBand.length; i++) byPriceBand[i] = new Bits();
+    }
+
+    public List<PriceBand> priceBands() {
+        return priceBands;
+    }
+
+    /**
+     * Items matching {@code filter} in name order (at most {@code limit}), with the count of every facet value.
+     */
+    public Result browse(Filter filter, int limit) {
+        Filter f = filter == null ? Filter.NONE : filter;
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            int words = live.words.length;
+            long[] category = f.categoryIds().isEmpty() ? null : union(categoryPostings(f.categoryIds()), words);
+            long[] brand = f.brandIds().isEmpty() ? null : union(postings(byBrand, f.brandIds()), words);
+            long[] band = f.priceBands().isEmpty() ? null : union(bandPostings(f.priceBands()), words);
+            long[] fresh = f.perishable() == null ? null : flag(perishable, f.perishable(), words);
+            long[] feature = f.featured() == null ? null : flag(featured, f.featured(), words);
+
+            long[] matched = intersect(words, category, brand, band, fresh, feature);
+            int total = Bits.count(matched);
+            List<ItemMasterFile> page = page(matched, total, limit);
+
+            long[] forCategories = intersect(words, brand, band, fresh, feature);
+            long[] forBrands = intersect(words, category, band, fresh, feature);
+            long[] forBands = intersect(words, category, brand, fresh, feature);
+            long[] forPerishable = intersect(words, category, brand, band, feature);
+            long[] forFeatured = intersect(words, category, brand, band, fresh);
+
+            List<FacetCount> bandCounts = new ArrayList<>(byPriceBand.length);
+            for (int i = 0; i < byPriceBand.length; i++) {
+                bandCounts.add(new FacetCount((long) i, priceBands.get(i).label(), Bits.andCount(forBands, byPriceBand[i].words)));
+            }
+            return new Result(page, total,
+                    categoryCounts(forCategories),
+                    counts(byBrand, forBrands, brandNames),
+                    bandCounts,
+                    Bits.andCount(forPerishable, perishable.words),
+                    Bits.andCount(forFeatured, featured.words));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock. Few matches: pick the first by name directly; many: walk the name order until the page is full
+    private List<ItemMasterFile> page(long[] matched, int total, int limit) {
+        List<ItemMasterFile> page = new ArrayList<>(Math.min(Math.max(limit, 0), total));
+        if (limit <= 0 || total == 0) return page;
+        if (total <= byName.size() / SPARSE_RATIO) {
+            PriorityQueue<ItemMasterFile> lastFirst = new PriorityQueue<>(Math.min(limit, total) + 1, BY_NAME.reversed());
+            for (int w = 0; w < matched.length; w++) {
+                for (long bits = matched[w]; bits != 0; bits &= bits - 1) {
+                    lastFirst.add(docs[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                    if (lastFirst.size() > limit) lastFirst.poll();
+                }
+            }
+            page.addAll(lastFirst);
+            page.sort(BY_NAME);
+        } else {
+            for (Map.Entry<ItemMasterFile, Integer> e : byName.entrySet()) {
+                if (Bits.get(matched, e.getValue())) {
+                    page.add(e.getKey());
+                    if (page.size() == limit) break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Index a saved item, replacing its previous entry; inactive items are dropped from the index.
+     */
+    @Override
+    public void upsert(ItemMasterFile item) {
+        if (item == null || item.getId() == null || !built) return; // not built yet: the build will read it
+        lock.writeLock().lock();
+        try {
+            unindex(item.getId());
+            if (item.isActive()) index(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        if (itemId == null || !built) return;
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop everything; the next browse rebuilds from the repositories (e.g. after bulk imports).
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            docs = new ItemMasterFile[64];
+            ordinalLimit = 0;
+            freeOrdinals.clear();
+            live.words = new long[0];
+            byCategory.clear();
+            byBrand.clear();
+            perishable.words = new long[0];
+            featured.words = new long[0];
+            for (Bits b : byPriceBand) b.words = new long[0];
+            brandNames.clear();
+            categoryNames.clear();
+            byName.clear();
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+            long start = System.nanoTime();
+            if (brands != null) {
+                for (Brand b : brands.findAll()) brandNames.put(b.getId(), b.getBrandName());
+            }
+            if (categories != null) {
+                for (Category c : categories.findAll()) categoryNames.put(c.getId(), c.getCategoryName());
+            }
+            for (ItemMasterFile item : items.findAllActive()) {
+                if (item.getId() != null) index(item);
+            }
+            built = true;
+            logger.debug("Product facet index built: {} items, {} categories, {} brands in {} ms",
+                    ordinals.size(), byCategory.size(), byBrand.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void index(ItemMasterFile item) {
+        int o = freeOrdinals.isEmpty() ? ordinalLimit++ : freeOrdinals.pop();
+        if (o >= docs.length) docs = Arrays.copyOf(docs, Math.max(docs.length * 2, o + 1));
+        docs[o] = item;
+        ordinals.put(item.getId(), o);
+        byName.put(item, o);
+        live.set(o);
+        if (item.getCategoryId() != null) byCategory.computeIfAbsent(item.getCategoryId().getValue(), k -> new Bits()).set(o);
+        if (item.getBrandId() != null) byBrand.computeIfAbsent(item.getBrandId().getValue(), k -> new Bits()).set(o);
+        if (item.isPerishable()) perishable.set(o);
+        if (item.isFeatured()) featured.set(o);
+        int band = bandOf(item);
+        if (band >= 0) byPriceBand[band].set(o);
+    }
+
+    // Caller holds the write lock
+    private void unindex(Long itemId) {
+        Integer o = ordinals.remove(itemId);
+        if (o == null) return;
+        ItemMasterFile item = docs[o];
+        byName.remove(item);
+        live.clear(o);
+        if (item.getCategoryId() != null) clear(byCategory, item.getCategoryId().getValue(), o);
+        if (item.getBrandId() != null) clear(byBrand, item.getBrandId().getValue(), o);
+        perishable.clear(o);
+        featured.clear(o);
+        for (Bits b : byPriceBand) b.clear(o);
+        docs[o] = null;
+        freeOrdinals.push(o);
+    }
+
+    private static void clear(Map<Long, Bits> postings, Long value, int o) {
+        Bits bits = postings.get(value);
+        if (bits == null) return;
+        bits.clear(o);
+        if (bits.isEmpty()) postings.remove(value);
+    }
+
+    private int bandOf(ItemMasterFile item) {
+        if (item.getSellingPrice() == null) return -1;
+        BigDecimal price = item.getSellingPrice().toBigDecimal();
+        for (int i = 0; i < priceBands.size(); i++) {
+            if (priceBands.get(i).contains(price)) return i;
+        }
+        return -1;
+    }
+
+    // Caller holds the read lock. A picked category also selects everything below it when the tree is known
+    private List<Bits> categoryPostings(Set<Long> picked) {
+        if (hierarchy == null) return postings(byCategory, picked);
+        Set<Long> expanded = new LinkedHashSet<>();
+        for (Long id : picked) {
+            List<Long> subtree = hierarchy.subtreeIds(id);
+            if (subtree.isEmpty()) expanded.add(id);
+            else expanded.addAll(subtree);
+        }
+        return postings(byCategory, expanded);
+    }
+
+    private static List<Bits> postings(Map<Long, Bits> byValue, Set<Long> picked) {
+        List<Bits> out = new ArrayList<>(picked.size());
+        for (Long value : picked) {
+            Bits bits = byValue.get(value);
+            if (bits != null) out.add(bits);
+        }
+        return out;
+    }
+
+    private List<Bits> bandPostings(Set<Integer> picked) {
+        List<Bits> out = new ArrayList<>(picked.size());
+        for (Integer i : picked) {
+            if (i != null && i >= 0 && i < byPriceBand.length) out.add(byPriceBand[i]);
+        }
+        return out;
+    }
+
+    // Caller holds the read lock. Counts per category, added up into every ancestor when the tree is known
+    private List<FacetCount> categoryCounts(long[] base) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Map.Entry<Long, Bits> e : byCategory.entrySet()) {
+            int n = Bits.andCount(base, e.getValue().words);
+            if (n == 0) continue;
+            counts.merge(e.getKey(), n, Integer::sum);
+            if (hierarchy != null) {
+                // Each item sits in one category, so adding along the parent chain never counts it twice
+                Long parent = hierarchy.find(e.getKey()).map(Category::getParentCategoryId).orElse(null);
+                for (int depth = 0; parent != null && depth < MAX_CATEGORY_DEPTH; depth++) {
+                    counts.merge(parent, n, Integer::sum);
+                    parent = hierarchy.find(parent).map(Category::getParentCategoryId).orElse(null);
+                }
+            }
+        }
+        return sorted(counts, categoryNames);
+    }
+
+    private static List<FacetCount> counts(Map<Long, Bits> byValue, long[] base, Map<Long, String> names) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Map.Entry<Long, Bits> e : byValue.entrySet()) {
+            int n = Bits.andCount(base, e.getValue().words);
+            if (n > 0) counts.put(e.getKey(), n);
+        }
+        return sorted(counts, names);
+    }
+
+    // Largest first, then by label
+    private static List<FacetCount> sorted(Map<Long, Integer> counts, Map<Long, String> names) {
+        List<FacetCount> out = new ArrayList<>(counts.size());
+        counts.forEach((id, n) -> out.add(new FacetCount(id, names.getOrDefault(id, String.valueOf(id)), n)));
+        out.sort(Comparator.comparingInt((FacetCount c) -> -c.count())
+                .thenComparing(FacetCount::label, String.CASE_INSENSITIVE_ORDER));
+        return out;
+    }
+
+    private long[] union(List<Bits> picked, int words) {
+        long[] out = new long[words];
+        for (Bits b : picked) {
+            for (int i = 0; i < Math.min(words, b.words.length); i++) out[i] |= b.words[i];
+        }
+        return out;
+    }
+
+    private long[] flag(Bits set, boolean wanted, int words) {
+        long[] out = Arrays.copyOf(set.words, words);
+        if (!wanted) {
+            for (int i = 0; i < words; i++) out[i] = ~out[i] & live.words[i];
+        }
+        return out;
+    }
+
+    // All live items narrowed by each non-null mask
+    private long[] intersect(int words, long[]... masks) {
+        long[] out = Arrays.copyOf(live.words, words);
+        for (long[] mask : masks) {
+            if (mask == null) continue;
+            for (int i = 0; i < words; i++) out[i] &= mask[i];
+        }
+        return out;
+    }
+
+    /** Selling price from (inclusive) up to (exclusive); a null bound is open. */
+    public record PriceBand(String label, BigDecimal from, BigDecimal to) {
+        public boolean contains(BigDecimal price) {
+            return (from == null || price.compareTo(from) >= 0) && (to == null || price.compareTo(to) < 0);
+        }
+
+        /** Consecutive bands split at the given ascending prices. */
+        public static List<PriceBand> split(BigDecimal... bounds) {
+            List<PriceBand> out = new ArrayList<>(bounds.length + 1);
+            BigDecimal from = null;
+            for (BigDecimal to : bounds) {
+                out.add(new PriceBand(from == null ? "Under " + to.toPlainString()
+                        : from.toPlainString() + " - " + to.toPlainString(), from, to));
+                from = to;
+            }
+            out.add(new PriceBand(from == null ? "Any price" : from.toPlainString() + " and over", from, null));
+            return out;
+        }
+    }
+
+    /**
+     * Values picked per facet; several values within a facet match any of them, null or empty means no filter.
+     */
+    public record Filter(Set<Long> categoryIds, Set<Long> brandIds, Boolean perishable, Boolean featured,
+                         Set<Integer> priceBands) {
+        public static final Filter NONE = new Filter(Set.of(), Set.of(), null, null, Set.of());
+
+        public Filter {
+            categoryIds = categoryIds == null ? Set.of() : Set.copyOf(categoryIds);
+            brandIds = brandIds == null ? Set.of() : Set.copyOf(brandIds);
+            priceBands = priceBands == null ? Set.of() : Set.copyOf(priceBands);
+        }
+    }
+
+    /** {@code value} is the category or brand id, or the price band's position. */
+    public record FacetCount(Long value, String label, int count) {}
+
+    /**
+     * @param total           items matching the whole filter ({@code items} holds the first of them)
+     * @param perishableCount perishable items under every filter except the perishable one
+     * @param featuredCount   featured items under every filter except the featured one
+     */
+    public record Result(List<ItemMasterFile> items, int total, List<FacetCount> categories, List<FacetCount> brands,
+                         List<FacetCount> priceBands, int perishableCount, int featuredCount) {}
+
+    // Growable bitset over ordinals; counts AND two word arrays without allocating
+    private static final class Bits {
+        long[] words = new long[0];
+
+        void set(int i) {
+            int w = i >>> 6;
+            if (w >= words.length) words = Arrays.copyOf(words, Math.max(words.length * 2, w + 1));
+            words[w] |= 1L << i;
+        }
+
+        void clear(int i) {
+            int w = i >>> 6;
+            if (w < words.length) words[w] &= ~(1L << i);
+        }
+
+        boolean isEmpty() {
+            for (long w : words) if (w != 0) return false;
+            return true;
+        }
+
+        static boolean get(long[] words, int i) {
+            int w = i >>> 6;
+            return w < words.length && (words[w] & (1L << i)) != 0;
+        }
+
+        static int count(long[] words) {
+            int n = 0;
+            for (long w : words) n += Long.bitCount(w);
+            return n;
+        }
+
+        static int andCount(long[] a, long[] b) {
+            int n = 0;
+            for (int i = 0, len = Math.min(a.length, b.length); i < len; i++) n += Long.bitCount(a[i] & b[i]);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BrandRepository;
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.Brand;
+import com.syos.domain.entities.Category;
+import com.syos.domain.entities.ItemMasterFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index for product search over item code, name, brand, category and description.
+ * - Text is lower-cased, accents stripped and split on anything that is not a letter or digit
+ * - Every query word must match a word of the item: exactly, as a prefix (the word still being typed),
+ *   or within one or two edits when neither finds anything (typos)
+ * - Results are ranked by field weight and match quality, then by name
+ * - Built from the active items on first search; upsert()/remove() keep it current afterwards,
+ *   so searching never reaches the database
+ */
+public class ProductSearchIndex implements ItemIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    // A hit on the code or name outranks one in the description
+    static final float CODE_WEIGHT = 4f;
+    static final float NAME_WEIGHT = 3f;
+    static final float BRAND_WEIGHT = 2f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Upper bound on index terms a single query word may expand to (short prefixes, fuzzy scans)
+    private static final int MAX_EXPANSIONS = 128;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final ItemMasterFileRepository items;
+    private final BrandRepository brands;
+    private final CategoryRepository categories;
+
+    // Guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    // Items are addressed by a dense ordinal so scoring runs over primitive arrays; freed ordinals are reused
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private Doc[] docs = new Doc[64];
+    private int ordinalLimit;
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<Long, String> brandNames = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private volatile boolean built;
+
+    /**
+     * @param brands     brand names to index; may be null
+     * @param categories category names to index; may be null
+     */
+    public ProductSearchIndex(ItemMasterFileRepository items, BrandRepository brands, CategoryRepository categories) {
+        this.items = Objects.requireNonNull(items);
+        this.brands = brands;
+        this.categories = categories;
+    }
+
+    /**
+     * Best matches for {@code query}, most relevant first.
+     */
+    public List<ItemMasterFile> search(String query, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokenize(query));
+        if (words.isEmpty() || limit <= 0) return List.of();
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            // Per-word best score by ordinal; candidates are the ordinals every word so far has matched
+            float[] total = null;
+            int[] candidates = null;
+            int count = 0;
+            for (String word : words) {
+                float[] scores = new float[ordinalLimit];
+                int[] hits = match(word, scores);
+                if (total == null) {
+                    total = scores;
+                    candidates = hits;
+                    count = hits.length;
+                } else {
+                    int kept = 0;
+                    for (int i = 0; i < count; i++) {
+                        int o = candidates[i];
+                        if (scores[o] > 0) {
+                            total[o] += scores[o];
+                            candidates[kept++] = o;
+                        }
+                    }
+                    count = kept;
+                }
+                if (count == 0) return List.of();
+            }
+            return top(total, candidates, count, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock. Bounded heap: a short query word can match most of the catalogue
+    private List<ItemMasterFile> top(float[] scores, int[] candidates, int count, int limit) {
+        PriorityQueue<Hit> worstFirst = new PriorityQueue<>(Math.min(limit, count) + 1, RANKING.reversed());
+        for (int i = 0; i < count; i++) {
+            Hit hit = new Hit(docs[candidates[i]].item, scores[candidates[i]]);
+            if (worstFirst.size() < limit) {
+                worstFirst.add(hit);
+            } else if (RANKING.compare(hit, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(hit);
+            }
+        }
+        List<Hit> best = new ArrayList<>(worstFirst);
+        best.sort(RANKING);
+        List<ItemMasterFile> out = new ArrayList<>(best.size());
+        for (Hit h : best) out.add(h.item);
+        return out;
+    }
+
+    /**
+     * Index a saved item, replacing its previous entry; inactive items are dropped from the index.
+     */
+    @Override
+    public void upsert(ItemMasterFile item) {
+        if (item == null || item.getId() == null || !built) return; // not built yet: the build will read it
+        lock.writeLock().lock();
+        try {
+            unindex(item.getId());
+            if (item.isActive()) index(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        if (itemId == null || !built) return;
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop everything; the next search rebuilds from the repositories (e.g. after bulk imports).
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinals.clear();
+            docs = new Doc[64];
+            ordinalLimit = 0;
+            freeOrdinals.clear();
+            brandNames.clear();
+            categoryNames.clear();
+            built = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        List<String> out = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (!word.isEmpty()) {
+                out.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) out.add(word.toString());
+        return out;
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        lock.writeLock().lock();
+        try {
+            if (built) return;
+            long start = System.nanoTime();
+            if (brands != null) {
+                for (Brand b : brands.findAll()) brandNames.put(b.getId(), b.getBrandName());
+            }
+            if (categories != null) {
+                for (Category c : categories.findAll()) categoryNames.put(c.getId(), c.getCategoryName());
+            }
+            for (ItemMasterFile item : items.findAllActive()) {
+                if (item.getId() != null) index(item);
+            }
+            built = true;
+            logger.debug("Product search index built: {} items, {} terms in {} ms",
+                    ordinals.size(), terms.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock. Fills scores[ordinal] with the best match per item; returns the matched ordinals
+    private int[] match(String word, float[] scores) {
+        Matches hits = new Matches(scores);
+        Postings exact = terms.get(word);
+        if (exact != null) hits.add(exact, 1f);
+
+        int expanded = 0;
+        for (Map.Entry<String, Postings> e : terms.subMap(word, false, word + Character.MAX_VALUE, false).entrySet()) {
+            if (expanded++ == MAX_EXPANSIONS) break;
+            // The closer the completion is to what was typed, the better
+            hits.add(e.getValue(), PREFIX_FACTOR * word.length() / e.getKey().length());
+        }
+
+        if (hits.count == 0 && word.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = word.length() >= 8 ? 2 : 1;
+            char first = word.charAt(0);
+            expanded = 0;
+            // Typos in the first letter are rare; scanning only its terms keeps this fast on large catalogues
+            for (Map.Entry<String, Postings> e : terms.subMap(String.valueOf(first), true, String.valueOf((char) (first + 1)), false).entrySet()) {
+                String term = e.getKey();
+                int edits = editDistance(word, term, maxEdits);
+                if (edits > maxEdits && term.length() > word.length()) {
+                    // A mistyped word still being typed: compare against the same-length start of the term
+                    edits = editDistance(word, term.substring(0, word.length()), maxEdits);
+                }
+                if (edits <= maxEdits) {
+                    hits.add(e.getValue(), FUZZY_FACTOR / (edits + 1));
+                    if (++expanded == MAX_EXPANSIONS) break;
+                }
+            }
+        }
+        return Arrays.copyOf(hits.ordinals, hits.count);
+    }
+
+    // Caller holds the write lock
+    private void index(ItemMasterFile item) {
+        Map<String, Float> weights = new HashMap<>();
+        String code = item.getItemCode().getValue();
+        addField(weights, code, CODE_WEIGHT);
+        addTerm(weights, String.join("", tokenize(code)), CODE_WEIGHT); // "ITM-001" also as "itm001"
+        addField(weights, item.getItemName(), NAME_WEIGHT);
+        if (item.getBrandId() != null) {
+            addField(weights, brandName(item.getBrandId().getValue()), BRAND_WEIGHT);
+        }
+        if (item.getCategoryId() != null) {
+            addField(weights, categoryName(item.getCategoryId().getValue()), CATEGORY_WEIGHT);
+        }
+        addField(weights, item.getDescription(), DESCRIPTION_WEIGHT);
+
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : ordinalLimit++;
+        if (ordinal == docs.length) docs = Arrays.copyOf(docs, docs.length * 2);
+        for (Map.Entry<String, Float> e : weights.entrySet()) {
+            terms.computeIfAbsent(e.getKey(), k -> new Postings()).add(ordinal, e.getValue());
+        }
+        docs[ordinal] = new Doc(item, weights.keySet().toArray(new String[0]));
+        ordinals.put(item.getId(), ordinal);
+    }
+
+    // Caller holds the write lock
+    private void unindex(Long itemId) {
+        Integer ordinal = ordinals.remove(itemId);
+        if (ordinal == null) return;
+        for (String term : docs[ordinal].terms) {
+            Postings p = terms.get(term);
+            if (p != null && p.remove(ordinal) && p.size == 0) terms.remove(term);
+        }
+        docs[ordinal] = null;
+        freeOrdinals.push(ordinal);
+    }
+
+    private String brandName(Long brandId) {
+        if (brands == null || brandId == null) return null;
+        return brandNames.computeIfAbsent(brandId, id -> brands.findById(id).map(Brand::getBrandName).orElse(null));
+    }
+
+    private String categoryName(Long categoryId) {
+        if (categories == null || categoryId == null) return null;
+        return categoryNames.computeIfAbsent(categoryId, id -> categories.findById(id).map(Category::getCategoryName).orElse(null));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (String t : tokenize(text)) addTerm(weights, t, weight);
+    }
+
+    private static void addTerm(Map<String, Float> weights, String term, float weight) {
+        if (!term.isEmpty()) weights.merge(term, weight, Math::max);
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent swaps count as one edit); stops early once it exceeds max.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] prev2 = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, prev2[j - 2] + 1);
+                }
+                cur[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev2; prev2 = prev; prev = cur; cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    private record Doc(ItemMasterFile item, String[] terms) {}
+
+    private record Hit(ItemMasterFile item, float score) {}
+
+    // Best first: score, then name, then id for a stable order
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble((Hit h) -> -h.score)
+            .thenComparing(h -> h.item.getItemName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(h -> h.item.getId());
+
+    /**
+     * Item ordinals and field weights for one term, kept in parallel primitive arrays.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Scores for one query word: best score per ordinal, plus the list of ordinals touched.
+     */
+    private static final class Matches {
+        private final float[] scores;
+        private int[] ordinals = new int[16];
+        private int count;
+
+        Matches(float[] scores) {
+            this.scores = scores;
+        }
+
+        void add(Postings p, float factor) {
+            for (int i = 0; i < p.size; i++) {
+                int o = p.ordinals[i];
+                float s = p.weights[i] * factor;
+                if (scores[o] == 0) {
+                    if (count == ordinals.length) ordinals = Arrays.copyOf(ordinals, count * 2);
+                    ordinals[count++] = o;
+                    scores[o] = s;
+                } else if (s > scores[o]) {
+                    scores[o] = s;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.syos.application.services;
+
+import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionEntity;
+import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository;
+import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository.BatchPromotionLink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * In-memory index of active batch-specific promotions keyed by (itemId, batchId).
+ * - Built from one query; lookups are a hash probe over primitive arrays
+ * - A snapshot is valid until the next promotion start/end boundary or the refresh interval, whichever comes first
+ * - invalidate() forces a rebuild on the next lookup (called when promotions are created)
+ */
+public class PromotionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndex.class);
+    private static final Duration DEFAULT_REFRESH = Duration.ofMinutes(5);
+
+    private final JpaPromotionRepository promoRepo;
+    private final Duration refreshInterval;
+    private volatile Snapshot snapshot; // null until first lookup or after invalidate()
+
+    public PromotionIndex(JpaPromotionRepository promoRepo) {
+        this(promoRepo, DEFAULT_REFRESH);
+    }
+
+    /**
+     * @param refreshInterval upper bound on snapshot age; also picks up promotions created by other JVMs
+     */
+    public PromotionIndex(JpaPromotionRepository promoRepo, Duration refreshInterval) {
+        this.promoRepo = Objects.requireNonNull(promoRepo);
+        this.refreshInterval = Objects.requireNonNull(refreshInterval);
+    }
+
+    /**
+     * Promotion in force for the batch at the given time (latest start wins, matching the SQL lookup).
+     */
+    public Optional<PromotionEntity> find(long itemId, long batchId, LocalDateTime at) {
+        Snapshot s = snapshot;
+        if (s == null || !at.isBefore(s.validUntil)) {
+            s = rebuild(s, at);
+        }
+        PromotionEntity p = s.get(itemId, batchId);
+        if (p == null || p.getStartDate().isAfter(at) || p.getEndDate().isBefore(at)) return Optional.empty();
+        return Optional.of(p);
+    }
+
+    /**
+     * Drop the current snapshot; the next lookup reloads from the database.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    int size() {
+        Snapshot s = snapshot;
+        return s == null ? 0 : s.size;
+    }
+
+    private synchronized Snapshot rebuild(Snapshot stale, LocalDateTime at) {
+        Snapshot s = snapshot;
+        if (s != null && s != stale && at.isBefore(s.validUntil)) return s; // rebuilt by another thread
+
+        List<BatchPromotionLink> links = promoRepo.findBatchPromotionLinksEndingAfter(at);
+        LocalDateTime validUntil = at.plus(refreshInterval);
+        Snapshot fresh = new Snapshot(links.size());
+        for (BatchPromotionLink link : links) {
+            PromotionEntity p = link.promotion();
+            if (p.getStartDate().isAfter(at)) {
+                // Not started yet: rebuild when it does
+                if (p.getStartDate().isBefore(validUntil)) validUntil = p.getStartDate();
+                continue;
+            }
+            if (p.getEndDate().isBefore(validUntil)) validUntil = p.getEndDate();
+            fresh.putIfLaterStart(link.itemId(), link.batchId(), p);
+        }
+        fresh.validUntil = validUntil;
+        snapshot = fresh;
+        logger.debug("Promotion index rebuilt: {} entries, valid until {}", fresh.size, validUntil);
+        return fresh;
+    }
+
+    /**
+     * Open-addressing hash table keyed by two longs. Written once during rebuild, then read-only.
+     */
+    private static final class Snapshot {
+        private final long[] itemIds;
+        private final long[] batchIds;
+        private final PromotionEntity[] values;
+        private final int mask;
+        private int size;
+        private LocalDateTime validUntil;
+
+        Snapshot(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+            this.itemIds = new long[capacity];
+            this.batchIds = new long[capacity];
+            this.values = new PromotionEntity[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int slot(long itemId, long batchId) {
+            long h = itemId * 0x9E3779B97F4A7C15L ^ batchId * 0xC2B2AE3D27D4EB4FL;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        PromotionEntity get(long itemId, long batchId) {
+            for (int i = slot(itemId, batchId); values[i] != null; i = (i + 1) & mask) {
+                if (itemIds[i] == itemId && batchIds[i] == batchId) return values[i];
+            }
+            return null;
+        }
+
+        void putIfLaterStart(long itemId, long batchId, PromotionEntity p) {
+            int i = slot(itemId, batchId);
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (itemIds[i] == itemId && batchIds[i] == batchId) {
+                    if (p.getStartDate().isAfter(values[i].getStartDate())) values[i] = p;
+                    return;
+                }
+            }
+            itemIds[i] = itemId;
+            batchIds[i] = batchId;
+            values[i] = p;
+            size++;
+        }
+    }
+}
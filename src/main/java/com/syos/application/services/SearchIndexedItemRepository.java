@@ -0,0 +1,54 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.valueobjects.BrandId;
+import com.syos.domain.valueobjects.CategoryId;
+import com.syos.domain.valueobjects.ItemCode;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * ItemMasterFileRepository decorator that keeps in-memory item indexes ({@link ProductSearchIndex},
+ * {@link ItemCodeTrie}) in step with writes.
+ * Every save and delete that goes through the application updates the indexes once it has succeeded.
+ */
+public class SearchIndexedItemRepository implements ItemMasterFileRepository {
+    private final ItemMasterFileRepository delegate;
+    private final List<ItemIndex> indexes;
+
+    public SearchIndexedItemRepository(ItemMasterFileRepository delegate, ItemIndex... indexes) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.indexes = List.of(indexes);
+    }
+
+    @Override
+    public ItemMasterFile save(ItemMasterFile item) {
+        ItemMasterFile saved = delegate.save(item);
+        for (ItemIndex index : indexes) index.upsert(saved);
+        return saved;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        delegate.deleteById(id);
+        for (ItemIndex index : indexes) index.remove(id);
+    }
+
+    @Override public Optional<ItemMasterFile> findById(Long id) { return delegate.findById(id); }
+    @Override public Optional<ItemMasterFile> findByItemCode(ItemCode itemCode) { return delegate.findByItemCode(itemCode); }
+    @Override public boolean existsByItemCode(ItemCode itemCode) { return delegate.existsByItemCode(itemCode); }
+    @Override public List<ItemMasterFile> findAllActive() { return delegate.findAllActive(); }
+    @Override public List<ItemMasterFile> findByCategory(CategoryId categoryId) { return delegate.findByCategory(categoryId); }
+    @Override public List<ItemMasterFile> findByCategories(Collection<CategoryId> categoryIds) { return delegate.findByCategories(categoryIds); }
+    @Override public List<ItemMasterFile> findByBrand(BrandId brandId) { return delegate.findByBrand(brandId); }
+    @Override public List<ItemMasterFile> findFeaturedItems() { return delegate.findFeaturedItems(); }
+    @Override public List<ItemMasterFile> findLatestItems() { return delegate.findLatestItems(); }
+    @Override public List<ItemMasterFile> findItemsRequiringReorder() { return delegate.findItemsRequiringReorder(); }
+    @Override public List<ItemMasterFile> searchByName(String searchTerm) { return delegate.searchByName(searchTerm); }
+    @Override public long countActiveItems() { return delegate.countActiveItems(); }
+    @Override public boolean isActive(Long id) { return delegate.isActive(id); }
+}
@@ -0,0 +1,164 @@
+package com.syos.application.services;
+
+import com.syos.application.strategies.stock.BatchAllocation;
+import com.syos.application.strategies.stock.BatchInfo;
+import com.syos.application.strategies.stock.StockSelectionPolicy;
+import com.syos.application.strategies.stock.StockSelectionStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single dispatch allocator for every stock channel, driven by StockSelectionStrategy.
+ * - SHELF: POS sales from shelf stock
+ * - WEB: online checkout from web inventory
+ * - WAREHOUSE: transfers from warehouse to shelf/web
+ * Each channel's strategy comes from configuration (stock.selection.shelf|web|warehouse = FIFO_WITH_EXPIRY | FIFO);
+ * unset channels use FIFO with expiry override.
+ *
+ * Sources are any stock rows (ShelfStock, WebInventory, WarehouseStock...). They are handed to the strategy as
+ * BatchInfo views keyed by list position, so two rows of the same batch (e.g. on two shelves) stay distinct.
+ */
+public class StockAllocationService {
+    private static final Logger logger = LoggerFactory.getLogger(StockAllocationService.class);
+    public static final String SETTING_PREFIX = "stock.selection.";
+
+    public enum Channel { SHELF, WEB, WAREHOUSE }
+
+    /** How much to take from one source row. */
+    public record Allocation<T>(T source, BigDecimal quantity) {}
+
+    /** Dates the strategies order by; received may be null (sorts last). */
+    public record StockView(BigDecimal available, LocalDateTime received, LocalDateTime expiry) {}
+
+    private final Map<Channel, StockSelectionStrategy> strategies = new EnumMap<>(Channel.class);
+
+    public StockAllocationService(Map<Channel, StockSelectionStrategy> strategies) {
+        for (Channel c : Channel.values()) {
+            StockSelectionStrategy s = strategies.get(c);
+            this.strategies.put(c, s != null ? s : StockSelectionPolicy.FIFO_WITH_EXPIRY.create());
+        }
+    }
+
+    /** FIFO with expiry override on every channel. */
+    public static StockAllocationService defaults() {
+        return new StockAllocationService(Map.of());
+    }
+
+    /**
+     * Build from settings such as ConfigurationManager::getProperty. Unknown policy names fall back to the default.
+     */
+    public static StockAllocationService fromSettings(UnaryOperator<String> settings) {
+        Map<Channel, StockSelectionStrategy> configured = new EnumMap<>(Channel.class);
+        for (Channel c : Channel.values()) {
+            String key = SETTING_PREFIX + c.name().toLowerCase();
+            String value = settings.apply(key);
+            if (value == null || value.isBlank()) continue;
+            try {
+                configured.put(c, StockSelectionPolicy.parse(value).create());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown stock selection policy '{}' for {}, using FIFO_WITH_EXPIRY", value, key);
+            }
+        }
+        return new StockAllocationService(configured);
+    }
+
+    public StockSelectionStrategy strategyFor(Channel channel) {
+        return strategies.get(channel);
+    }
+
+    /**
+     * Allocate {@code required} across {@code sources} using the channel's strategy.
+     * @return allocations in dispatch order; their sum is less than {@code required} only if stock ran out
+     */
+    public <T> List<Allocation<T>> allocate(Channel channel, List<T> sources, Function<T, StockView> view, BigDecimal required) {
+        Objects.requireNonNull(sources, "sources");
+        if (sources.isEmpty()) return List.of();
+
+        // Order by full received timestamp first: BatchInfo keeps dates only, and strategies break ties by position
+        List<Row<T>> rows = new ArrayList<>(sources.size());
+        for (T t : sources) rows.add(new Row<>(t, view.apply(t)));
+        rows.sort(Comparator.comparing(r -> r.view().received(), Comparator.nullsLast(Comparator.naturalOrder())));
+
+        List<BatchInfo> infos = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            StockView v = rows.get(i).view();
+            infos.add(BatchInfo.of(i, v.available().max(BigDecimal.ZERO),
+                    v.received() != null ? v.received().toLocalDate() : LocalDate.MAX,
+                    v.expiry() != null ? v.expiry().toLocalDate() : null));
+        }
+
+        List<Allocation<T>> result = new ArrayList<>();
+        for (BatchAllocation a : strategies.get(channel).selectBatchesForDispatch(infos, required)) {
+            result.add(new Allocation<>(rows.get((int) a.getBatchId()).source(), a.getAllocatedQuantity()));
+        }
+        return result;
+    }
+
+    private record Row<T>(T source, StockView view) {}
+
+    /**
+     * Start a checkout-scoped allocation cache for one channel.
+     * @param view how to read quantity and dates from a source row
+     */
+    public <K, T> Checkout<K, T> beginCheckout(Channel channel, Function<T, StockView> view) {
+        return new Checkout<>(channel, view);
+    }
+
+    /**
+     * Allocation results for the life of one checkout: each item's stock is supplied once and each
+     * (item, quantity) is allocated once, however many times the checkout asks. Not thread-safe; one per checkout.
+     */
+    public final class Checkout<K, T> {
+        private final Channel channel;
+        private final Function<T, StockView> view;
+        private final Map<K, List<T>> sources = new HashMap<>();
+        private final Map<K, Map<BigDecimal, List<Allocation<T>>>> cache = new HashMap<>();
+
+        private Checkout(Channel channel, Function<T, StockView> view) {
+            this.channel = channel;
+            this.view = view;
+        }
+
+        /** Supply (or replace) the stock rows for an item; drops that item's cached allocations. */
+        public void stock(K key, List<T> rows) {
+            sources.put(key, List.copyOf(rows));
+            cache.remove(key);
+        }
+
+        public boolean hasStock(K key) {
+            return sources.containsKey(key);
+        }
+
+        /** Total available across the item's rows. */
+        public BigDecimal available(K key) {
+            return sources.getOrDefault(key, List.of()).stream()
+                    .map(t -> view.apply(t).available().max(BigDecimal.ZERO))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        public List<Allocation<T>> allocate(K key, BigDecimal quantity) {
+            return cache.computeIfAbsent(key, k -> new HashMap<>())
+                    .computeIfAbsent(quantity.stripTrailingZeros(),
+                            q -> List.copyOf(StockAllocationService.this.allocate(channel, sources.getOrDefault(key, List.of()), view, quantity)));
+        }
+
+        /** Forget an item (its stock changed underneath the checkout). */
+        public void invalidate(K key) {
+            sources.remove(key);
+            cache.remove(key);
+        }
+    }
+}
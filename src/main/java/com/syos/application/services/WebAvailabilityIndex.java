@@ -0,0 +1,182 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.domain.entities.WebInventory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Web stock on hand per item, held in memory so listings never query stock row by row.
+ * - Built on first use from one findAvailableItems() read
+ * - Each stock row is kept with its expiry date, so stock that expires after the read stops counting
+ *   when it expires, not at the next refresh
+ * - refresh(itemId) re-reads one item after its web stock is saved or deleted
+ *   (see {@link AvailabilityTrackingWebInventoryRepository}); sales go through the same save
+ * - Holds taken by carts are not subtracted here; {@link WebStockReservationService#available} does that
+ */
+public class WebAvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(WebAvailabilityIndex.class);
+
+    /** An item offered online with its current on-hand. */
+    public record Listing(long itemId, String itemCode, BigDecimal webPrice, BigDecimal onHand) {}
+
+    private final WebInventoryRepository webRepo;
+    private final Clock clock;
+    private final Map<Long, ItemStock> stock = new ConcurrentHashMap<>();
+    private volatile boolean built;
+
+    public WebAvailabilityIndex(WebInventoryRepository webRepo) {
+        this(webRepo, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock decides when stock rows expire
+     */
+    public WebAvailabilityIndex(WebInventoryRepository webRepo, Clock clock) {
+        this.webRepo = Objects.requireNonNull(webRepo);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * Build now rather than on the first listing.
+     */
+    public void warmUp() {
+        ensureBuilt();
+    }
+
+    /**
+     * Web stock available for purchase, zero when the item has none.
+     */
+    public BigDecimal onHand(long itemId) {
+        ensureBuilt();
+        ItemStock s = current(itemId, LocalDateTime.now(clock));
+        return s == null ? BigDecimal.ZERO : s.total;
+    }
+
+    /**
+     * Every item with web stock available for purchase, in no particular order.
+     */
+    public List<Listing> listings() {
+        ensureBuilt();
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Listing> result = new ArrayList<>(stock.size());
+        for (Long itemId : stock.keySet()) {
+            ItemStock s = current(itemId, now);
+            if (s != null) result.add(new Listing(itemId, s.itemCode, s.webPrice, s.total));
+        }
+        return result;
+    }
+
+    /**
+     * Re-read one item's web stock; a no-op until the index has been built.
+     */
+    public synchronized void refresh(Long itemId) {
+        if (!built || itemId == null) return;
+        ItemStock s = ItemStock.of(webRepo.findByItemId(itemId), LocalDateTime.now(clock));
+        if (s != null) stock.put(itemId, s);
+        else stock.remove(itemId);
+    }
+
+    /**
+     * Drop everything; the next read rebuilds from the repository.
+     */
+    public synchronized void invalidate() {
+        built = false;
+        stock.clear();
+    }
+
+    // The item's stock without rows expired by now; expired rows are dropped from the index as they are seen
+    private ItemStock current(long itemId, LocalDateTime now) {
+        ItemStock s = stock.get(itemId);
+        if (s == null || !s.hasExpiredBy(now)) return s;
+        ItemStock unexpired = s.unexpiredAt(now);
+        if (unexpired == null) stock.remove(itemId, s);
+        else stock.replace(itemId, s, unexpired);
+        return unexpired;
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        synchronized (this) {
+            if (built) return;
+            long start = System.nanoTime();
+            List<WebInventory> rows = webRepo.findAvailableItems();
+            Map<Long, List<WebInventory>> byItem = new HashMap<>();
+            for (WebInventory w : rows) {
+                if (w.getItemId() != null) byItem.computeIfAbsent(w.getItemId(), k -> new ArrayList<>()).add(w);
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            byItem.forEach((itemId, itemRows) -> {
+                ItemStock s = ItemStock.of(itemRows, now);
+                if (s != null) stock.put(itemId, s);
+            });
+            built = true;
+            logger.debug("Web availability built: {} items from {} rows in {} ms",
+                    stock.size(), rows.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private record Lot(BigDecimal quantity, LocalDateTime expiryDate) {}
+
+    /**
+     * One item's purchasable stock rows, soonest expiry first (rows that never expire last). Immutable.
+     */
+    private static final class ItemStock {
+        final String itemCode;
+        final BigDecimal webPrice;
+        final List<Lot> lots;
+        final BigDecimal total;
+
+        private ItemStock(String itemCode, BigDecimal webPrice, List<Lot> lots) {
+            this.itemCode = itemCode;
+            this.webPrice = webPrice;
+            this.lots = lots;
+            this.total = lots.stream().map(Lot::quantity).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        // null when none of the rows can be bought; code and price are the first purchasable row's
+        static ItemStock of(List<WebInventory> rows, LocalDateTime now) {
+            List<Lot> lots = new ArrayList<>();
+            WebInventory first = null;
+            for (WebInventory w : rows) {
+                if (!purchasable(w, now)) continue;
+                if (first == null) first = w;
+                lots.add(new Lot(w.getQuantityAvailable().toBigDecimal(), w.getExpiryDate()));
+            }
+            if (first == null) return null;
+            lots.sort(Comparator.comparing(Lot::expiryDate, Comparator.nullsLast(Comparator.naturalOrder())));
+            return new ItemStock(first.getItemCode().getValue(), first.getWebPrice().toBigDecimal(), List.copyOf(lots));
+        }
+
+        // Same rule as WebInventory.isAvailableForPurchase(), against the index's clock
+        private static boolean purchasable(WebInventory w, LocalDateTime now) {
+            return w.isPublished() && !w.getQuantityAvailable().isZeroOrNegative()
+                    && !isExpired(w.getExpiryDate(), now);
+        }
+
+        private static boolean isExpired(LocalDateTime expiryDate, LocalDateTime now) {
+            return expiryDate != null && now.isAfter(expiryDate);
+        }
+
+        boolean hasExpiredBy(LocalDateTime now) {
+            return isExpired(lots.get(0).expiryDate(), now);
+        }
+
+        ItemStock unexpiredAt(LocalDateTime now) {
+            int i = 0;
+            while (i < lots.size() && isExpired(lots.get(i).expiryDate(), now)) i++;
+            return i == lots.size() ? null : new ItemStock(itemCode, webPrice, lots.subList(i, lots.size()));
+        }
+    }
+}
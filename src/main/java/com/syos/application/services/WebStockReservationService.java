@@ -0,0 +1,296 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.domain.entities.WebInventory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-limited holds on web stock, taken when a customer adds to cart.
+ * - Each item has an in-memory counter (on hand, held); availability reads are O(1) and never touch storage
+ * - reserve() checks and takes the hold under the item's lock, so two carts can never hold the same units
+ * - Holds expire holdDuration after the customer's last activity; touch() extends them
+ * - A background sweeper (started by start()) releases expired holds, refreshes on-hand for held items
+ *   and drops idle counters
+ * Holds live only in memory; they are not mirrored to web_inventory.reserved_quantity while web inventory
+ * itself is kept in memory.
+ * Checkout takes the sale from the hold with commit().
+ * With a {@link WebAvailabilityIndex}, on-hand comes from memory too and reading an item nobody holds
+ * creates no counter, so availability for a whole listing costs no storage reads.
+ */
+public class WebStockReservationService implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WebStockReservationService.class);
+
+    public static final Duration DEFAULT_HOLD = Duration.ofMinutes(15);
+    public static final Duration DEFAULT_SWEEP_INTERVAL = Duration.ofSeconds(30);
+
+    private final WebInventoryRepository webRepo;
+    private final long holdMillis;
+    private final Clock clock;
+    private final Duration sweepInterval;
+    private ScheduledExecutorService sweeper; // guarded by this; null until start()
+    private final WebAvailabilityIndex availability; // null: on-hand is read from webRepo per item
+
+    private final Map<Long, ItemCounter> counters = new ConcurrentHashMap<>();
+    // userId -> itemId -> hold; a hold is changed only under its item's counter lock
+    private final Map<Long, Map<Long, Hold>> holdsByUser = new ConcurrentHashMap<>();
+
+    public WebStockReservationService(WebInventoryRepository webRepo) {
+        this(webRepo, DEFAULT_HOLD, Duration.ZERO, Clock.systemUTC(), null);
+    }
+
+    /**
+     * @param sweepInterval delay between background sweeps once started; zero disables the sweeper (sweep() only)
+     * @param availability in-memory on-hand per item; null reads web inventory for each counter
+     */
+    public WebStockReservationService(WebInventoryRepository webRepo, Duration holdDuration,
+                                      Duration sweepInterval, Clock clock, WebAvailabilityIndex availability) {
+        this.availability = availability;
+        this.webRepo = Objects.requireNonNull(webRepo);
+        this.holdMillis = holdDuration.toMillis();
+        this.clock = Objects.requireNonNull(clock);
+        this.sweepInterval = Objects.requireNonNull(sweepInterval);
+    }
+
+    /**
+     * Start the background sweeper; a no-op if it is disabled or already running.
+     * @return this service
+     */
+    public synchronized WebStockReservationService start() {
+        if (sweepInterval.isZero() || sweepInterval.isNegative() || sweeper != null) return this;
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "web-reservation-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Web stock not held by any cart.
+     */
+    public BigDecimal available(long itemId) {
+        // Nobody holds an item without a counter, so its on-hand is all available
+        if (availability != null && !counters.containsKey(itemId)) return availability.onHand(itemId);
+        ItemCounter c = counter(itemId);
+        synchronized (c) {
+            return c.available();
+        }
+    }
+
+    /**
+     * Stock the user could have in their cart: what nobody holds plus what they already hold.
+     */
+    public BigDecimal availableTo(long userId, long itemId) {
+        ItemCounter c = counter(itemId);
+        synchronized (c) {
+            Hold h = holdsOf(userId).get(itemId);
+            return h == null ? c.available() : c.available().add(h.quantity);
+        }
+    }
+
+    /**
+     * Hold {@code quantity} of the item for the user in total (not in addition to an existing hold),
+     * and restart the hold's timer.
+     * @return false, holding nothing new, if that much is not available to the user
+     */
+    public boolean reserve(long userId, long itemId, BigDecimal quantity) {
+        if (quantity == null || quantity.signum() <= 0) {
+            release(userId, itemId);
+            return true;
+        }
+        while (true) {
+            ItemCounter c = counter(itemId);
+            synchronized (c) {
+                if (c.retired) continue; // dropped by the sweeper after we looked it up
+                Hold h = holdsOf(userId).get(itemId);
+                BigDecimal delta = h == null ? quantity : quantity.subtract(h.quantity);
+                if (delta.signum() > 0 && c.available().compareTo(delta) < 0) return false;
+                c.held = c.held.add(delta);
+                Hold fresh = new Hold(quantity, clock.millis() + holdMillis);
+                holdsByUser.compute(userId, (k, m) -> {
+                    if (m == null) m = new ConcurrentHashMap<>();
+                    m.put(itemId, fresh);
+                    return m;
+                });
+            }
+            return true;
+        }
+    }
+
+    public void release(long userId, long itemId) {
+        ItemCounter c = counters.get(itemId);
+        if (c == null) return;
+        synchronized (c) {
+            Hold h = holdsOf(userId).remove(itemId);
+            if (h == null) return;
+            c.held = c.held.subtract(h.quantity);
+        }
+    }
+
+    /**
+     * Release every hold of the user (cart emptied or abandoned).
+     */
+    public void releaseAll(long userId) {
+        for (Long itemId : holdsOf(userId).keySet()) release(userId, itemId);
+        dropIfEmpty(userId);
+    }
+
+    /**
+     * Extend all of the user's holds (any cart activity counts).
+     */
+    public void touch(long userId) {
+        long expiresAt = clock.millis() + holdMillis;
+        for (Hold h : holdsOf(userId).values()) h.expiresAt = expiresAt;
+    }
+
+    /**
+     * Quantities the user currently holds, by item.
+     */
+    public Map<Long, BigDecimal> holdsFor(long userId) {
+        Map<Long, BigDecimal> result = new LinkedHashMap<>();
+        holdsOf(userId).forEach((itemId, h) -> result.put(itemId, h.quantity));
+        return result;
+    }
+
+    /**
+     * The held stock has been sold (web inventory already decremented): drop the hold and re-read on-hand.
+     */
+    public void commit(long userId, long itemId) {
+        while (true) {
+            ItemCounter c = counter(itemId);
+            synchronized (c) {
+                if (c.retired) continue;
+                Hold h = holdsOf(userId).remove(itemId);
+                if (h != null) c.held = c.held.subtract(h.quantity);
+                c.onHand = onHand(itemId);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Web stock was added or removed outside a sale (e.g. a warehouse transfer): re-read on-hand.
+     */
+    public void stockChanged(long itemId) {
+        ItemCounter c = counters.get(itemId);
+        if (c == null) return; // read fresh on first use
+        synchronized (c) {
+            c.onHand = onHand(itemId);
+        }
+    }
+
+    /**
+     * Release expired holds and refresh the counters of held items.
+     * @return number of holds released
+     */
+    public int sweep() {
+        long now = clock.millis();
+        int released = 0;
+        for (Map.Entry<Long, Map<Long, Hold>> user : holdsByUser.entrySet()) {
+            for (Map.Entry<Long, Hold> e : user.getValue().entrySet()) {
+                if (e.getValue().expiresAt > now) continue;
+                ItemCounter c = counter(e.getKey());
+                synchronized (c) {
+                    Hold h = e.getValue();
+                    // touch() may have extended it since the check above
+                    if (h.expiresAt <= now && user.getValue().remove(e.getKey(), h)) {
+                        c.held = c.held.subtract(h.quantity);
+                        released++;
+                    }
+                }
+            }
+            dropIfEmpty(user.getKey());
+        }
+
+        // Keep counters only for items someone holds; the rest are re-read on next use
+        for (Map.Entry<Long, ItemCounter> e : counters.entrySet()) {
+            ItemCounter c = e.getValue();
+            synchronized (c) {
+                if (c.held.signum() == 0) {
+                    c.retired = true;
+                    counters.remove(e.getKey(), c);
+                } else {
+                    c.onHand = onHand(e.getKey());
+                }
+            }
+        }
+
+        if (released > 0) logger.debug("Released {} expired web stock holds", released);
+        return released;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) sweeper.shutdown();
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (RuntimeException ex) {
+            logger.warn("Web reservation sweep failed; will retry", ex);
+        }
+    }
+
+    private void dropIfEmpty(long userId) {
+        holdsByUser.computeIfPresent(userId, (k, m) -> m.isEmpty() ? null : m);
+    }
+
+    private Map<Long, Hold> holdsOf(long userId) {
+        return holdsByUser.getOrDefault(userId, Collections.emptyMap()); // emptyMap tolerates remove()
+    }
+
+    private ItemCounter counter(long itemId) {
+        ItemCounter c = counters.get(itemId);
+        if (c != null) return c;
+        return counters.computeIfAbsent(itemId, id -> new ItemCounter(onHand(id)));
+    }
+
+    private BigDecimal onHand(long itemId) {
+        if (availability != null) return availability.onHand(itemId);
+        return webRepo.findByItemId(itemId).stream()
+                .filter(WebInventory::isAvailableForPurchase)
+                .map(w -> w.getQuantityAvailable().toBigDecimal())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static final class ItemCounter {
+        BigDecimal onHand;
+        BigDecimal held = BigDecimal.ZERO;
+        boolean retired; // removed from the map; look the item up again
+
+        ItemCounter(BigDecimal onHand) {
+            this.onHand = onHand;
+        }
+
+        BigDecimal available() {
+            BigDecimal free = onHand.subtract(held);
+            return free.signum() > 0 ? free : BigDecimal.ZERO;
+        }
+    }
+
+    private static final class Hold {
+        final BigDecimal quantity;
+        volatile long expiresAt;
+
+        Hold(BigDecimal quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -3,18 +3,19 @@ package com.syos.application.strategies.stock;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 
 /**
  * Implements FIFO with Expiry Override:
  * - Primary rule: FIFO by receivedDate (oldest first)
  * - Override: If a newer batch expires earlier than the oldest batch, dispatch the earlier-expiring batch first.
  *
- * This algorithm works iteratively so the override decision is re-evaluated at each allocation step,
- * ensuring consistent behavior across mixed perishable/non-perishable batches.
+ * Re-evaluating the override after every step always picks the remaining batch with the smallest
+ * (expiry, receivedDate, input position), with no expiry ranking last. Each step empties the chosen
+ * batch, so candidates are ordered once in a binary heap and popped until the quantity is covered:
+ * O(n + k log n) for k batches touched.
+ * Quantities are walked as scaled longs; values too large for a long fall back to BigDecimal.
  */
 public class FIFOWithExpiryStrategy implements StockSelectionStrategy {
 
@@ -24,63 +25,121 @@ public class FIFOWithExpiryStrategy implements StockSelectionStrategy {
         Objects.requireNonNull(requiredQuantity, "requiredQuantity");
         if (requiredQuantity.signum() <= 0) throw new IllegalArgumentException("requiredQuantity must be > 0");
 
-        // Work on a copy and normalize quantities
-        final List<BatchInfo> pool = new ArrayList<>(batches);
-        // Sort FIFO as baseline to simplify oldest lookup
-        pool.sort(Comparator.comparing(BatchInfo::getReceivedDate));
-
-        BigDecimal remaining = requiredQuantity;
+        BatchHeap heap = new BatchHeap(batches);
         List<BatchAllocation> allocations = new ArrayList<>();
 
-        while (remaining.signum() > 0) {
-            // Find the first batch with available qty > 0
-            Optional<BatchInfo> oldestOpt = pool.stream()
-                    .filter(b -> b.getAvailableQuantity().signum() > 0)
-                    .findFirst();
-            if (oldestOpt.isEmpty()) break; // no stock
-
-            BatchInfo oldest = oldestOpt.get();
-            LocalDate oldestExpiry = oldest.getExpiryDate();
-            LocalDate oldestExpiryOrMax = oldestExpiry != null ? oldestExpiry : LocalDate.MAX;
-
-            // Expiry override: among newer batches, pick the one with earliest expiry earlier than oldest's expiry
-            Optional<BatchInfo> overrideOpt = pool.stream()
-                    .filter(b -> b.getAvailableQuantity().signum() > 0)
-                    .filter(b -> b.getExpiryDate() != null)
-                    .filter(b -> b.getExpiryDate().isBefore(oldestExpiryOrMax))
-                    .min(Comparator.comparing(BatchInfo::getExpiryDate));
-
-            BatchInfo chosen = overrideOpt.orElse(oldest);
+        // Common scale for the long walk; fall back to BigDecimal if anything does not fit in a long
+        int scale = requiredQuantity.scale();
+        for (BatchInfo b : batches) scale = Math.max(scale, b.getAvailableQuantity().scale());
+        long remaining = toScaledLong(requiredQuantity, scale);
+        long[] available = new long[batches.size()];
+        boolean fits = remaining != Long.MIN_VALUE;
+        for (int i = 0; fits && i < available.length; i++) {
+            available[i] = toScaledLong(batches.get(i).getAvailableQuantity(), scale);
+            fits = available[i] != Long.MIN_VALUE;
+        }
+        if (!fits) {
+            return allocateWithBigDecimal(heap, requiredQuantity, allocations);
+        }
 
-            // Allocate from chosen batch
-            BigDecimal take = min(remaining, chosen.getAvailableQuantity());
-            if (take.signum() <= 0) {
-                // Defensive: if zero due to rounding or bad data, stop to avoid infinite loop
-                break;
+        // Scale BigDecimal subtraction would give the remainder: max of required and consumed scales
+        int remainingScale = requiredQuantity.scale();
+        while (remaining > 0 && !heap.isEmpty()) {
+            int i = heap.poll();
+            BatchInfo chosen = batches.get(i);
+            if (remaining <= available[i]) {
+                allocations.add(BatchAllocation.of(chosen.getBatchId(), BigDecimal.valueOf(remaining, scale).setScale(remainingScale)));
+                remaining = 0;
+            } else {
+                allocations.add(BatchAllocation.of(chosen.getBatchId(), chosen.getAvailableQuantity()));
+                remaining -= available[i];
+                remainingScale = Math.max(remainingScale, chosen.getAvailableQuantity().scale());
             }
-            allocations.add(BatchAllocation.of(chosen.getBatchId(), take));
+        }
+        return allocations;
+    }
 
-            // Reduce remaining and mutate a local mirror of available qty via replacement object
+    private static List<BatchAllocation> allocateWithBigDecimal(BatchHeap heap, BigDecimal remaining, List<BatchAllocation> allocations) {
+        while (remaining.signum() > 0 && !heap.isEmpty()) {
+            BatchInfo chosen = heap.batches.get(heap.poll());
+            BigDecimal available = chosen.getAvailableQuantity();
+            BigDecimal take = remaining.compareTo(available) <= 0 ? remaining : available;
+            allocations.add(BatchAllocation.of(chosen.getBatchId(), take));
             remaining = remaining.subtract(take);
-            replaceBatchWithReducedQty(pool, chosen, take);
         }
-
         return allocations;
     }
 
-    private static BigDecimal min(BigDecimal a, BigDecimal b) {
-        return a.compareTo(b) <= 0 ? a : b;
+    /**
+     * @return value * 10^scale as a long, or Long.MIN_VALUE if it does not fit
+     */
+    private static long toScaledLong(BigDecimal value, int scale) {
+        try {
+            return value.setScale(scale).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
     }
 
-    private static void replaceBatchWithReducedQty(List<BatchInfo> pool, BatchInfo chosen, BigDecimal take) {
-        int idx = pool.indexOf(chosen);
-        if (idx < 0) return; // should not happen
-        BigDecimal remaining = chosen.getAvailableQuantity().subtract(take);
-        pool.set(idx, BatchInfo.of(
-                chosen.getBatchId(),
-                remaining.max(BigDecimal.ZERO),
-                chosen.getReceivedDate(),
-                chosen.getExpiryDate()
-        ));
+    /**
+     * Min-heap of batch positions with stock, keyed by (expiry epoch day or MAX, received epoch day, position).
+     */
+    private static final class BatchHeap {
+        private final List<BatchInfo> batches;
+        private final long[] expiry;
+        private final long[] received;
+        private final int[] heap;
+        private int size;
+
+        BatchHeap(List<BatchInfo> batches) {
+            this.batches = batches;
+            int n = batches.size();
+            this.expiry = new long[n];
+            this.received = new long[n];
+            this.heap = new int[n];
+            for (int i = 0; i < n; i++) {
+                BatchInfo b = batches.get(i);
+                // No expiry ranks with LocalDate.MAX: neither can override the other
+                LocalDate e = b.getExpiryDate();
+                expiry[i] = e != null && !e.equals(LocalDate.MAX) ? e.toEpochDay() : Long.MAX_VALUE;
+                received[i] = b.getReceivedDate().toEpochDay();
+                if (b.getAvailableQuantity().signum() > 0) heap[size++] = i;
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i);
+        }
+
+        boolean isEmpty() { return size == 0; }
+
+        /** Removes and returns the position of the next batch to dispatch. */
+        int poll() {
+            int top = heap[0];
+            heap[0] = heap[--size];
+            if (size > 0) siftDown(0);
+            return top;
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int l = 2 * i + 1;
+                if (l >= size) return;
+                int r = l + 1;
+                int min = r < size && less(heap[r], heap[l]) ? r : l;
+                if (!less(heap[min], heap[i])) return;
+                swap(i, min);
+                i = min;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            if (expiry[a] != expiry[b]) return expiry[a] < expiry[b];
+            if (received[a] != received[b]) return received[a] < received[b];
+            return a < b;
+        }
+
+        private void swap(int i, int j) {
+            int t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+        }
     }
 }
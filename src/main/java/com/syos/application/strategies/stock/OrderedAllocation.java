@@ -0,0 +1,30 @@
+package com.syos.application.strategies.stock;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Shared walk for strategies whose dispatch order is a fixed sort of the pool.
+ */
+final class OrderedAllocation {
+    private OrderedAllocation() {}
+
+    static List<BatchAllocation> allocate(List<BatchInfo> batches, BigDecimal requiredQuantity, Comparator<BatchInfo> order) {
+        if (requiredQuantity.signum() <= 0) throw new IllegalArgumentException("requiredQuantity must be > 0");
+        List<BatchInfo> pool = new ArrayList<>(batches);
+        pool.sort(order); // stable: ties keep input order
+
+        BigDecimal remaining = requiredQuantity;
+        List<BatchAllocation> allocations = new ArrayList<>();
+        for (BatchInfo b : pool) {
+            if (remaining.signum() <= 0) break;
+            if (b.getAvailableQuantity().signum() <= 0) continue;
+            BigDecimal take = remaining.compareTo(b.getAvailableQuantity()) <= 0 ? remaining : b.getAvailableQuantity();
+            allocations.add(BatchAllocation.of(b.getBatchId(), take));
+            remaining = remaining.subtract(take);
+        }
+        return allocations;
+    }
+}
@@ -0,0 +1,30 @@
+package com.syos.application.strategies.stock;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Named stock selection policies, so a strategy can be chosen per channel from configuration.
+ */
+public enum StockSelectionPolicy {
+    FIFO_WITH_EXPIRY(FIFOWithExpiryStrategy::new),
+    FIFO(StrictFIFOStrategy::new);
+
+    private final Supplier<StockSelectionStrategy> factory;
+
+    StockSelectionPolicy(Supplier<StockSelectionStrategy> factory) {
+        this.factory = factory;
+    }
+
+    public StockSelectionStrategy create() {
+        return factory.get();
+    }
+
+    /**
+     * Parse a configured policy name (case-insensitive, '-' accepted for '_').
+     * @throws IllegalArgumentException for unknown names
+     */
+    public static StockSelectionPolicy parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,19 @@
+package com.syos.application.strategies.stock;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Strict FIFO: oldest receivedDate first, expiry ignored (e.g. non-perishable warehouse stock).
+ */
+public class StrictFIFOStrategy implements StockSelectionStrategy {
+
+    @Override
+    public List<BatchAllocation> selectBatchesForDispatch(List<BatchInfo> batches, BigDecimal requiredQuantity) {
+        Objects.requireNonNull(batches, "batches");
+        Objects.requireNonNull(requiredQuantity, "requiredQuantity");
+        return OrderedAllocation.allocate(batches, requiredQuantity, Comparator.comparing(BatchInfo::getReceivedDate));
+    }
+}
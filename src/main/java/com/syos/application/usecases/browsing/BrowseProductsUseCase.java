@@ -3,12 +3,17 @@ package com.syos.application.usecases.browsing;
 import com.syos.application.ports.out.ItemMasterFileRepository;
 import com.syos.application.ports.out.CategoryRepository;
 import com.syos.application.ports.out.BrandRepository;
+import com.syos.application.services.CategoryHierarchy;
+import com.syos.application.services.ProductFacetIndex;
+import com.syos.application.services.ProductSearchIndex;
+import com.syos.application.services.WebStockReservationService;
 import com.syos.domain.entities.ItemMasterFile;
 import com.syos.domain.entities.Category;
 import com.syos.domain.entities.Brand;
 import com.syos.domain.valueobjects.CategoryId;
 import com.syos.domain.valueobjects.BrandId;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,13 +37,39 @@ public class BrowseProductsUseCase {
     private final ItemMasterFileRepository itemRepository;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
+    private final ProductSearchIndex searchIndex;
+    private final CategoryHierarchy categoryHierarchy;
+    private final ProductFacetIndex facetIndex;
+    private final WebStockReservationService webStock;
 
     public BrowseProductsUseCase(ItemMasterFileRepository itemRepository,
                                 CategoryRepository categoryRepository,
                                 BrandRepository brandRepository) {
+        this(itemRepository, categoryRepository, brandRepository, null, null, null, null);
+    }
+
+    /**
+     * @param searchIndex in-process index used by searchProducts; null searches the repository by name
+     * @param categoryHierarchy in-memory category tree used for navigation and subtree product listing;
+     *                          null reads one level at a time from the category repository
+     * @param facetIndex in-memory facet bitsets used by browseByFacets; null leaves faceted browsing unavailable
+     * @param webStock live web availability (on hand less cart holds) shown with every listed product;
+     *                 null lists products without it
+     */
+    public BrowseProductsUseCase(ItemMasterFileRepository itemRepository,
+                                CategoryRepository categoryRepository,
+                                BrandRepository brandRepository,
+                                ProductSearchIndex searchIndex,
+                                CategoryHierarchy categoryHierarchy,
+                                ProductFacetIndex facetIndex,
+                                WebStockReservationService webStock) {
         this.itemRepository = itemRepository;
         this.categoryRepository = categoryRepository;
         this.brandRepository = brandRepository;
+        this.searchIndex = searchIndex;
+        this.categoryHierarchy = categoryHierarchy;
+        this.facetIndex = facetIndex;
+        this.webStock = webStock;
     }
 
     /**
@@ -54,15 +85,22 @@ public class BrowseProductsUseCase {
     }
 
     /**
-     * Get products by category (including subcategories)
+     * Get products by category (including subcategories when a category hierarchy is configured)
      */
     public BrowseProductsResponse getProductsByCategory(Long categoryId) {
-        Optional<Category> category = categoryRepository.findById(categoryId);
+        Optional<Category> category = categoryHierarchy != null
+            ? categoryHierarchy.find(categoryId)
+            : categoryRepository.findById(categoryId);
         if (category.isEmpty()) {
             return BrowseProductsResponse.failure("Category not found");
         }
 
-        List<ItemMasterFile> items = itemRepository.findByCategory(CategoryId.of(categoryId));
+        // The whole subtree is fetched in one query however deep it is
+        List<ItemMasterFile> items = categoryHierarchy != null
+            ? itemRepository.findByCategories(categoryHierarchy.subtreeIds(categoryId).stream()
+                .map(CategoryId::of)
+                .collect(Collectors.toList()))
+            : itemRepository.findByCategory(CategoryId.of(categoryId));
         List<ProductDisplayDto> products = items.stream()
             .map(this::mapToDisplayDto)
             .collect(Collectors.toList());
@@ -114,14 +152,17 @@ public class BrowseProductsUseCase {
     }
 
     /**
-     * Search products by name
+     * Search products by code, name, brand, category and description, best matches first
+     * (by name only when no search index is configured)
      */
     public BrowseProductsResponse searchProducts(String searchTerm) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return BrowseProductsResponse.failure("Search term cannot be empty");
         }
 
-        List<ItemMasterFile> items = itemRepository.searchByName(searchTerm.trim());
+        List<ItemMasterFile> items = searchIndex != null
+            ? searchIndex.search(searchTerm.trim(), ProductSearchIndex.DEFAULT_LIMIT)
+            : itemRepository.searchByName(searchTerm.trim());
         List<ProductDisplayDto> products = items.stream()
             .map(this::mapToDisplayDto)
             .collect(Collectors.toList());
@@ -130,11 +171,30 @@ public class BrowseProductsUseCase {
             "Search results for '" + searchTerm + "' retrieved successfully");
     }
 
+    /**
+     * Filter products by category, brand, perishable, featured and price band together,
+     * with the number of products behind every facet value
+     */
+    public FacetedBrowseResponse browseByFacets(ProductFacetIndex.Filter filter) {
+        if (facetIndex == null) {
+            return FacetedBrowseResponse.failure("Filtering is not available");
+        }
+
+        ProductFacetIndex.Result result = facetIndex.browse(filter, ProductFacetIndex.DEFAULT_LIMIT);
+        List<ProductDisplayDto> products = result.items().stream()
+            .map(this::mapToDisplayDto)
+            .collect(Collectors.toList());
+
+        return FacetedBrowseResponse.success(products, result);
+    }
+
     /**
      * Get all categories for navigation
      */
     public CategoryNavigationResponse getCategories() {
-        List<Category> rootCategories = categoryRepository.findRootCategories();
+        List<Category> rootCategories = categoryHierarchy != null
+            ? categoryHierarchy.roots()
+            : categoryRepository.findRootCategories();
         List<CategoryDisplayDto> categoryDtos = rootCategories.stream()
             .map(this::mapToCategoryDto)
             .collect(Collectors.toList());
@@ -146,7 +206,9 @@ public class BrowseProductsUseCase {
      * Get subcategories for a parent category
      */
     public CategoryNavigationResponse getSubCategories(Long parentCategoryId) {
-        List<Category> subCategories = categoryRepository.findByParentCategoryId(parentCategoryId);
+        List<Category> subCategories = categoryHierarchy != null
+            ? categoryHierarchy.children(parentCategoryId)
+            : categoryRepository.findByParentCategoryId(parentCategoryId);
         List<CategoryDisplayDto> categoryDtos = subCategories.stream()
             .map(this::mapToCategoryDto)
             .collect(Collectors.toList());
@@ -178,7 +240,8 @@ public class BrowseProductsUseCase {
             item.getPackSize().getDoubleValue(),
             item.isFeatured(),
             item.isLatest(),
-            item.isPerishable()
+            item.isPerishable(),
+            webStock != null && item.getId() != null ? webStock.available(item.getId()) : null
         );
     }
 
@@ -228,6 +291,40 @@ public class BrowseProductsUseCase {
         public int getCount() { return products != null ? products.size() : 0; }
     }
 
+    public static class FacetedBrowseResponse {
+        private final boolean success;
+        private final List<ProductDisplayDto> products;
+        private final ProductFacetIndex.Result facets;
+        private final String message;
+
+        private FacetedBrowseResponse(boolean success, List<ProductDisplayDto> products,
+                                      ProductFacetIndex.Result facets, String message) {
+            this.success = success;
+            this.products = products;
+            this.facets = facets;
+            this.message = message;
+        }
+
+        public static FacetedBrowseResponse success(List<ProductDisplayDto> products, ProductFacetIndex.Result facets) {
+            return new FacetedBrowseResponse(true, products, facets, "Filtered products retrieved successfully");
+        }
+
+        public static FacetedBrowseResponse failure(String message) {
+            return new FacetedBrowseResponse(false, null, null, message);
+        }
+
+        public boolean isSuccess() { return success; }
+        public List<ProductDisplayDto> getProducts() { return products; }
+        public String getMessage() { return message; }
+        /** Products matching the filter; getProducts() holds the first of them */
+        public int getTotal() { return facets != null ? facets.total() : 0; }
+        public List<ProductFacetIndex.FacetCount> getCategoryCounts() { return facets != null ? facets.categories() : List.of(); }
+        public List<ProductFacetIndex.FacetCount> getBrandCounts() { return facets != null ? facets.brands() : List.of(); }
+        public List<ProductFacetIndex.FacetCount> getPriceBandCounts() { return facets != null ? facets.priceBands() : List.of(); }
+        public int getPerishableCount() { return facets != null ? facets.perishableCount() : 0; }
+        public int getFeaturedCount() { return facets != null ? facets.featuredCount() : 0; }
+    }
+
     public static class CategoryNavigationResponse {
         private final boolean success;
         private final List<CategoryDisplayDto> categories;
@@ -288,10 +385,19 @@ public class BrowseProductsUseCase {
         private final boolean isFeatured;
         private final boolean isLatest;
         private final boolean isPerishable;
+        private final BigDecimal webAvailable;
 
         public ProductDisplayDto(Long id, String itemCode, String itemName, String description,
                                 String price, String unitOfMeasure, double packSize,
                                 boolean isFeatured, boolean isLatest, boolean isPerishable) {
+            this(id, itemCode, itemName, description, price, unitOfMeasure, packSize,
+                isFeatured, isLatest, isPerishable, null);
+        }
+
+        public ProductDisplayDto(Long id, String itemCode, String itemName, String description,
+                                String price, String unitOfMeasure, double packSize,
+                                boolean isFeatured, boolean isLatest, boolean isPerishable,
+                                BigDecimal webAvailable) {
             this.id = id;
             this.itemCode = itemCode;
             this.itemName = itemName;
@@ -302,6 +408,7 @@ public class BrowseProductsUseCase {
             this.isFeatured = isFeatured;
             this.isLatest = isLatest;
             this.isPerishable = isPerishable;
+            this.webAvailable = webAvailable;
         }
 
         // Getters
@@ -315,6 +422,8 @@ public class BrowseProductsUseCase {
         public boolean isFeatured() { return isFeatured; }
         public boolean isLatest() { return isLatest; }
         public boolean isPerishable() { return isPerishable; }
+        /** Web stock a customer can still add to a cart; null when availability is not tracked */
+        public BigDecimal getWebAvailable() { return webAvailable; }
     }
 
     public static class CategoryDisplayDto {
@@ -3,6 +3,7 @@ package com.syos.application.usecases.inventory;
 import com.syos.application.dto.requests.ProductRequest;
 import com.syos.application.dto.responses.ProductResponse;
 import com.syos.application.ports.out.*;
+import com.syos.application.services.StockAllocationService;
 import com.syos.domain.entities.*;
 import com.syos.domain.valueobjects.*;
 import com.syos.shared.enums.UnitOfMeasure;
@@ -33,6 +34,7 @@ public class CompleteProductManagementUseCase {
     private final WarehouseStockRepository warehouseStockRepository;
     private final ShelfStockRepository shelfStockRepository;
     private final WebInventoryRepository webInventoryRepository;
+    private final StockAllocationService stockAllocation;
 
     public CompleteProductManagementUseCase(
             ItemMasterFileRepository itemRepository,
@@ -43,6 +45,20 @@ public class CompleteProductManagementUseCase {
             WarehouseStockRepository warehouseStockRepository,
             ShelfStockRepository shelfStockRepository,
             WebInventoryRepository webInventoryRepository) {
+        this(itemRepository, brandRepository, categoryRepository, supplierRepository, batchRepository,
+                warehouseStockRepository, shelfStockRepository, webInventoryRepository, StockAllocationService.defaults());
+    }
+
+    public CompleteProductManagementUseCase(
+            ItemMasterFileRepository itemRepository,
+            BrandRepository brandRepository,
+            CategoryRepository categoryRepository,
+            SupplierRepository supplierRepository,
+            BatchRepository batchRepository,
+            WarehouseStockRepository warehouseStockRepository,
+            ShelfStockRepository shelfStockRepository,
+            WebInventoryRepository webInventoryRepository,
+            StockAllocationService stockAllocation) {
         this.itemRepository = itemRepository;
         this.brandRepository = brandRepository;
         this.categoryRepository = categoryRepository;
@@ -51,6 +67,7 @@ public class CompleteProductManagementUseCase {
         this.warehouseStockRepository = warehouseStockRepository;
         this.shelfStockRepository = shelfStockRepository;
         this.webInventoryRepository = webInventoryRepository;
+        this.stockAllocation = stockAllocation;
     }
 
     /**
@@ -180,14 +197,10 @@ public class CompleteProductManagementUseCase {
                 return ProductResponse.failure("Insufficient warehouse stock. Available: " + totalAvailable);
             }
 
-            // Allocate across multiple warehouse entries using FIFO
-            java.math.BigDecimal remaining = requested;
-            for (WarehouseStock stock : availableStock) {
-                if (remaining.compareTo(java.math.BigDecimal.ZERO) <= 0) break;
-                java.math.BigDecimal avail = stock.getQuantityAvailable().getValue();
-                if (avail.compareTo(java.math.BigDecimal.ZERO) <= 0) continue;
-
-                java.math.BigDecimal take = remaining.min(avail);
+            // Allocate across warehouse entries with the WAREHOUSE channel's selection strategy
+            for (var allocation : allocateWarehouse(availableStock, requested)) {
+                WarehouseStock stock = allocation.source();
+                java.math.BigDecimal take = allocation.quantity();
 
                 // Update warehouse stock per batch
                 WarehouseStock updatedWarehouseStock = stock.transfer(Quantity.of(take), currentUser);
@@ -206,7 +219,6 @@ public class CompleteProductManagementUseCase {
                 );
                 shelfStockRepository.save(shelfStock);
 
-                remaining = remaining.subtract(take);
             }
 
             logger.info("Successfully transferred {} units to shelf {}", quantity, shelfCode);
@@ -247,14 +259,10 @@ public class CompleteProductManagementUseCase {
                 return ProductResponse.failure("Insufficient warehouse stock. Available: " + totalAvailable);
             }
 
-            // Allocate across multiple warehouse entries using FIFO
-            java.math.BigDecimal remaining = requested;
-            for (WarehouseStock stock : availableStock) {
-                if (remaining.compareTo(java.math.BigDecimal.ZERO) <= 0) break;
-                java.math.BigDecimal avail = stock.getQuantityAvailable().getValue();
-                if (avail.compareTo(java.math.BigDecimal.ZERO) <= 0) continue;
-
-                java.math.BigDecimal take = remaining.min(avail);
+            // Allocate across warehouse entries with the WAREHOUSE channel's selection strategy
+            for (var allocation : allocateWarehouse(availableStock, requested)) {
+                WarehouseStock stock = allocation.source();
+                java.math.BigDecimal take = allocation.quantity();
 
                 // Update warehouse stock per batch
                 WarehouseStock updatedWarehouseStock = stock.transfer(Quantity.of(take), currentUser);
@@ -272,7 +280,6 @@ public class CompleteProductManagementUseCase {
                 );
                 webInventoryRepository.save(webInventory);
 
-                remaining = remaining.subtract(take);
             }
             
             logger.info("Successfully transferred {} units to web inventory", quantity);
@@ -427,6 +434,13 @@ public class CompleteProductManagementUseCase {
         return "Main Warehouse";
     }
 
+    private java.util.List<StockAllocationService.Allocation<WarehouseStock>> allocateWarehouse(
+            java.util.List<WarehouseStock> stock, java.math.BigDecimal requested) {
+        return stockAllocation.allocate(StockAllocationService.Channel.WAREHOUSE, stock,
+                ws -> new StockAllocationService.StockView(ws.getQuantityAvailable().getValue(), ws.getReceivedDate(), ws.getExpiryDate()),
+                requested);
+    }
+
     private WarehouseStock transferToShelf(ItemMasterFile item, WarehouseStock warehouseStock, 
                                           ProductRequest request, UserID currentUser) {
         if (request.getShelfQuantity() > 0) {
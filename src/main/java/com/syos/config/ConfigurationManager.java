@@ -118,6 +118,21 @@ public class ConfigurationManager {
         return defaultValue;
     }
     
+    /**
+     * Get long property value
+     */
+    public long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid long value for property {}: {}", key, value);
+            }
+        }
+        return defaultValue;
+    }
+    
     /**
      * Resolve placeholders of form ${VAR:default} using precedence: JVM -D, then ENV, then default.
      */
@@ -168,6 +183,75 @@ public class ConfigurationManager {
         );
     }
     
+    /**
+     * Get connection pool configuration (datasource.hikari.*)
+     */
+    public PoolConfig getPoolConfig() {
+        return new PoolConfig(
+            getProperty("datasource.hikari.pool-name", "SYOSHikariPool"),
+            getIntProperty("datasource.hikari.minimum-idle", 5),
+            getIntProperty("datasource.hikari.maximum-pool-size", 20),
+            getLongProperty("datasource.hikari.idle-timeout", 300000),
+            getLongProperty("datasource.hikari.max-lifetime", 1200000),
+            getLongProperty("datasource.hikari.connection-timeout", 20000),
+            getLongProperty("datasource.hikari.leak-detection-threshold", 60000),
+            getBooleanProperty("datasource.hikari.auto-commit", false),
+            getIntProperty("datasource.hikari.prepare-threshold", 3),
+            getIntProperty("datasource.hikari.prepared-statement-cache-queries", 256),
+            getIntProperty("datasource.hikari.prepared-statement-cache-size-mib", 5),
+            getBooleanProperty("datasource.hikari.rewrite-batched-inserts", true)
+        );
+    }
+    
+    /**
+     * Connection pool configuration holder
+     */
+    public static class PoolConfig {
+        private final String poolName;
+        private final int minimumIdle;
+        private final int maximumPoolSize;
+        private final long idleTimeoutMs;
+        private final long maxLifetimeMs;
+        private final long connectionTimeoutMs;
+        private final long leakDetectionThresholdMs;
+        private final boolean autoCommit;
+        private final int prepareThreshold;
+        private final int preparedStatementCacheQueries;
+        private final int preparedStatementCacheSizeMiB;
+        private final boolean rewriteBatchedInserts;
+        
+        public PoolConfig(String poolName, int minimumIdle, int maximumPoolSize, long idleTimeoutMs,
+                          long maxLifetimeMs, long connectionTimeoutMs, long leakDetectionThresholdMs,
+                          boolean autoCommit, int prepareThreshold, int preparedStatementCacheQueries,
+                          int preparedStatementCacheSizeMiB, boolean rewriteBatchedInserts) {
+            this.poolName = poolName;
+            this.minimumIdle = minimumIdle;
+            this.maximumPoolSize = maximumPoolSize;
+            this.idleTimeoutMs = idleTimeoutMs;
+            this.maxLifetimeMs = maxLifetimeMs;
+            this.connectionTimeoutMs = connectionTimeoutMs;
+            this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+            this.autoCommit = autoCommit;
+            this.prepareThreshold = prepareThreshold;
+            this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+            this.preparedStatementCacheSizeMiB = preparedStatementCacheSizeMiB;
+            this.rewriteBatchedInserts = rewriteBatchedInserts;
+        }
+        
+        public String getPoolName() { return poolName; }
+        public int getMinimumIdle() { return minimumIdle; }
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public long getIdleTimeoutMs() { return idleTimeoutMs; }
+        public long getMaxLifetimeMs() { return maxLifetimeMs; }
+        public long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+        public long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+        public boolean isAutoCommit() { return autoCommit; }
+        public int getPrepareThreshold() { return prepareThreshold; }
+        public int getPreparedStatementCacheQueries() { return preparedStatementCacheQueries; }
+        public int getPreparedStatementCacheSizeMiB() { return preparedStatementCacheSizeMiB; }
+        public boolean isRewriteBatchedInserts() { return rewriteBatchedInserts; }
+    }
+    
     /**
      * Database configuration holder
      */
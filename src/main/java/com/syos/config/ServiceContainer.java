@@ -96,7 +96,12 @@ public class ServiceContainer {
     }
 
     private SessionManager createSessionManager() {
-        return SessionManager.getInstance();
+        SessionManager manager = SessionManager.getInstance();
+        manager.configure(
+            java.time.Duration.ofMinutes(config.getLongProperty("session.idle.minutes", 30)),
+            java.time.Duration.ofHours(config.getLongProperty("session.absolute.hours", 12)),
+            config.getIntProperty("session.max.per.user", SessionManager.DEFAULT_MAX_SESSIONS_PER_USER));
+        return manager;
     }
 
     // Factory methods for Repositories
@@ -0,0 +1,8 @@
+package com.syos.domain.events;
+
+/**
+ * An event about one item. The event bus keeps events for the same item in publish order.
+ */
+public interface ItemEvent extends DomainEvent {
+    long getItemId();
+}
@@ -1,6 +1,6 @@
 package com.syos.domain.events;
 
-public final class StockReceivedEvent implements DomainEvent {
+public final class StockReceivedEvent implements ItemEvent {
     private final long itemId;
     private final long batchId;
     private final String location; // e.g., WAREHOUSE
@@ -13,6 +13,7 @@ public final class StockReceivedEvent implements DomainEvent {
         this.reason = reason;
     }
 
+    @Override
     public long getItemId() { return itemId; }
     public long getBatchId() { return batchId; }
     public String getLocation() { return location; }
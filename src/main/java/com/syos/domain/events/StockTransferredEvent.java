@@ -1,6 +1,6 @@
 package com.syos.domain.events;
 
-public final class StockTransferredEvent implements DomainEvent {
+public final class StockTransferredEvent implements ItemEvent {
     private final long itemId;
     private final long batchId;
     private final String fromLocation;
@@ -15,6 +15,7 @@ public final class StockTransferredEvent implements DomainEvent {
         this.reason = reason;
     }
 
+    @Override
     public long getItemId() { return itemId; }
     public long getBatchId() { return batchId; }
     public String getFromLocation() { return fromLocation; }
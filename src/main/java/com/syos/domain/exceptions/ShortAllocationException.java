@@ -0,0 +1,21 @@
+package com.syos.domain.exceptions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Raised when a batch allocated for a sale no longer holds the allocated quantity at commit time
+ * (another till sold from it first). Nothing is committed; the caller may re-allocate and retry.
+ */
+public class ShortAllocationException extends InsufficientStockException {
+    private static final long serialVersionUID = 1L;
+
+    private final long[] shortBatchIds; // primitive array, so the exception stays serializable
+
+    public ShortAllocationException(List<Long> shortBatchIds) {
+        super("Stock changed during checkout for batches " + shortBatchIds);
+        this.shortBatchIds = shortBatchIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public List<Long> getShortBatchIds() { return Arrays.stream(shortBatchIds).boxed().toList(); }
+}
@@ -1,6 +1,11 @@
 package com.syos.infrastructure.config;
 
 import com.syos.application.ports.out.*;
+import com.syos.application.services.CategoryHierarchy;
+import com.syos.application.services.HierarchyTrackingCategoryRepository;
+import com.syos.application.services.ProductFacetIndex;
+import com.syos.application.services.ProductSearchIndex;
+import com.syos.application.services.SearchIndexedItemRepository;
 import com.syos.application.usecases.inventory.AddProductUseCase;
 import com.syos.application.usecases.browsing.BrowseProductsUseCase;
 import com.syos.infrastructure.persistence.repositories.*;
@@ -31,6 +36,9 @@ public class ApplicationConfiguration {
     private BrandRepository brandRepository;
     private CategoryRepository categoryRepository;
     private SupplierRepository supplierRepository;
+    private ProductSearchIndex productSearchIndex;
+    private CategoryHierarchy categoryHierarchy;
+    private ProductFacetIndex productFacetIndex;
     
     // Use Cases
     private AddProductUseCase addProductUseCase;
@@ -75,9 +83,16 @@ public class ApplicationConfiguration {
         if (entityManager == null) {
             throw new IllegalStateException("EntityManager not initialized. Cannot start without a database connection.");
         }
-        this.itemMasterFileRepository = new JpaItemMasterFileRepository(entityManager);
         this.brandRepository = new JpaBrandRepository(entityManager);
-        this.categoryRepository = new JpaCategoryRepository(entityManager);
+        // Category navigation reads an in-memory tree; saves through this repository rebuild it
+        CategoryRepository categories = new JpaCategoryRepository(entityManager);
+        this.categoryHierarchy = new CategoryHierarchy(categories);
+        this.categoryRepository = new HierarchyTrackingCategoryRepository(categories, categoryHierarchy);
+        // Product search and filtering are served from memory; saves through this repository keep the indexes current
+        ItemMasterFileRepository items = new JpaItemMasterFileRepository(entityManagerFactory);
+        this.productSearchIndex = new ProductSearchIndex(items, brandRepository, categoryRepository);
+        this.productFacetIndex = new ProductFacetIndex(items, brandRepository, categoryRepository, categoryHierarchy);
+        this.itemMasterFileRepository = new SearchIndexedItemRepository(items, productSearchIndex, productFacetIndex);
         this.supplierRepository = new JpaSupplierRepository(entityManager);
     }
 
@@ -86,7 +101,7 @@ public class ApplicationConfiguration {
             itemMasterFileRepository, brandRepository, categoryRepository, supplierRepository);
         
         this.browseProductsUseCase = new BrowseProductsUseCase(
-            itemMasterFileRepository, categoryRepository, brandRepository);
+            itemMasterFileRepository, categoryRepository, brandRepository, productSearchIndex, categoryHierarchy, productFacetIndex, null);
     }
 
     private void initializeControllers() {
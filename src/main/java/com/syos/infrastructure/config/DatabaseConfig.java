@@ -1,5 +1,7 @@
 package com.syos.infrastructure.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,11 +14,15 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Enhanced Database configuration for PostgreSQL with better error handling and validation
+ * Enhanced Database configuration for PostgreSQL with better error handling and validation.
+ * Connections come from a HikariCP pool configured by datasource.hikari.* (leak detection and
+ * pgjdbc statement caching included); pool metrics are available via getPoolMetrics().
  */
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     private static EntityManagerFactory entityManagerFactory;
+    private static HikariDataSource dataSource;
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
     private static boolean connectionTested = false;
     
     // Database configuration loaded from ConfigurationManager and environment variables
@@ -24,6 +30,7 @@ public class DatabaseConfig {
     private static final String DB_USERNAME;
     private static final String DB_PASSWORD;
     private static final String DB_DRIVER;
+    private static final com.syos.config.ConfigurationManager.PoolConfig POOL_CONFIG;
 
     static {
         // Defaults
@@ -47,6 +54,7 @@ public class DatabaseConfig {
 
         // Fallback to application.properties via ConfigurationManager if available
         String propUrl = null, propUser = null, propPass = null, propDriver = null;
+        com.syos.config.ConfigurationManager.PoolConfig poolConfig = null;
         try {
             com.syos.config.ConfigurationManager cfg = new com.syos.config.ConfigurationManager();
             com.syos.config.ConfigurationManager.DatabaseConfig dbc = cfg.getDatabaseConfig();
@@ -54,6 +62,7 @@ public class DatabaseConfig {
             propUser = dbc.getUsername();
             propPass = dbc.getPassword();
             propDriver = dbc.getDriver();
+            poolConfig = cfg.getPoolConfig();
         } catch (Throwable t) {
             // If config manager fails, continue with sys/env/defaults
             logger.warn("ConfigurationManager not available, using system/env/defaults for DB config", t);
@@ -64,6 +73,8 @@ public class DatabaseConfig {
         DB_USERNAME = firstNonEmpty(sysUser, envUser, propUser, defaultUser);
         DB_PASSWORD = firstNonEmpty(sysPass, envPass, propPass, defaultPass);
         DB_DRIVER = firstNonEmpty(sysDriver, envDriver, propDriver, defaultDriver);
+        POOL_CONFIG = poolConfig != null ? poolConfig : new com.syos.config.ConfigurationManager.PoolConfig(
+                "SYOSHikariPool", 5, 20, 300000, 1200000, 20000, 60000, false, 3, 256, 5, true);
     }
 
     private static String firstNonEmpty(String... values) {
@@ -85,8 +96,10 @@ public class DatabaseConfig {
                 // First validate database connectivity at JDBC level
                 validateDatabaseConnection();
                 
-                // Create JPA properties
-                Map<String, String> properties = createJpaProperties();
+                // Create the connection pool and hand it to Hibernate
+                dataSource = createDataSource();
+                Map<String, Object> properties = createJpaProperties();
+                properties.put("hibernate.connection.datasource", dataSource);
                 
                 // Create EntityManagerFactory
                 entityManagerFactory = Persistence.createEntityManagerFactory("syos-persistence-unit", properties);
@@ -101,6 +114,7 @@ public class DatabaseConfig {
                 
             } catch (Exception e) {
                 logger.error("Failed to initialize database connection: {}", e.getMessage(), e);
+                closeDataSource();
                 
                 // Enhanced error reporting
                 if (e.getMessage().contains("database \"syosdb\" does not exist")) {
@@ -145,17 +159,42 @@ public class DatabaseConfig {
         }
     }
     
+    /**
+     * Build the HikariCP pool from datasource.hikari.* settings
+     */
+    static HikariDataSource createDataSource() {
+        return new HikariDataSource(createHikariConfig(POOL_CONFIG));
+    }
+
+    static HikariConfig createHikariConfig(com.syos.config.ConfigurationManager.PoolConfig pool) {
+        HikariConfig hc = new HikariConfig();
+        hc.setJdbcUrl(DB_URL);
+        hc.setUsername(DB_USERNAME);
+        hc.setPassword(DB_PASSWORD);
+        hc.setDriverClassName(DB_DRIVER);
+        hc.setPoolName(pool.getPoolName());
+        hc.setMinimumIdle(pool.getMinimumIdle());
+        hc.setMaximumPoolSize(pool.getMaximumPoolSize());
+        hc.setIdleTimeout(pool.getIdleTimeoutMs());
+        hc.setMaxLifetime(pool.getMaxLifetimeMs());
+        hc.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        hc.setLeakDetectionThreshold(pool.getLeakDetectionThresholdMs());
+        hc.setAutoCommit(pool.isAutoCommit());
+        hc.setMetricsTrackerFactory(poolMetrics);
+
+        // pgjdbc statement caching: statements used prepareThreshold times become server-side prepared
+        hc.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+        hc.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+        hc.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.getPreparedStatementCacheSizeMiB());
+        hc.addDataSourceProperty("reWriteBatchedInserts", pool.isRewriteBatchedInserts());
+        return hc;
+    }
+
     /**
      * Create JPA properties with production-ready settings
      */
-    private static Map<String, String> createJpaProperties() {
-        Map<String, String> properties = new HashMap<>();
-        
-        // Basic connection properties
-        properties.put("jakarta.persistence.jdbc.url", DB_URL);
-        properties.put("jakarta.persistence.jdbc.user", DB_USERNAME);
-        properties.put("jakarta.persistence.jdbc.password", DB_PASSWORD);
-        properties.put("jakarta.persistence.jdbc.driver", DB_DRIVER);
+    private static Map<String, Object> createJpaProperties() {
+        Map<String, Object> properties = new HashMap<>();
         
         // Hibernate dialect and schema management
         properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
@@ -179,12 +218,8 @@ public class DatabaseConfig {
         properties.put("hibernate.jdbc.batch_versioned_data", "true");
         properties.put("hibernate.id.new_generator_mappings", "true");
         
-        // Connection pool settings (Use default Hibernate connection provider)
-        // Remove custom connection provider to avoid version conflicts
-        properties.put("hibernate.connection.pool_size", "10");
-        
-        // Transaction and session management
-        properties.put("hibernate.connection.autocommit", "false");
+        // Transaction and session management (pool hands out connections with autocommit already off)
+        properties.put("hibernate.connection.provider_disables_autocommit", String.valueOf(!POOL_CONFIG.isAutoCommit()));
         properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_HOLD");
         
         // Timezone and encoding
@@ -240,6 +275,13 @@ public class DatabaseConfig {
         return DB_USERNAME;
     }
     
+    /**
+     * Connection pool metrics: wait time, active/idle/pending connections and acquisition timeouts
+     */
+    public static ConnectionPoolMetrics.Snapshot getPoolMetrics() {
+        return poolMetrics.snapshot();
+    }
+    
     /**
      * Close EntityManagerFactory and clean up resources
      */
@@ -253,6 +295,15 @@ public class DatabaseConfig {
                 logger.error("Error closing database connection", e);
             }
         }
+        closeDataSource();
+    }
+
+    private static void closeDataSource() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("Connection pool {} closing: {}", dataSource.getPoolName(), poolMetrics.snapshot());
+            dataSource.close();
+        }
+        dataSource = null;
     }
     
     /**
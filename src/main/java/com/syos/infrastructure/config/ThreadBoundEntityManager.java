@@ -0,0 +1,82 @@
+package com.syos.infrastructure.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+
+/**
+ * One EntityManager handle that is safe to share between threads: every thread (terminal) that uses
+ * it gets its own EntityManager from the factory, created on first use.
+ * Repositories built on a single long-lived EntityManager (brands, categories, suppliers) can then
+ * serve several terminals at once. close() on the handle, or release(), closes only the calling
+ * thread's EntityManager.
+ */
+public final class ThreadBoundEntityManager implements InvocationHandler {
+    private final EntityManagerFactory emf;
+    private final ThreadLocal<EntityManager> current = new ThreadLocal<>();
+    private final EntityManager proxy;
+
+    public ThreadBoundEntityManager(EntityManagerFactory emf) {
+        this.emf = Objects.requireNonNull(emf);
+        this.proxy = (EntityManager) Proxy.newProxyInstance(
+                EntityManager.class.getClassLoader(), new Class<?>[]{EntityManager.class}, this);
+    }
+
+    /**
+     * The shared handle to give to repositories.
+     */
+    public EntityManager entityManager() {
+        return proxy;
+    }
+
+    /**
+     * Close the calling thread's EntityManager, if it has one (terminal disconnected).
+     */
+    public void release() {
+        EntityManager em = current.get();
+        if (em == null) return;
+        current.remove();
+        if (em.getTransaction().isActive()) em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Override
+    public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close" -> {
+                if (method.getParameterCount() == 0) {
+                    release();
+                    return null;
+                }
+            }
+            case "isOpen" -> {
+                if (method.getParameterCount() == 0) return emf.isOpen();
+            }
+            case "equals" -> {
+                if (method.getParameterCount() == 1) return self == args[0];
+            }
+            case "hashCode" -> {
+                if (method.getParameterCount() == 0) return System.identityHashCode(self);
+            }
+            case "toString" -> {
+                if (method.getParameterCount() == 0) return "ThreadBoundEntityManager[" + Thread.currentThread().getName() + "]";
+            }
+            default -> { }
+        }
+        EntityManager em = current.get();
+        if (em == null || !em.isOpen()) {
+            em = emf.createEntityManager();
+            current.set(em);
+        }
+        try {
+            return method.invoke(em, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -17,7 +17,8 @@ import java.util.List;
 @Table(name = "transactions", indexes = {
     @Index(name = "idx_transaction_user", columnList = "user_id"),
     @Index(name = "idx_transaction_date", columnList = "transaction_date"),
-    @Index(name = "idx_transaction_type", columnList = "transaction_type")
+    @Index(name = "idx_transaction_type", columnList = "transaction_type"),
+    @Index(name = "idx_transactions_date_type", columnList = "transaction_date, transaction_type")
 })
 public class TransactionEntity {
     
@@ -14,12 +14,15 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "transaction_items", indexes = {
     @Index(name = "idx_transaction_item_transaction", columnList = "transaction_id"),
-    @Index(name = "idx_transaction_item_item", columnList = "item_id")
+    @Index(name = "idx_transaction_item_item", columnList = "item_id"),
+    @Index(name = "idx_transaction_items_item_tx", columnList = "item_id, transaction_id")
 })
 public class TransactionItemEntity {
     
+    // Pooled sequence (V18) so item inserts can be JDBC-batched; allocationSize must match INCREMENT BY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_items_seq")
+    @SequenceGenerator(name = "transaction_items_seq", sequenceName = "transaction_items_id_seq", allocationSize = 50)
     @Column(name = "transaction_item_id")
     private Long transactionItemId;
     
@@ -0,0 +1,40 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Report queries as database cursors.
+ * - A stateless session keeps no persistence context, so rows are garbage once the caller has used them
+ * - PostgreSQL only streams with a fetch size inside a transaction; a read-only one is held open
+ *   until the returned stream is closed, which also releases the connection
+ */
+final class CursorStreams {
+    static final int DEFAULT_FETCH_SIZE = 500;
+
+    private CursorStreams() {}
+
+    static <T> Stream<T> open(EntityManagerFactory emf, Function<StatelessSession, Stream<T>> query) {
+        StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            session.beginTransaction();
+            session.doWork(conn -> conn.setReadOnly(true));
+            return query.apply(session).onClose(() -> close(session));
+        } catch (RuntimeException ex) {
+            close(session);
+            throw ex;
+        }
+    }
+
+    private static void close(StatelessSession session) {
+        try {
+            if (session.getTransaction().isActive()) session.getTransaction().rollback(); // nothing was written
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.domain.entities.ItemMasterFile;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through cache of item master rows, addressable by id and by item code.
+ * - LRU over at most maxEntries items, so long-running terminals hold a fixed amount of heap
+ * - Entries expire after ttlMillis to pick up edits made by other processes
+ * - Reads hand out copies; callers may mutate what they get without touching the cached row
+ * Misses are not cached: an unknown code always reaches the database.
+ * Every invalidation bumps a generation; a load started before it (see {@link #put(ItemMasterFile, long)})
+ * is not cached, so a read racing a save cannot put the old row back for a whole TTL.
+ */
+public class ItemMasterFileCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    // Guarded by this: access-ordered for LRU eviction, plus a code -> id side index kept in step
+    private final LinkedHashMap<Long, Entry> byId = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Long> idByCode = new HashMap<>();
+    private long generation; // guarded by this
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ItemMasterFileCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, Clock.systemUTC());
+    }
+
+    public ItemMasterFileCache(int maxEntries, long ttlMillis, Clock clock) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public Optional<ItemMasterFile> getById(Long id) {
+        if (id == null) return Optional.empty();
+        synchronized (this) {
+            return hit(byId.get(id));
+        }
+    }
+
+    public Optional<ItemMasterFile> getByCode(String itemCode) {
+        if (itemCode == null) return Optional.empty();
+        synchronized (this) {
+            Long id = idByCode.get(itemCode);
+            return hit(id == null ? null : byId.get(id));
+        }
+    }
+
+    /**
+     * Read before loading from the database and pass to {@link #put(ItemMasterFile, long)}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public void put(ItemMasterFile item) {
+        put(item, generation());
+    }
+
+    /**
+     * Cache a row loaded after {@code loadedAt} was read from {@link #generation()}; dropped when an
+     * invalidation happened since, as the row may predate it.
+     */
+    public void put(ItemMasterFile item, long loadedAt) {
+        if (item == null || item.getId() == null) return;
+        String code = item.getItemCode().getValue();
+        Entry fresh = new Entry(copy(item), clock.millis() + ttlMillis);
+        synchronized (this) {
+            if (loadedAt != generation) return;
+            Entry old = byId.put(item.getId(), fresh);
+            if (old != null) idByCode.remove(old.item.getItemCode().getValue(), item.getId());
+            idByCode.put(code, item.getId());
+            evictOverflow();
+        }
+    }
+
+    public synchronized void invalidate(Long id) {
+        generation++;
+        Entry old = byId.remove(id);
+        if (old != null) idByCode.remove(old.item.getItemCode().getValue(), id);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        byId.clear();
+        idByCode.clear();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    public long hitCount() { return hits.sum(); }
+    public long missCount() { return misses.sum(); }
+
+    // Caller holds the lock
+    private Optional<ItemMasterFile> hit(Entry e) {
+        if (e == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (clock.millis() >= e.expiresAt) {
+            byId.remove(e.item.getId());
+            idByCode.remove(e.item.getItemCode().getValue(), e.item.getId());
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(copy(e.item));
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, Entry>> it = byId.entrySet().iterator();
+        while (byId.size() > maxEntries && it.hasNext()) {
+            Map.Entry<Long, Entry> eldest = it.next();
+            idByCode.remove(eldest.getValue().item.getItemCode().getValue(), eldest.getKey());
+            it.remove();
+        }
+    }
+
+    private static ItemMasterFile copy(ItemMasterFile item) {
+        return new ItemMasterFile.Builder(item).build();
+    }
+
+    private record Entry(ItemMasterFile item, long expiresAt) {}
+}
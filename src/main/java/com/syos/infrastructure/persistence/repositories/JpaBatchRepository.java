@@ -14,6 +14,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * JPA implementation of BatchRepository
@@ -22,9 +23,15 @@ import java.util.stream.Collectors;
 public class JpaBatchRepository implements BatchRepository {
     private static final Logger logger = LoggerFactory.getLogger(JpaBatchRepository.class);
     private final EntityManagerFactory emf;
+    private final int fetchSize;
 
     public JpaBatchRepository(EntityManagerFactory emf) {
+        this(emf, CursorStreams.DEFAULT_FETCH_SIZE);
+    }
+
+    public JpaBatchRepository(EntityManagerFactory emf, int fetchSize) {
         this.emf = emf;
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -182,6 +189,15 @@ public class JpaBatchRepository implements BatchRepository {
         }
     }
 
+    @Override
+    public Stream<Batch> streamAll() {
+        return CursorStreams.open(emf, session -> session
+                .createSelectionQuery("SELECT b FROM BatchEntity b ORDER BY b.receivedDate DESC", BatchEntity.class)
+                .setFetchSize(fetchSize)
+                .getResultStream()
+                .map(this::toDomain));
+    }
+
     @Override
     public void delete(Long id) {
         EntityManager em = emf.createEntityManager();
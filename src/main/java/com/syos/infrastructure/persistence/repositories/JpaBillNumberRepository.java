@@ -0,0 +1,60 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.application.ports.out.BillNumberRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BillNumberRepository backed by the bill_number_seq PostgreSQL sequence (V17).
+ * One nextval() reserves a whole block; the block size is the sequence's INCREMENT BY.
+ */
+public class JpaBillNumberRepository implements BillNumberRepository {
+    private final EntityManagerFactory emf;
+
+    public JpaBillNumberRepository(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public BillNumberBlock reserveBlock() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Object[] row = (Object[]) em.createNativeQuery(
+                    "SELECT nextval('bill_number_seq'), " +
+                    "(SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = 'bill_number_seq')")
+                    .getSingleResult();
+            long first = ((Number) row[0]).longValue();
+            int size = ((Number) row[1]).intValue();
+            return new BillNumberBlock(first, size);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public List<BillNumberGap> findGaps(long fromInclusive, long toInclusive) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(
+                    "SELECT prev + 1, curr - 1 FROM (" +
+                    "  SELECT n AS curr, LAG(n) OVER (ORDER BY n) AS prev FROM (" +
+                    "    SELECT CASE WHEN bill_serial_number ~ '^[0-9]+$' THEN CAST(bill_serial_number AS BIGINT) END AS n FROM bills" +
+                    "  ) nums WHERE n BETWEEN ? AND ?" +
+                    ") s WHERE prev IS NOT NULL AND curr - prev > 1 ORDER BY curr")
+                    .setParameter(1, fromInclusive)
+                    .setParameter(2, toInclusive)
+                    .getResultList();
+            List<BillNumberGap> gaps = new ArrayList<>(rows.size());
+            for (Object[] r : rows) {
+                gaps.add(new BillNumberGap(((Number) r[0]).longValue(), ((Number) r[1]).longValue()));
+            }
+            return gaps;
+        } finally {
+            em.close();
+        }
+    }
+}
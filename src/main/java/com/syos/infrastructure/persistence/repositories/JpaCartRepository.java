@@ -0,0 +1,387 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.application.ports.out.CartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * CartRepository over the V8 carts / cart_items tables with a write-behind hot cache.
+ * - Edits land in memory and are coalesced per (cart, item): ten quantity changes to one line cost one upsert
+ * - A background thread (started by start()) flushes all pending edits every flushIntervalMillis in one
+ *   transaction of JDBC batches
+ * - At most maxCarts carts stay cached (LRU); an evicted cart with unwritten edits is kept until its flush
+ * - Clean carts are re-read after ttlMillis so edits made through another instance show up
+ * close() stops the flusher and writes whatever is still pending.
+ */
+public class JpaCartRepository implements CartRepository, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JpaCartRepository.class);
+
+    public static final int DEFAULT_MAX_CARTS = 1_000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 2_000L;
+    public static final long DEFAULT_TTL_MILLIS = 60_000L;
+
+    private static final String LOAD_SQL =
+            "SELECT c.id, ci.item_id, ci.quantity FROM carts c LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+            "WHERE c.id = (SELECT id FROM carts WHERE user_id = ? AND is_active = true ORDER BY id DESC LIMIT 1) " +
+            "ORDER BY ci.added_at, ci.id";
+    private static final String DEACTIVATE_SQL = "UPDATE carts SET is_active = false WHERE id = ?";
+    private static final String INSERT_CART_SQL = "INSERT INTO carts (user_id, is_active) VALUES (?, true) RETURNING id";
+    private static final String UPSERT_ITEM_SQL =
+            "INSERT INTO cart_items (cart_id, item_id, quantity) VALUES (?, ?, ?) " +
+            "ON CONFLICT (cart_id, item_id) DO UPDATE SET quantity = EXCLUDED.quantity";
+    private static final String DELETE_ITEM_SQL = "DELETE FROM cart_items WHERE cart_id = ? AND item_id = ?";
+
+    private final EntityManagerFactory emf;
+    private final int maxCarts;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final long flushIntervalMillis;
+    private ScheduledExecutorService flusher; // guarded by flushLock; null until start()
+
+    // Guarded by this: access-ordered hot set, plus carts with unwritten edits (kept even when evicted)
+    private final LinkedHashMap<Long, CartState> hot = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, CartState> dirty = new LinkedHashMap<>();
+    private final List<Long> closedCartIds = new ArrayList<>();
+
+    private final Object flushLock = new Object();
+
+    public JpaCartRepository(EntityManagerFactory emf) {
+        this(emf, DEFAULT_MAX_CARTS, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_TTL_MILLIS, Clock.systemUTC());
+    }
+
+    /**
+     * @param flushIntervalMillis delay between background flushes once started; 0 disables the flusher (flush() only)
+     */
+    public JpaCartRepository(EntityManagerFactory emf, int maxCarts, long flushIntervalMillis, long ttlMillis, Clock clock) {
+        if (maxCarts <= 0) throw new IllegalArgumentException("maxCarts must be positive");
+        this.emf = emf;
+        this.maxCarts = maxCarts;
+        this.ttlMillis = ttlMillis;
+        this.clock = Objects.requireNonNull(clock);
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Start the background flusher; a no-op if it is disabled or already running.
+     * @return this repository
+     */
+    public JpaCartRepository start() {
+        synchronized (flushLock) {
+            if (flushIntervalMillis <= 0 || flusher != null) return this;
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "cart-write-behind");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    @Override
+    public Map<Long, BigDecimal> findActiveCart(long userId) {
+        Map<Long, BigDecimal> copy = new LinkedHashMap<>();
+        withCart(userId, s -> copy.putAll(s.lines));
+        return copy;
+    }
+
+    @Override
+    public void setQuantity(long userId, long itemId, BigDecimal quantity) {
+        if (quantity == null || quantity.signum() <= 0) {
+            removeItem(userId, itemId);
+            return;
+        }
+        withCart(userId, s -> {
+            BigDecimal old = s.lines.put(itemId, quantity);
+            if (old == null || old.compareTo(quantity) != 0) markChanged(s, itemId);
+        });
+    }
+
+    @Override
+    public void removeItem(long userId, long itemId) {
+        withCart(userId, s -> {
+            if (s.lines.remove(itemId) != null) markChanged(s, itemId);
+        });
+    }
+
+    @Override
+    public void clear(long userId) {
+        withCart(userId, s -> {
+            s.closed = true;
+            if (s.cartId != null) closedCartIds.add(s.cartId); // otherwise an in-flight insert retires it on success
+            dirty.remove(userId);
+            CartState fresh = new CartState(userId, null, clock.millis());
+            hot.put(userId, fresh);
+        });
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            List<Long> retire;
+            List<CartState> states = new ArrayList<>();
+            List<CartWrite> writes = new ArrayList<>();
+            synchronized (this) {
+                retire = new ArrayList<>(closedCartIds);
+                closedCartIds.clear();
+                for (CartState s : dirty.values()) {
+                    Map<Long, BigDecimal> changes = new LinkedHashMap<>();
+                    for (Long itemId : s.changed) changes.put(itemId, s.lines.get(itemId));
+                    s.changed.clear();
+                    s.writing = true;
+                    states.add(s);
+                    writes.add(new CartWrite(s.userId, s.cartId, changes));
+                }
+                dirty.clear();
+                evictOverflow();
+            }
+            if (retire.isEmpty() && writes.isEmpty()) return;
+
+            try {
+                List<Long> created = writeAll(retire, writes);
+                synchronized (this) {
+                    for (int i = 0; i < states.size(); i++) {
+                        CartState s = states.get(i);
+                        s.writing = false;
+                        Long id = created.get(i);
+                        if (id == null) continue;
+                        s.cartId = id;
+                        if (s.closed) closedCartIds.add(id); // cleared while its first write was in flight
+                    }
+                }
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    closedCartIds.addAll(0, retire);
+                    for (int i = 0; i < states.size(); i++) {
+                        CartState s = states.get(i);
+                        s.writing = false;
+                        if (s.closed) continue;
+                        s.changed.addAll(writes.get(i).changes().keySet());
+                        dirty.putIfAbsent(s.userId, s);
+                    }
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Stop the background flusher and write pending edits.
+     */
+    @Override
+    public void close() {
+        synchronized (flushLock) {
+            if (flusher != null) flusher.shutdown();
+        }
+        flush();
+    }
+
+    /** Carts currently held in the hot cache. */
+    public synchronized int cachedCarts() {
+        return hot.size();
+    }
+
+    /** Carts with edits not yet written. */
+    public synchronized int pendingCarts() {
+        return dirty.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            logger.warn("Cart write-behind flush failed; will retry", ex);
+        }
+    }
+
+    /**
+     * Run an action on the user's cart under the lock, loading it from the database first if it is not cached.
+     */
+    private void withCart(long userId, Consumer<CartState> action) {
+        CartState loaded = null;
+        while (true) {
+            synchronized (this) {
+                CartState s = current(userId);
+                if (s == null && loaded != null) {
+                    hot.put(userId, loaded);
+                    evictOverflow();
+                    s = loaded;
+                }
+                if (s != null) {
+                    action.accept(s);
+                    return;
+                }
+            }
+            loaded = loadCart(userId); // outside the lock
+        }
+    }
+
+    // Caller holds the lock
+    private CartState current(long userId) {
+        CartState s = dirty.get(userId);
+        if (s != null) {
+            if (hot.get(userId) != s) {
+                hot.put(userId, s);
+                evictOverflow();
+            }
+            return s;
+        }
+        s = hot.get(userId);
+        if (s != null && !s.writing && clock.millis() - s.loadedAt >= ttlMillis) {
+            hot.remove(userId);
+            return null;
+        }
+        return s;
+    }
+
+    // Caller holds the lock
+    private void markChanged(CartState s, long itemId) {
+        s.changed.add(itemId);
+        dirty.put(s.userId, s);
+    }
+
+    // Caller holds the lock; dirty carts stay reachable through the dirty map
+    private void evictOverflow() {
+        Iterator<Map.Entry<Long, CartState>> it = hot.entrySet().iterator();
+        while (hot.size() > maxCarts && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Read the user's active cart; a user without one gets an empty, not yet persisted cart.
+     */
+    CartState loadCart(long userId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.unwrap(Session.class).doReturningWork(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(LOAD_SQL)) {
+                    ps.setLong(1, userId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        CartState s = new CartState(userId, null, clock.millis());
+                        while (rs.next()) {
+                            s.cartId = rs.getLong(1);
+                            long itemId = rs.getLong(2);
+                            if (!rs.wasNull()) s.lines.put(itemId, rs.getBigDecimal(3));
+                        }
+                        return s;
+                    }
+                }
+            });
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Apply one flush in a single transaction: retire closed carts, create missing cart rows,
+     * then upsert and delete lines as two JDBC batches.
+     * @return per write, the id of the cart row it created, or null if the cart already existed
+     */
+    List<Long> writeAll(List<Long> retire, List<CartWrite> writes) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Long> created = em.unwrap(Session.class).doReturningWork(conn -> {
+                if (!retire.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(DEACTIVATE_SQL)) {
+                        for (Long id : retire) {
+                            ps.setLong(1, id);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                List<Long> ids = new ArrayList<>(writes.size());
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_CART_SQL)) {
+                    for (CartWrite w : writes) {
+                        if (w.cartId() != null) {
+                            ids.add(null);
+                            continue;
+                        }
+                        ps.setLong(1, w.userId());
+                        try (ResultSet rs = ps.executeQuery()) {
+                            rs.next();
+                            ids.add(rs.getLong(1));
+                        }
+                    }
+                }
+                try (PreparedStatement upsert = conn.prepareStatement(UPSERT_ITEM_SQL);
+                     PreparedStatement delete = conn.prepareStatement(DELETE_ITEM_SQL)) {
+                    boolean upserts = false;
+                    boolean deletes = false;
+                    for (int i = 0; i < writes.size(); i++) {
+                        CartWrite w = writes.get(i);
+                        long cartId = w.cartId() != null ? w.cartId() : ids.get(i);
+                        for (Map.Entry<Long, BigDecimal> e : w.changes().entrySet()) {
+                            if (e.getValue() != null) {
+                                upsert.setLong(1, cartId);
+                                upsert.setLong(2, e.getKey());
+                                upsert.setBigDecimal(3, e.getValue());
+                                upsert.addBatch();
+                                upserts = true;
+                            } else {
+                                delete.setLong(1, cartId);
+                                delete.setLong(2, e.getKey());
+                                delete.addBatch();
+                                deletes = true;
+                            }
+                        }
+                    }
+                    if (upserts) upsert.executeBatch();
+                    if (deletes) delete.executeBatch();
+                }
+                return ids;
+            });
+            em.getTransaction().commit();
+            return created;
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw ex;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Edits to write for one cart; a null quantity deletes the line. cartId is null when the cart row must be created.
+     */
+    record CartWrite(long userId, Long cartId, Map<Long, BigDecimal> changes) {}
+
+    static final class CartState {
+        final long userId;
+        Long cartId;                                        // null until the row exists
+        final LinkedHashMap<Long, BigDecimal> lines = new LinkedHashMap<>();
+        final Set<Long> changed = new LinkedHashSet<>();    // items whose row differs from the database
+        final long loadedAt;
+        boolean closed;                                     // cleared; its row (once it exists) must be deactivated
+        boolean writing;                                    // part of a flush in progress
+
+        CartState(long userId, Long cartId, long loadedAt) {
+            this.userId = userId;
+            this.cartId = cartId;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -6,11 +6,14 @@ import com.syos.domain.valueobjects.*;
 import com.syos.infrastructure.persistence.entities.ItemMasterFileEntity;
 import com.syos.shared.enums.ProductStatus;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,188 +22,208 @@ import java.util.stream.Collectors;
  * Infrastructure Layer:
  * - Implements domain repository interface
  * - Handles entity-domain mapping
- * - Manages database operations
+ * - Manages database operations (EntityManager per operation, safe to share across threads)
  * 
  * Adapter Pattern (Pattern #11):
  * - Adapts JPA EntityManager to domain repository interface
+ * 
+ * findById/findByItemCode are served from a bounded ItemMasterFileCache (POS scans, cart adds and
+ * report rows hit it); save and deleteById invalidate the affected item.
  */
 public class JpaItemMasterFileRepository implements ItemMasterFileRepository {
     
-    private final EntityManager entityManager;
+    private final EntityManagerFactory emf;
+    private final ItemMasterFileCache cache;
+
+    public JpaItemMasterFileRepository(EntityManagerFactory emf) {
+        this(emf, new ItemMasterFileCache());
+    }
 
-    public JpaItemMasterFileRepository(EntityManager entityManager) {
-        this.entityManager = entityManager;
+    public JpaItemMasterFileRepository(EntityManagerFactory emf, ItemMasterFileCache cache) {
+        this.emf = Objects.requireNonNull(emf);
+        this.cache = Objects.requireNonNull(cache);
     }
 
     @Override
     public ItemMasterFile save(ItemMasterFile item) {
-        entityManager.getTransaction().begin();
+        EntityManager em = emf.createEntityManager();
         try {
+            em.getTransaction().begin();
             ItemMasterFileEntity entity = item.getId() == null ?
-                mapToNewEntity(item) : updateExistingEntity(item);
+                mapToNewEntity(item) : updateExistingEntity(em, item);
 
             if (entity.getId() == null) {
-                entityManager.persist(entity);
-                entityManager.flush(); // ensure ID is generated
+                em.persist(entity);
+                em.flush(); // ensure ID is generated
             } else {
-                entity = entityManager.merge(entity);
+                entity = em.merge(entity);
             }
 
-            entityManager.getTransaction().commit();
-            return mapToDomain(entity);
+            em.getTransaction().commit();
+            ItemMasterFile saved = mapToDomain(entity);
+            cache.invalidate(saved.getId());
+            return saved;
         } catch (RuntimeException ex) {
-            if (entityManager.getTransaction().isActive()) {
-                entityManager.getTransaction().rollback();
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
             }
             throw ex;
+        } finally {
+            em.close();
         }
     }
 
     @Override
     public Optional<ItemMasterFile> findById(Long id) {
-        ItemMasterFileEntity entity = entityManager.find(ItemMasterFileEntity.class, id);
-        return entity != null ? Optional.of(mapToDomain(entity)) : Optional.empty();
+        Optional<ItemMasterFile> cached = cache.getById(id);
+        if (cached.isPresent()) return cached;
+        long generation = cache.generation();
+        Optional<ItemMasterFile> loaded = read(em -> Optional.ofNullable(em.find(ItemMasterFileEntity.class, id)).map(this::mapToDomain));
+        loaded.ifPresent(item -> cache.put(item, generation));
+        return loaded;
     }
 
     @Override
     public Optional<ItemMasterFile> findByItemCode(ItemCode itemCode) {
-        try {
-            TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-                "SELECT i FROM ItemMasterFileEntity i WHERE i.itemCode = :itemCode", 
-                ItemMasterFileEntity.class);
-            query.setParameter("itemCode", itemCode.getValue());
-            
-            ItemMasterFileEntity entity = query.getSingleResult();
-            return Optional.of(mapToDomain(entity));
-        } catch (NoResultException e) {
-            return Optional.empty();
-        }
+        Optional<ItemMasterFile> cached = cache.getByCode(itemCode.getValue());
+        if (cached.isPresent()) return cached;
+        long generation = cache.generation();
+        Optional<ItemMasterFile> loaded = read(em -> em.createQuery(
+                "SELECT i FROM ItemMasterFileEntity i WHERE i.itemCode = :itemCode",
+                ItemMasterFileEntity.class)
+            .setParameter("itemCode", itemCode.getValue())
+            .getResultStream().findFirst().map(this::mapToDomain));
+        loaded.ifPresent(item -> cache.put(item, generation));
+        return loaded;
     }
 
     @Override
     public boolean existsByItemCode(ItemCode itemCode) {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE i.itemCode = :itemCode", 
-            Long.class);
-        query.setParameter("itemCode", itemCode.getValue());
-        return query.getSingleResult() > 0;
+        if (cache.getByCode(itemCode.getValue()).isPresent()) return true;
+        return read(em -> em.createQuery(
+                "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE i.itemCode = :itemCode",
+                Long.class)
+            .setParameter("itemCode", itemCode.getValue())
+            .getSingleResult() > 0);
     }
 
     @Override
     public List<ItemMasterFile> findAllActive() {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
-            ItemMasterFileEntity.class);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
+            q -> q);
     }
 
     @Override
     public List<ItemMasterFile> findByCategory(CategoryId categoryId) {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE i.categoryId = :categoryId AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
-            ItemMasterFileEntity.class);
-        query.setParameter("categoryId", categoryId.getValue());
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.categoryId = :categoryId AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
+            q -> q.setParameter("categoryId", categoryId.getValue()));
+    }
+
+    @Override
+    public List<ItemMasterFile> findByCategories(Collection<CategoryId> categoryIds) {
+        if (categoryIds.isEmpty()) return List.of();
+        List<Long> ids = categoryIds.stream().map(CategoryId::getValue).collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.categoryId IN :categoryIds AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
+            q -> q.setParameter("categoryIds", ids));
     }
 
     @Override
     public List<ItemMasterFile> findByBrand(BrandId brandId) {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE i.brandId = :brandId AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
-            ItemMasterFileEntity.class);
-        query.setParameter("brandId", brandId.getValue());
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.brandId = :brandId AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
+            q -> q.setParameter("brandId", brandId.getValue()));
     }
 
     @Override
     public List<ItemMasterFile> findFeaturedItems() {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE i.isFeatured = true AND (i.status = :status OR i.status IS NULL) ORDER BY i.dateAdded DESC",
-            ItemMasterFileEntity.class);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.isFeatured = true AND (i.status = :status OR i.status IS NULL) ORDER BY i.dateAdded DESC",
+            q -> q);
     }
 
     @Override
     public List<ItemMasterFile> findLatestItems() {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE i.isLatest = true AND (i.status = :status OR i.status IS NULL) ORDER BY i.dateAdded DESC",
-            ItemMasterFileEntity.class);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.isLatest = true AND (i.status = :status OR i.status IS NULL) ORDER BY i.dateAdded DESC",
+            q -> q);
     }
 
     @Override
     public List<ItemMasterFile> findItemsRequiringReorder() {
         // This would typically join with stock tables, but for now return items with high reorder points
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE i.reorderPoint >= 50 AND (i.status = :status OR i.status IS NULL) ORDER BY i.reorderPoint DESC",
-            ItemMasterFileEntity.class);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE i.reorderPoint >= 50 AND (i.status = :status OR i.status IS NULL) ORDER BY i.reorderPoint DESC",
+            q -> q);
     }
 
     @Override
     public List<ItemMasterFile> searchByName(String searchTerm) {
-        TypedQuery<ItemMasterFileEntity> query = entityManager.createQuery(
-            "SELECT i FROM ItemMasterFileEntity i WHERE LOWER(i.itemName) LIKE LOWER(:searchTerm) AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
-            ItemMasterFileEntity.class);
-        query.setParameter("searchTerm", "%" + searchTerm + "%");
-        query.setParameter("status", ProductStatus.ACTIVE);
-        
-        return query.getResultList().stream()
-            .map(this::mapToDomain)
-            .collect(Collectors.toList());
+        return list("SELECT i FROM ItemMasterFileEntity i WHERE LOWER(i.itemName) LIKE LOWER(:searchTerm) AND (i.status = :status OR i.status IS NULL) ORDER BY i.itemName",
+            q -> q.setParameter("searchTerm", "%" + searchTerm + "%"));
     }
 
     @Override
     public long countActiveItems() {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE (i.status = :status OR i.status IS NULL)", 
-            Long.class);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        return query.getSingleResult();
+        return read(em -> em.createQuery(
+                "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE (i.status = :status OR i.status IS NULL)",
+                Long.class)
+            .setParameter("status", ProductStatus.ACTIVE)
+            .getSingleResult());
     }
 
     @Override
     public void deleteById(Long id) {
         // Soft delete - mark as inactive
-        ItemMasterFileEntity entity = entityManager.find(ItemMasterFileEntity.class, id);
-        if (entity != null) {
-            entity.setStatus(ProductStatus.INACTIVE);
-            entityManager.merge(entity);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            ItemMasterFileEntity entity = em.find(ItemMasterFileEntity.class, id);
+            if (entity != null) {
+                entity.setStatus(ProductStatus.INACTIVE);
+            }
+            em.getTransaction().commit();
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw ex;
+        } finally {
+            em.close();
+            cache.invalidate(id);
         }
     }
 
     @Override
     public boolean isActive(Long id) {
-        TypedQuery<Long> query = entityManager.createQuery(
-            "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE i.id = :id AND (i.status = :status OR i.status IS NULL)", 
-            Long.class);
-        query.setParameter("id", id);
-        query.setParameter("status", ProductStatus.ACTIVE);
-        return query.getSingleResult() > 0;
+        Optional<ItemMasterFile> cached = cache.getById(id);
+        if (cached.isPresent()) return cached.get().getStatus() == null || cached.get().getStatus() == ProductStatus.ACTIVE;
+        return read(em -> em.createQuery(
+                "SELECT COUNT(i) FROM ItemMasterFileEntity i WHERE i.id = :id AND (i.status = :status OR i.status IS NULL)",
+                Long.class)
+            .setParameter("id", id)
+            .setParameter("status", ProductStatus.ACTIVE)
+            .getSingleResult() > 0);
+    }
+
+    /**
+     * The item cache, exposed for hit/miss diagnostics.
+     */
+    public ItemMasterFileCache getCache() {
+        return cache;
+    }
+
+    private <T> T read(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    // Active-item list queries; every one binds :status
+    private List<ItemMasterFile> list(String jpql, Function<TypedQuery<ItemMasterFileEntity>, TypedQuery<ItemMasterFileEntity>> bind) {
+        return read(em -> bind.apply(em.createQuery(jpql, ItemMasterFileEntity.class)
+                .setParameter("status", ProductStatus.ACTIVE))
+            .getResultList().stream()
+            .map(this::mapToDomain)
+            .collect(Collectors.toList()));
     }
 
     // Mapping methods
@@ -227,8 +250,8 @@ public class JpaItemMasterFileRepository implements ItemMasterFileRepository {
         return entity;
     }
 
-    private ItemMasterFileEntity updateExistingEntity(ItemMasterFile item) {
-        ItemMasterFileEntity entity = entityManager.find(ItemMasterFileEntity.class, item.getId());
+    private ItemMasterFileEntity updateExistingEntity(EntityManager em, ItemMasterFile item) {
+        ItemMasterFileEntity entity = em.find(ItemMasterFileEntity.class, item.getId());
         if (entity != null) {
             entity.setItemName(item.getItemName());
             entity.setDescription(item.getDescription());
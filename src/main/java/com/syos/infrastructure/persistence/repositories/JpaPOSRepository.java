@@ -1,52 +1,84 @@
 package com.syos.infrastructure.persistence.repositories;
 
+import com.syos.application.services.BillNumberAllocator;
+import com.syos.domain.exceptions.ShortAllocationException;
 import com.syos.infrastructure.persistence.entities.BillEntity;
 import com.syos.infrastructure.persistence.entities.ItemMasterFileEntity;
 import com.syos.infrastructure.persistence.entities.TransactionEntity;
 import com.syos.infrastructure.persistence.entities.TransactionItemEntity;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Minimal persistence helper for POS checkout that saves Transaction, its Items, and Bill.
+ * Shelf stock decrements for the allocated batches run in the same database transaction,
+ * so a failed checkout never leaves stock reduced without a sale.
+ * Round trips per checkout are constant: one batched decrement, the transaction insert,
+ * one batched item insert (ids pre-allocated 50 at a time) and the bill insert.
+ * Bill numbers come from BillNumberAllocator (bill_number_seq, V17).
+ * The sale is added to the daily_item_sales rollup (V20) in the same transaction, one batched upsert.
  * Uses existing JPA entities and relies on V9 migration aligning schema.
  */
 public class JpaPOSRepository {
+    private static final String ROLLUP_UPSERT_SQL =
+            "INSERT INTO daily_item_sales(sale_date, item_id, channel, quantity, revenue) VALUES (?,?,?,?,?) " +
+            "ON CONFLICT (sale_date, item_id, channel) DO UPDATE SET " +
+            "quantity = daily_item_sales.quantity + EXCLUDED.quantity, revenue = daily_item_sales.revenue + EXCLUDED.revenue";
+
     private final EntityManagerFactory emf;
+    private final BillNumberAllocator billNumbers;
 
     public JpaPOSRepository(EntityManagerFactory emf) {
+        this(emf, new BillNumberAllocator(new JpaBillNumberRepository(emf)));
+    }
+
+    public JpaPOSRepository(EntityManagerFactory emf, BillNumberAllocator billNumbers) {
         this.emf = emf;
+        this.billNumbers = billNumbers;
     }
 
     /**
-     * Persist transaction with items and generate a bill with sequential number.
+     * Decrement shelf stock, persist transaction with items and generate a bill with sequential number,
+     * all in one database transaction.
+     * @throws ShortAllocationException if a shelf row no longer holds the allocated quantity (nothing is committed)
      */
     public PersistResult savePOSCheckout(TransactionEntity tx, List<PosLine> lines) {
         EntityManager em = emf.createEntityManager();
         try {
             em.getTransaction().begin();
 
+            // Reduce shelf rows the lines were allocated from in one JDBC batch; guarded so concurrent sales cannot oversell
+            List<Long> shortBatches = JpaShelfStockRepository.decrementShelfStock(em, lines);
+            if (!shortBatches.isEmpty()) {
+                throw new ShortAllocationException(shortBatches);
+            }
+
             // Ensure transaction number is set (DB requires NOT NULL & UNIQUE)
             if (tx.getTransactionNumber() == null || tx.getTransactionNumber().trim().isEmpty()) {
                 tx.setTransactionNumber("TX" + System.currentTimeMillis());
             }
 
-            // Persist transaction first
+            // IDENTITY id: inserted immediately so items can reference it
             em.persist(tx);
-            em.flush();
 
-            // Attach and persist items
+            // Item ids come from the pooled sequence (V18), so the inserts queue up and go out as a
+            // single JDBC batch at commit; batch size is raised to the basket size for this session
+            em.unwrap(Session.class).setJdbcBatchSize(Math.max(lines.size(), 1));
             for (PosLine line : lines) {
                 TransactionItemEntity it = new TransactionItemEntity();
                 it.setTransaction(tx);
                 // set item reference via getReference to avoid loading fully
-                com.syos.infrastructure.persistence.entities.ItemMasterFileEntity itemRef = em.getReference(com.syos.infrastructure.persistence.entities.ItemMasterFileEntity.class, line.itemId());
-                it.setItem(itemRef);
+                it.setItem(em.getReference(ItemMasterFileEntity.class, line.itemId()));
                 it.setQuantity((int)Math.round(line.quantity()));
                 it.setUnitPrice(line.unitPrice());
                 it.setSubtotal(line.unitPrice().multiply(java.math.BigDecimal.valueOf(line.quantity())));
@@ -54,8 +86,8 @@ public class JpaPOSRepository {
                 em.persist(it);
             }
 
-            // Generate next bill serial number (sequential starting at 1)
-            long nextSerial = nextBillNumber(em);
+            // Next bill serial number from the pre-reserved sequence block (no scan of bills)
+            long nextSerial = billNumbers.next();
             String billNumber = String.valueOf(nextSerial);
 
             BillEntity bill = new BillEntity(billNumber, tx);
@@ -63,6 +95,9 @@ public class JpaPOSRepository {
             bill.setCustomerName(null); // POS cash sale
             em.persist(bill);
 
+            // Last statement before commit: keeps the rollup row locks held as briefly as possible
+            addToDailyRollup(em, tx, lines);
+
             em.getTransaction().commit();
             return new PersistResult(tx.getTransactionId(), billNumber);
         } catch (RuntimeException ex) {
@@ -73,24 +108,43 @@ public class JpaPOSRepository {
         }
     }
 
-    private long nextBillNumber(EntityManager em) {
-        try {
-            TypedQuery<String> q = em.createQuery("SELECT b.billSerialNumber FROM BillEntity b ORDER BY CAST(b.billSerialNumber AS long) DESC", String.class);
-            q.setMaxResults(1);
-            List<String> last = q.getResultList();
-            if (last.isEmpty()) return 1L;
-            try {
-                return Long.parseLong(last.get(0)) + 1L;
-            } catch (NumberFormatException e) {
-                // Fallback: count + 1
-                Long count = em.createQuery("SELECT COUNT(b) FROM BillEntity b", Long.class).getSingleResult();
-                return count + 1L;
+    /**
+     * Upsert one daily_item_sales row per item of the basket. Rows are written in item id order so
+     * concurrent checkouts of overlapping baskets lock them in the same order.
+     * Also used by JpaWebOrderRepository for WEB orders.
+     */
+    static void addToDailyRollup(EntityManager em, TransactionEntity tx, List<PosLine> lines) {
+        Collection<ItemSales> rows = salesByItem(lines);
+        Date saleDate = Date.valueOf(tx.getTransactionDate().toLocalDate());
+        String channel = tx.getTransactionType().name();
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(ROLLUP_UPSERT_SQL)) {
+                for (ItemSales row : rows) {
+                    ps.setDate(1, saleDate);
+                    ps.setLong(2, row.itemId());
+                    ps.setString(3, channel);
+                    ps.setLong(4, row.quantity());
+                    ps.setBigDecimal(5, row.revenue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
             }
-        } catch (Exception e) {
-            // Fallback if table empty or casting unsupported
-            Long count = em.createQuery("SELECT COUNT(b) FROM BillEntity b", Long.class).getSingleResult();
-            return count + 1L;
+        });
+    }
+
+    /**
+     * The basket's lines merged per item (an item sold from several batches is one row), in item id order.
+     * Quantity and revenue use the same rounding and subtotal as the transaction_items rows.
+     */
+    static Collection<ItemSales> salesByItem(List<PosLine> lines) {
+        Map<Long, ItemSales> byItem = new TreeMap<>();
+        for (PosLine line : lines) {
+            ItemSales sold = new ItemSales(line.itemId(), Math.round(line.quantity()),
+                    line.unitPrice().multiply(BigDecimal.valueOf(line.quantity())));
+            byItem.merge(line.itemId(), sold, (a, b) ->
+                    new ItemSales(a.itemId(), a.quantity() + b.quantity(), a.revenue().add(b.revenue())));
         }
+        return byItem.values();
     }
 
     // Helper to resolve ItemMasterFileEntity by id (for TransactionItemEntity construction when needed)
@@ -100,6 +154,14 @@ public class JpaPOSRepository {
 
     public static BigDecimal toBD(double v) { return BigDecimal.valueOf(v).setScale(2, java.math.RoundingMode.HALF_UP); }
 
-    public record PosLine(Long itemId, Long batchId, double quantity, BigDecimal unitPrice, BigDecimal discount) {}
+    /**
+     * One sold allocation. {@code shelfCode} locates the shelf row to decrement; null means no stock movement.
+     */
+    public record PosLine(Long itemId, Long batchId, double quantity, BigDecimal unitPrice, BigDecimal discount, String shelfCode) {
+        public PosLine(Long itemId, Long batchId, double quantity, BigDecimal unitPrice, BigDecimal discount) {
+            this(itemId, batchId, quantity, unitPrice, discount, null);
+        }
+    }
     public record PersistResult(Long transactionId, String billNumber) {}
+    record ItemSales(long itemId, long quantity, BigDecimal revenue) {}
 }
@@ -68,6 +68,45 @@ public class JpaPromotionRepository {
         }
     }
 
+    /**
+     * All active batch-specific promotions that have not ended by {@code from}, one row per (item, batch) link.
+     * Used to build the in-memory PromotionIndex in a single query.
+     */
+    public List<BatchPromotionLink> findBatchPromotionLinksEndingAfter(LocalDateTime from) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            String sql = "SELECT pi.item_id, pb.batch_id, p.promotion_type, p.discount_value, p.promo_code, p.promo_name, p.start_date, p.end_date " +
+                    "FROM promotions p " +
+                    "JOIN promotion_items pi ON pi.promotion_id = p.id " +
+                    "JOIN promotion_batches pb ON pb.promotion_id = p.id " +
+                    "WHERE p.is_active = true AND p.is_batch_specific = true AND p.end_date >= ?";
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(sql).setParameter(1, from).getResultList();
+            List<BatchPromotionLink> links = new java.util.ArrayList<>(rows.size());
+            for (Object[] r : rows) {
+                PromotionEntity p = new PromotionEntity();
+                p.setPromotionType(PromotionType.valueOf((String) r[2]));
+                p.setDiscountValue((java.math.BigDecimal) r[3]);
+                p.setPromoCode((String) r[4]);
+                p.setPromoName((String) r[5]);
+                p.setStartDate(toLocalDateTime(r[6]));
+                p.setEndDate(toLocalDateTime(r[7]));
+                p.setActive(true);
+                p.setBatchSpecific(true);
+                links.add(new BatchPromotionLink(((Number) r[0]).longValue(), ((Number) r[1]).longValue(), p));
+            }
+            logger.debug("Loaded {} batch promotion links", links.size());
+            return links;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object v) {
+        if (v instanceof java.sql.Timestamp ts) return ts.toLocalDateTime();
+        return (LocalDateTime) v;
+    }
+
     public PromotionEntity createBasicBatchPromotion(String code, String name, PromotionType type, java.math.BigDecimal value,
                                                      LocalDateTime start, LocalDateTime end,
                                                      Long itemId, List<Long> batchIds) {
@@ -111,4 +150,6 @@ public class JpaPromotionRepository {
             em.close();
         }
     }
+
+    public record BatchPromotionLink(long itemId, long batchId, PromotionEntity promotion) {}
 }
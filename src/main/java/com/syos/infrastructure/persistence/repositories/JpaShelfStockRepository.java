@@ -2,6 +2,7 @@ package com.syos.infrastructure.persistence.repositories;
 
 import com.syos.application.ports.out.ShelfStockRepository;
 import com.syos.domain.entities.ShelfStock;
+import com.syos.domain.events.StockTransferredEvent;
 import com.syos.domain.valueobjects.ItemCode;
 import com.syos.domain.valueobjects.Money;
 import com.syos.domain.valueobjects.Quantity;
@@ -9,12 +10,15 @@ import com.syos.domain.valueobjects.UserID;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Query;
+import org.hibernate.Session;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -30,6 +34,11 @@ public class JpaShelfStockRepository implements ShelfStockRepository {
         this.emf = Objects.requireNonNull(emf);
     }
 
+    /**
+     * Insert or restock a shelf row. Sales must use decrementShelfStock, which is race-free;
+     * the read-then-write sale branch below is kept only for legacy callers.
+     * A restock also queues a StockTransferredEvent in the event outbox within the same transaction.
+     */
     @Override
     public void save(ShelfStock shelfStock) {
         EntityManager em = emf.createEntityManager();
@@ -86,6 +95,12 @@ public class JpaShelfStockRepository implements ShelfStockRepository {
                 }
             }
 
+            // Stock arriving on the shelf is a transfer; its event commits with the shelf row (event_outbox)
+            if (currentQty == null || delta.signum() > 0) {
+                JpaEventOutboxRepository.append(em, new StockTransferredEvent(shelfStock.getItemId(), shelfStock.getBatchId(),
+                        "WAREHOUSE", shelfStock.getShelfCode(), "Transfer to shelf"));
+            }
+
             // If this was a sale (delta < 0), also reduce batches.quantity_available accordingly
             if (currentQty != null && delta.signum() < 0) {
                 em.createNativeQuery("UPDATE batches SET quantity_available = quantity_available + ? WHERE id = ?")
@@ -190,6 +205,27 @@ public class JpaShelfStockRepository implements ShelfStockRepository {
         } finally { em.close(); }
     }
 
+    @Override
+    public List<ShelfStock> findAvailableByItemCodes(Collection<ItemCode> itemCodes) {
+        if (itemCodes == null || itemCodes.isEmpty()) return List.of();
+        List<String> codes = itemCodes.stream().map(ItemCode::getValue).distinct().toList();
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(
+                    "SELECT ss.id, im.item_code, ss.item_id, ss.batch_id, l.location_code AS shelf_code, " +
+                    "ss.quantity, b.expiry_date, im.selling_price, ss.updated_at " +
+                    "FROM shelf_stock ss " +
+                    "JOIN item_master_file im ON ss.item_id = im.id " +
+                    "JOIN locations l ON ss.location_id = l.id " +
+                    "LEFT JOIN batches b ON ss.batch_id = b.id " +
+                    "WHERE im.item_code IN (:codes) AND ss.quantity > 0")
+                .setParameter("codes", codes)
+                .getResultList();
+            return mapToDomain(rows);
+        } finally { em.close(); }
+    }
+
     @Override
     public List<ShelfStock> findDisplayedItems() {
         // Not tracked separately in V4; return all with quantity > 0
@@ -287,6 +323,80 @@ public class JpaShelfStockRepository implements ShelfStockRepository {
         } finally { em.close(); }
     }
 
+    @Override
+    public boolean decrementShelfStock(Long itemId, Long batchId, String shelfCode, BigDecimal quantity) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            boolean applied = decrementShelfStock(em, itemId, batchId, shelfCode, quantity);
+            // A missing batches row leaves the shelf decremented but reports no change; undo it so a retry is safe
+            if (applied) em.getTransaction().commit();
+            else em.getTransaction().rollback();
+            return applied;
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw ex;
+        } finally { em.close(); }
+    }
+
+    // shelf_stock UPDATE only matches when enough stock remains; batches UPDATE runs off its RETURNING rows
+    private static final String GUARDED_DECREMENT_SQL =
+            "WITH dec AS (" +
+            "  UPDATE shelf_stock ss SET quantity = ss.quantity - ?, updated_at = CURRENT_TIMESTAMP " +
+            "  FROM locations l " +
+            "  WHERE l.id = ss.location_id AND l.location_code = ? AND ss.item_id = ? AND ss.batch_id = ? AND ss.quantity >= ? " +
+            "  RETURNING ss.batch_id" +
+            ") " +
+            "UPDATE batches b SET quantity_available = b.quantity_available - ? FROM dec WHERE b.id = dec.batch_id";
+
+    /**
+     * Guarded decrement inside the caller's transaction.
+     * One statement; the count is that of the batches UPDATE, so a shelf row decremented without its
+     * batch also reads as false and the caller must roll back.
+     * @return true if shelf and batch were decremented; false on a short allocation
+     */
+    static boolean decrementShelfStock(EntityManager em, Long itemId, Long batchId, String shelfCode, BigDecimal quantity) {
+        int updated = em.createNativeQuery(GUARDED_DECREMENT_SQL)
+                .setParameter(1, quantity)
+                .setParameter(2, shelfCode)
+                .setParameter(3, itemId)
+                .setParameter(4, batchId)
+                .setParameter(5, quantity)
+                .setParameter(6, quantity)
+                .executeUpdate();
+        return updated > 0;
+    }
+
+    /**
+     * Guarded decrement for every line with a shelf code, sent as one JDBC batch inside the caller's
+     * transaction (used by POS checkout so a large basket costs one round trip, not one per line).
+     * @return batch ids of lines that came up short; empty when every decrement applied
+     */
+    static List<Long> decrementShelfStock(EntityManager em, List<JpaPOSRepository.PosLine> lines) {
+        List<JpaPOSRepository.PosLine> moving = lines.stream().filter(l -> l.shelfCode() != null).toList();
+        if (moving.isEmpty()) return List.of();
+        return em.unwrap(Session.class).doReturningWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(GUARDED_DECREMENT_SQL)) {
+                for (JpaPOSRepository.PosLine line : moving) {
+                    BigDecimal qty = BigDecimal.valueOf(line.quantity());
+                    ps.setBigDecimal(1, qty);
+                    ps.setString(2, line.shelfCode());
+                    ps.setLong(3, line.itemId());
+                    ps.setLong(4, line.batchId());
+                    ps.setBigDecimal(5, qty);
+                    ps.setBigDecimal(6, qty);
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                List<Long> shortBatches = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) shortBatches.add(moving.get(i).batchId()); // SUCCESS_NO_INFO counts as applied
+                }
+                return shortBatches;
+            }
+        });
+    }
+
     @Override
     public void delete(Long id) {
         EntityManager em = emf.createEntityManager();
@@ -0,0 +1,120 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.application.ports.out.StockReportRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Stock report queries over item_master_file, batches and the pool tables using native SQL.
+ * Pool quantities are summed and item names resolved by the database, so each report is one query;
+ * rows are read through a cursor (see {@link CursorStreams}).
+ */
+public class JpaStockReportRepository implements StockReportRepository {
+
+    private static final String LEVELS_SQL =
+            "SELECT i.item_code, i.item_name, COALESCE(w.qty, 0), COALESCE(s.qty, 0) " +
+            "  FROM item_master_file i " +
+            "  LEFT JOIN (SELECT ws.item_id, SUM(ws.quantity - COALESCE(ws.reserved_quantity, 0)) AS qty " +
+            "               FROM warehouse_stock ws JOIN locations l ON l.id = ws.location_id " +
+            "              WHERE l.location_type = 'WAREHOUSE' GROUP BY ws.item_id) w ON w.item_id = i.id " +
+            "  LEFT JOIN (SELECT item_id, SUM(quantity) AS qty FROM shelf_stock GROUP BY item_id) s ON s.item_id = i.id ";
+
+    // Pool quantities per batch are grouped once and hash-joined, so the whole report is a single query.
+    // Web inventory is still kept in memory (not in web_inventory), so the web column is left to the caller.
+    private static final String BATCHES_SQL =
+            "SELECT b.id, i.item_code, i.item_name, b.manufacture_date, CAST(b.expiry_date AS DATE), " +
+            "       b.quantity_received, b.quantity_available, COALESCE(w.qty, 0), COALESCE(s.qty, 0) " +
+            "  FROM batches b " +
+            "  JOIN item_master_file i ON i.id = b.item_id " +
+            "  LEFT JOIN (SELECT batch_id, SUM(quantity - COALESCE(reserved_quantity, 0)) AS qty " +
+            "               FROM warehouse_stock GROUP BY batch_id) w ON w.batch_id = b.id " +
+            "  LEFT JOIN (SELECT batch_id, SUM(quantity) AS qty FROM shelf_stock GROUP BY batch_id) s ON s.batch_id = b.id ";
+
+    private final EntityManagerFactory emf;
+    private final int fetchSize;
+
+    public JpaStockReportRepository(EntityManagerFactory emf) {
+        this(emf, CursorStreams.DEFAULT_FETCH_SIZE);
+    }
+
+    public JpaStockReportRepository(EntityManagerFactory emf, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.emf = Objects.requireNonNull(emf);
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<ItemStockLevel> streamItemStockLevels(String term, boolean activeOnly) {
+        boolean filtered = term != null && !term.isBlank();
+        StringBuilder sql = new StringBuilder(LEVELS_SQL).append("WHERE 1=1 ");
+        if (activeOnly) sql.append("AND (i.status = 'ACTIVE' OR i.status IS NULL) ");
+        if (filtered) sql.append("AND (i.item_code ILIKE ?1 OR i.item_name ILIKE ?1) ");
+        sql.append("ORDER BY i.item_name, i.item_code");
+
+        return CursorStreams.open(emf, session -> {
+            NativeQuery<Object[]> query = session.createNativeQuery(sql.toString(), Object[].class);
+            if (filtered) query.setParameter(1, "%" + escapeLike(term.trim()) + "%");
+            return query.setFetchSize(fetchSize)
+                    .getResultStream()
+                    .map(r -> new ItemStockLevel((String) r[0], (String) r[1], toBigDecimal(r[2]), toBigDecimal(r[3])));
+        });
+    }
+
+    @Override
+    public Stream<BatchStockRow> streamBatchStock(String term, LocalDate expiryBefore, LocalDate expiryAfter) {
+        // Ordinal parameters must be contiguous, so only the filters in use are numbered
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(BATCHES_SQL).append("WHERE 1=1 ");
+        if (term != null && !term.isBlank()) {
+            params.add("%" + escapeLike(term.trim()) + "%");
+            sql.append("AND (i.item_code ILIKE ?").append(params.size()).append(" OR i.item_name ILIKE ?").append(params.size()).append(") ");
+        }
+        if (expiryBefore != null) {
+            params.add(expiryBefore.atStartOfDay());
+            sql.append("AND (b.expiry_date IS NULL OR b.expiry_date < ?").append(params.size()).append(") ");
+        }
+        if (expiryAfter != null) {
+            params.add(expiryAfter.plusDays(1).atStartOfDay());
+            sql.append("AND (b.expiry_date IS NULL OR b.expiry_date >= ?").append(params.size()).append(") ");
+        }
+        sql.append("ORDER BY b.received_date DESC, b.id DESC");
+
+        return CursorStreams.open(emf, session -> {
+            NativeQuery<Object[]> query = session.createNativeQuery(sql.toString(), Object[].class);
+            for (int i = 0; i < params.size(); i++) query.setParameter(i + 1, params.get(i));
+            return query.setFetchSize(fetchSize)
+                    .getResultStream()
+                    .map(r -> new BatchStockRow(((Number) r[0]).longValue(), (String) r[1], (String) r[2],
+                            toLocalDate(r[3]), toLocalDate(r[4]), toBigDecimal(r[5]), toBigDecimal(r[6]),
+                            toBigDecimal(r[7]), toBigDecimal(r[8]), BigDecimal.ZERO));
+        });
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static LocalDate toLocalDate(Object v) {
+        if (v == null) return null;
+        if (v instanceof LocalDate d) return d;
+        if (v instanceof java.sql.Date d) return d.toLocalDate();
+        if (v instanceof java.sql.Timestamp ts) return ts.toLocalDateTime().toLocalDate();
+        if (v instanceof java.time.LocalDateTime dt) return dt.toLocalDate();
+        return LocalDate.parse(v.toString().substring(0, 10));
+    }
+
+    private static BigDecimal toBigDecimal(Object v) {
+        if (v == null) return BigDecimal.ZERO;
+        if (v instanceof BigDecimal bd) return bd;
+        return new BigDecimal(v.toString());
+    }
+}
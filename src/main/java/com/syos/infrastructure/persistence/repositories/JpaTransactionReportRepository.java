@@ -1,17 +1,20 @@
 package com.syos.infrastructure.persistence.repositories;
 
 import com.syos.application.ports.out.TransactionReportRepository;
+import com.syos.infrastructure.persistence.entities.TransactionEntity;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 
 /**
  * JPA implementation for transaction reporting queries using lightweight projections.
+ * Whole-day windows are read from the daily_item_sales rollup (V20) maintained by JpaPOSRepository.
+ * Other windows are one GROUP BY each, served by the V21 indexes on transactions(transaction_date, transaction_type)
+ * and transaction_items(item_id, transaction_id).
  */
 public class JpaTransactionReportRepository implements TransactionReportRepository {
     private final EntityManagerFactory emf;
@@ -23,13 +26,13 @@ public class JpaTransactionReportRepository implements TransactionReportReposito
     @Override
     public Object[] findDailySummary(LocalDate date) {
         LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(LocalTime.MAX).withNano(0);
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
         EntityManager em = emf.createEntityManager();
         try {
             Object[] row = (Object[]) em.createQuery(
                 "SELECT COUNT(t), COALESCE(SUM(t.totalAmount), 0), COALESCE(SUM(t.discountAmount), 0) " +
                 "FROM TransactionEntity t " +
-                "WHERE t.transactionDate >= :start AND t.transactionDate <= :end AND t.status = com.syos.infrastructure.persistence.entities.TransactionEntity$TransactionStatus.COMPLETED"
+                "WHERE t.transactionDate >= :start AND t.transactionDate < :end AND t.status = com.syos.infrastructure.persistence.entities.TransactionEntity$TransactionStatus.COMPLETED"
             )
             .setParameter("start", start)
             .setParameter("end", end)
@@ -45,8 +48,45 @@ public class JpaTransactionReportRepository implements TransactionReportReposito
 
     @Override
     public List<Object[]> findDailyItemAggregates(LocalDate date) {
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(LocalTime.MAX).withNano(0);
+        return findItemAggregates(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), null);
+    }
+
+    @Override
+    public List<Object[]> findItemAggregates(LocalDateTime startInclusive, LocalDateTime endExclusive, String channel) {
+        return itemAggregates(startInclusive, endExclusive, channel, 0);
+    }
+
+    @Override
+    public List<Object[]> findTopItems(LocalDateTime startInclusive, LocalDateTime endExclusive, int limit) {
+        if (limit <= 0) return List.of();
+        return itemAggregates(startInclusive, endExclusive, null, limit);
+    }
+
+    @Override
+    public List<Object[]> findHourlyHistogram(LocalDateTime startInclusive, LocalDateTime endExclusive) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(
+                "SELECT CAST(EXTRACT(HOUR FROM transaction_date) AS INTEGER) AS hour, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                "FROM transactions " +
+                "WHERE transaction_date >= ? AND transaction_date < ? AND status = 'COMPLETED' " +
+                "GROUP BY 1 ORDER BY 1"
+            )
+            .setParameter(1, startInclusive)
+            .setParameter(2, endExclusive)
+            .getResultList();
+            for (Object[] r : rows) {
+                r[0] = ((Number) r[0]).intValue();
+                r[1] = ((Number) r[1]).longValue();
+            }
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
+
+    private List<Object[]> itemAggregates(LocalDateTime start, LocalDateTime end, String channel, int limit) {
         EntityManager em = emf.createEntityManager();
         try {
             @SuppressWarnings("unchecked")
@@ -55,13 +95,18 @@ public class JpaTransactionReportRepository implements TransactionReportReposito
                 "FROM TransactionItemEntity it " +
                 "JOIN it.transaction t " +
                 "JOIN it.item i " +
-                "WHERE t.transactionDate >= :start AND t.transactionDate <= :end " +
+                "WHERE t.transactionDate >= :start AND t.transactionDate < :end " +
                 "AND t.status = com.syos.infrastructure.persistence.entities.TransactionEntity$TransactionStatus.COMPLETED " +
+                (channel != null ? "AND t.transactionType = :channel " : "") +
                 "GROUP BY i.itemCode, i.itemName " +
-                "ORDER BY SUM(it.quantity) DESC"
+                "ORDER BY SUM(it.quantity) DESC, i.itemCode"
             );
             q.setParameter("start", start);
             q.setParameter("end", end);
+            if (channel != null) {
+                q.setParameter("channel", TransactionEntity.TransactionType.valueOf(channel.trim().toUpperCase()));
+            }
+            if (limit > 0) q.setMaxResults(limit);
             return q.getResultList();
         } finally {
             em.close();
@@ -88,4 +133,50 @@ public class JpaTransactionReportRepository implements TransactionReportReposito
             em.close();
         }
     }
+
+    @Override
+    public List<Object[]> findItemSalesBetween(LocalDate startInclusive, LocalDate endInclusive, String channel) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            jakarta.persistence.Query q = em.createNativeQuery(
+                "SELECT i.item_code, i.item_name, SUM(s.quantity), SUM(s.revenue) " +
+                "FROM daily_item_sales s JOIN item_master_file i ON i.id = s.item_id " +
+                "WHERE s.sale_date BETWEEN ? AND ?" + (channel != null ? " AND s.channel = ?" : "") + " " +
+                "GROUP BY i.item_code, i.item_name " +
+                "ORDER BY SUM(s.quantity) DESC, i.item_code"
+            );
+            q.setParameter(1, startInclusive);
+            q.setParameter(2, endInclusive);
+            if (channel != null) q.setParameter(3, channel);
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = q.getResultList();
+            for (Object[] r : rows) {
+                r[2] = ((Number) r[2]).longValue();
+            }
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public List<Object[]> findChannelSalesBetween(LocalDate startInclusive, LocalDate endInclusive) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(
+                "SELECT channel, SUM(quantity), SUM(revenue) FROM daily_item_sales " +
+                "WHERE sale_date BETWEEN ? AND ? GROUP BY channel ORDER BY channel"
+            )
+            .setParameter(1, startInclusive)
+            .setParameter(2, endInclusive)
+            .getResultList();
+            for (Object[] r : rows) {
+                r[1] = ((Number) r[1]).longValue();
+            }
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package com.syos.infrastructure.persistence.repositories;
 
 import com.syos.application.ports.out.WarehouseStockRepository;
 import com.syos.domain.entities.WarehouseStock;
+import com.syos.domain.events.StockReceivedEvent;
 import com.syos.domain.valueobjects.ItemCode;
 import com.syos.infrastructure.persistence.entities.WarehouseStockEntity;
 import jakarta.persistence.EntityManager;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 /**
  * JPA implementation of WarehouseStockRepository
  * Handles warehouse stock operations with proper domain-infrastructure mapping
+ * New stock queues a StockReceivedEvent in the event outbox within the insert's transaction
  */
 public class JpaWarehouseStockRepository implements WarehouseStockRepository {
     private static final Logger logger = LoggerFactory.getLogger(JpaWarehouseStockRepository.class);
@@ -50,6 +52,7 @@ public class JpaWarehouseStockRepository implements WarehouseStockRepository {
             if (warehouseStock.getId() == null) {
                 // Use native insert to ensure all required columns (quantity, location_id, etc.) are set consistently
                 Long newId = nativeInsertWarehouseStock(em, entity);
+                JpaEventOutboxRepository.append(em, receivedEvent(warehouseStock));
                 saved = em.find(WarehouseStockEntity.class, newId);
                 logger.debug("Saved new warehouse stock (native) for item code: {}", warehouseStock.getItemCode().getValue());
             } else {
@@ -69,6 +72,7 @@ public class JpaWarehouseStockRepository implements WarehouseStockRepository {
                     logger.warn("Falling back to native INSERT for warehouse_stock due to location trigger error (itemCode={})", warehouseStock.getItemCode().getValue());
                     em.getTransaction().begin();
                     Long newId = nativeInsertWarehouseStock(em, entity);
+                    JpaEventOutboxRepository.append(em, receivedEvent(warehouseStock));
                     em.getTransaction().commit();
                     WarehouseStockEntity reloaded = em.find(WarehouseStockEntity.class, newId);
                     return toDomain(reloaded);
@@ -86,6 +90,10 @@ public class JpaWarehouseStockRepository implements WarehouseStockRepository {
         }
     }
 
+    private static StockReceivedEvent receivedEvent(WarehouseStock warehouseStock) {
+        return new StockReceivedEvent(warehouseStock.getItemId(), warehouseStock.getBatchId(), "WAREHOUSE", "Stock received");
+    }
+
     @Override
     public Optional<WarehouseStock> findById(Long id) {
         EntityManager em = emf.createEntityManager();
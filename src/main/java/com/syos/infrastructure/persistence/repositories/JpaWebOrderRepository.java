@@ -0,0 +1,109 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.application.ports.out.WebOrderRepository;
+import com.syos.infrastructure.persistence.entities.ItemMasterFileEntity;
+import com.syos.infrastructure.persistence.entities.TransactionEntity;
+import com.syos.infrastructure.persistence.entities.TransactionItemEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * WebOrderRepository over the transactions / transaction_items tables: a paid web order is a WEB
+ * transaction (card payment, no cashier) whose order number is the transaction id.
+ * The order is added to the daily_item_sales rollup (V20) in the same database transaction, like a POS sale.
+ */
+public class JpaWebOrderRepository implements WebOrderRepository {
+    private final EntityManagerFactory emf;
+
+    public JpaWebOrderRepository(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public long save(long userId, LocalDateTime placedAt, List<OrderLine> lines, BigDecimal total) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+
+            TransactionEntity tx = new TransactionEntity(userId, TransactionEntity.TransactionType.WEB, total,
+                    TransactionEntity.PaymentMethod.CARD);
+            tx.setSubtotalAmount(total);
+            tx.setDiscountAmount(BigDecimal.ZERO);
+            tx.setTransactionDate(placedAt);
+            // Web orders have no bill sequence; the number only has to be unique (VARCHAR(50))
+            tx.setTransactionNumber("WEB-" + UUID.randomUUID());
+            em.persist(tx);
+
+            em.unwrap(Session.class).setJdbcBatchSize(Math.max(lines.size(), 1));
+            List<JpaPOSRepository.PosLine> sold = new ArrayList<>(lines.size());
+            for (OrderLine line : lines) {
+                TransactionItemEntity it = new TransactionItemEntity();
+                it.setTransaction(tx);
+                it.setItem(em.getReference(ItemMasterFileEntity.class, line.itemId()));
+                it.setQuantity((int) Math.round(line.quantity().doubleValue()));
+                it.setUnitPrice(line.unitPrice());
+                it.setSubtotal(line.lineTotal());
+                em.persist(it);
+                sold.add(new JpaPOSRepository.PosLine(line.itemId(), null, line.quantity().doubleValue(),
+                        line.unitPrice(), null));
+            }
+
+            JpaPOSRepository.addToDailyRollup(em, tx, sold);
+
+            em.getTransaction().commit();
+            return tx.getTransactionId();
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw ex;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public List<WebOrder> findByUser(long userId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Page on ids first: a fetch join combined with setMaxResults would be paged in memory
+            List<Long> ids = em.createQuery(
+                            "SELECT t.transactionId FROM TransactionEntity t " +
+                            "WHERE t.userId = :userId AND t.transactionType = :type " +
+                            "ORDER BY t.transactionDate DESC, t.transactionId DESC", Long.class)
+                    .setParameter("userId", userId)
+                    .setParameter("type", TransactionEntity.TransactionType.WEB)
+                    .setMaxResults(HISTORY_LIMIT)
+                    .getResultList();
+            if (ids.isEmpty()) return List.of();
+
+            List<TransactionEntity> txs = em.createQuery(
+                            "SELECT DISTINCT t FROM TransactionEntity t " +
+                            "LEFT JOIN FETCH t.items i LEFT JOIN FETCH i.item " +
+                            "WHERE t.transactionId IN :ids " +
+                            "ORDER BY t.transactionDate, t.transactionId", TransactionEntity.class)
+                    .setParameter("ids", ids)
+                    .getResultList();
+
+            List<WebOrder> orders = new ArrayList<>(txs.size());
+            for (TransactionEntity tx : txs) {
+                List<OrderLine> lines = tx.getItems().stream()
+                        .sorted(Comparator.comparing(TransactionItemEntity::getTransactionItemId))
+                        .map(it -> new OrderLine(it.getItem().getId(), it.getItem().getItemName(),
+                                BigDecimal.valueOf(it.getQuantity()), it.getUnitPrice()))
+                        .toList();
+                orders.add(new WebOrder(tx.getTransactionId(), tx.getUserId(), tx.getTransactionDate(),
+                        lines, tx.getTotalAmount()));
+            }
+            return orders;
+        } finally {
+            em.close();
+        }
+    }
+}
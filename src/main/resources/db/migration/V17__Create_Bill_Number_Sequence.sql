@@ -0,0 +1,26 @@
+-- =============================================================================
+-- V17__Create_Bill_Number_Sequence.sql
+-- Purpose: Allocate bill serial numbers from a sequence instead of scanning bills
+--          with ORDER BY CAST(bill_serial_number AS BIGINT) DESC on every checkout.
+-- Notes:
+--   - INCREMENT BY is the block size: each nextval() reserves a block of numbers
+--     that one JVM hands out from memory (see BillNumberAllocator).
+--   - Numbers of a block not used before shutdown become gaps; they are audited
+--     via JpaBillNumberRepository.findGaps and the audit log.
+-- =============================================================================
+
+BEGIN;
+
+DO $$
+DECLARE
+    start_at BIGINT;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_class WHERE relkind = 'S' AND relname = 'bill_number_seq') THEN
+        SELECT COALESCE(MAX(CASE WHEN bill_serial_number ~ '^[0-9]+$' THEN CAST(bill_serial_number AS BIGINT) END), 0) + 1
+          INTO start_at
+          FROM bills;
+        EXECUTE format('CREATE SEQUENCE bill_number_seq START WITH %s INCREMENT BY 100 MINVALUE 1 NO CYCLE', start_at);
+    END IF;
+END $$;
+
+COMMIT;
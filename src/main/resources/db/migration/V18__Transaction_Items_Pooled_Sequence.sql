@@ -0,0 +1,31 @@
+-- =============================================================================
+-- V18__Transaction_Items_Pooled_Sequence.sql
+-- Purpose: Let Hibernate pre-allocate transaction_items ids so POS checkout can
+--          send its item inserts as one JDBC batch (IDENTITY disables batching).
+-- Notes:
+--   - INCREMENT BY must equal allocationSize on TransactionItemEntity (pooled
+--     optimizer: one nextval() covers the next 50 ids).
+--   - V13 renamed the column to transaction_item_id; the BIGSERIAL sequence
+--     keeps its original name, so it is looked up rather than assumed.
+--   - The column DEFAULT still works for plain SQL inserts (ids just skip ahead).
+-- =============================================================================
+
+BEGIN;
+
+DO $$
+DECLARE
+    seq TEXT := pg_get_serial_sequence('transaction_items', 'transaction_item_id');
+BEGIN
+    IF seq IS NULL THEN
+        CREATE SEQUENCE IF NOT EXISTS transaction_items_id_seq OWNED BY transaction_items.transaction_item_id;
+        ALTER TABLE transaction_items ALTER COLUMN transaction_item_id SET DEFAULT nextval('transaction_items_id_seq');
+    ELSIF seq NOT IN ('transaction_items_id_seq', 'public.transaction_items_id_seq') THEN
+        EXECUTE format('ALTER SEQUENCE %s RENAME TO transaction_items_id_seq', seq);
+    END IF;
+
+    ALTER SEQUENCE transaction_items_id_seq INCREMENT BY 50;
+    PERFORM setval('transaction_items_id_seq',
+                   GREATEST((SELECT COALESCE(MAX(transaction_item_id), 0) FROM transaction_items), 1));
+END $$;
+
+COMMIT;
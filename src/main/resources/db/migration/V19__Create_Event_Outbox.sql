@@ -0,0 +1,29 @@
+-- =============================================================================
+-- V19__Create_Event_Outbox.sql
+-- Purpose: Transactional outbox for domain events. Stock repositories insert a
+--          row in the same transaction as the stock change; OutboxRelay reads
+--          rows back in batches and hands them to the EventBus.
+-- Notes:
+--   - Rows are claimed with FOR UPDATE SKIP LOCKED, so several relays (or JVMs)
+--     never deliver the same row concurrently.
+--   - A row is deleted in the transaction that delivered it; a crash before
+--     that commit re-delivers it (at-least-once).
+--   - item_id is the EventBus partition key (events of one item stay ordered).
+-- =============================================================================
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS event_outbox (
+    id             BIGSERIAL PRIMARY KEY,
+    event_type     VARCHAR(60)  NOT NULL,
+    item_id        BIGINT       NOT NULL,
+    batch_id       BIGINT,
+    from_location  VARCHAR(50),
+    to_location    VARCHAR(50),
+    reason         VARCHAR(200),
+    created_at     TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE event_outbox IS 'Domain events awaiting delivery to the in-process EventBus';
+
+COMMIT;
@@ -0,0 +1,36 @@
+-- =============================================================================
+-- V20__Create_Daily_Item_Sales_Rollup.sql
+-- Purpose: Per-day, per-item, per-channel sales totals so window reports
+--          (turnover, top sellers, channel mix) read a few rows per item-day
+--          instead of grouping every transaction_items row of the window.
+-- Notes:
+--   - JpaPOSRepository upserts the checkout's lines in the same transaction
+--     as the sale (ON CONFLICT ... DO UPDATE adds to the existing row).
+--   - quantity/revenue mirror the base-table report: SUM(quantity) and
+--     SUM(subtotal) over COMPLETED transactions.
+--   - Existing sales are back-filled once below.
+-- =============================================================================
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS daily_item_sales (
+    sale_date   DATE          NOT NULL,
+    item_id     BIGINT        NOT NULL REFERENCES item_master_file(id),
+    channel     VARCHAR(20)   NOT NULL,
+    quantity    BIGINT        NOT NULL DEFAULT 0,
+    revenue     NUMERIC(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (sale_date, item_id, channel)
+);
+
+COMMENT ON TABLE daily_item_sales IS 'Sales rollup maintained at checkout; one row per day, item and channel';
+
+INSERT INTO daily_item_sales (sale_date, item_id, channel, quantity, revenue)
+SELECT CAST(t.transaction_date AS DATE), ti.item_id, t.transaction_type,
+       SUM(ti.quantity), COALESCE(SUM(ti.subtotal), 0)
+  FROM transaction_items ti
+  JOIN transactions t ON t.transaction_id = ti.transaction_id
+ WHERE t.status = 'COMPLETED'
+ GROUP BY CAST(t.transaction_date AS DATE), ti.item_id, t.transaction_type
+ON CONFLICT (sale_date, item_id, channel) DO NOTHING;
+
+COMMIT;
@@ -0,0 +1,24 @@
+-- =============================================================================
+-- V21__Add_Report_Composite_Indexes.sql
+-- Purpose: Let the windowed report queries (TransactionReportRepository:
+--          findItemAggregates, findTopItems, findHourlyHistogram,
+--          findChannelSummary) answer with one index range scan + GROUP BY.
+-- Notes:
+--   - transactions(transaction_date, transaction_type): date range first, the
+--     channel filter/grouping is then read from the index.
+--   - transaction_items(item_id, transaction_id): item-led joins from a
+--     window's transactions to their lines without touching the heap for ids.
+-- =============================================================================
+
+BEGIN;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_date_type
+    ON transactions (transaction_date, transaction_type);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_items_item_tx
+    ON transaction_items (item_id, transaction_id);
+
+ANALYZE transactions;
+ANALYZE transaction_items;
+
+COMMIT;
@@ -0,0 +1,56 @@
+package com.syos.adapter.in.cli.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsolePagerTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private ConsoleIO console(String input) {
+        return new StreamConsoleIO(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+    }
+
+    private String output() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void printsEveryPageWhenTheUserKeepsPressingEnter() {
+        ConsolePager pager = new ConsolePager(console("\n\n"), 2);
+
+        int printed = pager.print("HEADER", Stream.of("a", "b", "c", "d", "e"));
+
+        assertEquals(5, printed);
+        String text = output();
+        assertEquals(3, text.split("HEADER", -1).length - 1, "header repeated on each page");
+        assertEquals(2, text.split("next page", -1).length - 1);
+        assertTrue(text.contains("e"));
+    }
+
+    @Test
+    void stopsPullingRowsWhenTheUserQuits() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<String> rows = IntStream.range(0, 1_000).peek(i -> pulled.incrementAndGet()).mapToObj(i -> "row" + i);
+
+        int printed = new ConsolePager(console("q\n"), 10).print("H", rows);
+
+        assertEquals(10, printed);
+        assertTrue(pulled.get() <= 11, "only the first page (and one look-ahead) is read");
+        assertFalse(output().contains("row10"));
+    }
+
+    @Test
+    void printsNothingForAnEmptyReport() {
+        assertEquals(0, new ConsolePager(console("")).print("HEADER", Stream.empty()));
+        assertEquals("", output());
+    }
+}
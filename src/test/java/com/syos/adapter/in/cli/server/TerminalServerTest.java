@@ -0,0 +1,140 @@
+package com.syos.adapter.in.cli.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminalServerTest {
+
+    private TerminalServer server;
+    private Thread acceptor;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (server != null) server.close();
+        if (acceptor != null) acceptor.join(5_000);
+    }
+
+    private SocketAddress start(SocketAddress address, int maxTerminals, TerminalServer.TerminalHandler handler) throws IOException {
+        server = new TerminalServer(address, maxTerminals, handler);
+        server.bind();
+        acceptor = Thread.ofPlatform().daemon().start(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return server.getLocalAddress();
+    }
+
+    /** A connected test terminal. */
+    private record Client(SocketChannel channel, BufferedReader in, PrintWriter out) implements AutoCloseable {
+        static Client connect(SocketAddress address) throws IOException {
+            SocketChannel ch = SocketChannel.open(address);
+            return new Client(ch,
+                    new BufferedReader(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.UTF_8)),
+                    new PrintWriter(Channels.newOutputStream(ch), true, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    @Test
+    void eachConnectionGetsItsOwnConsoleAndThread() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch bothConnected = new CountDownLatch(2);
+        SocketAddress address = start(new InetSocketAddress("127.0.0.1", 0), 4, terminal -> {
+            threads.add(Thread.currentThread().toString());
+            assertTrue(Thread.currentThread().isVirtual());
+            bothConnected.countDown();
+            String name = terminal.getConsole().readLine("name? ");
+            terminal.getConsole().println(terminal.getTerminalId() + " hello " + name);
+        });
+
+        try (Client a = Client.connect(address); Client b = Client.connect(address)) {
+            assertTrue(bothConnected.await(5, TimeUnit.SECONDS), "both terminals served at once");
+            b.out().println("bob");
+            a.out().println("alice");
+            String replyA = a.in().readLine();
+            String replyB = b.in().readLine();
+
+            assertTrue(replyA.startsWith("name? terminal-") && replyA.endsWith(" hello alice"), replyA);
+            assertTrue(replyB.endsWith(" hello bob"), replyB);
+            assertNotEquals(replyA.substring(0, replyA.indexOf(' ', 6)), replyB.substring(0, replyB.indexOf(' ', 6)));
+        }
+        assertEquals(2, threads.size());
+    }
+
+    @Test
+    void connectionsPastTheLimitAreRefused() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SocketAddress address = start(new InetSocketAddress("127.0.0.1", 0), 1, terminal -> {
+            terminal.getConsole().println("ready");
+            terminal.getConsole().readLine();
+            release.await();
+        });
+
+        try (Client first = Client.connect(address)) {
+            assertEquals("ready", first.in().readLine());
+            try (Client second = Client.connect(address)) {
+                assertTrue(second.in().readLine().startsWith("ERROR: All 1 terminal slots are in use"));
+                assertNull(second.in().readLine());
+            }
+            release.countDown();
+        }
+    }
+
+    @Test
+    void servesOverUnixDomainSocketAndFreesTheSlotOnDisconnect(@TempDir Path dir) throws Exception {
+        CountDownLatch gone = new CountDownLatch(1);
+        SocketAddress address = start(UnixDomainSocketAddress.of(dir.resolve("syos.sock")), 1, terminal -> {
+            try {
+                terminal.getConsole().println("welcome");
+                terminal.getConsole().readLine();
+            } finally {
+                gone.countDown();
+            }
+        });
+
+        try (Client c = Client.connect(address)) {
+            assertEquals("welcome", c.in().readLine());
+        }
+        assertTrue(gone.await(5, TimeUnit.SECONDS), "handler ends when the terminal hangs up");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.activeTerminals() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(0, server.activeTerminals());
+        try (Client again = Client.connect(address)) {
+            assertEquals("welcome", again.in().readLine());
+        }
+    }
+
+    @Test
+    void parsesAddresses() {
+        assertEquals(new InetSocketAddress("127.0.0.1", 7070), TerminalServer.parseAddress("tcp://127.0.0.1:7070"));
+        assertEquals(new InetSocketAddress("127.0.0.1", 9000), TerminalServer.parseAddress(":9000"));
+        assertEquals(UnixDomainSocketAddress.of("/tmp/syos.sock"), TerminalServer.parseAddress("unix:/tmp/syos.sock"));
+        assertThrows(IllegalArgumentException.class, () -> TerminalServer.parseAddress("localhost"));
+    }
+}
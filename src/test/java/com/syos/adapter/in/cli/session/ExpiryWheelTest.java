@@ -0,0 +1,41 @@
+package com.syos.adapter.in.cli.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiryWheelTest {
+
+    @Test
+    void keysFallDueOnlyAfterTheirDeadline() {
+        ExpiryWheel wheel = new ExpiryWheel(1_000, 8, 0);
+        wheel.schedule("a", 2_500);
+        wheel.schedule("b", 3_000);
+
+        assertTrue(wheel.advance(2_999).isEmpty());
+        assertEquals(List.of("a", "b"), wheel.advance(3_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void laterRoundsShareASlotWithoutFiringEarly() {
+        ExpiryWheel wheel = new ExpiryWheel(1_000, 8, 0);
+        wheel.schedule("near", 2_000);
+        wheel.schedule("far", 10_000); // same slot, one round later
+
+        assertEquals(List.of("near"), wheel.advance(2_000));
+        assertTrue(wheel.advance(9_000).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(10_000));
+    }
+
+    @Test
+    void longGapVisitsEachSlotOnce() {
+        ExpiryWheel wheel = new ExpiryWheel(1_000, 8, 0);
+        for (int i = 1; i <= 20; i++) wheel.schedule("k" + i, i * 1_000L);
+
+        assertEquals(20, wheel.advance(100_000).size());
+        assertEquals(0, wheel.size());
+    }
+}
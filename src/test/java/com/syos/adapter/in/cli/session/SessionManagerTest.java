@@ -0,0 +1,137 @@
+package com.syos.adapter.in.cli.session;
+
+import com.syos.domain.entities.User;
+import com.syos.domain.valueobjects.Email;
+import com.syos.domain.valueobjects.Name;
+import com.syos.domain.valueobjects.UserID;
+import com.syos.domain.valueobjects.Username;
+import com.syos.shared.enums.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    static class MutableClock extends Clock {
+        long millis = 1_000_000L;
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis); }
+        @Override public long millis() { return millis; }
+        void advance(Duration d) { millis += d.toMillis(); }
+    }
+
+    MutableClock clock;
+    SessionManager sessions;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock();
+        sessions = new SessionManager(clock, false);
+        sessions.configure(Duration.ofMinutes(30), Duration.ofHours(12), 2);
+    }
+
+    private static UserSession session(String username, UserRole role) {
+        return new UserSession(User.createWithRole(Username.of(username), "password123", Name.of("Test User"),
+                Email.of(username + "@syos.com"), role, UserID.of(1L)));
+    }
+
+    /** One terminal: a thread of its own, as TerminalServer gives each connection. */
+    static final class Terminal implements AutoCloseable {
+        private final ExecutorService thread = Executors.newSingleThreadExecutor();
+
+        <T> T call(Callable<T> work) throws Exception {
+            return thread.submit(work).get();
+        }
+
+        @Override
+        public void close() {
+            thread.shutdownNow();
+        }
+    }
+
+    private Terminal loggedIn(String username, UserRole role) throws Exception {
+        Terminal terminal = new Terminal();
+        terminal.call(() -> {
+            sessions.createSession(session(username, role));
+            return null;
+        });
+        return terminal;
+    }
+
+    @Test
+    void eachTerminalSeesItsOwnSession() throws Exception {
+        try (Terminal admin = loggedIn("admin1", UserRole.ADMIN);
+             Terminal customer = loggedIn("cust1", UserRole.CUSTOMER)) {
+            assertTrue(admin.call(sessions::isAdmin));
+            assertTrue(customer.call(() -> sessions.isCustomer() && !sessions.isAdmin()));
+            assertEquals("admin1", admin.call(() -> sessions.getCurrentSession().getUsername()));
+            assertFalse(sessions.isLoggedIn(), "this thread never logged in");
+            assertEquals(2, sessions.activeSessionCount());
+        }
+    }
+
+    @Test
+    void idleSessionExpiresButActivityKeepsItAlive() throws Exception {
+        try (Terminal idle = loggedIn("emp1", UserRole.EMPLOYEE);
+             Terminal busy = loggedIn("emp2", UserRole.EMPLOYEE)) {
+            clock.advance(Duration.ofMinutes(20));
+            assertTrue(busy.call(sessions::isEmployee));
+            clock.advance(Duration.ofMinutes(15));
+
+            assertEquals(1, sessions.sweep());
+            assertFalse(idle.call(sessions::isLoggedIn));
+            assertTrue(busy.call(sessions::isLoggedIn));
+        }
+    }
+
+    @Test
+    void absoluteTimeoutEndsEvenAnActiveSession() throws Exception {
+        try (Terminal terminal = loggedIn("emp1", UserRole.EMPLOYEE)) {
+            for (int i = 0; i < 25; i++) {
+                clock.advance(Duration.ofMinutes(29));
+                sessions.sweep();
+                terminal.call(sessions::getCurrentSession);
+            }
+            assertEquals(0, sessions.activeSessionCount());
+        }
+    }
+
+    @Test
+    void loginPastTheCapEndsTheOldestSession() throws Exception {
+        try (Terminal first = loggedIn("cust1", UserRole.CUSTOMER);
+             Terminal second = loggedIn("cust1", UserRole.CUSTOMER);
+             Terminal third = loggedIn("cust1", UserRole.CUSTOMER)) {
+            assertEquals(2, sessions.sessionCountFor("cust1"));
+            assertNull(first.call(sessions::getCurrentUserId));
+            assertFalse(first.call(sessions::isLoggedIn));
+            assertTrue(second.call(sessions::isLoggedIn));
+            assertTrue(third.call(sessions::isLoggedIn));
+        }
+    }
+
+    @Test
+    void createSessionReplacesTheThreadsSessionAndClearLogsOut() {
+        sessions.createSession(session("emp1", UserRole.EMPLOYEE));
+        sessions.createSession(session("admin1", UserRole.ADMIN));
+
+        assertTrue(sessions.isAdmin());
+        assertEquals(1, sessions.activeSessionCount());
+
+        sessions.clearSession();
+        assertFalse(sessions.isLoggedIn());
+        assertEquals(0, sessions.activeSessionCount());
+        assertEquals(0, sessions.sessionCountFor("admin1"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BillNumberRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillNumberAllocatorTest {
+
+    /** Mimics bill_number_seq with INCREMENT BY blockSize. */
+    static class FakeSequence implements BillNumberRepository {
+        final AtomicLong seq;
+        final int blockSize;
+        final AtomicInteger reservations = new AtomicInteger();
+
+        FakeSequence(long start, int blockSize) {
+            this.seq = new AtomicLong(start);
+            this.blockSize = blockSize;
+        }
+
+        @Override
+        public BillNumberBlock reserveBlock() {
+            reservations.incrementAndGet();
+            return new BillNumberBlock(seq.getAndAdd(blockSize), blockSize);
+        }
+
+        @Override
+        public List<BillNumberGap> findGaps(long fromInclusive, long toInclusive) {
+            return List.of(new BillNumberGap(5, 7));
+        }
+    }
+
+    @Test
+    void handsOutSequentialNumbersAndReservesOneBlockPerBlockSize() {
+        FakeSequence seq = new FakeSequence(1, 100);
+        BillNumberAllocator allocator = new BillNumberAllocator(seq);
+
+        for (long expected = 1; expected <= 250; expected++) {
+            assertEquals(expected, allocator.next());
+        }
+        assertEquals(3, seq.reservations.get());
+    }
+
+    @Test
+    void concurrentCallersNeverReceiveTheSameNumber() throws Exception {
+        FakeSequence seq = new FakeSequence(1, 10);
+        BillNumberAllocator allocator = new BillNumberAllocator(seq);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        int threads = 8, perThread = 500;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) seen.add(allocator.next());
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, seen.size());
+        // Every reserved block was fully used, so numbering has no gaps
+        assertEquals(threads * perThread, seq.reservations.get() * 10L);
+    }
+
+    @Test
+    void auditGapsDelegatesToRepository() {
+        BillNumberAllocator allocator = new BillNumberAllocator(new FakeSequence(1, 100));
+        List<BillNumberRepository.BillNumberGap> gaps = allocator.auditGaps(1, 100);
+        assertEquals(1, gaps.size());
+        assertEquals(3, gaps.get(0).count());
+    }
+}
@@ -0,0 +1,86 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.domain.entities.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryHierarchyTest {
+
+    CategoryRepository categories;
+    CategoryHierarchy hierarchy;
+
+    // Beverages > Soft Drinks > Cola, Beverages > Juice; Snacks; Frozen (inactive parent) > Ice Cream
+    @BeforeEach
+    void setup() {
+        categories = mock(CategoryRepository.class);
+        when(categories.findAllActive()).thenReturn(List.of(
+                category(1L, null, "Beverages", 1),
+                category(2L, null, "Snacks", 2),
+                category(10L, 1L, "Soft Drinks", 1),
+                category(11L, 1L, "Juice", 2),
+                category(100L, 10L, "Cola", 1),
+                category(30L, 3L, "Ice Cream", 1)));
+        hierarchy = new CategoryHierarchy(categories);
+    }
+
+    private static List<String> names(List<Category> found) {
+        return found.stream().map(Category::getCategoryName).toList();
+    }
+
+    @Test
+    void readsTheTreeOnceAndServesNavigationFromMemory() {
+        assertEquals(List.of("Beverages", "Snacks"), names(hierarchy.roots()));
+        assertEquals(List.of("Soft Drinks", "Juice"), names(hierarchy.children(1L)));
+        assertEquals(List.of("Ice Cream"), names(hierarchy.children(3L)));
+        assertTrue(hierarchy.children(2L).isEmpty());
+        assertEquals("Cola", hierarchy.find(100L).orElseThrow().getCategoryName());
+        assertTrue(hierarchy.find(3L).isEmpty());
+        verify(categories, times(1)).findAllActive();
+        verifyNoMoreInteractions(categories);
+    }
+
+    @Test
+    void answersDescendantChecksFromSubtreeRanges() {
+        assertTrue(hierarchy.isDescendantOrSelf(100L, 1L));
+        assertTrue(hierarchy.isDescendantOrSelf(100L, 10L));
+        assertTrue(hierarchy.isDescendantOrSelf(1L, 1L));
+        assertFalse(hierarchy.isDescendantOrSelf(1L, 100L));
+        assertFalse(hierarchy.isDescendantOrSelf(11L, 10L), "siblings");
+        assertFalse(hierarchy.isDescendantOrSelf(100L, 2L));
+        assertFalse(hierarchy.isDescendantOrSelf(999L, 1L));
+    }
+
+    @Test
+    void listsWholeSubtreesParentsFirst() {
+        assertEquals(List.of(1L, 10L, 100L, 11L), hierarchy.subtreeIds(1L));
+        assertEquals(List.of(10L, 100L), hierarchy.subtreeIds(10L));
+        assertEquals(List.of(30L), hierarchy.subtreeIds(30L));
+        assertTrue(hierarchy.subtreeIds(999L).isEmpty());
+    }
+
+    @Test
+    void savesThroughTheTrackingRepositoryRebuildTheTree() {
+        CategoryRepository repo = new HierarchyTrackingCategoryRepository(categories, hierarchy);
+        Category tea = category(12L, 1L, "Tea", 3);
+        when(categories.save(tea)).thenReturn(tea);
+        assertEquals(2, hierarchy.children(1L).size()); // build
+
+        when(categories.findAllActive()).thenReturn(List.of(
+                category(1L, null, "Beverages", 1), category(10L, 1L, "Soft Drinks", 1),
+                category(11L, 1L, "Juice", 2), tea));
+        repo.save(tea);
+        assertEquals(List.of("Soft Drinks", "Juice", "Tea"), names(hierarchy.children(1L)));
+        assertTrue(hierarchy.isDescendantOrSelf(12L, 1L));
+        verify(categories, times(2)).findAllActive();
+    }
+
+    private static Category category(Long id, Long parentId, String name, int displayOrder) {
+        return Category.reconstruct(id, parentId, "C" + id, name, "", displayOrder, true, null, null);
+    }
+}
@@ -1,9 +1,18 @@
 package com.syos.application.services;
 
 import com.syos.domain.events.DomainEvent;
+import com.syos.domain.events.StockReceivedEvent;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,4 +77,133 @@ class EventBusTest {
         EventBus bus = EventBus.getInstance();
         assertThrows(IllegalArgumentException.class, () -> bus.subscribe(null));
     }
+
+    static class RecordingSubscriber implements EventBus.EventSubscriber {
+        final int priority;
+        final List<String> log;
+        RecordingSubscriber(int priority, List<String> log) { this.priority = priority; this.log = log; }
+        @Override public boolean canHandle(DomainEvent event) { return true; }
+        @Override public void handle(DomainEvent event) { log.add("p" + priority); }
+        @Override public int getPriority() { return priority; }
+    }
+
+    @Test
+    void subscribersRunInPriorityOrder() {
+        EventBus bus = new EventBus();
+        List<String> log = new ArrayList<>();
+        bus.subscribe(new RecordingSubscriber(0, log));
+        bus.subscribe(new RecordingSubscriber(10, log));
+        bus.subscribe(new RecordingSubscriber(5, log));
+
+        bus.publish(new DummyEvent());
+        assertEquals(List.of("p10", "p5", "p0"), log);
+    }
+
+    @Test
+    void asyncKeepsEachItemsEventsInOrderAndNeverBlocksThePublisher() {
+        EventBus bus = new EventBus();
+        Map<Long, List<Long>> seen = new ConcurrentHashMap<>();
+        CountDownLatch slow = new CountDownLatch(1);
+        bus.subscribe(new EventBus.EventSubscriber() {
+            @Override public boolean canHandle(DomainEvent event) { return event instanceof StockReceivedEvent; }
+            @Override public void handle(DomainEvent event) {
+                StockReceivedEvent e = (StockReceivedEvent) event;
+                try {
+                    slow.await(5, TimeUnit.SECONDS); // stands in for a slow audit/alert subscriber
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                seen.computeIfAbsent(e.getItemId(), k -> Collections.synchronizedList(new ArrayList<>())).add(e.getBatchId());
+            }
+        });
+        bus.startAsync(4, 1_000, EventBus.OverflowPolicy.BLOCK);
+        try {
+            long start = System.nanoTime();
+            for (long batch = 0; batch < 100; batch++) {
+                for (long item = 1; item <= 5; item++) {
+                    bus.publish(new StockReceivedEvent(item, batch, "WAREHOUSE", "test"));
+                }
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "publish only enqueues");
+            slow.countDown();
+
+            assertTrue(bus.awaitIdle(Duration.ofSeconds(10)));
+            for (long item = 1; item <= 5; item++) {
+                List<Long> batches = seen.get(item);
+                assertEquals(100, batches.size());
+                for (int i = 0; i < 100; i++) assertEquals(i, batches.get(i));
+            }
+            assertEquals(500, bus.getMetrics().published());
+            assertEquals(0, bus.getMetrics().totalQueued());
+        } finally {
+            bus.stopAsync(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void fullQueueDropsNewestAndReportsDepth() throws Exception {
+        EventBus bus = new EventBus();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        bus.subscribe(new EventBus.EventSubscriber() {
+            @Override public boolean canHandle(DomainEvent event) { return true; }
+            @Override public void handle(DomainEvent event) {
+                started.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.incrementAndGet();
+            }
+        });
+        bus.startAsync(1, 3, EventBus.OverflowPolicy.DROP_NEWEST);
+        try {
+            bus.publish(new StockReceivedEvent(1, 0, "WAREHOUSE", "test"));
+            assertTrue(started.await(5, TimeUnit.SECONDS)); // first event is being handled, queue empty
+            for (int i = 1; i <= 5; i++) bus.publish(new StockReceivedEvent(1, i, "WAREHOUSE", "test"));
+
+            EventBus.Metrics m = bus.getMetrics();
+            assertEquals(3, m.queueDepths()[0]);
+            assertEquals(3, m.highWaterMarks()[0]);
+            assertEquals(2, m.dropped());
+
+            gate.countDown();
+            assertTrue(bus.awaitIdle(Duration.ofSeconds(5)));
+            assertEquals(4, handled.get());
+        } finally {
+            bus.stopAsync(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void callerRunsWhenFullAndStopAsyncReturnsToSynchronous() throws Exception {
+        EventBus bus = new EventBus();
+        Map<String, Integer> threads = new ConcurrentHashMap<>();
+        CountDownLatch gate = new CountDownLatch(1);
+        bus.subscribe(new EventBus.EventSubscriber() {
+            @Override public boolean canHandle(DomainEvent event) { return true; }
+            @Override public void handle(DomainEvent event) {
+                if (Thread.currentThread().isVirtual()) {
+                    try {
+                        gate.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                threads.merge(Thread.currentThread().isVirtual() ? "bus" : "caller", 1, Integer::sum);
+            }
+        });
+        bus.startAsync(1, 1, EventBus.OverflowPolicy.CALLER_RUNS);
+        for (int i = 0; i < 5; i++) bus.publish(new DummyEvent());
+        gate.countDown();
+        assertTrue(bus.stopAsync(Duration.ofSeconds(5)));
+        assertFalse(bus.isAsync());
+
+        bus.publish(new DummyEvent());
+        assertEquals(6, threads.values().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(threads.getOrDefault("caller", 0) >= 3, threads.toString());
+        assertEquals(0, bus.getMetrics().dropped());
+    }
 }
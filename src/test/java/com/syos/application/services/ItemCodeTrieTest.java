@@ -0,0 +1,98 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.valueobjects.*;
+import com.syos.shared.enums.UnitOfMeasure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemCodeTrieTest {
+
+    ItemMasterFileRepository items;
+    ItemCodeTrie trie;
+
+    @BeforeEach
+    void setup() {
+        items = mock(ItemMasterFileRepository.class);
+        when(items.findAllActive()).thenReturn(List.of(
+                item(1L, "BEV-001"), item(2L, "BEV-002"), item(3L, "BEV-010"),
+                item(4L, "DRY-001"), item(5L, "DRY-1001")));
+        trie = new ItemCodeTrie(items);
+    }
+
+    @Test
+    void buildsOnceAndChecksCodesCaseInsensitively() {
+        assertTrue(trie.contains("BEV-001"));
+        assertTrue(trie.contains(" bev-010 "));
+        assertFalse(trie.contains("BEV-00"), "a prefix is not a code");
+        assertFalse(trie.contains("BEV-0011"));
+        assertFalse(trie.contains(""));
+        verify(items, times(1)).findAllActive();
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    void completesPrefixesInCodeOrder() {
+        assertEquals(List.of("BEV-001", "BEV-002", "BEV-010"), trie.complete("bev", 10));
+        assertEquals(List.of("BEV-001", "BEV-002"), trie.complete("BEV-00", 10));    // ends part-way along an edge
+        assertEquals(List.of("DRY-001", "DRY-1001"), trie.complete("DRY-", 10));
+        assertEquals(List.of("BEV-001"), trie.complete("B", 1));
+        assertTrue(trie.complete("BEX", 10).isEmpty());
+    }
+
+    @Test
+    void suggestsNearCodesNearestFirst() {
+        assertEquals(List.of("BEV-001", "BEV-002"), trie.suggest("BEV-003", 10).subList(0, 2)); // substitution
+        assertEquals(List.of("BEV-010"), trie.suggest("BEV-100", 1));                          // adjacent swap
+        assertEquals(List.of("DRY-001"), trie.suggest("DRY001", 10).subList(0, 1));             // missing dash
+        assertEquals(List.of("BEV-001"), trie.suggest("BEVV-001", 10).subList(0, 1));           // extra key
+        assertTrue(trie.suggest("XYZ-999", 10).isEmpty());
+    }
+
+    @Test
+    void upsertAndRemoveKeepTheTrieCompressed() {
+        trie.contains("BEV-001"); // build
+        int nodes = trie.nodeCount();
+
+        trie.upsert(item(6L, "BEV-003"));
+        assertEquals(List.of("BEV-001", "BEV-002", "BEV-003"), trie.complete("BEV-00", 10));
+
+        trie.upsert(item(6L, "TEA-001"));                                   // code changed
+        assertFalse(trie.contains("BEV-003"));
+        assertTrue(trie.contains("TEA-001"));
+
+        trie.upsert(item(2L, "BEV-002").deactivate(UserID.of(1L)));
+        trie.remove(6L);
+        assertEquals(List.of("BEV-001", "BEV-010"), trie.complete("BEV", 10));
+        assertEquals(4, trie.size());
+        assertTrue(trie.nodeCount() < nodes, "emptied branches are merged away");
+    }
+
+    @Test
+    void savesThroughTheIndexedRepositoryUpdateTheTrie() {
+        SearchIndexedItemRepository repo = new SearchIndexedItemRepository(items, trie);
+        ItemMasterFile tea = item(7L, "TEA-002");
+        when(items.save(tea)).thenReturn(tea);
+        trie.warmUp();
+
+        repo.save(tea);
+        assertEquals(List.of("TEA-002"), trie.complete("TEA", 10));
+
+        repo.deleteById(7L);
+        assertFalse(trie.contains("TEA-002"));
+    }
+
+    private static ItemMasterFile item(Long id, String code) {
+        return ItemMasterFile.createNew(
+                ItemCode.of(code), "Item " + code, "", BrandId.of(1L), CategoryId.of(1L), SupplierId.of(1L),
+                UnitOfMeasure.EACH, PackSize.of(1), Money.of(BigDecimal.valueOf(100)), Money.of(BigDecimal.valueOf(150)),
+                ReorderPoint.of(50), false, UserID.of(1L)).withId(id);
+    }
+}
@@ -0,0 +1,153 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.EventOutboxRepository;
+import com.syos.domain.events.DomainEvent;
+import com.syos.domain.events.StockReceivedEvent;
+import com.syos.domain.events.StockTransferredEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxRelayTest {
+
+    /** Outbox that, like the table, only removes a batch once delivery returned. */
+    static class InMemoryOutbox implements EventOutboxRepository {
+        final Deque<DomainEvent> rows = new ArrayDeque<>();
+
+        @Override
+        public synchronized int deliverBatch(int limit, Consumer<List<DomainEvent>> delivery) {
+            List<DomainEvent> batch = new ArrayList<>();
+            for (DomainEvent e : rows) {
+                if (batch.size() == limit) break;
+                batch.add(e);
+            }
+            if (batch.isEmpty()) return 0;
+            delivery.accept(batch);
+            for (int i = 0; i < batch.size(); i++) rows.removeFirst();
+            return batch.size();
+        }
+
+        @Override
+        public synchronized long countPending() {
+            return rows.size();
+        }
+    }
+
+    static class Collector implements EventBus.EventSubscriber {
+        final List<DomainEvent> seen = new ArrayList<>();
+        @Override public boolean canHandle(DomainEvent event) { return true; }
+        @Override public synchronized void handle(DomainEvent event) { seen.add(event); }
+    }
+
+    @Test
+    void relaysEveryWaitingEventInBatchesAndEmptiesTheOutbox() {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        for (long i = 0; i < 7; i++) outbox.rows.add(new StockReceivedEvent(i, i, "WAREHOUSE", "test"));
+        EventBus bus = new EventBus();
+        Collector collector = new Collector();
+        bus.subscribe(collector);
+
+        OutboxRelay relay = new OutboxRelay(outbox, bus, 3, Duration.ZERO, Duration.ofSeconds(1));
+        assertEquals(3, relay.relayBatch());
+        assertEquals(4, outbox.countPending());
+        assertEquals(4, relay.relayPending());
+
+        assertEquals(0, outbox.countPending());
+        assertEquals(7, collector.seen.size());
+        assertEquals(6L, ((StockReceivedEvent) collector.seen.get(6)).getItemId());
+    }
+
+    @Test
+    void keepsTheBatchWhenASubscriberFails() {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        outbox.rows.add(new StockTransferredEvent(1, 1, "WAREHOUSE", "A1", "test"));
+        EventBus bus = new EventBus();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        Collector collector = new Collector();
+        bus.subscribe(collector);
+        bus.subscribe(new EventBus.EventSubscriber() {
+            @Override public boolean canHandle(DomainEvent event) { return true; }
+            @Override public void handle(DomainEvent event) {
+                if (failing.get()) throw new RuntimeException("subscriber down");
+            }
+        });
+
+        OutboxRelay relay = new OutboxRelay(outbox, bus, 10, Duration.ZERO, Duration.ofSeconds(1));
+        assertThrows(IllegalStateException.class, relay::relayBatch);
+        assertEquals(1, outbox.countPending(), "undelivered event stays in the outbox");
+
+        failing.set(false);
+        assertEquals(1, relay.relayBatch()); // at-least-once: re-delivered
+        assertEquals(0, outbox.countPending());
+        assertEquals(2, collector.seen.size());
+    }
+
+    @Test
+    void asyncBusDeliversThroughThePartitionsAndWaitsForEveryEvent() throws Exception {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        for (long i = 0; i < 20; i++) outbox.rows.add(new StockReceivedEvent(1, i, "WAREHOUSE", "test"));
+        EventBus bus = new EventBus();
+        List<String> threads = new ArrayList<>();
+        Collector collector = new Collector() {
+            @Override public synchronized void handle(DomainEvent event) {
+                threads.add(Thread.currentThread().getName());
+                super.handle(event);
+            }
+        };
+        bus.subscribe(collector);
+        bus.startAsync(1, 1, EventBus.OverflowPolicy.DROP_OLDEST);
+        try {
+            OutboxRelay relay = new OutboxRelay(outbox, bus, 20, Duration.ZERO, Duration.ofSeconds(5));
+            assertEquals(20, relay.relayBatch());
+
+            // Handled by the partition's thread, in order, before relayBatch returned; the one-slot queue dropped none
+            assertEquals(20, collector.seen.size());
+            assertTrue(threads.stream().allMatch("event-partition-0"::equals), threads.toString());
+            assertEquals(19L, ((StockReceivedEvent) collector.seen.get(19)).getBatchId());
+            assertEquals(0L, bus.getMetrics().dropped());
+            assertEquals(0, outbox.countPending());
+        } finally {
+            bus.stopAsync(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void asyncBusKeepsTheBatchWhenASubscriberFails() {
+        InMemoryOutbox outbox = new InMemoryOutbox();
+        outbox.rows.add(new StockTransferredEvent(1, 1, "WAREHOUSE", "A1", "test"));
+        EventBus bus = new EventBus();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        bus.subscribe(new EventBus.EventSubscriber() {
+            @Override public boolean canHandle(DomainEvent event) { return true; }
+            @Override public void handle(DomainEvent event) {
+                if (failing.get()) throw new RuntimeException("subscriber down");
+            }
+        });
+        bus.startAsync(2, 4, EventBus.OverflowPolicy.DROP_NEWEST);
+        try {
+            OutboxRelay relay = new OutboxRelay(outbox, bus, 10, Duration.ZERO, Duration.ofSeconds(5));
+            assertThrows(IllegalStateException.class, relay::relayBatch);
+            assertEquals(1, outbox.countPending());
+
+            failing.set(false);
+            assertEquals(1, relay.relayBatch());
+            assertEquals(0, outbox.countPending());
+        } finally {
+            bus.stopAsync(Duration.ofSeconds(1));
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OutboxRelay(new InMemoryOutbox(), new EventBus(), 0, Duration.ZERO, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,154 @@
+package com.syos.application.services;
+
+import com.syos.adapter.out.persistence.memory.InMemoryShelfStockRepository;
+import com.syos.application.ports.out.ShelfStockRepository;
+import com.syos.domain.entities.ShelfStock;
+import com.syos.domain.exceptions.InsufficientStockException;
+import com.syos.domain.exceptions.ShortAllocationException;
+import com.syos.domain.valueobjects.ItemCode;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.Quantity;
+import com.syos.domain.valueobjects.UserID;
+import com.syos.infrastructure.persistence.repositories.JpaPOSRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class POSCheckoutServiceTest {
+
+    ShelfStockRepository shelfRepo;
+    DiscountService discountService;
+    JpaPOSRepository posRepo;
+    POSCheckoutService service;
+
+    @BeforeEach
+    void setup() {
+        shelfRepo = spy(new InMemoryShelfStockRepository());
+        discountService = mock(DiscountService.class);
+        when(discountService.calculateBatchDiscount(anyLong(), anyLong(), any(), anyDouble())).thenReturn(BigDecimal.ZERO);
+        posRepo = mock(JpaPOSRepository.class);
+        service = new POSCheckoutService(shelfRepo, discountService, posRepo);
+    }
+
+    private void seed(String code, long itemId, long batchId, double qty, LocalDateTime placed, LocalDateTime expiry) {
+        shelfRepo.save(new ShelfStock.Builder()
+                .itemCode(ItemCode.of(code))
+                .itemId(itemId)
+                .batchId(batchId)
+                .shelfCode("A1")
+                .quantityOnShelf(Quantity.of(BigDecimal.valueOf(qty)))
+                .placedOnShelfDate(placed)
+                .expiryDate(expiry)
+                .placedBy(UserID.of(1L))
+                .unitPrice(Money.of(BigDecimal.valueOf(100)))
+                .lastUpdatedBy(UserID.of(1L))
+                .build());
+    }
+
+    @Test
+    void allocatesWholeCartFromOneLookupWithoutDoubleCountingRepeatedItems() {
+        LocalDateTime now = LocalDateTime.now();
+        seed("ITM1", 1L, 10L, 3, now.minusDays(10), now.plusDays(90));
+        seed("ITM1", 1L, 20L, 5, now.minusDays(5), now.plusDays(10)); // expires sooner -> first
+        seed("ITM2", 2L, 30L, 4, now.minusDays(1), null);
+
+        POSCheckoutService.CheckoutPlan plan = service.allocate(List.of(
+                new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 4),
+                new POSCheckoutService.CartItem(ItemCode.of("ITM2"), 2L, 2),
+                new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 3)), true);
+
+        verify(shelfRepo, times(1)).findAvailableByItemCodes(anyCollection());
+        verify(shelfRepo, never()).findAvailableByItemCode(any());
+
+        List<JpaPOSRepository.PosLine> lines = plan.lines();
+        assertEquals(4, lines.size());
+        assertEquals(20L, lines.get(0).batchId());
+        assertEquals(4.0, lines.get(0).quantity(), 1e-9);
+        assertEquals(30L, lines.get(1).batchId());
+        // Second ITM1 line continues where the first stopped: 1 left in batch 20, then batch 10
+        assertEquals(20L, lines.get(2).batchId());
+        assertEquals(1.0, lines.get(2).quantity(), 1e-9);
+        assertEquals(10L, lines.get(3).batchId());
+        assertEquals(2.0, lines.get(3).quantity(), 1e-9);
+        assertTrue(lines.stream().allMatch(l -> l.shelfCode() != null));
+    }
+
+    @Test
+    void personalPurchaseSkipsDiscountLookups() {
+        seed("ITM1", 1L, 10L, 3, LocalDateTime.now().minusDays(1), null);
+
+        POSCheckoutService.CheckoutPlan plan = service.allocate(
+                List.of(new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 2)), false);
+
+        assertEquals(0, plan.discountTotal().signum());
+        verifyNoInteractions(discountService);
+    }
+
+    @Test
+    void shortShelfRaisesInsufficientStock() {
+        seed("ITM1", 1L, 10L, 3, LocalDateTime.now().minusDays(1), null);
+
+        assertThrows(InsufficientStockException.class, () -> service.allocate(
+                List.of(new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 5)), true));
+    }
+
+    @Test
+    void shortAllocationAtCommitReallocatesAgainstNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        seed("ITM1", 1L, 10L, 5, now.minusDays(5), null);
+        seed("ITM1", 1L, 20L, 5, now.minusDays(1), null);
+        List<POSCheckoutService.CartItem> cart = List.of(new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 3));
+        POSCheckoutService.CheckoutPlan plan = service.allocate(cart, true);
+        assertEquals(10L, plan.lines().get(0).batchId());
+
+        // Another till empties batch 10 before this sale commits
+        assertTrue(shelfRepo.decrementShelfStock(1L, 10L, "A1", BigDecimal.valueOf(5)));
+        when(posRepo.savePOSCheckout(any(), any()))
+                .thenThrow(new ShortAllocationException(List.of(10L)))
+                .thenReturn(new JpaPOSRepository.PersistResult(7L, "7"));
+
+        POSCheckoutService.Receipt receipt = service.commit(null, plan);
+
+        assertEquals("7", receipt.persisted().billNumber());
+        assertEquals(20L, receipt.plan().lines().get(0).batchId());
+        verify(posRepo, times(2)).savePOSCheckout(any(), any());
+    }
+
+    @Test
+    void retryRereadsOnlyTheShortItems() {
+        LocalDateTime now = LocalDateTime.now();
+        seed("ITM1", 1L, 10L, 5, now.minusDays(5), null);
+        seed("ITM1", 1L, 20L, 5, now.minusDays(1), null);
+        seed("ITM2", 2L, 30L, 5, now.minusDays(1), null);
+        POSCheckoutService.CheckoutPlan plan = service.allocate(List.of(
+                new POSCheckoutService.CartItem(ItemCode.of("ITM1"), 1L, 3),
+                new POSCheckoutService.CartItem(ItemCode.of("ITM2"), 2L, 2)), true);
+
+        assertTrue(shelfRepo.decrementShelfStock(1L, 10L, "A1", BigDecimal.valueOf(5)));
+        when(posRepo.savePOSCheckout(any(), any()))
+                .thenThrow(new ShortAllocationException(List.of(10L)))
+                .thenReturn(new JpaPOSRepository.PersistResult(8L, "8"));
+
+        POSCheckoutService.Receipt receipt = service.commit(null, plan);
+
+        assertEquals(List.of(20L, 30L), receipt.plan().lines().stream().map(JpaPOSRepository.PosLine::batchId).toList());
+        verify(shelfRepo).findAvailableByItemCodes(argThat(codes -> codes.size() == 1 && codes.contains(ItemCode.of("ITM1"))));
+        verify(shelfRepo, times(2)).findAvailableByItemCodes(anyCollection());
+    }
+
+    @Test
+    void guardedDecrementRefusesShortAllocation() {
+        seed("ITM1", 1L, 10L, 3, LocalDateTime.now().minusDays(1), null);
+
+        assertFalse(shelfRepo.decrementShelfStock(1L, 10L, "A1", BigDecimal.valueOf(4)));
+        assertTrue(shelfRepo.decrementShelfStock(1L, 10L, "A1", BigDecimal.valueOf(3)));
+        assertTrue(shelfRepo.findAvailableByItemCode(ItemCode.of("ITM1")).isEmpty());
+    }
+}
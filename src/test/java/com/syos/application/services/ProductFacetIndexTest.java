@@ -0,0 +1,140 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BrandRepository;
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.Brand;
+import com.syos.domain.entities.Category;
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.valueobjects.*;
+import com.syos.shared.enums.UnitOfMeasure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductFacetIndexTest {
+
+    ItemMasterFileRepository items;
+    ProductFacetIndex index;
+
+    // Beverages(1) > Soft Drinks(10) > Cola(100), Beverages > Juice(11); Snacks(2)
+    @BeforeEach
+    void setup() {
+        items = mock(ItemMasterFileRepository.class);
+        BrandRepository brands = mock(BrandRepository.class);
+        CategoryRepository categories = mock(CategoryRepository.class);
+        when(brands.findAll()).thenReturn(List.of(
+                Brand.reconstruct(1L, "COK", "Coca-Cola", "", true, null, null),
+                Brand.reconstruct(2L, "ANC", "Anchor", "", true, null, null),
+                Brand.reconstruct(3L, "MUN", "Munchee", "", true, null, null)));
+        List<Category> tree = List.of(
+                Category.reconstruct(1L, null, "BEV", "Beverages", "", 1, true, null, null),
+                Category.reconstruct(2L, null, "SNK", "Snacks", "", 2, true, null, null),
+                Category.reconstruct(10L, 1L, "SFT", "Soft Drinks", "", 1, true, null, null),
+                Category.reconstruct(11L, 1L, "JUI", "Juice", "", 2, true, null, null),
+                Category.reconstruct(100L, 10L, "COL", "Cola", "", 1, true, null, null));
+        when(categories.findAll()).thenReturn(tree);
+        when(categories.findAllActive()).thenReturn(tree);
+        when(items.findAllActive()).thenReturn(List.of(
+                item(1L, "BEV-001", "Coke Zero", 1L, 10L, 150, false, true),
+                item(2L, "BEV-002", "Apple Juice", 2L, 11L, 450, true, false),
+                item(3L, "BEV-003", "Cola Max", 1L, 100L, 90, false, false),
+                item(4L, "SNK-001", "Crisps", 3L, 2L, 250, false, true)));
+        index = new ProductFacetIndex(items, brands, categories, new CategoryHierarchy(categories));
+    }
+
+    private static List<String> names(ProductFacetIndex.Result result) {
+        return result.items().stream().map(ItemMasterFile::getItemName).toList();
+    }
+
+    private static Map<String, Integer> counts(List<ProductFacetIndex.FacetCount> counts) {
+        return counts.stream().collect(Collectors.toMap(ProductFacetIndex.FacetCount::label, ProductFacetIndex.FacetCount::count));
+    }
+
+    @Test
+    void buildsOnceAndCountsEveryFacetValue() {
+        ProductFacetIndex.Result all = index.browse(ProductFacetIndex.Filter.NONE, 10);
+
+        assertEquals(List.of("Apple Juice", "Coke Zero", "Cola Max", "Crisps"), names(all));
+        assertEquals(4, all.total());
+        assertEquals(Map.of("Beverages", 3, "Soft Drinks", 2, "Cola", 1, "Juice", 1, "Snacks", 1), counts(all.categories()));
+        assertEquals(Map.of("Coca-Cola", 2, "Anchor", 1, "Munchee", 1), counts(all.brands()));
+        assertEquals(List.of(1, 3, 0, 0, 0), all.priceBands().stream().map(ProductFacetIndex.FacetCount::count).toList());
+        assertEquals(2, all.featuredCount());
+        assertEquals(1, all.perishableCount());
+
+        index.browse(ProductFacetIndex.Filter.NONE, 10);
+        verify(items, times(1)).findAllActive();
+    }
+
+    @Test
+    void categoryFilterTakesInSubcategories() {
+        ProductFacetIndex.Result beverages = index.browse(new ProductFacetIndex.Filter(Set.of(1L), null, null, null, null), 10);
+        assertEquals(List.of("Apple Juice", "Coke Zero", "Cola Max"), names(beverages));
+
+        ProductFacetIndex.Result softDrinks = index.browse(new ProductFacetIndex.Filter(Set.of(10L), null, null, null, null), 10);
+        assertEquals(List.of("Coke Zero", "Cola Max"), names(softDrinks));
+    }
+
+    @Test
+    void filtersCombineAcrossFacetsAndCountsLeaveOutTheirOwnFilter() {
+        ProductFacetIndex.Result result = index.browse(
+                new ProductFacetIndex.Filter(Set.of(1L), Set.of(1L), null, null, Set.of(0)), 10);
+
+        assertEquals(List.of("Cola Max"), names(result));
+        assertEquals(1, result.total());
+        // Brands are counted without the brand filter, bands without the band filter
+        assertEquals(Map.of("Coca-Cola", 1), counts(result.brands()));
+        assertEquals(List.of(1, 1, 0, 0, 0), result.priceBands().stream().map(ProductFacetIndex.FacetCount::count).toList());
+        assertEquals(Map.of("Beverages", 1, "Soft Drinks", 1, "Cola", 1), counts(result.categories()));
+    }
+
+    @Test
+    void filtersOnFlagsBothWays() {
+        assertEquals(List.of("Coke Zero", "Crisps"),
+                names(index.browse(new ProductFacetIndex.Filter(null, null, false, true, null), 10)));
+        assertEquals(List.of("Apple Juice"),
+                names(index.browse(new ProductFacetIndex.Filter(null, null, true, null, null), 10)));
+        assertEquals(List.of("Apple Juice", "Cola Max"),
+                names(index.browse(new ProductFacetIndex.Filter(null, null, null, false, null), 10)));
+    }
+
+    @Test
+    void upsertAndRemoveKeepTheIndexCurrent() {
+        index.browse(ProductFacetIndex.Filter.NONE, 10); // build
+
+        index.upsert(item(5L, "BEV-004", "Bubble Tea", 2L, 11L, 600, true, true));
+        index.remove(4L);
+        index.upsert(item(1L, "BEV-001", "Coke Zero", 1L, 10L, 150, false, false).deactivate(UserID.of(1L)));
+
+        ProductFacetIndex.Result all = index.browse(ProductFacetIndex.Filter.NONE, 10);
+        assertEquals(List.of("Apple Juice", "Bubble Tea", "Cola Max"), names(all));
+        assertEquals(Map.of("Beverages", 3, "Juice", 2, "Soft Drinks", 1, "Cola", 1), counts(all.categories()));
+        assertEquals(1, all.featuredCount());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void limitsThePageButNotTheTotal() {
+        ProductFacetIndex.Result page = index.browse(ProductFacetIndex.Filter.NONE, 2);
+        assertEquals(List.of("Apple Juice", "Coke Zero"), names(page));
+        assertEquals(4, page.total());
+    }
+
+    private static ItemMasterFile item(Long id, String code, String name, Long brandId, Long categoryId, int price,
+                                       boolean perishable, boolean featured) {
+        ItemMasterFile item = ItemMasterFile.createNew(
+                ItemCode.of(code), name, "", BrandId.of(brandId), CategoryId.of(categoryId), SupplierId.of(1L),
+                UnitOfMeasure.EACH, PackSize.of(1), Money.of(BigDecimal.valueOf(price / 2)), Money.of(BigDecimal.valueOf(price)),
+                ReorderPoint.of(50), perishable, UserID.of(1L)).withId(id);
+        return featured ? item.markAsFeatured(UserID.of(1L)) : item;
+    }
+}
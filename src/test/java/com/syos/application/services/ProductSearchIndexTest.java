@@ -0,0 +1,124 @@
+package com.syos.application.services;
+
+import com.syos.application.ports.out.BrandRepository;
+import com.syos.application.ports.out.CategoryRepository;
+import com.syos.application.ports.out.ItemMasterFileRepository;
+import com.syos.domain.entities.Brand;
+import com.syos.domain.entities.Category;
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.valueobjects.*;
+import com.syos.shared.enums.UnitOfMeasure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    ItemMasterFileRepository items;
+    ProductSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        items = mock(ItemMasterFileRepository.class);
+        BrandRepository brands = mock(BrandRepository.class);
+        CategoryRepository categories = mock(CategoryRepository.class);
+        when(brands.findAll()).thenReturn(List.of(
+                Brand.reconstruct(1L, "COK", "Coca-Cola", "", true, null, null),
+                Brand.reconstruct(2L, "ANC", "Anchor", "", true, null, null)));
+        when(categories.findAll()).thenReturn(List.of(
+                Category.reconstruct(1L, null, "BEV", "Beverages", "", 1, true, null, null),
+                Category.reconstruct(2L, null, "DRY", "Dairy", "", 2, true, null, null)));
+        when(items.findAllActive()).thenReturn(List.of(
+                item(1L, "BEV-001", "Coke Zero 500ml", "Sugar free cola", 1L, 1L),
+                item(2L, "BEV-002", "Coke Classic 1L", "Original cola", 1L, 1L),
+                item(3L, "DRY-001", "Anchor Full Cream Milk Powder", "Crème milk powder", 2L, 2L)));
+        index = new ProductSearchIndex(items, brands, categories);
+    }
+
+    private static List<String> names(List<ItemMasterFile> found) {
+        return found.stream().map(ItemMasterFile::getItemName).toList();
+    }
+
+    @Test
+    void buildsOnceAndMatchesEveryFieldWithoutTouchingTheRepositoryAgain() {
+        assertEquals(List.of("Anchor Full Cream Milk Powder"), names(index.search("dairy", 10)));   // category
+        assertEquals(List.of("Anchor Full Cream Milk Powder"), names(index.search("creme", 10)));   // accent folded
+        assertEquals(2, index.search("coca cola", 10).size());                                       // brand
+        assertEquals(List.of("Coke Zero 500ml"), names(index.search("bev001", 10)));                // compact code
+        assertEquals(List.of("Coke Zero 500ml"), names(index.search("coke zero", 10)));             // all words must match
+        verify(items, times(1)).findAllActive();
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void matchesPrefixesAndRanksByFieldWeightThenName() {
+        assertEquals(List.of("Coke Classic 1L", "Coke Zero 500ml"), names(index.search("cok", 10)));
+        // Brand ("Coca-Cola") outweighs description ("cola"), so both colas match; name ties break alphabetically
+        assertEquals(List.of("Coke Classic 1L", "Coke Zero 500ml"), names(index.search("cola", 10)));
+        assertEquals(List.of("Anchor Full Cream Milk Powder"), names(index.search("mil", 10)));
+    }
+
+    @Test
+    void toleratesTyposWhenNothingMatchesExactly() {
+        assertEquals(List.of("Anchor Full Cream Milk Powder"), names(index.search("anchr", 10)));
+        assertEquals(List.of("Anchor Full Cream Milk Powder"), names(index.search("powedr", 10)));  // transposition
+        assertTrue(index.search("xyzzy", 10).isEmpty());
+    }
+
+    @Test
+    void upsertAndRemoveKeepTheIndexCurrent() {
+        index.search("coke", 10); // build
+
+        index.upsert(item(4L, "BEV-003", "Ginger Beer", "Spicy", 1L, 1L));
+        assertEquals(List.of("Ginger Beer"), names(index.search("ginger", 10)));
+
+        index.upsert(item(1L, "BEV-001", "Cherry Coke", "Sugar free cola", 1L, 1L));
+        assertEquals(List.of("Cherry Coke"), names(index.search("cherry", 10)));
+        assertTrue(index.search("zero", 10).isEmpty(), "old name terms are dropped");
+
+        index.upsert(item(2L, "BEV-002", "Coke Classic 1L", "Original cola", 1L, 1L).deactivate(UserID.of(1L)));
+        index.remove(4L);
+        assertEquals(List.of("Cherry Coke"), names(index.search("coke", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void savesThroughTheIndexedRepositoryUpdateTheIndex() {
+        SearchIndexedItemRepository repo = new SearchIndexedItemRepository(items, index);
+        ItemMasterFile tea = item(5L, "TEA-001", "Ceylon Tea", "Black tea", 1L, 1L);
+        when(items.save(tea)).thenReturn(tea);
+        index.search("coke", 10); // build
+
+        repo.save(tea);
+        assertEquals(List.of("Ceylon Tea"), names(index.search("ceylon", 10)));
+
+        repo.deleteById(5L);
+        assertTrue(index.search("ceylon", 10).isEmpty());
+        verify(items).deleteById(5L);
+    }
+
+    @Test
+    void limitsResults() {
+        assertEquals(1, index.search("cola", 1).size());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void editDistanceCountsAdjacentSwapsAsOneEdit() {
+        assertEquals(1, ProductSearchIndex.editDistance("powedr", "powder", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("anchr", "anchor", 2));
+        assertEquals(3, ProductSearchIndex.editDistance("abc", "xyz", 2)); // stops past max
+    }
+
+    private static ItemMasterFile item(Long id, String code, String name, String description, Long brandId, Long categoryId) {
+        return ItemMasterFile.createNew(
+                ItemCode.of(code), name, description, BrandId.of(brandId), CategoryId.of(categoryId), SupplierId.of(1L),
+                UnitOfMeasure.EACH, PackSize.of(1), Money.of(BigDecimal.valueOf(100)), Money.of(BigDecimal.valueOf(150)),
+                ReorderPoint.of(50), false, UserID.of(1L)).withId(id);
+    }
+}
@@ -0,0 +1,96 @@
+package com.syos.application.services;
+
+import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionEntity;
+import com.syos.infrastructure.persistence.entities.PromotionEntities.PromotionType;
+import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository;
+import com.syos.infrastructure.persistence.repositories.JpaPromotionRepository.BatchPromotionLink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PromotionIndexTest {
+
+    JpaPromotionRepository repo;
+    PromotionIndex index;
+    LocalDateTime now;
+
+    @BeforeEach
+    void setup() {
+        repo = mock(JpaPromotionRepository.class);
+        index = new PromotionIndex(repo, Duration.ofHours(1));
+        now = LocalDateTime.now();
+    }
+
+    private static PromotionEntity promo(String value, LocalDateTime start, LocalDateTime end) {
+        PromotionEntity p = new PromotionEntity();
+        p.setPromotionType(PromotionType.PERCENTAGE);
+        p.setDiscountValue(new BigDecimal(value));
+        p.setStartDate(start);
+        p.setEndDate(end);
+        return p;
+    }
+
+    @Test
+    void loadsOnceAndServesLookupsFromMemory() {
+        when(repo.findBatchPromotionLinksEndingAfter(any())).thenReturn(List.of(
+                new BatchPromotionLink(1L, 10L, promo("10", now.minusDays(1), now.plusDays(1))),
+                new BatchPromotionLink(1L, 11L, promo("20", now.minusDays(1), now.plusDays(1)))));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("10", index.find(1L, 10L, now).orElseThrow().getDiscountValue().toPlainString());
+            assertTrue(index.find(2L, 10L, now).isEmpty());
+        }
+        assertEquals("20", index.find(1L, 11L, now).orElseThrow().getDiscountValue().toPlainString());
+        verify(repo, times(1)).findBatchPromotionLinksEndingAfter(any());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void latestStartWinsWhenPromotionsOverlap() {
+        when(repo.findBatchPromotionLinksEndingAfter(any())).thenReturn(List.of(
+                new BatchPromotionLink(1L, 10L, promo("10", now.minusDays(3), now.plusDays(1))),
+                new BatchPromotionLink(1L, 10L, promo("25", now.minusDays(1), now.plusDays(1)))));
+
+        assertEquals("25", index.find(1L, 10L, now).orElseThrow().getDiscountValue().toPlainString());
+    }
+
+    @Test
+    void rebuildsWhenStartOrEndBoundaryPasses() {
+        LocalDateTime startsSoon = now.plusMinutes(10);
+        when(repo.findBatchPromotionLinksEndingAfter(any())).thenReturn(List.of(
+                new BatchPromotionLink(1L, 10L, promo("15", startsSoon, now.plusMinutes(20)))));
+
+        assertTrue(index.find(1L, 10L, now).isEmpty());
+        assertTrue(index.find(1L, 10L, now.plusMinutes(5)).isEmpty());
+        verify(repo, times(1)).findBatchPromotionLinksEndingAfter(any());
+
+        // Start boundary passed -> rebuilt and now active
+        assertTrue(index.find(1L, 10L, now.plusMinutes(11)).isPresent());
+        verify(repo, times(2)).findBatchPromotionLinksEndingAfter(any());
+
+        // End boundary passed -> rebuilt and no longer active
+        assertTrue(index.find(1L, 10L, now.plusMinutes(21)).isEmpty());
+        verify(repo, times(3)).findBatchPromotionLinksEndingAfter(any());
+    }
+
+    @Test
+    void invalidateReloadsOnNextLookup() {
+        when(repo.findBatchPromotionLinksEndingAfter(any())).thenReturn(List.of());
+        assertTrue(index.find(1L, 10L, now).isEmpty());
+
+        when(repo.findBatchPromotionLinksEndingAfter(any())).thenReturn(List.of(
+                new BatchPromotionLink(1L, 10L, promo("5", now.minusMinutes(1), now.plusDays(1)))));
+        new DiscountService(index).promotionsChanged();
+
+        assertTrue(index.find(1L, 10L, now).isPresent());
+        verify(repo, times(2)).findBatchPromotionLinksEndingAfter(any());
+    }
+}
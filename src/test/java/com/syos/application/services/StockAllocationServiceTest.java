@@ -0,0 +1,92 @@
+package com.syos.application.services;
+
+import com.syos.application.services.StockAllocationService.Allocation;
+import com.syos.application.services.StockAllocationService.Channel;
+import com.syos.application.services.StockAllocationService.StockView;
+import com.syos.application.strategies.stock.FIFOWithExpiryStrategy;
+import com.syos.application.strategies.stock.StrictFIFOStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockAllocationServiceTest {
+
+    record Row(String name, int qty, LocalDateTime received, LocalDateTime expiry) {}
+
+    private static final Function<Row, StockView> VIEW =
+            r -> new StockView(BigDecimal.valueOf(r.qty()), r.received(), r.expiry());
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+    // Older batch expires later; newer batch expires sooner
+    private static final Row OLD = new Row("old", 5, NOW.minusDays(10), NOW.plusDays(90));
+    private static final Row NEW = new Row("new", 5, NOW.minusDays(2), NOW.plusDays(5));
+
+    @Test
+    void channelsUseConfiguredPolicies() {
+        Map<String, String> settings = Map.of(
+                "stock.selection.shelf", "fifo",
+                "stock.selection.web", "fifo-with-expiry",
+                "stock.selection.warehouse", "nonsense");
+        StockAllocationService service = StockAllocationService.fromSettings(settings::get);
+
+        assertInstanceOf(StrictFIFOStrategy.class, service.strategyFor(Channel.SHELF));
+        assertInstanceOf(FIFOWithExpiryStrategy.class, service.strategyFor(Channel.WEB));
+        assertInstanceOf(FIFOWithExpiryStrategy.class, service.strategyFor(Channel.WAREHOUSE));
+
+        assertEquals("old", service.allocate(Channel.SHELF, List.of(NEW, OLD), VIEW, BigDecimal.ONE).get(0).source().name());
+        assertEquals("new", service.allocate(Channel.WEB, List.of(OLD, NEW), VIEW, BigDecimal.ONE).get(0).source().name());
+    }
+
+    @Test
+    void rowsOfTheSameBatchStayDistinct() {
+        Row shelfA = new Row("A1", 2, NOW.minusDays(3), null);
+        Row shelfB = new Row("B1", 2, NOW.minusDays(3), null);
+
+        List<Allocation<Row>> result = StockAllocationService.defaults()
+                .allocate(Channel.SHELF, List.of(shelfA, shelfB), VIEW, BigDecimal.valueOf(3));
+
+        assertEquals(2, result.size());
+        assertSame(shelfA, result.get(0).source());
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(result.get(0).quantity()));
+        assertSame(shelfB, result.get(1).source());
+        assertEquals(0, BigDecimal.ONE.compareTo(result.get(1).quantity()));
+    }
+
+    @Test
+    void shortStockAllocatesWhatExists() {
+        List<Allocation<Row>> result = StockAllocationService.defaults()
+                .allocate(Channel.WEB, List.of(OLD), VIEW, BigDecimal.TEN);
+
+        assertEquals(1, result.size());
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(result.get(0).quantity()));
+    }
+
+    @Test
+    void checkoutAllocatesEachItemQuantityOnce() {
+        AtomicInteger views = new AtomicInteger();
+        StockAllocationService.Checkout<String, Row> checkout = StockAllocationService.defaults()
+                .beginCheckout(Channel.SHELF, r -> { views.incrementAndGet(); return VIEW.apply(r); });
+        checkout.stock("ITM1", List.of(OLD, NEW));
+
+        List<Allocation<Row>> first = checkout.allocate("ITM1", new BigDecimal("3.0"));
+        int afterFirst = views.get();
+        List<Allocation<Row>> second = checkout.allocate("ITM1", BigDecimal.valueOf(3));
+
+        assertSame(first, second);
+        assertEquals(afterFirst, views.get());
+        assertEquals("new", first.get(0).source().name());
+        assertEquals(0, BigDecimal.TEN.compareTo(checkout.available("ITM1")));
+
+        checkout.invalidate("ITM1");
+        assertFalse(checkout.hasStock("ITM1"));
+        assertTrue(checkout.allocate("ITM1", BigDecimal.ONE).isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package com.syos.application.services;
+
+import com.syos.adapter.out.persistence.memory.InMemoryWebInventoryRepository;
+import com.syos.application.ports.out.WebInventoryRepository;
+import com.syos.domain.entities.WebInventory;
+import com.syos.domain.valueobjects.ItemCode;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.Quantity;
+import com.syos.domain.valueobjects.UserID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebAvailabilityIndexTest {
+
+    /** Counts stock reads so the tests can show listings stay off storage. */
+    static class CountingWebRepo extends InMemoryWebInventoryRepository {
+        int listReads;
+        int itemReads;
+
+        @Override public List<WebInventory> findAvailableItems() { listReads++; return super.findAvailableItems(); }
+        @Override public List<WebInventory> findByItemId(Long itemId) { itemReads++; return super.findByItemId(itemId); }
+    }
+
+    CountingWebRepo raw;
+    WebAvailabilityIndex availability;
+    WebStockReservationService reservations;
+    WebInventoryRepository webRepo;
+
+    @BeforeEach
+    void setup() {
+        raw = new CountingWebRepo();
+        raw.save(web("ITEM-010", 10L, 1L, "6"));
+        raw.save(web("ITEM-010", 10L, 2L, "4"));
+        raw.save(web("ITEM-020", 20L, 3L, "5"));
+        availability = new WebAvailabilityIndex(raw);
+        reservations = new WebStockReservationService(raw, Duration.ofMinutes(15), Duration.ZERO,
+                Clock.systemUTC(), availability);
+        webRepo = new AvailabilityTrackingWebInventoryRepository(raw, availability, reservations);
+    }
+
+    private static WebInventory web(String code, long itemId, long batchId, String qty) {
+        return web(code, itemId, batchId, qty, LocalDateTime.now().plusDays(30));
+    }
+
+    private static WebInventory web(String code, long itemId, long batchId, String qty, LocalDateTime expiry) {
+        return WebInventory.createNew(ItemCode.of(code), itemId, batchId, Quantity.of(new BigDecimal(qty)),
+                expiry, UserID.of(1L), Money.of("100.00"));
+    }
+
+    private static BigDecimal bd(long v) { return BigDecimal.valueOf(v); }
+
+    @Test
+    void listingManyItemsReadsStockOnce() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bd(10).compareTo(reservations.available(10L)));
+            assertEquals(0, bd(5).compareTo(reservations.available(20L)));
+            assertEquals(0, BigDecimal.ZERO.compareTo(reservations.available(30L)));
+        }
+        assertEquals(1, raw.listReads);
+        assertEquals(0, raw.itemReads);
+    }
+
+    @Test
+    void holdsAreSubtractedWithoutReadingStock() {
+        assertTrue(reservations.reserve(1L, 10L, bd(7)));
+        assertEquals(0, bd(3).compareTo(reservations.available(10L)));
+        assertFalse(reservations.reserve(2L, 10L, bd(4)));
+        assertEquals(0, raw.itemReads);
+    }
+
+    @Test
+    void savesAndSalesKeepAvailabilityCurrent() {
+        availability.warmUp();
+        assertTrue(reservations.reserve(1L, 10L, bd(5)));
+
+        // A sale through the decorated repository, then the hold is taken by commit()
+        WebInventory batch = raw.findByItemId(10L).stream().filter(w -> w.getBatchId() == 1L).findFirst().orElseThrow();
+        webRepo.save(batch.sellStock(Quantity.of(bd(5)), UserID.of(1L)));
+        reservations.commit(1L, 10L);
+        assertEquals(0, bd(5).compareTo(availability.onHand(10L)));
+        assertEquals(0, bd(5).compareTo(reservations.available(10L)));
+
+        // New stock transferred in
+        webRepo.save(web("ITEM-030", 30L, 4L, "8"));
+        assertEquals(0, bd(8).compareTo(reservations.available(30L)));
+
+        // Stock row removed
+        Long id = raw.findByItemId(20L).get(0).getId();
+        webRepo.delete(id);
+        assertEquals(0, BigDecimal.ZERO.compareTo(reservations.available(20L)));
+        assertEquals(1, raw.listReads);
+    }
+
+    @Test
+    void stockChangesRefreshCountersOfHeldItems() {
+        assertTrue(reservations.reserve(1L, 20L, bd(5)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(reservations.available(20L)));
+
+        webRepo.save(web("ITEM-020", 20L, 5L, "3"));
+        assertEquals(0, bd(3).compareTo(reservations.available(20L)));
+        assertTrue(reservations.reserve(2L, 20L, bd(3)));
+    }
+
+    @Test
+    void stockExpiringAfterTheBuildStopsCounting() {
+        WebStockReservationServiceTest.MutableClock clock = new WebStockReservationServiceTest.MutableClock();
+        clock.millis = System.currentTimeMillis();
+        raw.save(web("ITEM-040", 40L, 6L, "2", LocalDateTime.now().plusDays(1)));
+        raw.save(web("ITEM-040", 40L, 7L, "3", LocalDateTime.now().plusDays(10)));
+        availability = new WebAvailabilityIndex(raw, clock);
+        reservations = new WebStockReservationService(raw, Duration.ofMinutes(15), Duration.ZERO,
+                clock, availability);
+        assertEquals(0, bd(5).compareTo(availability.onHand(40L)));
+        assertTrue(reservations.reserve(1L, 40L, bd(1)));
+
+        clock.millis += Duration.ofDays(3).toMillis();
+        assertEquals(0, bd(3).compareTo(availability.onHand(40L)));
+        // The sweeper's refresh of held items sees the expiry too (the customer is still active, so the hold stays)
+        reservations.touch(1L);
+        reservations.sweep();
+        assertEquals(0, bd(2).compareTo(reservations.available(40L)));
+
+        clock.millis += Duration.ofDays(10).toMillis();
+        assertEquals(0, BigDecimal.ZERO.compareTo(availability.onHand(40L)));
+        assertTrue(availability.listings().stream().noneMatch(l -> l.itemId() == 40L));
+        assertEquals(1, raw.listReads);
+        assertEquals(0, raw.itemReads);
+    }
+
+    @Test
+    void listingsAggregateRowsPerItemWithoutReadingStock() {
+        availability.warmUp();
+        webRepo.save(web("ITEM-030", 30L, 4L, "8"));
+
+        List<WebAvailabilityIndex.Listing> listings = availability.listings().stream()
+                .sorted(java.util.Comparator.comparingLong(WebAvailabilityIndex.Listing::itemId)).toList();
+
+        assertEquals(List.of(10L, 20L, 30L), listings.stream().map(WebAvailabilityIndex.Listing::itemId).toList());
+        assertEquals("ITEM-010", listings.get(0).itemCode());
+        assertEquals(0, bd(10).compareTo(listings.get(0).onHand()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(listings.get(0).webPrice()));
+        assertEquals(1, raw.listReads);
+    }
+}
@@ -0,0 +1,110 @@
+package com.syos.application.services;
+
+import com.syos.adapter.out.persistence.memory.InMemoryWebInventoryRepository;
+import com.syos.domain.entities.WebInventory;
+import com.syos.domain.valueobjects.ItemCode;
+import com.syos.domain.valueobjects.Money;
+import com.syos.domain.valueobjects.Quantity;
+import com.syos.domain.valueobjects.UserID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebStockReservationServiceTest {
+
+    /** Clock the test moves by hand. */
+    static class MutableClock extends Clock {
+        long millis;
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis); }
+        @Override public long millis() { return millis; }
+    }
+
+    private static final long ITEM = 10L;
+
+    InMemoryWebInventoryRepository webRepo;
+    MutableClock clock;
+    WebStockReservationService reservations;
+
+    @BeforeEach
+    void setup() {
+        webRepo = new InMemoryWebInventoryRepository();
+        webRepo.save(web(1L, "6"));
+        webRepo.save(web(2L, "4"));
+        clock = new MutableClock();
+        reservations = new WebStockReservationService(webRepo, Duration.ofMinutes(15), Duration.ZERO, clock, null);
+    }
+
+    private WebInventory web(long batchId, String qty) {
+        return WebInventory.createNew(ItemCode.of("ITEM-010"), ITEM, batchId, Quantity.of(new BigDecimal(qty)),
+                LocalDateTime.now().plusDays(30), UserID.of(1L), Money.of("100.00"));
+    }
+
+    private static BigDecimal bd(long v) { return BigDecimal.valueOf(v); }
+
+    @Test
+    void secondCartCannotHoldWhatTheFirstHolds() {
+        assertTrue(reservations.reserve(1L, ITEM, bd(7)));
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(3)));
+
+        assertFalse(reservations.reserve(2L, ITEM, bd(4)));
+        assertTrue(reservations.reserve(2L, ITEM, bd(3)));
+        assertEquals(0, reservations.available(ITEM).signum());
+        assertEquals(0, reservations.availableTo(1L, ITEM).compareTo(bd(7)));
+    }
+
+    @Test
+    void reserveSetsTheTotalHeldNotAnIncrement() {
+        assertTrue(reservations.reserve(1L, ITEM, bd(5)));
+        assertTrue(reservations.reserve(1L, ITEM, bd(8)));
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(2)));
+
+        assertTrue(reservations.reserve(1L, ITEM, bd(3)));
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(7)));
+        assertFalse(reservations.reserve(1L, ITEM, bd(11)));
+        assertEquals(Map.of(ITEM, bd(3)), reservations.holdsFor(1L));
+
+        reservations.release(1L, ITEM);
+        assertTrue(reservations.holdsFor(1L).isEmpty());
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(10)));
+    }
+
+    @Test
+    void sweepReleasesExpiredHoldsAndTouchExtendsThem() {
+        reservations.reserve(1L, ITEM, bd(4));
+        reservations.reserve(2L, ITEM, bd(4));
+
+        clock.millis = Duration.ofMinutes(10).toMillis();
+        reservations.touch(2L);
+        clock.millis = Duration.ofMinutes(16).toMillis();
+
+        assertEquals(1, reservations.sweep());
+        assertTrue(reservations.holdsFor(1L).isEmpty());
+        assertEquals(Map.of(ITEM, bd(4)), reservations.holdsFor(2L));
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(6)));
+    }
+
+    @Test
+    void commitDropsTheHoldAndRereadsStock() {
+        reservations.reserve(1L, ITEM, bd(5));
+        WebInventory first = webRepo.findByItemId(ITEM).stream().filter(w -> w.getBatchId() == 1L).findFirst().orElseThrow();
+        webRepo.save(first.sellStock(Quantity.of(bd(5)), UserID.of(1L)));
+
+        reservations.commit(1L, ITEM);
+
+        assertTrue(reservations.holdsFor(1L).isEmpty());
+        assertEquals(0, reservations.available(ITEM).compareTo(bd(5)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.syos.application.strategies.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the heap allocator against the original step-by-step override algorithm on random pools.
+ */
+class FIFOWithExpiryStrategyEquivalenceTest {
+
+    private final FIFOWithExpiryStrategy strategy = new FIFOWithExpiryStrategy();
+
+    /** The pre-heap implementation: re-scan the pool for the oldest batch and any earlier-expiring override each step. */
+    private static List<BatchAllocation> reference(List<BatchInfo> batches, BigDecimal required) {
+        List<BatchInfo> pool = new ArrayList<>(batches);
+        pool.sort(Comparator.comparing(BatchInfo::getReceivedDate));
+        BigDecimal remaining = required;
+        List<BatchAllocation> out = new ArrayList<>();
+        while (remaining.signum() > 0) {
+            Optional<BatchInfo> oldestOpt = pool.stream().filter(b -> b.getAvailableQuantity().signum() > 0).findFirst();
+            if (oldestOpt.isEmpty()) break;
+            BatchInfo oldest = oldestOpt.get();
+            LocalDate limit = oldest.getExpiryDate() != null ? oldest.getExpiryDate() : LocalDate.MAX;
+            BatchInfo chosen = pool.stream()
+                    .filter(b -> b.getAvailableQuantity().signum() > 0)
+                    .filter(b -> b.getExpiryDate() != null && b.getExpiryDate().isBefore(limit))
+                    .min(Comparator.comparing(BatchInfo::getExpiryDate))
+                    .orElse(oldest);
+            BigDecimal take = remaining.compareTo(chosen.getAvailableQuantity()) <= 0 ? remaining : chosen.getAvailableQuantity();
+            out.add(BatchAllocation.of(chosen.getBatchId(), take));
+            remaining = remaining.subtract(take);
+            int idx = pool.indexOf(chosen);
+            pool.set(idx, BatchInfo.of(chosen.getBatchId(), chosen.getAvailableQuantity().subtract(take).max(BigDecimal.ZERO),
+                    chosen.getReceivedDate(), chosen.getExpiryDate()));
+        }
+        return out;
+    }
+
+    @Test
+    void matchesOriginalOverrideSemanticsOnRandomPools() {
+        Random rnd = new Random(42);
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        for (int round = 0; round < 2000; round++) {
+            int n = 1 + rnd.nextInt(30);
+            List<BatchInfo> pool = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                // Small date ranges force ties on received and expiry dates; some quantities are zero or fractional
+                BigDecimal qty = rnd.nextInt(5) == 0 ? BigDecimal.ZERO
+                        : BigDecimal.valueOf(rnd.nextInt(500) + 1, rnd.nextInt(3));
+                LocalDate expiry = rnd.nextInt(4) == 0 ? null : base.plusDays(rnd.nextInt(10));
+                pool.add(BatchInfo.of(100 + i, qty, base.minusDays(rnd.nextInt(8)), expiry));
+            }
+            BigDecimal required = BigDecimal.valueOf(rnd.nextInt(3000) + 1, rnd.nextInt(3));
+
+            List<BatchAllocation> expected = reference(pool, required);
+            List<BatchAllocation> actual = strategy.selectBatchesForDispatch(pool, required);
+
+            assertEquals(expected.size(), actual.size(), "round " + round);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getBatchId(), actual.get(i).getBatchId(), "round " + round);
+                assertEquals(expected.get(i).getAllocatedQuantity(), actual.get(i).getAllocatedQuantity(), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void quantitiesBeyondLongRangeStillAllocate() {
+        BigDecimal huge = new BigDecimal("1e30");
+        List<BatchInfo> pool = List.of(
+                BatchInfo.of(1L, huge, LocalDate.of(2026, 1, 1), null),
+                BatchInfo.of(2L, huge, LocalDate.of(2026, 1, 2), LocalDate.of(2026, 2, 1)));
+
+        List<BatchAllocation> result = strategy.selectBatchesForDispatch(pool, huge.add(BigDecimal.ONE));
+
+        assertEquals(2L, result.get(0).getBatchId());
+        assertEquals(0, BigDecimal.ONE.compareTo(result.get(1).getAllocatedQuantity()));
+    }
+
+    @Test
+    void handlesHundredsOfSmallBatches() {
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        List<BatchInfo> pool = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            pool.add(BatchInfo.of(i, new BigDecimal("2.5"), base.plusDays(i), base.plusDays(1000 - i)));
+        }
+        List<BatchAllocation> result = strategy.selectBatchesForDispatch(pool, new BigDecimal("1000"));
+
+        assertEquals(400, result.size());
+        assertEquals(499L, result.get(0).getBatchId()); // newest batch expires first
+    }
+}
@@ -95,6 +95,28 @@ class BrowseProductsUseCaseTest {
         verify(itemRepository).findByCategory(CategoryId.of(1L));
     }
 
+    @Test
+    @DisplayName("getProductsByCategory: lists the whole subtree in one query when a hierarchy is configured")
+    void getProductsByCategory_includesSubcategories() {
+        when(categoryRepository.findAllActive()).thenReturn(List.of(
+            Category.reconstruct(1L, null, "BEV", "Beverages", "", 1, true, null, null),
+            Category.reconstruct(10L, 1L, "SFT", "Soft Drinks", "", 1, true, null, null),
+            Category.reconstruct(100L, 10L, "COL", "Cola", "", 1, true, null, null)
+        ));
+        when(itemRepository.findByCategories(anyCollection()))
+            .thenReturn(List.of(testItem(1L, "ITM001", "Coke", 150)));
+        var withTree = new BrowseProductsUseCase(itemRepository, categoryRepository, brandRepository, null,
+            new com.syos.application.services.CategoryHierarchy(categoryRepository), null, null);
+
+        var res = withTree.getProductsByCategory(1L);
+        assertThat(res.isSuccess()).isTrue();
+        assertThat(withTree.getSubCategories(10L).getCategories())
+            .extracting(BrowseProductsUseCase.CategoryDisplayDto::getCategoryName).containsExactly("Cola");
+        verify(itemRepository).findByCategories(List.of(CategoryId.of(1L), CategoryId.of(10L), CategoryId.of(100L)));
+        verify(categoryRepository, never()).findById(anyLong());
+        verify(categoryRepository, never()).findByParentCategoryId(anyLong());
+    }
+
     @Test
     @DisplayName("getProductsByBrand: returns failure if brand missing")
     void getProductsByBrand_missingBrand() {
@@ -170,6 +192,62 @@ class BrowseProductsUseCaseTest {
         verify(itemRepository).searchByName("coke");
     }
 
+    @Test
+    @DisplayName("searchProducts: ranks through the search index when configured")
+    void searchProducts_usesIndex() {
+        when(itemRepository.findAllActive()).thenReturn(List.of(
+            testItem(1L, "ITM001", "Coke", 150),
+            testItem(2L, "ITM002", "Pepsi", 140)
+        ));
+        var indexed = new BrowseProductsUseCase(itemRepository, categoryRepository, brandRepository,
+            new com.syos.application.services.ProductSearchIndex(itemRepository, null, null), null, null, null);
+
+        var res = indexed.searchProducts("peps");
+        assertThat(res.isSuccess()).isTrue();
+        assertThat(res.getProducts()).extracting(BrowseProductsUseCase.ProductDisplayDto::getItemName).containsExactly("Pepsi");
+        verify(itemRepository, never()).searchByName(anyString());
+    }
+
+    @Test
+    @DisplayName("browseByFacets: filters in memory and returns facet counts; unavailable without an index")
+    void browseByFacets_filtersWithCounts() {
+        assertThat(useCase.browseByFacets(com.syos.application.services.ProductFacetIndex.Filter.NONE).isSuccess()).isFalse();
+
+        when(itemRepository.findAllActive()).thenReturn(List.of(
+            testItem(1L, "ITM001", "Coke", 150),
+            testItem(2L, "ITM002", "Pepsi", 90)
+        ));
+        var faceted = new BrowseProductsUseCase(itemRepository, categoryRepository, brandRepository, null, null,
+            new com.syos.application.services.ProductFacetIndex(itemRepository, null, null, null), null);
+
+        var res = faceted.browseByFacets(new com.syos.application.services.ProductFacetIndex.Filter(
+            null, null, null, null, java.util.Set.of(0)));
+        assertThat(res.isSuccess()).isTrue();
+        assertThat(res.getProducts()).extracting(BrowseProductsUseCase.ProductDisplayDto::getItemName).containsExactly("Pepsi");
+        assertThat(res.getTotal()).isEqualTo(1);
+        assertThat(res.getPriceBandCounts().get(1).count()).isEqualTo(1);
+        verify(itemRepository, times(1)).findAllActive();
+    }
+
+    @Test
+    @DisplayName("getAllProducts: carries live web availability when stock tracking is configured")
+    void getAllProducts_includesWebAvailability() {
+        when(itemRepository.findAllActive()).thenReturn(List.of(
+            testItem(1L, "ITM001", "Coke", 150),
+            testItem(2L, "ITM002", "Pepsi", 140)
+        ));
+        var webStock = mock(com.syos.application.services.WebStockReservationService.class);
+        when(webStock.available(1L)).thenReturn(new BigDecimal("12"));
+        when(webStock.available(2L)).thenReturn(BigDecimal.ZERO);
+        var withStock = new BrowseProductsUseCase(itemRepository, categoryRepository, brandRepository,
+            null, null, null, webStock);
+
+        var res = withStock.getAllProducts();
+        assertThat(res.getProducts()).extracting(BrowseProductsUseCase.ProductDisplayDto::getWebAvailable)
+            .containsExactly(new BigDecimal("12"), BigDecimal.ZERO);
+        assertThat(useCase.getAllProducts().getProducts().get(0).getWebAvailable()).isNull();
+    }
+
     @Test
     @DisplayName("getCategories: returns root categories mapped to DTOs")
     void getCategories_success() {
@@ -0,0 +1,51 @@
+package com.syos.infrastructure.config;
+
+import com.syos.config.ConfigurationManager;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolMetricsTest {
+
+    @Test
+    void recordsWaitTimeTimeoutsAndLiveGauges() {
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        IMetricsTracker tracker = metrics.create("test", new PoolStats(0) {
+            @Override
+            protected void update() {
+                activeConnections = 7;
+                idleConnections = 3;
+                totalConnections = 10;
+                pendingThreads = 2;
+            }
+        });
+
+        tracker.recordConnectionAcquiredNanos(2_000_000);
+        tracker.recordConnectionAcquiredNanos(6_000_000);
+        tracker.recordConnectionTimeout();
+
+        ConnectionPoolMetrics.Snapshot s = metrics.snapshot();
+        assertEquals(2, s.acquisitions());
+        assertEquals(4.0, s.avgWaitMillis(), 1e-9);
+        assertEquals(6.0, s.maxWaitMillis(), 1e-9);
+        assertEquals(1, s.timeouts());
+        assertEquals(7, s.active());
+        assertEquals(2, s.pending());
+    }
+
+    @Test
+    void hikariConfigCarriesPoolAndStatementCacheSettings() {
+        ConfigurationManager.PoolConfig pool = new ConfigurationManager().getPoolConfig();
+        HikariConfig hc = DatabaseConfig.createHikariConfig(pool);
+
+        assertEquals(20, hc.getMaximumPoolSize());
+        assertEquals(60000, hc.getLeakDetectionThreshold());
+        assertFalse(hc.isAutoCommit());
+        assertEquals(3, hc.getDataSourceProperties().get("prepareThreshold"));
+        assertEquals(256, hc.getDataSourceProperties().get("preparedStatementCacheQueries"));
+        assertNotNull(hc.getMetricsTrackerFactory());
+    }
+}
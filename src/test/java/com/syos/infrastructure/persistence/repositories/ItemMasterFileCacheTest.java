@@ -0,0 +1,106 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.domain.entities.ItemMasterFile;
+import com.syos.domain.valueobjects.*;
+import com.syos.shared.enums.UnitOfMeasure;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemMasterFileCacheTest {
+
+    static class MutableClock extends Clock {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        @Override public java.time.ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    private static ItemMasterFile item(long id, String code) {
+        return new ItemMasterFile.Builder()
+                .id(id)
+                .itemCode(ItemCode.of(code))
+                .itemName("Item " + code)
+                .description("")
+                .brandId(BrandId.of(1L))
+                .categoryId(CategoryId.of(1L))
+                .supplierId(SupplierId.of(1L))
+                .unitOfMeasure(UnitOfMeasure.EACH)
+                .packSize(PackSize.of(1))
+                .costPrice(new Money(BigDecimal.valueOf(10)))
+                .sellingPrice(new Money(BigDecimal.valueOf(12)))
+                .reorderPoint(ReorderPoint.of(50))
+                .build();
+    }
+
+    @Test
+    void servesByIdAndByCodeAndHandsOutCopies() {
+        ItemMasterFileCache cache = new ItemMasterFileCache();
+        cache.put(item(1L, "ITM1"));
+
+        ItemMasterFile byCode = cache.getByCode("ITM1").orElseThrow();
+        byCode.deactivate();
+
+        assertEquals(1L, cache.getById(1L).orElseThrow().getId());
+        assertTrue(cache.getByCode("ITM1").orElseThrow().isActive());
+        assertTrue(cache.getByCode("NOPE").isEmpty());
+        assertEquals(3, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void invalidateDropsBothKeys() {
+        ItemMasterFileCache cache = new ItemMasterFileCache();
+        cache.put(item(1L, "ITM1"));
+        cache.invalidate(1L);
+
+        assertTrue(cache.getById(1L).isEmpty());
+        assertTrue(cache.getByCode("ITM1").isEmpty());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondCapacity() {
+        ItemMasterFileCache cache = new ItemMasterFileCache(2, Long.MAX_VALUE / 2, Clock.systemUTC());
+        cache.put(item(1L, "ITM1"));
+        cache.put(item(2L, "ITM2"));
+        cache.getById(1L); // ITM2 is now eldest
+        cache.put(item(3L, "ITM3"));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getByCode("ITM2").isEmpty());
+        assertTrue(cache.getByCode("ITM1").isPresent());
+        assertTrue(cache.getByCode("ITM3").isPresent());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        MutableClock clock = new MutableClock();
+        ItemMasterFileCache cache = new ItemMasterFileCache(10, Duration.ofMinutes(10).toMillis(), clock);
+        cache.put(item(1L, "ITM1"));
+
+        clock.now = clock.now.plus(Duration.ofMinutes(9));
+        assertTrue(cache.getByCode("ITM1").isPresent());
+        clock.now = clock.now.plus(Duration.ofMinutes(2));
+        assertTrue(cache.getByCode("ITM1").isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() {
+        ItemMasterFileCache cache = new ItemMasterFileCache();
+        long before = cache.generation();
+        cache.invalidate(1L); // a save commits while the read is in flight
+
+        cache.put(item(1L, "ITM1"), before);
+        assertTrue(cache.getById(1L).isEmpty());
+
+        cache.put(item(1L, "ITM1"), cache.generation());
+        assertTrue(cache.getById(1L).isPresent());
+    }
+}
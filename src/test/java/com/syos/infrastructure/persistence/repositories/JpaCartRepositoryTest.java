@@ -0,0 +1,164 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JpaCartRepositoryTest {
+
+    /** Write-behind logic against a map standing in for the carts / cart_items tables. */
+    static class FakeDbCartRepository extends JpaCartRepository {
+        final Map<Long, Long> activeCartByUser = new HashMap<>();
+        final Map<Long, Map<Long, BigDecimal>> linesByCart = new HashMap<>();
+        final List<Long> deactivated = new ArrayList<>();
+        int loads;
+        int flushes;
+        int rowsWritten;
+        long nextCartId = 100;
+        boolean failNextWrite;
+
+        FakeDbCartRepository(int maxCarts, long ttlMillis, Clock clock) {
+            super(null, maxCarts, 0, ttlMillis, clock);
+        }
+
+        @Override
+        CartState loadCart(long userId) {
+            loads++;
+            Long cartId = activeCartByUser.get(userId);
+            CartState s = new CartState(userId, cartId, 0);
+            if (cartId != null) s.lines.putAll(linesByCart.get(cartId));
+            return s;
+        }
+
+        @Override
+        List<Long> writeAll(List<Long> retire, List<CartWrite> writes) {
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new IllegalStateException("connection lost");
+            }
+            flushes++;
+            for (Long id : retire) {
+                deactivated.add(id);
+                activeCartByUser.values().remove(id);
+            }
+            List<Long> created = new ArrayList<>();
+            for (CartWrite w : writes) {
+                Long cartId = w.cartId();
+                if (cartId == null) {
+                    cartId = nextCartId++;
+                    activeCartByUser.put(w.userId(), cartId);
+                    linesByCart.put(cartId, new LinkedHashMap<>());
+                    created.add(cartId);
+                } else {
+                    created.add(null);
+                }
+                Map<Long, BigDecimal> lines = linesByCart.get(cartId);
+                for (Map.Entry<Long, BigDecimal> e : w.changes().entrySet()) {
+                    rowsWritten++;
+                    if (e.getValue() == null) lines.remove(e.getKey()); else lines.put(e.getKey(), e.getValue());
+                }
+            }
+            return created;
+        }
+    }
+
+    FakeDbCartRepository repo;
+
+    @BeforeEach
+    void setup() {
+        repo = new FakeDbCartRepository(2, 60_000, Clock.fixed(Instant.EPOCH, ZoneOffset.UTC));
+    }
+
+    @Test
+    void rapidEditsCoalesceIntoOneWritePerLine() {
+        repo.setQuantity(1L, 10L, BigDecimal.ONE);
+        repo.setQuantity(1L, 10L, BigDecimal.valueOf(2));
+        repo.setQuantity(1L, 10L, BigDecimal.valueOf(3));
+        repo.setQuantity(1L, 11L, BigDecimal.ONE);
+        repo.removeItem(1L, 11L);
+
+        assertTrue(repo.activeCartByUser.isEmpty(), "nothing written before the flush");
+        repo.flush();
+
+        assertEquals(1, repo.flushes);
+        assertEquals(2, repo.rowsWritten); // upsert item 10, delete item 11
+        Long cartId = repo.activeCartByUser.get(1L);
+        assertEquals(Map.of(10L, BigDecimal.valueOf(3)), repo.linesByCart.get(cartId));
+        assertEquals(Map.of(10L, BigDecimal.valueOf(3)), repo.findActiveCart(1L));
+        assertEquals(1, repo.loads);
+
+        repo.flush();
+        assertEquals(1, repo.flushes, "clean flush does not touch the database");
+    }
+
+    @Test
+    void evictedCartKeepsUnwrittenEdits() {
+        repo.setQuantity(1L, 10L, BigDecimal.ONE);
+        repo.setQuantity(2L, 10L, BigDecimal.ONE);
+        repo.setQuantity(3L, 10L, BigDecimal.ONE);
+
+        assertEquals(2, repo.cachedCarts());
+        assertEquals(3, repo.pendingCarts());
+        assertEquals(Map.of(10L, BigDecimal.ONE), repo.findActiveCart(1L));
+
+        repo.flush();
+        assertEquals(3, repo.activeCartByUser.size());
+        assertEquals(2, repo.cachedCarts());
+        assertEquals(0, repo.pendingCarts());
+    }
+
+    @Test
+    void clearDeactivatesCartAndNextEditStartsAnother() {
+        repo.setQuantity(1L, 10L, BigDecimal.ONE);
+        repo.flush();
+        Long first = repo.activeCartByUser.get(1L);
+
+        repo.clear(1L);
+        assertTrue(repo.findActiveCart(1L).isEmpty());
+        repo.setQuantity(1L, 12L, BigDecimal.valueOf(4));
+        repo.flush();
+
+        assertEquals(List.of(first), repo.deactivated);
+        Long second = repo.activeCartByUser.get(1L);
+        assertNotEquals(first, second);
+        assertEquals(Map.of(12L, BigDecimal.valueOf(4)), repo.linesByCart.get(second));
+    }
+
+    @Test
+    void failedFlushIsRetriedWithLatestQuantities() {
+        repo.setQuantity(1L, 10L, BigDecimal.ONE);
+        repo.failNextWrite = true;
+
+        assertThrows(IllegalStateException.class, repo::flush);
+        assertEquals(1, repo.pendingCarts());
+
+        repo.setQuantity(1L, 10L, BigDecimal.valueOf(5));
+        repo.flush();
+        assertEquals(Map.of(10L, BigDecimal.valueOf(5)), repo.linesByCart.get(repo.activeCartByUser.get(1L)));
+    }
+
+    @Test
+    void existingCartIsLoadedOnce() {
+        repo.activeCartByUser.put(7L, 50L);
+        repo.linesByCart.put(50L, new LinkedHashMap<>(Map.of(10L, BigDecimal.TEN)));
+
+        assertEquals(Map.of(10L, BigDecimal.TEN), repo.findActiveCart(7L));
+        repo.setQuantity(7L, 11L, BigDecimal.ONE);
+        repo.findActiveCart(7L);
+        repo.flush();
+
+        assertEquals(1, repo.loads);
+        assertEquals(Map.of(10L, BigDecimal.TEN, 11L, BigDecimal.ONE), repo.linesByCart.get(50L));
+    }
+}
@@ -0,0 +1,37 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JpaPOSRepositoryTest {
+
+    private static JpaPOSRepository.PosLine line(long itemId, long batchId, double qty, String price) {
+        return new JpaPOSRepository.PosLine(itemId, batchId, qty, new BigDecimal(price), null, "S1");
+    }
+
+    @Test
+    void rollupMergesBatchesOfOneItemAndOrdersByItemId() {
+        List<JpaPOSRepository.ItemSales> rows = new ArrayList<>(JpaPOSRepository.salesByItem(List.of(
+                line(20, 1, 2, "10.00"),
+                line(5, 2, 1, "3.50"),
+                line(20, 3, 3, "10.00"))));
+
+        assertEquals(2, rows.size());
+        assertEquals(5L, rows.get(0).itemId());
+        assertEquals(1L, rows.get(0).quantity());
+        assertEquals(0, new BigDecimal("3.50").compareTo(rows.get(0).revenue()));
+        assertEquals(20L, rows.get(1).itemId());
+        assertEquals(5L, rows.get(1).quantity());
+        assertEquals(0, new BigDecimal("50.00").compareTo(rows.get(1).revenue()));
+    }
+
+    @Test
+    void rollupOfEmptyBasketIsEmpty() {
+        assertTrue(JpaPOSRepository.salesByItem(List.of()).isEmpty());
+    }
+}
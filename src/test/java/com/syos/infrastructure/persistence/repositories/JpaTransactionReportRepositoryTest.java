@@ -0,0 +1,129 @@
+package com.syos.infrastructure.persistence.repositories;
+
+import com.syos.infrastructure.persistence.entities.TransactionEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JpaTransactionReportRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    EntityManagerFactory emf;
+    EntityManager em;
+    TypedQuery<Object[]> query;
+    JpaTransactionReportRepository repo;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        emf = mock(EntityManagerFactory.class);
+        em = mock(EntityManager.class);
+        query = mock(TypedQuery.class, RETURNS_SELF);
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.createQuery(anyString())).thenReturn(query);
+        when(em.createNativeQuery(anyString())).thenReturn(query);
+        repo = new JpaTransactionReportRepository(emf);
+    }
+
+    @Test
+    void dailySummaryReadsTheDayAsAHalfOpenWindow() {
+        when(query.getSingleResult()).thenReturn(new Object[]{3L, BigDecimal.TEN, BigDecimal.ZERO});
+
+        Object[] row = repo.findDailySummary(DAY);
+
+        assertEquals(3L, row[0]);
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(em).createQuery(jpql.capture());
+        assertTrue(jpql.getValue().contains("t.transactionDate < :end"), jpql.getValue());
+        assertFalse(jpql.getValue().contains("<= :end"), jpql.getValue());
+        // Midnight of the next day, so sales in the last second of the day (with fractions) are counted
+        verify(query).setParameter("start", DAY.atStartOfDay());
+        verify(query).setParameter("end", DAY.plusDays(1).atStartOfDay());
+        verify(em).close();
+    }
+
+    @Test
+    void dailyItemAggregatesUseTheSameWindowForAllChannels() {
+        repo.findDailyItemAggregates(DAY);
+
+        verify(query).setParameter("start", DAY.atStartOfDay());
+        verify(query).setParameter("end", DAY.plusDays(1).atStartOfDay());
+        verify(query, never()).setParameter(eq("channel"), any());
+        verify(query, never()).setMaxResults(anyInt());
+    }
+
+    @Test
+    void itemAggregatesFilterByChannelAndTopItemsApplyTheLimit() {
+        LocalDateTime start = DAY.atTime(9, 0);
+        LocalDateTime end = DAY.atTime(17, 0);
+
+        repo.findItemAggregates(start, end, " web ");
+        verify(query).setParameter("channel", TransactionEntity.TransactionType.WEB);
+
+        repo.findTopItems(start, end, 5);
+        verify(query).setMaxResults(5);
+
+        clearInvocations(emf);
+        assertTrue(repo.findTopItems(start, end, 0).isEmpty());
+        verifyNoInteractions(emf);
+    }
+
+    @Test
+    void hourlyHistogramBindsTheWindowAndNormalisesNumbers() {
+        LocalDateTime start = DAY.atStartOfDay();
+        LocalDateTime end = DAY.plusDays(7).atStartOfDay();
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{new BigDecimal("9"), BigInteger.valueOf(4), new BigDecimal("120.00")});
+        when(query.getResultList()).thenReturn(rows);
+
+        List<Object[]> histogram = repo.findHourlyHistogram(start, end);
+
+        verify(query).setParameter(1, start);
+        verify(query).setParameter(2, end);
+        assertEquals(9, histogram.get(0)[0]);
+        assertEquals(4L, histogram.get(0)[1]);
+    }
+
+    @Test
+    void rollupReadsBindInclusiveDatesAndChannel() {
+        LocalDate last = DAY.plusDays(6);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"ITM1", "Tea", BigDecimal.valueOf(12), new BigDecimal("240.00")});
+        when(query.getResultList()).thenReturn(rows);
+
+        List<Object[]> items = repo.findItemSalesBetween(DAY, last, "POS");
+
+        verify(query).setParameter(1, DAY);
+        verify(query).setParameter(2, last);
+        verify(query).setParameter(3, "POS");
+        assertEquals(12L, items.get(0)[2]);
+    }
+
+    @Test
+    void channelSalesBetweenNormalisesUnits() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"WEB", BigDecimal.valueOf(7), new BigDecimal("70.00")});
+        when(query.getResultList()).thenReturn(rows);
+
+        List<Object[]> channels = repo.findChannelSalesBetween(DAY, DAY);
+
+        verify(query).setParameter(1, DAY);
+        verify(query).setParameter(2, DAY);
+        assertEquals(7L, channels.get(0)[1]);
+    }
+}